@@ -0,0 +1,126 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Writes the gzipped sibling (same name with the <code>.gz</code> extension) of a processed file, thus a web server can
+ * serve the precompressed content without compressing it for each request. The content is compressed once, using the
+ * highest compression level. The sibling is not written again while its content is the compressed content of the file,
+ * no matter the modification times (ex: the build rewrote the file with the same content).
+ * <p/>
+ * When exhaustive, the {@link Deflater#FILTERED} strategy is tried too and the smallest result is kept. This is slower,
+ * but the cost is paid only at build time.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class GzipFileWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(GzipFileWriter.class);
+  public static final String EXTENSION = ".gz";
+  private final boolean exhaustive;
+
+
+  /**
+   * @param exhaustive
+   *          true if the {@link Deflater#FILTERED} strategy should be tried too.
+   */
+  public GzipFileWriter(final boolean exhaustive) {
+    this.exhaustive = exhaustive;
+  }
+
+
+  /**
+   * @return the gzipped sibling of the file, which may not exist.
+   */
+  public static File getGzipFile(final File file) {
+    return new File(file.getPath() + EXTENSION);
+  }
+
+
+  /**
+   * Writes the gzipped sibling of the file, unless it is up to date. When the file doesn't exist (ex: the group has no
+   * content), an existing sibling is removed.
+   *
+   * @return the gzipped sibling or null if the file doesn't exist.
+   */
+  public File write(final File file)
+    throws IOException {
+    final File gzipFile = getGzipFile(file);
+    if (!file.isFile()) {
+      FileUtils.deleteQuietly(gzipFile);
+      return null;
+    }
+    final byte[] content = FileUtils.readFileToByteArray(file);
+    if (gzipFile.isFile() && isGzipOf(gzipFile, content)) {
+      LOG.debug("Unchanged {}", gzipFile);
+      return gzipFile;
+    }
+    byte[] gzipped = gzip(content, Deflater.DEFAULT_STRATEGY);
+    if (exhaustive) {
+      final byte[] candidate = gzip(content, Deflater.FILTERED);
+      if (candidate.length < gzipped.length) {
+        gzipped = candidate;
+      }
+    }
+    FileUtils.writeByteArrayToFile(gzipFile, gzipped);
+    LOG.debug("Written {} ({} -> {}bytes)", new Object[] {
+      gzipFile, content.length, gzipped.length
+    });
+    return gzipFile;
+  }
+
+
+  /**
+   * @return true if the gzipFile holds the compressed content. Decompressing is much cheaper than compressing with the
+   *         highest compression level.
+   */
+  private boolean isGzipOf(final File gzipFile, final byte[] content) {
+    try {
+      final InputStream input = new GZIPInputStream(new FileInputStream(gzipFile));
+      try {
+        return Arrays.equals(content, IOUtils.toByteArray(input));
+      } finally {
+        IOUtils.closeQuietly(input);
+      }
+    } catch (final IOException e) {
+      LOG.debug("Cannot read {}: {}", gzipFile, e.getMessage());
+      return false;
+    }
+  }
+
+
+  private byte[] gzip(final byte[] content, final int strategy)
+    throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final OutputStream os = new GZIPOutputStream(baos) {
+      {
+        def.setLevel(Deflater.BEST_COMPRESSION);
+        def.setStrategy(strategy);
+      }
+    };
+    try {
+      os.write(content);
+    } finally {
+      os.close();
+    }
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.build;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+
+/**
+ * Helps writing the JSON documents describing a build (see {@link OutputManifest} and
+ * {@link ro.isdc.wro.manager.BuildReport}).
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class JsonUtils {
+  private JsonUtils() {
+  }
+
+
+  /**
+   * @return the value as a JSON string.
+   */
+  public static String quote(final String value) {
+    // the escaped java string is also a valid json string
+    return "\"" + StringEscapeUtils.escapeJava(value) + "\"";
+  }
+
+
+  /**
+   * @return the duration as a JSON number of milliseconds, with microseconds precision.
+   */
+  public static String toMillis(final long nanos) {
+    return String.format(Locale.US, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+
+  /**
+   * @return a JSON object having the durations (in milliseconds) as values.
+   */
+  public static String toJson(final Map<String, Long> durations) {
+    final StringBuilder sb = new StringBuilder("{");
+    String separator = "";
+    for (final Map.Entry<String, Long> entry : durations.entrySet()) {
+      sb.append(separator).append(quote(entry.getKey())).append(": ").append(toMillis(entry.getValue()));
+      separator = ", ";
+    }
+    return sb.append("}").toString();
+  }
+}
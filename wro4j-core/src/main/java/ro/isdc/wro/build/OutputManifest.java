@@ -0,0 +1,114 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.build;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * Describes the files produced by a build: for each group (the name of the group with the extension of the resource
+ * type), the name, the size and the SHA-1 hash of the written file and, if available, the name and the size of its
+ * gzipped sibling (see {@link GzipFileWriter}). The manifest is written as a JSON object, sorted by group:
+ *
+ * <pre>
+ * {
+ *   "all.js": {"file": "all.js", "size": 1024, "sha1": "...", "gzipFile": "all.js.gz", "gzipSize": 300}
+ * }
+ * </pre>
+ *
+ * Can be used concurrently by the tasks processing the groups.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class OutputManifest {
+  private final Map<String, String> entries = new TreeMap<String, String>();
+
+
+  /**
+   * Adds (or replaces) the entry of a group.
+   *
+   * @param group
+   *          the name of the group with the extension of the resource type.
+   * @param file
+   *          the written file.
+   * @param gzipFile
+   *          the gzipped sibling of the file or null if it was not written.
+   */
+  public void add(final String group, final File file, final File gzipFile)
+    throws IOException {
+    Validate.notNull(group);
+    Validate.notNull(file);
+    final StringBuilder sb = new StringBuilder("{");
+    sb.append("\"file\": ").append(JsonUtils.quote(file.getName()));
+    sb.append(", \"size\": ").append(file.length());
+    sb.append(", \"sha1\": ").append(JsonUtils.quote(hash(file)));
+    if (gzipFile != null) {
+      sb.append(", \"gzipFile\": ").append(JsonUtils.quote(gzipFile.getName()));
+      sb.append(", \"gzipSize\": ").append(gzipFile.length());
+    }
+    sb.append("}");
+    synchronized (entries) {
+      entries.put(group, sb.toString());
+    }
+  }
+
+
+  /**
+   * Removes the entry of a group (ex: the group has no content anymore).
+   */
+  public void remove(final String group) {
+    synchronized (entries) {
+      entries.remove(group);
+    }
+  }
+
+
+  private String hash(final File file)
+    throws IOException {
+    final InputStream input = new FileInputStream(file);
+    try {
+      return new SHA1HashBuilder().getHash(input);
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+
+  /**
+   * @return the JSON representation of the manifest.
+   */
+  public String toJson() {
+    final StringBuilder sb = new StringBuilder("{");
+    synchronized (entries) {
+      String separator = "\n";
+      for (final Map.Entry<String, String> entry : entries.entrySet()) {
+        sb.append(separator).append("  ").append(JsonUtils.quote(entry.getKey())).append(": ").append(entry.getValue());
+        separator = ",\n";
+      }
+    }
+    return sb.append("\n}\n").toString();
+  }
+
+
+  /**
+   * Writes the manifest to the file, creating the parent folders if needed.
+   */
+  public void write(final File file)
+    throws IOException {
+    Validate.notNull(file);
+    FileUtils.writeStringToFile(file, toJson(), "UTF-8");
+  }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.WroManager;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.util.InputFingerprinter;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * The content of the groups processed by the build tools, in a format which can be loaded by the runtime (see
+ * {@link ro.isdc.wro.cache.impl.PrebuiltCacheStrategy}). Each entry is identified by a key computed from the
+ * {@link CacheEntry} (group, resource type and minimize flag) and from the fingerprint of everything the content
+ * depends on: the uri and the content of the resources (see {@link InputFingerprinter}), the applied processors and
+ * their configuration, the encoding and the depth of the folder of the css groups. The content is valid only while the
+ * key computed at runtime is the same. The entries processed by a processor which cannot describe its configuration
+ * (see {@link ProcessorsUtils#getFingerprint(Object)}) are never prebuilt.
+ * <p/>
+ * Like the disk storage of the processors output cache, each entry is stored in a file named after its key with the
+ * {@link #FILE_EXTENSION}. The {@link #INDEX_FILE} maps the name of each entry to its key:
+ *
+ * <pre>
+ * formatVersion=1
+ * all.css=2c26b46b68ffc68ff99b453c1d30413413422d70
+ * all.js.minimized=fcde2b2edba56bf408601fb721fe9b5c338d10ee
+ * </pre>
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class PrebuiltCache {
+  private static final Logger LOG = LoggerFactory.getLogger(PrebuiltCache.class);
+  /**
+   * The name of the file describing the entries.
+   */
+  public static final String INDEX_FILE = "index.properties";
+  /**
+   * The extension of the files storing the content.
+   */
+  public static final String FILE_EXTENSION = ".cache";
+  /**
+   * The encoding of the files storing the content.
+   */
+  static final String ENCODING = "UTF-8";
+  /**
+   * Must be changed when the format of the files or the way the keys are computed changes.
+   */
+  static final String FORMAT_VERSION = "1";
+  static final String VERSION_KEY = "formatVersion";
+  private static final String MINIMIZED_SUFFIX = ".minimized";
+  /**
+   * Maps the name of each entry to its key.
+   */
+  private final Properties index = new Properties();
+  /**
+   * Maps the key of each entry to its content.
+   */
+  private final Map<String, String> contents = new HashMap<String, String>();
+
+
+  /**
+   * Loads all the entries found at the location.
+   *
+   * @param uriLocatorFactory
+   *          used to locate the files of the cache.
+   * @param location
+   *          the uri of the folder holding the files (ex: /WEB-INF/wro4j-cache/ or classpath:wro4j-cache/).
+   */
+  public PrebuiltCache(final UriLocatorFactory uriLocatorFactory, final String location) {
+    Validate.notNull(uriLocatorFactory);
+    Validate.notNull(location);
+    final String folder = location.endsWith("/") ? location : location + "/";
+    try {
+      index.putAll(read(uriLocatorFactory, folder + INDEX_FILE));
+    } catch (final IOException e) {
+      LOG.warn("No prebuilt content found at {}. All the groups will be processed.", location);
+      return;
+    }
+    if (!FORMAT_VERSION.equals(index.remove(VERSION_KEY))) {
+      LOG.warn("Ignoring the prebuilt content with a different format: {}", location);
+      index.clear();
+      return;
+    }
+    for (final String key : index.stringPropertyNames()) {
+      final String value = index.getProperty(key);
+      try {
+        final InputStream input = uriLocatorFactory.locate(folder + value + FILE_EXTENSION);
+        try {
+          contents.put(value, IOUtils.toString(input, ENCODING));
+        } finally {
+          IOUtils.closeQuietly(input);
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot load the prebuilt content of " + key, e);
+      }
+    }
+    LOG.info("Loaded {} prebuilt groups from {}", contents.size(), location);
+  }
+
+
+  private Properties read(final UriLocatorFactory uriLocatorFactory, final String uri)
+    throws IOException {
+    final InputStream input = uriLocatorFactory.locate(uri);
+    try {
+      final Properties properties = new Properties();
+      properties.load(input);
+      return properties;
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+
+  /**
+   * @return the content of the entry or null if the content built for the entry has a different fingerprint.
+   */
+  public String get(final CacheEntry entry, final String fingerprint) {
+    final String key = index.getProperty(getEntryName(entry));
+    if (key == null || fingerprint == null) {
+      return null;
+    }
+    if (!key.equals(createKey(entry, fingerprint))) {
+      LOG.debug("The prebuilt content of {} is outdated", entry);
+      return null;
+    }
+    return contents.get(key);
+  }
+
+
+  /**
+   * @return the number of loaded entries.
+   */
+  public int size() {
+    return contents.size();
+  }
+
+
+  /**
+   * @return the name of the entry in the index: the name of the group with the extension of the resource type,
+   *         followed by {@link #MINIMIZED_SUFFIX} when minimized.
+   */
+  static String getEntryName(final CacheEntry entry) {
+    final String name = entry.getGroupName() + "." + entry.getType().name().toLowerCase();
+    return entry.isMinimize() ? name + MINIMIZED_SUFFIX : name;
+  }
+
+
+  /**
+   * @return the key identifying the content of the entry having the provided fingerprint.
+   */
+  static String createKey(final CacheEntry entry, final String fingerprint) {
+    final String value = FORMAT_VERSION + "\n" + getEntryName(entry) + "\n" + fingerprint;
+    try {
+      return new SHA1HashBuilder().getHash(new ByteArrayInputStream(value.getBytes(ENCODING)));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot compute the cache key", e);
+    }
+  }
+
+
+  /**
+   * Computes the fingerprint of the content of an entry, as it would be processed in the current {@link Context}. The
+   * same fingerprint is computed by the build tools and by the runtime, as long as they use the same resources and
+   * processors.
+   *
+   * @param model
+   *          holding the group of the entry.
+   * @param uriLocatorFactory
+   *          used to locate the resources.
+   * @param processorsFactory
+   *          providing the processors applied on the group.
+   * @return the fingerprint of the content of the entry or null if one of the applied processors cannot describe its
+   *         configuration, in which case the content of the entry cannot be prebuilt.
+   */
+  public static String fingerprint(final WroModel model, final UriLocatorFactory uriLocatorFactory,
+    final ProcessorsFactory processorsFactory, final CacheEntry entry)
+    throws IOException {
+    return fingerprint(model, new InputFingerprinter(uriLocatorFactory, Context.get().getConfig().getEncoding()),
+      processorsFactory, entry);
+  }
+
+
+  /**
+   * Same as {@link #fingerprint(WroModel, UriLocatorFactory, ProcessorsFactory, CacheEntry)}, reusing the resources
+   * already located by the fingerprinter (ex: the build tools compute the fingerprint of all the groups with the same
+   * fingerprinter).
+   *
+   * @param inputFingerprinter
+   *          computes the fingerprint of the resources.
+   */
+  public static String fingerprint(final WroModel model, final InputFingerprinter inputFingerprinter,
+    final ProcessorsFactory processorsFactory, final CacheEntry entry)
+    throws IOException {
+    Validate.notNull(model);
+    Validate.notNull(inputFingerprinter);
+    Validate.notNull(processorsFactory);
+    Validate.notNull(entry);
+    final Collection<Resource> resources = model.getGroupByName(entry.getGroupName()).collectResourcesOfType(
+      entry.getType()).getResources();
+    final String settings = computeSettings(processorsFactory, entry);
+    return settings == null ? null : inputFingerprinter.fingerprint(settings, resources);
+  }
+
+
+  /**
+   * @return describes everything else the content depends on or null if a processor cannot describe its configuration.
+   */
+  private static String computeSettings(final ProcessorsFactory processorsFactory, final CacheEntry entry) {
+    final ResourceType type = entry.getType();
+    final StringBuilder sb = new StringBuilder();
+    sb.append("version=").append(WroManager.class.getPackage().getImplementationVersion());
+    sb.append("\nencoding=").append(Context.get().getConfig().getEncoding());
+    if (type == ResourceType.CSS) {
+      // the rewritten urls depend only on the depth of the folder of the group
+      sb.append("\ncssDepth=").append(StringUtils.split(StringUtils.defaultString(
+        Context.get().getAggregatedFolderPath()), "/").length);
+    }
+    for (final ResourcePreProcessor processor : ProcessorsUtils.filterProcessorsToApply(entry.isMinimize(), type,
+      processorsFactory.getPreProcessors())) {
+      if (!appendFingerprint(sb.append("\npreProcessor="), processor)) {
+        return null;
+      }
+    }
+    for (final ResourcePostProcessor processor : ProcessorsUtils.filterProcessorsToApply(entry.isMinimize(), type,
+      processorsFactory.getPostProcessors())) {
+      if (!appendFingerprint(sb.append("\npostProcessor="), processor)) {
+        return null;
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * @return false if the processor cannot describe its configuration.
+   */
+  private static boolean appendFingerprint(final StringBuilder sb, final Object processor) {
+    final String fingerprint = ProcessorsUtils.getFingerprint(processor);
+    if (fingerprint == null) {
+      LOG.debug("The {} processor cannot describe its configuration", processor.getClass().getName());
+      return false;
+    }
+    sb.append(fingerprint);
+    return true;
+  }
+}
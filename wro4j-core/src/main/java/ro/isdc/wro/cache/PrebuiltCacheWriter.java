@@ -0,0 +1,134 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.util.SortedProperties;
+
+
+/**
+ * Stores the content of the groups processed by the build tools in the format of the {@link PrebuiltCache}. The entries
+ * found in the folder are kept, unless replaced, thus a build processing only some of the groups doesn't remove the
+ * others. The content files which are not referenced by the index anymore are removed by {@link #write()}.
+ * <p/>
+ * Can be used concurrently by the tasks processing the groups.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class PrebuiltCacheWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(PrebuiltCacheWriter.class);
+  private final File directory;
+  private final Properties index = new Properties();
+
+
+  /**
+   * @param directory
+   *          the folder where the cache is stored. The entries of a previous build found in this folder are kept.
+   */
+  public PrebuiltCacheWriter(final File directory) {
+    Validate.notNull(directory);
+    this.directory = directory;
+    load();
+  }
+
+
+  private void load() {
+    final File file = new File(directory, PrebuiltCache.INDEX_FILE);
+    if (file.isFile()) {
+      try {
+        final InputStream input = new FileInputStream(file);
+        try {
+          index.load(input);
+        } finally {
+          IOUtils.closeQuietly(input);
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot read the prebuilt cache index " + file + ". It will be created again.", e);
+        index.clear();
+      }
+      if (!PrebuiltCache.FORMAT_VERSION.equals(index.remove(PrebuiltCache.VERSION_KEY))) {
+        index.clear();
+      }
+    }
+  }
+
+
+  /**
+   * Adds (or replaces) the content of an entry. The content file is written only if the same content wasn't already
+   * stored by a previous build.
+   *
+   * @param fingerprint
+   *          computed with {@link PrebuiltCache#fingerprint}.
+   * @param content
+   *          the processed content of the entry.
+   */
+  public void add(final CacheEntry entry, final String fingerprint, final String content)
+    throws IOException {
+    Validate.notNull(entry);
+    Validate.notNull(fingerprint);
+    Validate.notNull(content);
+    final String key = PrebuiltCache.createKey(entry, fingerprint);
+    final File file = new File(directory, key + PrebuiltCache.FILE_EXTENSION);
+    if (!file.isFile()) {
+      FileUtils.writeStringToFile(file, content, PrebuiltCache.ENCODING);
+    }
+    synchronized (index) {
+      index.setProperty(PrebuiltCache.getEntryName(entry), key);
+    }
+  }
+
+
+  /**
+   * Removes an entry (ex: the group has no content anymore).
+   */
+  public void remove(final CacheEntry entry) {
+    synchronized (index) {
+      index.remove(PrebuiltCache.getEntryName(entry));
+    }
+  }
+
+
+  /**
+   * Writes the index, sorted by the name of the entries, and removes the content files not referenced anymore.
+   */
+  public void write()
+    throws IOException {
+    final Properties sorted = new SortedProperties();
+    synchronized (index) {
+      sorted.putAll(index);
+    }
+    sorted.setProperty(PrebuiltCache.VERSION_KEY, PrebuiltCache.FORMAT_VERSION);
+    FileUtils.forceMkdir(directory);
+    final OutputStream output = new FileOutputStream(new File(directory, PrebuiltCache.INDEX_FILE));
+    try {
+      sorted.store(output, "The groups processed by the wro4j build, served by the runtime while unchanged.");
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+    final Collection<Object> keys = sorted.values();
+    for (final File file : directory.listFiles()) {
+      final String name = file.getName();
+      if (name.endsWith(PrebuiltCache.FILE_EXTENSION)
+        && !keys.contains(name.substring(0, name.length() - PrebuiltCache.FILE_EXTENSION.length()))) {
+        LOG.debug("Removing the outdated {}", file);
+        FileUtils.deleteQuietly(file);
+      }
+    }
+  }
+}
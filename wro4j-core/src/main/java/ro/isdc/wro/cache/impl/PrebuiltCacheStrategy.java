@@ -0,0 +1,149 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.cache.impl;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.cache.PrebuiltCache;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+
+
+/**
+ * Serves the content of the groups processed by the build tools, as long as their resources and processors didn't
+ * change since the build. The {@link PrebuiltCache} is loaded once, when first used, and is never changed: the entries
+ * processed at runtime are stored by the decorated strategy.
+ * <p/>
+ * An entry missing from the decorated strategy is looked up in the prebuilt cache, using the fingerprint of the current
+ * resources and processors. When found, it is stored in the decorated strategy, thus it is validated again only after
+ * the cache is cleared (or on each request, when the cache is disabled). The resources proxied by the urls of a
+ * prebuilt css are allowed by the {@link CssUrlRewritingProcessor} when the entry is used.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class PrebuiltCacheStrategy
+  implements CacheStrategy<CacheEntry, ContentHashEntry> {
+  private static final Logger LOG = LoggerFactory.getLogger(PrebuiltCacheStrategy.class);
+  private final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy;
+  private final String location;
+  @Inject
+  private UriLocatorFactory uriLocatorFactory;
+  @Inject
+  private ProcessorsFactory processorsFactory;
+  @Inject
+  private WroModelFactory modelFactory;
+  @Inject
+  private HashBuilder hashBuilder;
+  private PrebuiltCache prebuiltCache;
+
+
+  /**
+   * @param cacheStrategy
+   *          stores the entries processed at runtime.
+   * @param location
+   *          the uri of the folder holding the prebuilt cache (ex: /WEB-INF/wro4j-cache/ or classpath:wro4j-cache/).
+   */
+  public PrebuiltCacheStrategy(final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy, final String location) {
+    Validate.notNull(cacheStrategy);
+    Validate.notNull(location);
+    this.cacheStrategy = cacheStrategy;
+    this.location = location;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public ContentHashEntry get(final CacheEntry key) {
+    ContentHashEntry value = cacheStrategy.get(key);
+    if (value == null) {
+      value = getPrebuilt(key);
+      if (value != null) {
+        LOG.debug("Using the prebuilt content of {}", key);
+        // when the cache is disabled, the prebuilt content is validated again on each request
+        if (!Context.get().getConfig().isDisableCache()) {
+          cacheStrategy.put(key, value);
+        }
+      }
+    }
+    return value;
+  }
+
+
+  private ContentHashEntry getPrebuilt(final CacheEntry key) {
+    try {
+      final String content = getPrebuiltCache().get(key,
+        PrebuiltCache.fingerprint(modelFactory.create(), uriLocatorFactory, processorsFactory, key));
+      if (content != null) {
+        allowRewrittenUrls(key, content);
+        return ContentHashEntry.valueOf(content, hashBuilder.getHash(new ByteArrayInputStream(content.getBytes())));
+      }
+    } catch (final Exception e) {
+      // the group will be processed
+      LOG.debug("Cannot use the prebuilt content of " + key, e);
+    }
+    return null;
+  }
+
+
+  /**
+   * The prebuilt content is not processed at runtime, thus the urls rewritten by the build must be allowed explicitly.
+   */
+  private void allowRewrittenUrls(final CacheEntry key, final String content) {
+    if (key.getType() == ResourceType.CSS) {
+      final CssUrlRewritingProcessor processor = ProcessorsUtils.findPreProcessorByClass(
+        CssUrlRewritingProcessor.class, processorsFactory.getPreProcessors());
+      if (processor != null) {
+        processor.allowRewrittenUrls(content);
+      }
+    }
+  }
+
+
+  private synchronized PrebuiltCache getPrebuiltCache() {
+    if (prebuiltCache == null) {
+      prebuiltCache = new PrebuiltCache(uriLocatorFactory, location);
+    }
+    return prebuiltCache;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public void put(final CacheEntry key, final ContentHashEntry value) {
+    cacheStrategy.put(key, value);
+  }
+
+
+  /**
+   * Clears only the decorated strategy, the prebuilt entries are validated again when requested.
+   */
+  public void clear() {
+    cacheStrategy.clear();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public void destroy() {
+    cacheStrategy.destroy();
+  }
+}
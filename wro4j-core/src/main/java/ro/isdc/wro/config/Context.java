@@ -15,6 +15,7 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.http.FieldsSavingRequestWrapper;
+import ro.isdc.wro.manager.GroupReport;
 import ro.isdc.wro.model.resource.ResourceType;
 
 
@@ -50,6 +51,10 @@ public class Context {
    * The path to the folder, relative to the root, used to compute rewritten image url.
    */
   private String aggregatedFolderPath;
+  /**
+   * Collects the timings of the group being processed by a build tool. Null when no report is requested.
+   */
+  private transient GroupReport groupReport;
 
 
   /**
@@ -213,6 +218,23 @@ public class Context {
   }
 
 
+  /**
+   * @return the report of the group being processed or null if the timings are not reported.
+   */
+  public GroupReport getGroupReport() {
+    return this.groupReport;
+  }
+
+
+  /**
+   * @param groupReport
+   *          the report collecting the timings of the group processed in this context.
+   */
+  public void setGroupReport(final GroupReport groupReport) {
+    this.groupReport = groupReport;
+  }
+
+
   /**
    * Perform context clean-up.
    */
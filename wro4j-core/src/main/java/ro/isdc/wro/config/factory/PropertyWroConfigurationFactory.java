@@ -41,6 +41,8 @@ public class PropertyWroConfigurationFactory
       config.setJmxEnabled(valueAsBoolean(properties.get(ConfigConstants.jmxEnabled.name()), true));
       config.setCacheUpdatePeriod(valueAsLong(properties.get(ConfigConstants.cacheUpdatePeriod.name()), 0));
       config.setModelUpdatePeriod(valueAsLong(properties.get(ConfigConstants.modelUpdatePeriod.name()), 0));
+      config.setResourceWatcherUpdatePeriod(valueAsLong(
+        properties.get(ConfigConstants.resourceWatcherUpdatePeriod.name()), 0));
       config.setDisableCache(valueAsBoolean(properties.get(ConfigConstants.disableCache.name()), false));
       config.setIgnoreMissingResources(valueAsBoolean(properties.get(ConfigConstants.ignoreMissingResources.name()), true));
       config.setEncoding(valueAsString(properties.get(ConfigConstants.encoding.name())));
@@ -49,6 +51,20 @@ public class PropertyWroConfigurationFactory
       config.setHeader(valueAsString(properties.get(ConfigConstants.header.name())));
       config.setCacheGzippedContent(valueAsBoolean(properties.get(ConfigConstants.cacheGzippedContent.name()), false));
       config.setParallelPreprocessing(valueAsBoolean(properties.get(ConfigConstants.parallelPreprocessing.name()), false));
+      config.setEnginePoolMaxActive((int) valueAsLong(properties.get(ConfigConstants.enginePoolMaxActive.name()), 0));
+      config.setEnginePoolMaxIdle((int) valueAsLong(properties.get(ConfigConstants.enginePoolMaxIdle.name()), 1));
+      config.setEnginePoolMinIdle((int) valueAsLong(properties.get(ConfigConstants.enginePoolMinIdle.name()), 0));
+      config.setEnginePoolMaxWait(valueAsLong(properties.get(ConfigConstants.enginePoolMaxWait.name()), 5000));
+      config.setEnginePoolWhenExhausted(valueAsString(properties.get(ConfigConstants.enginePoolWhenExhausted.name())));
+      config.setProcessorCacheMaxSize(valueAsLong(properties.get(ConfigConstants.processorCacheMaxSize.name()),
+        WroConfiguration.DEFAULT_PROCESSOR_CACHE_MAX_SIZE));
+      config.setProcessorCacheDirectory(valueAsString(properties.get(ConfigConstants.processorCacheDirectory.name())));
+      config.setProcessorCacheMaxDiskSize(valueAsLong(properties.get(ConfigConstants.processorCacheMaxDiskSize.name()),
+        WroConfiguration.DEFAULT_PROCESSOR_CACHE_MAX_DISK_SIZE));
+      config.setAsyncLinting(valueAsBoolean(properties.get(ConfigConstants.asyncLinting.name()), false));
+      config.setScriptTimeout(valueAsLong(properties.get(ConfigConstants.scriptTimeout.name()), 0));
+      config.setScriptEngine(valueAsString(properties.get(ConfigConstants.scriptEngine.name())));
+      config.setPrebuiltCacheLocation(valueAsString(properties.get(ConfigConstants.prebuiltCacheLocation.name())));
     }
     LOG.debug("WroConfiguration created: {}", config);
     return config;
@@ -30,6 +30,11 @@ public enum ConfigConstants {
    * Parameter containing an integer value for specifying how often (in seconds) the model should be refreshed.
    */
   modelUpdatePeriod,
+  /**
+   * Parameter containing an integer value for specifying how often (in seconds) the resources backed by a file and the
+   * model file should be checked for changes. Only the groups containing changed resources are processed again.
+   */
+  resourceWatcherUpdatePeriod,
   /**
    * Disable cache configuration option. When true, the processed content won't be cached in DEVELOPMENT mode. In
    * DEPLOYMENT mode changing this flag will have no effect.
@@ -39,6 +44,66 @@ public enum ConfigConstants {
    * When true, will run in parallel pre processing of multiple resources. In theory this should improve the performance.
    */
   parallelPreprocessing,
+  /**
+   * The maximum number of script engines (of a single processor) used concurrently. When 0, the number of available
+   * processors is used (but not less than 2).
+   */
+  enginePoolMaxActive,
+  /**
+   * The maximum number of script engines kept idle in the pool of each processor.
+   */
+  enginePoolMaxIdle,
+  /**
+   * The number of idle script engines kept ready in background by the pool of a processor. The engines (with their
+   * scripts already evaluated) are created when the processor is created, thus even the first requests find them ready.
+   */
+  enginePoolMinIdle,
+  /**
+   * How long (in milliseconds) to wait for a script engine when all engines are busy.
+   */
+  enginePoolMaxWait,
+  /**
+   * What to do when all script engines are busy: block (wait at most enginePoolMaxWait), grow (create a new engine) or
+   * fail.
+   */
+  enginePoolWhenExhausted,
+  /**
+   * The maximum size (in bytes) of the compiled output kept in memory by the transpiling processors (less, sass,
+   * coffeeScript). When 0, the output is not cached in memory.
+   */
+  processorCacheMaxSize,
+  /**
+   * The folder where the transpiling processors store the compiled output. The same folder can be shared by the
+   * filter, the maven plugin and the command line runner. When not set, the output is not stored on disk.
+   */
+  processorCacheDirectory,
+  /**
+   * The maximum size (in bytes) of the compiled output stored in the processorCacheDirectory. When exceeded, the least
+   * recently used entries are removed.
+   */
+  processorCacheMaxDiskSize,
+  /**
+   * When true, the lint processors (jsHint, jsLint, cssLint) validate the resources in background, without delaying the
+   * processing. The findings are reported through callbacks and JMX.
+   */
+  asyncLinting,
+  /**
+   * The maximum time (milliseconds) a script evaluation (ex: compiling a less resource) is allowed to take. A script
+   * exceeding this limit is aborted and the processor fails. 0 means no limit.
+   */
+  scriptTimeout,
+  /**
+   * The backend evaluating the scripts of the script based processors. When not set (or set to "rhino"), the bundled
+   * rhino is used. Any other value is the name of a JSR-223 script engine (ex: "javascript").
+   */
+  scriptEngine,
+  /**
+   * The location of the content processed by the build tools (the prebuiltCacheDirectory of the maven plugin or of the
+   * command line runner), as an uri supported by the locators (ex: /WEB-INF/wro4j-cache/ or classpath:wro4j-cache/).
+   * A group whose resources and processors didn't change since the build is served from this content, without being
+   * processed. When not set, all the groups are processed at runtime.
+   */
+  prebuiltCacheLocation,
   /**
    * When this flag is enabled, the raw processed content will be gzipped only the first time and all subsequent
    * requests will use the cached gzipped content. Otherwise, the gzip operation will be performed for each request.
@@ -30,6 +30,26 @@ public final class WroConfiguration
    * Default encoding to use.
    */
   private static final String DEFAULT_ENCODING = "UTF-8";
+  /**
+   * Wait for a script engine to be returned to the pool when all engines are busy.
+   */
+  public static final String ENGINE_POOL_BLOCK = "block";
+  /**
+   * Create a new script engine when all engines of the pool are busy.
+   */
+  public static final String ENGINE_POOL_GROW = "grow";
+  /**
+   * Fail immediately when all script engines of the pool are busy.
+   */
+  public static final String ENGINE_POOL_FAIL = "fail";
+  /**
+   * Default size (bytes) of the memory used to cache the compiled output of the transpiling processors.
+   */
+  public static final long DEFAULT_PROCESSOR_CACHE_MAX_SIZE = 10L * 1024L * 1024L;
+  /**
+   * Default size (bytes) of the disk space used to store the compiled output of the transpiling processors.
+   */
+  public static final long DEFAULT_PROCESSOR_CACHE_MAX_DISK_SIZE = 100L * 1024L * 1024L;
   /**
    * How often to run a thread responsible for refreshing the cache.
    */
@@ -38,6 +58,10 @@ public final class WroConfiguration
    * How often to run a thread responsible for refreshing the model.
    */
   private long modelUpdatePeriod;
+  /**
+   * How often to check if the resources backed by a file were changed.
+   */
+  private long resourceWatcherUpdatePeriod;
   /**
    * Gzip enable flag.
    */
@@ -92,6 +116,57 @@ public final class WroConfiguration
    * By default this flag is false, because this feature is experimental.
    */
   private boolean parallelPreprocessing = false;
+  /**
+   * The maximum number of script engines used concurrently by a processor. When 0, the number of available processors
+   * is used (but not less than 2).
+   */
+  private int enginePoolMaxActive = 0;
+  /**
+   * The maximum number of idle script engines kept by the pool of a processor.
+   */
+  private int enginePoolMaxIdle = 1;
+  /**
+   * The number of idle script engines kept ready in background by the pool of a processor, starting when the processor
+   * is created.
+   */
+  private int enginePoolMinIdle = 0;
+  /**
+   * Milliseconds to wait for a script engine when all engines of the pool are busy.
+   */
+  private long enginePoolMaxWait = 5000L;
+  /**
+   * The action to take when all script engines of the pool are busy: block, grow or fail.
+   */
+  private String enginePoolWhenExhausted = ENGINE_POOL_BLOCK;
+  /**
+   * The maximum size (bytes) of the compiled output kept in memory by the transpiling processors.
+   */
+  private long processorCacheMaxSize = DEFAULT_PROCESSOR_CACHE_MAX_SIZE;
+  /**
+   * The folder where the transpiling processors store the compiled output. When null, nothing is stored on disk.
+   */
+  private String processorCacheDirectory;
+  /**
+   * The maximum size (bytes) of the compiled output stored in the processorCacheDirectory.
+   */
+  private long processorCacheMaxDiskSize = DEFAULT_PROCESSOR_CACHE_MAX_DISK_SIZE;
+  /**
+   * When true, the lint processors validate the resources in background.
+   */
+  private boolean asyncLinting = false;
+  /**
+   * Maximum time (ms) allowed for a script evaluation. 0 means no limit.
+   */
+  private long scriptTimeout = 0;
+  /**
+   * The backend evaluating the scripts. When null, the bundled rhino is used.
+   */
+  private String scriptEngine;
+  /**
+   * The location (ex: /WEB-INF/wro4j-cache/ or classpath:wro4j-cache/) of the content processed by the build tools.
+   * When null, all the groups are processed at runtime.
+   */
+  private String prebuiltCacheLocation;
   /**
    * Listeners for the change of cache & model period properties.
    */
@@ -148,6 +223,22 @@ public final class WroConfiguration
   }
 
 
+  /**
+   * {@inheritDoc}
+   */
+  public long getResourceWatcherUpdatePeriod() {
+    return resourceWatcherUpdatePeriod;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public void setResourceWatcherUpdatePeriod(final long period) {
+    this.resourceWatcherUpdatePeriod = period;
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -427,6 +518,204 @@ public final class WroConfiguration
   }
 
 
+  /**
+   * @return the enginePoolMaxActive
+   */
+  public int getEnginePoolMaxActive() {
+    return this.enginePoolMaxActive;
+  }
+
+
+  /**
+   * @param enginePoolMaxActive the maximum number of script engines used concurrently by a processor. When 0, the
+   *        number of available processors is used.
+   */
+  public void setEnginePoolMaxActive(final int enginePoolMaxActive) {
+    this.enginePoolMaxActive = enginePoolMaxActive;
+  }
+
+
+  /**
+   * @return the enginePoolMaxIdle
+   */
+  public int getEnginePoolMaxIdle() {
+    return this.enginePoolMaxIdle;
+  }
+
+
+  /**
+   * @param enginePoolMaxIdle the maximum number of idle script engines kept by the pool of a processor.
+   */
+  public void setEnginePoolMaxIdle(final int enginePoolMaxIdle) {
+    this.enginePoolMaxIdle = enginePoolMaxIdle;
+  }
+
+
+  /**
+   * @return the enginePoolMinIdle
+   */
+  public int getEnginePoolMinIdle() {
+    return this.enginePoolMinIdle;
+  }
+
+
+  /**
+   * @param enginePoolMinIdle the number of idle script engines kept ready in background by the pool of a processor,
+   *        starting when the processor is created.
+   */
+  public void setEnginePoolMinIdle(final int enginePoolMinIdle) {
+    this.enginePoolMinIdle = enginePoolMinIdle;
+  }
+
+
+  /**
+   * @return the enginePoolMaxWait
+   */
+  public long getEnginePoolMaxWait() {
+    return this.enginePoolMaxWait;
+  }
+
+
+  /**
+   * @param enginePoolMaxWait milliseconds to wait for a script engine when all engines of the pool are busy.
+   */
+  public void setEnginePoolMaxWait(final long enginePoolMaxWait) {
+    this.enginePoolMaxWait = enginePoolMaxWait;
+  }
+
+
+  /**
+   * @return the enginePoolWhenExhausted
+   */
+  public String getEnginePoolWhenExhausted() {
+    return this.enginePoolWhenExhausted;
+  }
+
+
+  /**
+   * @param enginePoolWhenExhausted one of {@link #ENGINE_POOL_BLOCK}, {@link #ENGINE_POOL_GROW} or
+   *        {@link #ENGINE_POOL_FAIL}. When null, {@link #ENGINE_POOL_BLOCK} is used.
+   */
+  public void setEnginePoolWhenExhausted(final String enginePoolWhenExhausted) {
+    this.enginePoolWhenExhausted = enginePoolWhenExhausted == null ? ENGINE_POOL_BLOCK : enginePoolWhenExhausted;
+  }
+
+
+  /**
+   * @return the processorCacheMaxSize
+   */
+  public long getProcessorCacheMaxSize() {
+    return this.processorCacheMaxSize;
+  }
+
+
+  /**
+   * @param processorCacheMaxSize the maximum size (bytes) of the compiled output kept in memory by the transpiling
+   *        processors. When 0, the output is not cached in memory.
+   */
+  public void setProcessorCacheMaxSize(final long processorCacheMaxSize) {
+    this.processorCacheMaxSize = processorCacheMaxSize;
+  }
+
+
+  /**
+   * @return the processorCacheDirectory
+   */
+  public String getProcessorCacheDirectory() {
+    return this.processorCacheDirectory;
+  }
+
+
+  /**
+   * @param processorCacheDirectory the folder where the transpiling processors store the compiled output.
+   */
+  public void setProcessorCacheDirectory(final String processorCacheDirectory) {
+    this.processorCacheDirectory = processorCacheDirectory;
+  }
+
+
+  /**
+   * @return the processorCacheMaxDiskSize
+   */
+  public long getProcessorCacheMaxDiskSize() {
+    return this.processorCacheMaxDiskSize;
+  }
+
+
+  /**
+   * @param processorCacheMaxDiskSize the maximum size (bytes) of the compiled output stored in the
+   *        processorCacheDirectory. When exceeded, the least recently used entries are removed.
+   */
+  public void setProcessorCacheMaxDiskSize(final long processorCacheMaxDiskSize) {
+    this.processorCacheMaxDiskSize = processorCacheMaxDiskSize;
+  }
+
+
+  /**
+   * @return the asyncLinting
+   */
+  public boolean isAsyncLinting() {
+    return this.asyncLinting;
+  }
+
+
+  /**
+   * @param asyncLinting when true, the lint processors validate the resources in background, without delaying the
+   *        processing.
+   */
+  public void setAsyncLinting(final boolean asyncLinting) {
+    this.asyncLinting = asyncLinting;
+  }
+
+
+  /**
+   * @return the scriptTimeout
+   */
+  public long getScriptTimeout() {
+    return this.scriptTimeout;
+  }
+
+
+  /**
+   * @param scriptTimeout the maximum time (ms) allowed for a script evaluation. 0 means no limit.
+   */
+  public void setScriptTimeout(final long scriptTimeout) {
+    this.scriptTimeout = scriptTimeout;
+  }
+
+
+  /**
+   * @return the scriptEngine
+   */
+  public String getScriptEngine() {
+    return this.scriptEngine;
+  }
+
+
+  /**
+   * @param scriptEngine the name of the backend evaluating the scripts: "rhino" or the name of a JSR-223 script engine.
+   */
+  public void setScriptEngine(final String scriptEngine) {
+    this.scriptEngine = scriptEngine;
+  }
+
+
+  /**
+   * @return the prebuiltCacheLocation
+   */
+  public String getPrebuiltCacheLocation() {
+    return this.prebuiltCacheLocation;
+  }
+
+
+  /**
+   * @param prebuiltCacheLocation the location of the content processed by the build tools.
+   */
+  public void setPrebuiltCacheLocation(final String prebuiltCacheLocation) {
+    this.prebuiltCacheLocation = prebuiltCacheLocation;
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -33,6 +33,19 @@ public interface WroConfigurationMBean {
 	 */
 	void setCacheUpdatePeriod(final long period);
 
+	/**
+	 * @return period in seconds when the resources backed by a file are checked for changes.
+	 */
+	long getResourceWatcherUpdatePeriod();
+
+	/**
+	 * Set after how many seconds the resources backed by a file should be checked for changes. Only the groups
+	 * containing changed resources are processed again.
+	 *
+	 * @param period number of seconds. Zero or less, means never.
+	 */
+	void setResourceWatcherUpdatePeriod(final long period);
+
 	/**
 	 * @return true if Gzip is Enabled.
 	 */
@@ -0,0 +1,95 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.build.JsonUtils;
+
+
+/**
+ * Describes where the time of a build was spent: the total duration and a {@link GroupReport} for each processed group,
+ * sorted by name. The report is written as a JSON document (durations in milliseconds, sizes in bytes):
+ *
+ * <pre>
+ * {
+ *   "totalDuration": 1200.512,
+ *   "groups": [
+ *     {"name": "all.js", "duration": 950.125, "cacheHit": false, "upToDate": false, "size": 1024, "gzipSize": 300,
+ *      "processorCacheHits": 1, "processorCacheMisses": 0, "postProcessors": {"1:...JSMinProcessor": 12.5},
+ *      "resources": [
+ *       {"uri": "/js/a.js", "locateDuration": 0.8, "inputSize": 2048, "outputSize": 2048, "preProcessors": {}}
+ *     ]}
+ *   ]
+ * }
+ * </pre>
+ *
+ * Can be used concurrently by the tasks processing the groups.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class BuildReport {
+  private final Map<String, GroupReport> groups = new TreeMap<String, GroupReport>();
+  private long duration;
+
+
+  /**
+   * Creates the report of a group to be processed. A previous report of the same group is replaced.
+   *
+   * @param name
+   *          the name of the group with the extension of the resource type.
+   */
+  public GroupReport newGroupReport(final String name) {
+    final GroupReport groupReport = new GroupReport(name);
+    synchronized (groups) {
+      groups.put(name, groupReport);
+    }
+    return groupReport;
+  }
+
+
+  /**
+   * @param nanos
+   *          the total time spent by the build.
+   */
+  public void setDuration(final long nanos) {
+    this.duration = nanos;
+  }
+
+
+  /**
+   * @return the JSON representation of the report.
+   */
+  public String toJson() {
+    final StringBuilder sb = new StringBuilder("{\n");
+    sb.append("  \"totalDuration\": ").append(JsonUtils.toMillis(duration)).append(",\n");
+    sb.append("  \"groups\": [");
+    synchronized (groups) {
+      String separator = "\n    ";
+      for (final GroupReport groupReport : groups.values()) {
+        sb.append(separator).append(groupReport.toJson());
+        separator = ",\n    ";
+      }
+      sb.append(groups.isEmpty() ? "]" : "\n  ]");
+    }
+    return sb.append("\n}\n").toString();
+  }
+
+
+  /**
+   * Writes the report to the file, creating the parent folders if needed.
+   */
+  public void write(final File file)
+    throws IOException {
+    Validate.notNull(file);
+    FileUtils.writeStringToFile(file, toJson(), "UTF-8");
+  }
+}
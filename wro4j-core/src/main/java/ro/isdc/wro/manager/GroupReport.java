@@ -0,0 +1,226 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.manager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.build.JsonUtils;
+import ro.isdc.wro.config.Context;
+
+
+/**
+ * Collects the timings and the sizes of a processed group (the name of the group with the extension of the resource
+ * type): for each resource, the time spent to locate it and by each pre processor, the size of its content before and
+ * after the pre processing; for the group, the time spent by each post processor, whether the content was found in the
+ * cache, how many outputs of the expensive processors were found in their output cache, the size of the written file
+ * and of its gzipped content. The processors are identified by their position in the chain and their class (see
+ * {@link #toProcessorKey(int, Object)}), thus the processors of the same class (ex: decorated for different
+ * extensions) are reported separately. The report of the group being processed is available through
+ * {@link Context#getGroupReport()}.
+ * <p/>
+ * Can be used concurrently by the tasks pre processing the resources of the group.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class GroupReport {
+  private final String name;
+  private final List<String> resources = new ArrayList<String>();
+  private final Map<String, Long> postProcessors = new LinkedHashMap<String, Long>();
+  private long duration;
+  private boolean cacheHit;
+  private boolean upToDate;
+  private long processorCacheHits;
+  private long processorCacheMisses;
+  private long size = -1;
+  private long gzipSize = -1;
+
+
+  /**
+   * @param name
+   *          the name of the group with the extension of the resource type.
+   */
+  public GroupReport(final String name) {
+    Validate.notNull(name);
+    this.name = name;
+  }
+
+
+  /**
+   * @return the name of the reported group.
+   */
+  public String getName() {
+    return name;
+  }
+
+
+  /**
+   * Reports a pre processed resource.
+   *
+   * @param uri
+   *          the uri of the resource.
+   * @param locateNanos
+   *          the time spent to locate the resource.
+   * @param inputSize
+   *          the length of the located content.
+   * @param outputSize
+   *          the length of the pre processed content.
+   * @param processorNanos
+   *          the time spent by each pre processor, identified by {@link #toProcessorKey(int, Object)}.
+   */
+  public void addResource(final String uri, final long locateNanos, final long inputSize, final long outputSize,
+    final Map<String, Long> processorNanos) {
+    final StringBuilder sb = new StringBuilder("{");
+    sb.append("\"uri\": ").append(JsonUtils.quote(uri));
+    sb.append(", \"locateDuration\": ").append(JsonUtils.toMillis(locateNanos));
+    sb.append(", \"inputSize\": ").append(inputSize);
+    sb.append(", \"outputSize\": ").append(outputSize);
+    sb.append(", \"preProcessors\": ").append(JsonUtils.toJson(processorNanos));
+    sb.append("}");
+    synchronized (this) {
+      resources.add(sb.toString());
+    }
+  }
+
+
+  /**
+   * Reports the time spent by a post processor.
+   *
+   * @param processor
+   *          identifies the post processor, see {@link #toProcessorKey(int, Object)}.
+   */
+  public synchronized void addPostProcessor(final String processor, final long nanos) {
+    postProcessors.put(processor, nanos);
+  }
+
+
+  /**
+   * @param position
+   *          the position of the processor in the chain, starting with 1.
+   * @return the key identifying the processor in the report.
+   */
+  public static String toProcessorKey(final int position, final Object processor) {
+    Validate.notNull(processor);
+    return position + ":" + processor.getClass().getName();
+  }
+
+
+  /**
+   * Reports a lookup in the cache of the output of a processor (ex: the less compiler).
+   *
+   * @param hit
+   *          true if the output was found in the cache, thus the processor didn't process the content.
+   */
+  public synchronized void addProcessorCacheLookup(final boolean hit) {
+    if (hit) {
+      processorCacheHits++;
+    } else {
+      processorCacheMisses++;
+    }
+  }
+
+
+  /**
+   * @param cacheHit
+   *          true if the content of the group was found in the cache.
+   */
+  public synchronized void setCacheHit(final boolean cacheHit) {
+    this.cacheHit = cacheHit;
+  }
+
+
+  /**
+   * @param upToDate
+   *          true if the group was not processed, because its written file was up to date.
+   */
+  public synchronized void setUpToDate(final boolean upToDate) {
+    this.upToDate = upToDate;
+  }
+
+
+  /**
+   * @param nanos
+   *          the total time spent to process the group.
+   */
+  public synchronized void setDuration(final long nanos) {
+    this.duration = nanos;
+  }
+
+
+  /**
+   * Reports the sizes of the written file. When the gzipped sibling was not written, the size of the gzipped content is
+   * computed.
+   *
+   * @param file
+   *          the written file.
+   * @param gzipFile
+   *          the gzipped sibling of the file or null if it was not written.
+   */
+  public void setOutput(final File file, final File gzipFile)
+    throws IOException {
+    if (!file.isFile()) {
+      return;
+    }
+    final long computedGzipSize = gzipFile != null ? gzipFile.length() : computeGzipSize(file);
+    synchronized (this) {
+      this.size = file.length();
+      this.gzipSize = computedGzipSize;
+    }
+  }
+
+
+  private long computeGzipSize(final File file)
+    throws IOException {
+    final CountingOutputStream counter = new CountingOutputStream(new NullOutputStream());
+    final OutputStream os = new GZIPOutputStream(counter);
+    final InputStream input = new FileInputStream(file);
+    try {
+      IOUtils.copy(input, os);
+    } finally {
+      IOUtils.closeQuietly(input);
+      os.close();
+    }
+    return counter.getByteCount();
+  }
+
+
+  /**
+   * @return the JSON representation of the report.
+   */
+  public synchronized String toJson() {
+    final StringBuilder sb = new StringBuilder("{");
+    sb.append("\"name\": ").append(JsonUtils.quote(name));
+    sb.append(", \"duration\": ").append(JsonUtils.toMillis(duration));
+    sb.append(", \"cacheHit\": ").append(cacheHit);
+    sb.append(", \"upToDate\": ").append(upToDate);
+    if (size >= 0) {
+      sb.append(", \"size\": ").append(size);
+      sb.append(", \"gzipSize\": ").append(gzipSize);
+    }
+    sb.append(", \"processorCacheHits\": ").append(processorCacheHits);
+    sb.append(", \"processorCacheMisses\": ").append(processorCacheMisses);
+    sb.append(", \"postProcessors\": ").append(JsonUtils.toJson(postProcessors));
+    sb.append(", \"resources\": [");
+    String separator = "\n      ";
+    for (final String resource : resources) {
+      sb.append(separator).append(resource);
+      separator = ",\n      ";
+    }
+    return sb.append(resources.isEmpty() ? "]}" : "\n    ]}").toString();
+  }
+}
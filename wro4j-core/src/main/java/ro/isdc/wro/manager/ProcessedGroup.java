@@ -0,0 +1,84 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.manager;
+
+import java.io.File;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+
+/**
+ * The result of writing a processed group to a folder with
+ * {@link WroManager#writeGroup(String, ro.isdc.wro.model.resource.ResourceType, boolean, File)}.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class ProcessedGroup {
+  private final String name;
+  private final File file;
+  private final String hash;
+  private final long size;
+  private final boolean changed;
+
+
+  ProcessedGroup(final String name, final File file, final String hash, final long size, final boolean changed) {
+    this.name = name;
+    this.file = file;
+    this.hash = hash;
+    this.size = size;
+    this.changed = changed;
+  }
+
+
+  /**
+   * @return the name of the file, as computed by the naming strategy.
+   */
+  public String getName() {
+    return name;
+  }
+
+
+  /**
+   * @return the written file or null if the group has no content.
+   */
+  public File getFile() {
+    return file;
+  }
+
+
+  /**
+   * @return the hash of the processed content or null if the group has no content.
+   */
+  public String getHash() {
+    return hash;
+  }
+
+
+  /**
+   * @return the size (bytes) of the processed content.
+   */
+  public long getSize() {
+    return size;
+  }
+
+
+  /**
+   * @return true if the file was written, false if it already existed with the same content (or if the group has no
+   *         content).
+   */
+  public boolean isChanged() {
+    return changed;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+  }
+}
@@ -6,7 +6,6 @@ package ro.isdc.wro.manager;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Collection;
-import java.util.HashSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,27 +45,7 @@ public final class ReloadCacheRunnable
       final Collection<Group> groups = model.getGroups();
       // update cache for all resources
       for (final Group group : groups) {
-        for (final ResourceType resourceType : ResourceType.values()) {
-          if (group.hasResourcesOfType(resourceType)) {
-            final Collection<Group> groupAsList = new HashSet<Group>();
-            groupAsList.add(group);
-            // TODO check if request parameter can be fetched here without errors.
-            // groupExtractor.isMinimized(Context.get().getRequest())
-            final Boolean[] minimizeValues = new Boolean[] { true, false };
-            for (final boolean minimize : minimizeValues) {
-              //stop processing if the current thread is interrupted
-              if (Thread.interrupted()) {
-                LOG.debug("ReloadCacheRunnable was interrupted - stop processing!");
-                throw new InterruptedException();
-              }
-              final String content = wroManagerReference.get().getGroupsProcessor().process(group, resourceType,
-                minimize);
-              final CacheEntry cacheEntry = new CacheEntry(group.getName(), resourceType, minimize);
-              final ContentHashEntry contentHashEntry = wroManagerReference.get().getContentHashEntryByContent(content);
-              wroManagerReference.get().cacheStrategy.put(cacheEntry, contentHashEntry);
-            }
-          }
-        }
+        reloadGroup(wroManagerReference.get(), group);
       }
     } catch (final InterruptedException e) {
       // Catch all exception in order to avoid situation when scheduler runs out of threads.
@@ -78,4 +57,30 @@ public final class ReloadCacheRunnable
       LOG.error("Exception occured during cache reload: ", e);
     }
   }
+
+
+  /**
+   * Processes again all the cache entries of the group and updates the cache with the result.
+   */
+  static void reloadGroup(final WroManager manager, final Group group)
+    throws IOException, InterruptedException {
+    for (final ResourceType resourceType : ResourceType.values()) {
+      if (group.hasResourcesOfType(resourceType)) {
+        // TODO check if request parameter can be fetched here without errors.
+        // groupExtractor.isMinimized(Context.get().getRequest())
+        final Boolean[] minimizeValues = new Boolean[] { true, false };
+        for (final boolean minimize : minimizeValues) {
+          //stop processing if the current thread is interrupted
+          if (Thread.interrupted()) {
+            LOG.debug("ReloadCacheRunnable was interrupted - stop processing!");
+            throw new InterruptedException();
+          }
+          final String content = manager.getGroupsProcessor().process(group, resourceType, minimize);
+          final CacheEntry cacheEntry = new CacheEntry(group.getName(), resourceType, minimize);
+          final ContentHashEntry contentHashEntry = manager.getContentHashEntryByContent(content);
+          manager.cacheStrategy.put(cacheEntry, contentHashEntry);
+        }
+      }
+    }
+  }
 }
\ No newline at end of file
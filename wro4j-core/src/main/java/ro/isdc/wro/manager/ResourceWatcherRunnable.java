@@ -0,0 +1,201 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.manager;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.locator.FileAwareUriLocator;
+import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+
+
+/**
+ * A {@link Runnable} executed by scheduler to detect the resources changed since the previous run. Unlike
+ * {@link ReloadCacheRunnable}, only the groups containing the changed resources are processed again. When the model file
+ * (wro.xml, wro.json or wro.groovy located under WEB-INF) is changed, the model is reloaded and the cache is cleared.
+ * <p/>
+ * Only the resources backed by a file are watched. The check is cheap (one {@link File#lastModified()} call per
+ * resource), thus it can run often. A change is handled only after the file was not modified for one period, in order
+ * to avoid processing a file which is still being written (ex: while an editor saves multiple files).
+ * <p/>
+ * Each run uses a new {@link Context}, created from the context which was set when the watcher was created. The
+ * context inherited by the scheduler thread belongs to a request which may be long gone.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class ResourceWatcherRunnable
+  implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceWatcherRunnable.class);
+  /**
+   * Names of the model files which are watched.
+   */
+  private static final String[] MODEL_FILE_NAMES = new String[] {
+    "wro.xml", "wro.json", "wro.groovy"
+  };
+  private final WeakReference<WroManager> wroManagerReference;
+  /**
+   * The context set when the watcher was created, used to create the context of each run.
+   */
+  private final Context context;
+  /**
+   * The lastModified value of each watched file, at the time when it was last handled.
+   */
+  private final Map<File, Long> timestamps = new HashMap<File, Long>();
+  /**
+   * Files detected as changed, but not yet handled. Maps a file to the lastModified value at detection time.
+   */
+  private final Map<File, Long> pendingChanges = new HashMap<File, Long>();
+
+
+  public ResourceWatcherRunnable(final WroManager wroManager) {
+    wroManagerReference = new WeakReference<WroManager>(wroManager);
+    context = Context.isContextSet() ? Context.get() : null;
+  }
+
+  public void run() {
+    Context.set(newContext(), context != null ? context.getConfig() : new WroConfiguration());
+    try {
+      final WroManager manager = wroManagerReference.get();
+      if (manager == null) {
+        return;
+      }
+      if (isModelChanged()) {
+        LOG.info("Model file change detected. Reloading model and clearing cache.");
+        manager.getModelFactory().destroy();
+        manager.getCacheStrategy().clear();
+        timestamps.clear();
+        pendingChanges.clear();
+        return;
+      }
+      final WroModel model = manager.getModelFactory().create();
+      final Set<Group> changedGroups = new LinkedHashSet<Group>();
+      for (final Group group : model.getGroups()) {
+        for (final Resource resource : group.getResources()) {
+          //stop processing if the current thread is interrupted
+          if (Thread.interrupted()) {
+            LOG.debug("ResourceWatcherRunnable was interrupted - stop processing!");
+            throw new InterruptedException();
+          }
+          final File file = getFile(manager, resource.getUri());
+          if (file != null && isChanged(file)) {
+            LOG.debug("Change detected for resource: {}", resource);
+            changedGroups.add(group);
+          }
+        }
+      }
+      if (!changedGroups.isEmpty() && manager.cacheChangeListener != null) {
+        manager.cacheChangeListener.propertyChange(null);
+      }
+      for (final Group group : changedGroups) {
+        LOG.info("Reloading group: {}", group.getName());
+        ReloadCacheRunnable.reloadGroup(manager, group);
+      }
+    } catch (final InterruptedException e) {
+      // Catch all exception in order to avoid situation when scheduler runs out of threads.
+      LOG.debug("Interrupted exception occured: ", e);
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      LOG.error("Exception occured while watching resources: ", e);
+    } finally {
+      Context.unset();
+    }
+  }
+
+  /**
+   * @return a new context, holding the request and the servlet context of the context which created the watcher.
+   */
+  private Context newContext() {
+    if (context == null || context.getRequest() == null) {
+      return Context.standaloneContext();
+    }
+    return Context.webContext(context.getRequest(), context.getResponse(), context.getFilterConfig());
+  }
+
+  /**
+   * @return true if any of the model files located under WEB-INF folder was changed.
+   */
+  private boolean isModelChanged() {
+    final ServletContext servletContext = getServletContext();
+    boolean changed = false;
+    if (servletContext != null) {
+      for (final String fileName : MODEL_FILE_NAMES) {
+        final String realPath = servletContext.getRealPath("/WEB-INF/" + fileName);
+        if (realPath != null && isChanged(new File(realPath))) {
+          changed = true;
+        }
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @return true if the file was changed since last check and the change is not pending anymore.
+   */
+  boolean isChanged(final File file) {
+    final long lastModified = file.lastModified();
+    final Long timestamp = timestamps.get(file);
+    if (timestamp == null) {
+      // first time we see this file, remember its state.
+      timestamps.put(file, lastModified);
+      return false;
+    }
+    if (timestamp.longValue() == lastModified) {
+      pendingChanges.remove(file);
+      return false;
+    }
+    final Long pending = pendingChanges.get(file);
+    if (pending != null && pending.longValue() == lastModified) {
+      // the file wasn't modified since the change was detected, it is safe to handle it.
+      pendingChanges.remove(file);
+      timestamps.put(file, lastModified);
+      return true;
+    }
+    pendingChanges.put(file, lastModified);
+    return false;
+  }
+
+  /**
+   * @return the file holding the content of the uri or null if the uri is not backed by a file.
+   */
+  private File getFile(final WroManager manager, final String uri) {
+    final UriLocator uriLocator = manager.getUriLocatorFactory().getInstance(uri);
+    if (uriLocator instanceof FileAwareUriLocator) {
+      final File file = ((FileAwareUriLocator) uriLocator).getFile(uri);
+      if (file != null) {
+        return file;
+      }
+    }
+    // servlet context resources are read using the request dispatcher, but they can still be watched.
+    final ServletContext servletContext = getServletContext();
+    if (servletContext != null && ServletContextUriLocator.isValid(uri)) {
+      final String realPath = servletContext.getRealPath(uri);
+      if (realPath != null) {
+        final File file = new File(realPath);
+        // uri's containing wildcards are not mapped to a file.
+        return file.isFile() ? file : null;
+      }
+    }
+    return null;
+  }
+
+  private ServletContext getServletContext() {
+    return Context.isContextSet() ? Context.get().getServletContext() : null;
+  }
+}
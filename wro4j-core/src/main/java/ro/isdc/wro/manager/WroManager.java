@@ -5,6 +5,8 @@ package ro.isdc.wro.manager;
 
 import java.beans.PropertyChangeListener;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -12,8 +14,10 @@ import java.io.OutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -39,12 +43,16 @@ import ro.isdc.wro.model.group.GroupExtractor;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.GroupsProcessor;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.util.HashBuilder;
 import ro.isdc.wro.model.resource.util.NamingStrategy;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.DestroyableLazyInitializer;
 import ro.isdc.wro.util.SchedulerHelper;
 import ro.isdc.wro.util.WroUtil;
@@ -87,6 +95,10 @@ public class WroManager
    * Schedules the model update.
    */
   private final SchedulerHelper modelSchedulerHelper;
+  /**
+   * Schedules the check of changed resources.
+   */
+  private final SchedulerHelper resourceWatcherSchedulerHelper;
   private ProcessorsFactory processorsFactory;
   private UriLocatorFactory uriLocatorFactory;
   /**
@@ -112,6 +124,12 @@ public class WroManager
         return new ReloadModelRunnable(WroManager.this);
       }
     }, ReloadModelRunnable.class.getSimpleName());
+    resourceWatcherSchedulerHelper = SchedulerHelper.create(new DestroyableLazyInitializer<Runnable>() {
+      @Override
+      protected Runnable initialize() {
+        return new ResourceWatcherRunnable(WroManager.this);
+      }
+    }, ResourceWatcherRunnable.class.getSimpleName());
   }
 
 
@@ -131,6 +149,80 @@ public class WroManager
   }
 
 
+  /**
+   * Processes a group without any request, as required by the build tools. The {@link Context} must be set, but doesn't
+   * have to be a web context.
+   *
+   * @param groupName
+   *          the name of the group to process.
+   * @param type
+   *          of the resources to process.
+   * @param minimize
+   *          true if the minimizing processors should be applied.
+   * @return the processed content and its hash. The content is null if the group has no resources of the type.
+   */
+  public final ContentHashEntry processGroup(final String groupName, final ResourceType type, final boolean minimize)
+    throws IOException {
+    Validate.notNull(groupName);
+    Validate.notNull(type);
+    validate();
+    return getContentHashEntry(groupName, type, minimize);
+  }
+
+
+  /**
+   * Processes a group (see {@link #processGroup(String, ResourceType, boolean)}) and writes the result to a file named
+   * by the {@link NamingStrategy}. The content is written to the file while the naming strategy reads it. An existing
+   * file with the same content is not rewritten and an existing file is removed when the group has no content.
+   *
+   * @param folder
+   *          where the file is written.
+   * @return describes the written file.
+   */
+  public final ProcessedGroup writeGroup(final String groupName, final ResourceType type, final boolean minimize,
+    final File folder)
+    throws IOException {
+    Validate.notNull(folder);
+    final ContentHashEntry entry = processGroup(groupName, type, minimize);
+    final String baseName = groupName + "." + type.name().toLowerCase();
+    final String content = StringUtils.defaultString(entry.getRawContent());
+    final InputStream input = new ByteArrayInputStream(content.getBytes(Context.get().getConfig().getEncoding()));
+    if (content.length() == 0) {
+      final String name = namingStrategy.rename(baseName, input);
+      FileUtils.deleteQuietly(new File(folder, name));
+      return new ProcessedGroup(name, null, null, 0, false);
+    }
+    if (!folder.isDirectory()) {
+      folder.mkdirs();
+    }
+    final File tempFile = File.createTempFile(baseName, ".tmp", folder);
+    try {
+      final OutputStream output = new FileOutputStream(tempFile);
+      final String name;
+      try {
+        name = namingStrategy.rename(baseName, new TeeInputStream(input, output));
+        // the naming strategy may not read the entire stream, thus copy what is left.
+        IOUtils.copy(input, output);
+      } finally {
+        output.close();
+      }
+      final long size = tempFile.length();
+      final File file = new File(folder, name);
+      final boolean changed = !(file.isFile() && FileUtils.contentEquals(file, tempFile));
+      if (changed) {
+        FileUtils.deleteQuietly(file);
+        if (!tempFile.renameTo(file)) {
+          FileUtils.copyFile(tempFile, file);
+        }
+      }
+      LOG.debug("{} {}", changed ? "Written" : "Unchanged", file);
+      return new ProcessedGroup(name, file, entry.getHash(), size, changed);
+    } finally {
+      FileUtils.deleteQuietly(tempFile);
+    }
+  }
+
+
   /**
    * Check if this is a request for a proxy resource - a resource which url is overwritten by wro4j.
    */
@@ -170,6 +262,7 @@ public class WroManager
       final WroConfiguration config = Context.get().getConfig();
       cacheSchedulerHelper.scheduleWithPeriod(config.getCacheUpdatePeriod());
       modelSchedulerHelper.scheduleWithPeriod(config.getModelUpdatePeriod());
+      resourceWatcherSchedulerHelper.scheduleWithPeriod(config.getResourceWatcherUpdatePeriod());
 
       final ContentHashEntry contentHashEntry = getContentHashEntry(groupName, type, minimize);
 
@@ -271,6 +364,10 @@ public class WroManager
     LOG.debug("Searching cache entry: {}", cacheEntry);
     // Cache based on uri
     ContentHashEntry contentHashEntry = cacheStrategy.get(cacheEntry);
+    final GroupReport groupReport = Context.get().getGroupReport();
+    if (groupReport != null) {
+      groupReport.setCacheHit(contentHashEntry != null);
+    }
     if (contentHashEntry == null) {
       LOG.debug("Cache is empty. Perform processing...");
       // process groups & put result in the cache
@@ -367,8 +464,10 @@ public class WroManager
     try {
       cacheSchedulerHelper.destroy();
       modelSchedulerHelper.destroy();
+      resourceWatcherSchedulerHelper.destroy();
       cacheStrategy.destroy();
       modelFactory.destroy();
+      destroyProcessors();
     } catch (final Exception e) {
       LOG.error("Exception occured during manager destroy!!!");
     } finally {
@@ -377,6 +476,26 @@ public class WroManager
   }
 
 
+  /**
+   * Destroys the processors holding resources which must be released (ex: the pools of script engines).
+   */
+  private void destroyProcessors()
+    throws Exception {
+    if (processorsFactory != null) {
+      for (final ResourcePreProcessor processor : processorsFactory.getPreProcessors()) {
+        if (processor instanceof Destroyable) {
+          ((Destroyable) processor).destroy();
+        }
+      }
+      for (final ResourcePostProcessor processor : processorsFactory.getPostProcessors()) {
+        if (processor instanceof Destroyable) {
+          ((Destroyable) processor).destroy();
+        }
+      }
+    }
+  }
+
+
   /**
    * Check if all dependencies are set.
    */
@@ -434,6 +553,13 @@ public class WroManager
           callbackRegistry.onAfterModelCreated();
         }
       }
+
+      @Override
+      public void destroy() {
+        super.destroy();
+        // the reloaded model can refer classpath resources which were not available before.
+        ClasspathUriLocator.clearCache();
+      }
     };
     return this;
   }
@@ -459,6 +585,14 @@ public class WroManager
   }
 
 
+  /**
+   * @return the hashBuilder
+   */
+  public HashBuilder getHashBuilder() {
+    return hashBuilder;
+  }
+
+
   /**
    * @return the modelFactory
    */
@@ -16,7 +16,10 @@ import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
 import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
+import ro.isdc.wro.cache.impl.PrebuiltCacheStrategy;
+import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.WroConfigurationChangeListener;
+import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.manager.CacheChangeCallbackAware;
 import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.model.WroModel;
@@ -115,6 +118,7 @@ public class BaseWroManagerFactory
 
       final Injector injector = new Injector(manager);
       injector.inject(modelFactory);
+      injector.inject(cacheStrategy);
       //transformers also require injection
       for (final Transformer<WroModel> transformer : modelTransformers) {
         injector.inject(transformer);
@@ -122,6 +126,12 @@ public class BaseWroManagerFactory
       onAfterInitializeManager(manager);
       return manager;
     }
+
+    @Override
+    protected void onDestroy(final WroManager manager) {
+      // releases the resources held by the processors
+      manager.destroy();
+    }
   };
 
   /**
@@ -222,10 +232,17 @@ public class BaseWroManagerFactory
 
 
   /**
-   * @return {@link CacheStrategy} instance for resources' group caching.
+   * @return {@link CacheStrategy} instance for resources' group caching. When the prebuiltCacheLocation is configured,
+   *         the groups processed by the build tools are served from the {@link PrebuiltCacheStrategy}.
    */
   protected CacheStrategy<CacheEntry, ContentHashEntry> newCacheStrategy() {
-    return new LruMemoryCacheStrategy<CacheEntry, ContentHashEntry>();
+    final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy = new LruMemoryCacheStrategy<CacheEntry, ContentHashEntry>();
+    final WroConfiguration config = Context.isContextSet() ? Context.get().getConfig() : null;
+    if (config != null && config.getPrebuiltCacheLocation() != null) {
+      LOG.debug("Using the prebuilt cache: {}", config.getPrebuiltCacheLocation());
+      return new PrebuiltCacheStrategy(cacheStrategy, config.getPrebuiltCacheLocation());
+    }
+    return cacheStrategy;
   }
 
 
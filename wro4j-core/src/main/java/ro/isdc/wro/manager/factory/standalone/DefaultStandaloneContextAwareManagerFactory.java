@@ -87,11 +87,23 @@ public class DefaultStandaloneContextAwareManagerFactory
           return getWildcardStreamLocator().locateStream(uri, new File(realPath));
         }
 
-        final String uriWithoutPrefix = uri.replaceFirst(PREFIX, "");
-        final File file = new File(standaloneContext.getContextFolder(), uriWithoutPrefix);
+        final File file = toFile(uri);
         LOG.debug("Opening file: " + file.getPath());
         return new FileInputStream(file);
       }
+
+      /**
+       * There is no request dispatcher in standalone mode, thus the content can be read directly from the file.
+       */
+      @Override
+      public File getFile(final String uri) {
+        return getWildcardStreamLocator().hasWildcard(uri) ? null : toFile(uri);
+      }
+
+      private File toFile(final String uri) {
+        final String uriWithoutPrefix = uri.replaceFirst(PREFIX, "");
+        return new File(standaloneContext.getContextFolder(), uriWithoutPrefix);
+      }
     };
   }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -16,11 +17,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.GroupReport;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.GroupAwarePostProcessor;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
@@ -53,10 +57,9 @@ public class GroupsProcessor {
     Validate.notNull(group);
     Validate.notNull(type);
     try {
-      final Group filteredGroup = group.collectResourcesOfType(type);
-      final String result = decorateWithMergeCallback(preProcessorExecutor).processAndMerge(
-          filteredGroup.getResources(), minimize);
-      return doPostProcess(type, result, minimize);
+      final List<Resource> resources = group.collectResourcesOfType(type).getResources();
+      final List<String> contents = decorateWithMergeCallback(preProcessorExecutor).process(resources, minimize);
+      return doPostProcess(type, resources, contents, minimize);
     } catch (final IOException e) {
       throw new WroRuntimeException("Exception while merging resources", e);
     } finally {
@@ -70,10 +73,11 @@ public class GroupsProcessor {
   private PreProcessorExecutor decorateWithMergeCallback(final PreProcessorExecutor executor) {
     return new PreProcessorExecutor() {
       @Override
-      public String processAndMerge(final List<Resource> resources, final boolean minimize) throws IOException {
+      public List<String> process(final List<Resource> resources, final boolean minimize)
+          throws IOException {
         callbackRegistry.onBeforeMerge();
         try {
-          return executor.processAndMerge(resources, minimize);
+          return executor.process(resources, minimize);
         } finally {
           callbackRegistry.onAfterMerge();
         }
@@ -82,26 +86,72 @@ public class GroupsProcessor {
   }
 
   /**
-   * Perform postProcessing.
+   * Perform postProcessing. If the first post processor to apply is a {@link GroupAwarePostProcessor}, it processes the
+   * resources before they are merged. The rest of the post processors are applied on the merged content.
    *
    * @param resourceType
    *          the type of the resources to process. This value will never be null.
-   * @param content
-   *          the merged content of all resources which were pre-processed.
+   * @param resources
+   *          the processed resources.
+   * @param contents
+   *          the pre-processed content of each resource.
    * @param minimize
    *          whether minimize aware post processor must be applied.
    * @return the post processed contents.
    */
-  private String doPostProcess(final ResourceType resourceType, final String content, final boolean minimize)
+  private String doPostProcess(final ResourceType resourceType, final List<Resource> resources,
+    final List<String> contents, final boolean minimize)
       throws IOException {
-    Validate.notNull(content);
+    Validate.notNull(contents);
     final Collection<ResourcePostProcessor> allPostProcessors = processorsFactory.getPostProcessors();
     if (allPostProcessors.isEmpty() && processorsFactory.getPreProcessors().isEmpty()) {
       LOG.warn("No processors defined. Please, check if your configuration is correct.");
     }
-    final Collection<ResourcePostProcessor> processors = ProcessorsUtils.filterProcessorsToApply(minimize, resourceType, allPostProcessors);
-    final String output = applyPostProcessors(processors, content);
-    return output;
+    final List<ResourcePostProcessor> processors = new ArrayList<ResourcePostProcessor>(
+      ProcessorsUtils.filterProcessorsToApply(minimize, resourceType, allPostProcessors));
+    final String content;
+    int applied = 0;
+    if (!processors.isEmpty() && processors.get(0) instanceof GroupAwarePostProcessor) {
+      content = applyGroupAwarePostProcessor((GroupAwarePostProcessor) processors.remove(0), resources, contents);
+      applied++;
+    } else {
+      content = merge(contents);
+    }
+    return applyPostProcessors(processors, content, applied);
+  }
+
+
+  private String merge(final List<String> contents) {
+    final StringBuffer result = new StringBuffer();
+    for (final String content : contents) {
+      result.append(content);
+    }
+    return result.toString();
+  }
+
+
+  /**
+   * Apply a {@link GroupAwarePostProcessor} on the resources which weren't merged yet.
+   *
+   * @return the processed content.
+   */
+  private String applyGroupAwarePostProcessor(final GroupAwarePostProcessor processor, final List<Resource> resources,
+    final List<String> contents)
+      throws IOException {
+    final StopWatch stopWatch = new StopWatch();
+    stopWatch.start("Using " + processor.getClass().getSimpleName() + " on " + resources.size() + " resources");
+    final long start = System.nanoTime();
+    final Writer output = new StringWriter();
+    callbackRegistry.onBeforePostProcess();
+    try {
+      processor.process(resources, contents, output);
+    } finally {
+      callbackRegistry.onAfterPostProcess();
+    }
+    reportPostProcessor(1, processor, System.nanoTime() - start);
+    stopWatch.stop();
+    LOG.debug(stopWatch.prettyPrint());
+    return output.toString();
   }
 
   /**
@@ -111,9 +161,12 @@ public class GroupsProcessor {
    *          a collection of processors to apply on the content from the supplied writer.
    * @param content
    *          to process with all postProcessors.
+   * @param applied
+   *          the number of post processors of the chain already applied.
    * @return the post processed content.
    */
-  private String applyPostProcessors(final Collection<ResourcePostProcessor> processors, final String content)
+  private String applyPostProcessors(final Collection<ResourcePostProcessor> processors, final String content,
+    final int applied)
       throws IOException {
     LOG.debug("postProcessors: {}", processors);
     if (processors.isEmpty()) {
@@ -122,13 +175,17 @@ public class GroupsProcessor {
     Reader input = new StringReader(content.toString());
     Writer output = null;
     final StopWatch stopWatch = new StopWatch();
+    int position = applied;
     for (final ResourcePostProcessor processor : processors) {
+      position++;
       stopWatch.start("Using " + processor.getClass().getSimpleName());
+      final long start = System.nanoTime();
       output = new StringWriter();
 
       decorateWithPostProcessCallback(processor).process(input, output);
 
       input = new StringReader(output.toString());
+      reportPostProcessor(position, processor, System.nanoTime() - start);
       stopWatch.stop();
     }
     LOG.debug(stopWatch.prettyPrint());
@@ -136,6 +193,17 @@ public class GroupsProcessor {
   }
 
 
+  /**
+   * Adds the time spent by a post processor to the report of the processed group, if any.
+   */
+  private void reportPostProcessor(final int position, final Object processor, final long nanos) {
+    final GroupReport groupReport = Context.isContextSet() ? Context.get().getGroupReport() : null;
+    if (groupReport != null) {
+      groupReport.addPostProcessor(GroupReport.toProcessorKey(position, processor), nanos);
+    }
+  }
+
+
   /**
    * @return a decorated postProcessor which invokes callback methods.
    */
@@ -17,10 +17,12 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
+import ro.isdc.wro.model.factory.WroModelFactory;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.locator.factory.InjectorUriLocatorFactoryDecorator;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.util.HashBuilder;
 import ro.isdc.wro.model.resource.util.NamingStrategy;
 
 
@@ -70,6 +72,8 @@ public final class Injector {
     map.put(UriLocatorFactory.class, uriLocatorFactory);
     map.put(ProcessorsFactory.class, processorsFactory);
     map.put(NamingStrategy.class, wroManager.getNamingStrategy());
+    map.put(WroModelFactory.class, wroManager.getModelFactory());
+    map.put(HashBuilder.class, wroManager.getHashBuilder());
     map.put(LifecycleCallbackRegistry.class, callbackRegistry);
     map.put(Injector.class, this);
   }
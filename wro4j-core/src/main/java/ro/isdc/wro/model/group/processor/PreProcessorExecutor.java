@@ -1,5 +1,6 @@
 package ro.isdc.wro.model.group.processor;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -8,7 +9,9 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -24,15 +27,19 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.GroupReport;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.locator.FileAwareUriLocator;
+import ro.isdc.wro.model.resource.locator.UriLocator;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
+import ro.isdc.wro.util.io.FileContentReader;
 
 
 /**
@@ -66,19 +73,39 @@ public class PreProcessorExecutor {
    */
   public String processAndMerge(final List<Resource> resources, final boolean minimize)
       throws IOException {
-    Validate.notNull(resources);
     final StringBuffer result = new StringBuffer();
-    if (shouldRunInParallel(resources)) {
-      result.append(runInParallel(resources, minimize));
-    } else {
-      for (final Resource resource : resources) {
-        LOG.debug("\tmerging resource: {}", resource);
-        result.append(applyPreProcessors(resource, minimize));
-      }
+    for (final String content : process(resources, minimize)) {
+      result.append(content);
     }
     return result.toString();
   }
 
+  /**
+   * Apply preProcessors on resources without merging them. Useful for processors which need to handle each resource
+   * separately (ex: a compiler which processes all resources of a group in a single invocation).
+   *
+   * @param resources
+   *          the resources to process.
+   * @param minimize
+   *          whether minimize aware processors must be applied or not.
+   * @return the preProcessed content of each resource, in the order of the resources.
+   * @throws IOException
+   *           if IO error occurs while processing.
+   */
+  public List<String> process(final List<Resource> resources, final boolean minimize)
+      throws IOException {
+    Validate.notNull(resources);
+    if (shouldRunInParallel(resources)) {
+      return runInParallel(resources, minimize);
+    }
+    final List<String> result = new ArrayList<String>();
+    for (final Resource resource : resources) {
+      LOG.debug("\tmerging resource: {}", resource);
+      result.add(applyPreProcessors(resource, minimize));
+    }
+    return result;
+  }
+
   private boolean shouldRunInParallel(final List<Resource> resources) {
     final boolean isParallel = Context.get().getConfig().isParallelPreprocessing();
     final int availableProcessors = Runtime.getRuntime().availableProcessors();
@@ -88,17 +115,24 @@ public class PreProcessorExecutor {
   /**
    * runs the pre processors in parallel.
    *
-   * @return merged and pre processed content.
+   * @return pre processed content of each resource.
    */
-  private String runInParallel(final List<Resource> resources, final boolean minimize)
+  private List<String> runInParallel(final List<Resource> resources, final boolean minimize)
       throws IOException {
-    final StringBuffer result = new StringBuffer();
+    final List<String> result = new ArrayList<String>();
     final List<Callable<String>> callables = new ArrayList<Callable<String>>();
+    // the pooled threads inherit the context of the thread which created them, which is not necessarily the current one.
+    final Context context = Context.get();
     for (final Resource resource : resources) {
       callables.add(new Callable<String>() {
         public String call()
             throws Exception {
-          return applyPreProcessors(resource, minimize);
+          Context.set(context, context.getConfig());
+          try {
+            return applyPreProcessors(resource, minimize);
+          } finally {
+            Context.unset();
+          }
         }
       });
     }
@@ -110,7 +144,7 @@ public class PreProcessorExecutor {
 
     for (final Future<String> future : futures) {
       try {
-        result.append(future.get());
+        result.add(future.get());
       } catch (final Exception e) {
         // propagate original cause
         final Throwable cause = e.getCause();
@@ -123,7 +157,7 @@ public class PreProcessorExecutor {
         }
       }
     }
-    return result.toString();
+    return result;
   }
 
   private ExecutorService getExecutorService() {
@@ -149,22 +183,31 @@ public class PreProcessorExecutor {
     final Collection<ResourcePreProcessor> processors = ProcessorsUtils.filterProcessorsToApply(minimize,
       resource.getType(), processorsFactory.getPreProcessors());
     LOG.debug("applying preProcessors: {}", processors);
-    String resourceContent = getResourceContent(resource);
-    if (processors.isEmpty()) {
-      return resourceContent;
-    }
-    Writer writer = null;
+    final GroupReport groupReport = Context.get().getGroupReport();
+    final long locateStart = System.nanoTime();
+    final String locatedContent = getResourceContent(resource);
+    final long locateNanos = System.nanoTime() - locateStart;
+    String resourceContent = locatedContent;
+    final Map<String, Long> processorNanos = new LinkedHashMap<String, Long>();
     final StopWatch stopWatch = new StopWatch();
     for (final ResourcePreProcessor processor : processors) {
       stopWatch.start("Processor: " + processor.getClass().getSimpleName());
-      writer = new StringWriter();
+      final long start = System.nanoTime();
+      final Writer writer = new StringWriter();
       final Reader reader = new StringReader(resourceContent);
       decorateWithPreProcessCallback(decorateWithMinimizeAware(processor)).process(resource, reader, writer);
       resourceContent = writer.toString();
+      processorNanos.put(GroupReport.toProcessorKey(processorNanos.size() + 1, processor), System.nanoTime() - start);
       stopWatch.stop();
     }
-    LOG.debug(stopWatch.prettyPrint());
-    return writer.toString();
+    if (!processors.isEmpty()) {
+      LOG.debug(stopWatch.prettyPrint());
+    }
+    if (groupReport != null) {
+      groupReport.addResource(resource.getUri(), locateNanos, locatedContent.length(), resourceContent.length(),
+        processorNanos);
+    }
+    return resourceContent;
   }
 
 
@@ -177,10 +220,7 @@ public class PreProcessorExecutor {
     throws IOException {
     final WroConfiguration config = Context.get().getConfig();
     try {
-      final InputStream is = new BOMInputStream(uriLocatorFactory.locate(resource.getUri()));
-      final String result = IOUtils.toString(is, config.getEncoding());
-      is.close();
-      return result;
+      return readResource(resource.getUri(), config.getEncoding());
     } catch (final IOException e) {
       LOG.warn("Invalid resource found: " + resource);
       if (config.isIgnoreMissingResources()) {
@@ -192,6 +232,28 @@ public class PreProcessorExecutor {
     }
   }
 
+  /**
+   * Reads the content of the uri. When the locator responsible for the uri knows the file holding the content, the file
+   * is read directly using {@link FileContentReader}, otherwise the stream returned by the locator is used.
+   */
+  private String readResource(final String uri, final String encoding)
+    throws IOException {
+    final UriLocator uriLocator = uriLocatorFactory.getInstance(uri);
+    if (uriLocator instanceof FileAwareUriLocator) {
+      final File file = ((FileAwareUriLocator) uriLocator).getFile(uri);
+      if (file != null && file.isFile()) {
+        LOG.debug("reading file: {}", file);
+        return FileContentReader.read(file, encoding);
+      }
+    }
+    final InputStream is = new BOMInputStream(uriLocatorFactory.locate(uri));
+    try {
+      return IOUtils.toString(is, encoding);
+    } finally {
+      is.close();
+    }
+  }
+
   /**
    * @return a decorated preProcessor which invokes callback methods.
    */
@@ -7,7 +7,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -21,12 +25,16 @@ import ro.isdc.wro.util.StringUtils;
 
 /**
  * Implementation of the {@link UriLocator} that is able to read a resource from a classpath.
+ * <p/>
+ * The lookup of a resource in a large classpath can be expensive, that is why the resolved url of each location (or the
+ * fact that the location cannot be resolved) is cached per {@link ClassLoader}. The cache is cleared by
+ * {@link #clearCache()} when the model is reloaded.
  *
  * @author Alex Objelean
  * @created Created on Nov 6, 2008
  */
 public class ClasspathUriLocator
-    extends WildcardUriLocatorSupport {
+    extends WildcardUriLocatorSupport implements FileAwareUriLocator {
   /**
    * Logger for this class.
    */
@@ -35,6 +43,68 @@ public class ClasspathUriLocator
    * Prefix of the resource uri used to check if the resource can be read by this {@link UriLocator} implementation.
    */
   public static final String PREFIX = "classpath:";
+  /**
+   * Maps a {@link ClassLoader} to the locations resolved by it. A weak map is used in order to not prevent classloaders
+   * of redeployed applications from being garbage collected.
+   */
+  private static final Map<ClassLoader, ResolvedLocations> RESOLVED_LOCATIONS = new WeakHashMap<ClassLoader,
+    ResolvedLocations>();
+
+  /**
+   * Holds the result of resolving locations using a single {@link ClassLoader}.
+   */
+  private static final class ResolvedLocations {
+    private final Map<String, URL> found = new ConcurrentHashMap<String, URL>();
+    /**
+     * Locations which couldn't be resolved. The value is not relevant.
+     */
+    private final Map<String, Boolean> missing = new ConcurrentHashMap<String, Boolean>();
+
+    URL resolve(final ClassLoader classLoader, final String location) {
+      URL url = found.get(location);
+      if (url == null && !missing.containsKey(location)) {
+        url = classLoader.getResource(location);
+        if (url == null) {
+          missing.put(location, Boolean.TRUE);
+        } else {
+          found.put(location, url);
+        }
+      }
+      return url;
+    }
+  }
+
+  /**
+   * Forget all resolved locations. Should be called when the content of the classpath could have changed.
+   */
+  public static void clearCache() {
+    synchronized (RESOLVED_LOCATIONS) {
+      RESOLVED_LOCATIONS.clear();
+    }
+  }
+
+  /**
+   * @return the url of the location resolved by the classLoader or null if no resource is found.
+   */
+  private static URL getResource(final ClassLoader classLoader, final String location) {
+    ResolvedLocations resolvedLocations = null;
+    synchronized (RESOLVED_LOCATIONS) {
+      resolvedLocations = RESOLVED_LOCATIONS.get(classLoader);
+      if (resolvedLocations == null) {
+        resolvedLocations = new ResolvedLocations();
+        RESOLVED_LOCATIONS.put(classLoader, resolvedLocations);
+      }
+    }
+    return resolvedLocations.resolve(classLoader, location);
+  }
+
+  /**
+   * @return the context classLoader used to load the resources.
+   */
+  private ClassLoader getContextClassLoader() {
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return classLoader != null ? classLoader : ClasspathUriLocator.class.getClassLoader();
+  }
 
   /**
    * {@inheritDoc}
@@ -60,18 +130,37 @@ public class ClasspathUriLocator
   public InputStream locate(final String uri)
       throws IOException {
     Validate.notNull(uri, "URI cannot be NULL!");
-    // replace prefix & clean path by removing '..' characters if exists and
-    // normalizing the location to use.
-    final String location = StringUtils.cleanPath(uri.replaceFirst(PREFIX, "")).trim();
+    final String location = getLocation(uri);
 
     if (getWildcardStreamLocator().hasWildcard(location)) {
       return locateWildcardStream(uri, location);
     }
-    final InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(location);
-    if (is == null) {
+    final URL url = getResource(getContextClassLoader(), location);
+    if (url == null) {
       throw new IOException("Couldn't get InputStream from this resource: " + uri);
     }
-    return is;
+    return url.openStream();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public File getFile(final String uri) {
+    Validate.notNull(uri, "URI cannot be NULL!");
+    final String location = getLocation(uri);
+    if (getWildcardStreamLocator().hasWildcard(location)) {
+      return null;
+    }
+    final URL url = getResource(getContextClassLoader(), location);
+    // will be null for resources packed inside a jar
+    return url == null ? null : FileUtils.toFile(url);
+  }
+
+  /**
+   * Replace prefix & clean path by removing '..' characters if exists and normalizing the location to use.
+   */
+  private String getLocation(final String uri) {
+    return StringUtils.cleanPath(uri.replaceFirst(PREFIX, "")).trim();
   }
 
   /**
@@ -83,7 +172,8 @@ public class ClasspathUriLocator
     // prefix with '/' because we use class relative resource retrieval. Using ClassLoader.getSystemResource doesn't
     // work well.
     final String fullPath = "/" + FilenameUtils.getFullPathNoEndSeparator(location);
-    URL url = getClass().getResource(fullPath);
+    // equivalent of getClass().getResource(fullPath)
+    URL url = getResource(getClass().getClassLoader(), fullPath.substring(1));
     if (url == null) {
       // try once more, in order to treat classpath resources located in the currently built project.
       url = getClass().getResource("");
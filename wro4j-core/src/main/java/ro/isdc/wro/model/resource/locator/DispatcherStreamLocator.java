@@ -9,9 +9,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.concurrent.TimeUnit;
 
 import javax.servlet.RequestDispatcher;
@@ -23,7 +21,6 @@ import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +37,11 @@ import ro.isdc.wro.util.WroUtil;
  */
 public final class DispatcherStreamLocator {
   private static final Logger LOG = LoggerFactory.getLogger(DispatcherStreamLocator.class);
+  /**
+   * Client used to fetch resources from the server itself when the request dispatcher cannot be used. Shared by all
+   * instances, in order to reuse the keep-alive connections and to limit the number of connections to the server.
+   */
+  private static final LoopbackHttpClient HTTP_CLIENT = new LoopbackHttpClient();
 
   /**
    * When using JBoss Portal and it has some funny quirks...actually a portal application have several small web
@@ -72,16 +74,7 @@ public final class DispatcherStreamLocator {
 
         final String absolutePath = servletContextPath + location;
         final URL url = new URL(absolutePath);
-        final URLConnection conn = url.openConnection();
-        // setting these timeouts ensures the client does not deadlock indefinitely
-        // when the server has problems.
-        //TimeUnit.MILLISECONDS.con
-        final int timeout = (int) TimeUnit.MILLISECONDS.convert(Context.get().getConfig().getConnectionTimeout(),
-          TimeUnit.SECONDS);
-        LOG.debug("Computed timeout milliseconds: {}", timeout);
-        conn.setConnectTimeout(timeout);
-        conn.setReadTimeout(timeout);
-        return conn.getInputStream();
+        return new ByteArrayInputStream(HTTP_CLIENT.fetch(url, getTimeout()));
       }
       // Wrap request
       final ServletRequest wrappedRequest = getWrappedServletRequest(request, location);
@@ -115,6 +108,17 @@ public final class DispatcherStreamLocator {
   }
 
 
+  /**
+   * @return the timeout in milliseconds used for the connections opened to the server.
+   */
+  private int getTimeout() {
+    final int timeout = (int) TimeUnit.MILLISECONDS.convert(Context.get().getConfig().getConnectionTimeout(),
+      TimeUnit.SECONDS);
+    LOG.debug("Computed timeout milliseconds: {}", timeout);
+    return timeout;
+  }
+
+
   /**
    * Build a wrapped servlet request which will be used for dispatching.
    */
@@ -213,13 +217,7 @@ public final class DispatcherStreamLocator {
         throws IOException {
         try {
           LOG.debug("redirecting to: {}", location);
-          final URL url = new URL(location);
-          final HttpURLConnection connection = (HttpURLConnection)url.openConnection();
-          // sets the "UseCaches" flag to <code>false</code>, mainly to avoid jar file locking on Windows.
-          connection.setUseCaches(false);
-          final InputStream is = connection.getInputStream();
-          IOUtils.copy(is, sos);
-          is.close();
+          sos.write(HTTP_CLIENT.fetch(new URL(location), getTimeout()));
         } catch (final IOException e) {
           LOG.warn("Invalid response for location: " + location);
           throw e;
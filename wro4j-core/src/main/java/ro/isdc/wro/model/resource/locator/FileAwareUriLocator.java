@@ -0,0 +1,26 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.model.resource.locator;
+
+import java.io.File;
+
+
+/**
+ * A {@link UriLocator} which is able to tell which file (if any) holds the content of a uri. Allows the resource content
+ * to be read directly from the file system, without going through the {@link java.io.InputStream} returned by
+ * {@link UriLocator#locate(String)}.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface FileAwareUriLocator
+  extends UriLocator {
+  /**
+   * @param uri
+   *          of the resource.
+   * @return the {@link File} holding the content of the uri or null if the uri is not backed by a file (or if this
+   *         locator prefers the content to be read using {@link UriLocator#locate(String)}).
+   */
+  File getFile(final String uri);
+}
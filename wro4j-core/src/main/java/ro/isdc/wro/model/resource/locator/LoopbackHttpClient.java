@@ -0,0 +1,149 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.model.resource.locator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Fetches the content of dynamic resources by issuing http requests back to the server. Used when the resources are
+ * located outside of the request cycle (ex: by the thread responsible for reloading the cache), when no
+ * {@link javax.servlet.RequestDispatcher} is available.
+ * <p/>
+ * The response body is always read completely and the stream closed (including the error stream), which allows the
+ * JVM to put the underlying socket back in its keep-alive cache, so that subsequent requests to the same server don't
+ * pay a new TCP handshake. The number of concurrent connections per host is limited to the size of the keep-alive cache
+ * (the <code>http.maxConnections</code> system property), since connections exceeding this value would be closed
+ * anyway.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class LoopbackHttpClient {
+  private static final Logger LOG = LoggerFactory.getLogger(LoopbackHttpClient.class);
+  /**
+   * Default value of http.maxConnections system property used by the JVM.
+   */
+  private static final int DEFAULT_MAX_CONNECTIONS = 5;
+  /**
+   * Maximum number of concurrent connections to the same host.
+   */
+  private final int maxConnectionsPerHost;
+  /**
+   * Maps host:port to the semaphore limiting concurrent connections to that host.
+   */
+  private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+  LoopbackHttpClient() {
+    this(Integer.getInteger("http.maxConnections", DEFAULT_MAX_CONNECTIONS));
+  }
+
+  LoopbackHttpClient(final int maxConnectionsPerHost) {
+    Validate.isTrue(maxConnectionsPerHost > 0, "maxConnectionsPerHost must be a positive number");
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+  }
+
+  /**
+   * @param url
+   *          to fetch.
+   * @param timeout
+   *          in milliseconds used for waiting for a free connection, connecting and reading the response.
+   * @return the content of the response body.
+   * @throws IOException
+   *           if the content cannot be fetched.
+   */
+  public byte[] fetch(final URL url, final int timeout)
+    throws IOException {
+    Validate.notNull(url);
+    final Semaphore permits = getPermits(url);
+    acquire(permits, url, timeout);
+    try {
+      final URLConnection connection = url.openConnection();
+      // setting these timeouts ensures the client does not deadlock indefinitely when the server has problems.
+      connection.setConnectTimeout(timeout);
+      connection.setReadTimeout(timeout);
+      // sets the "UseCaches" flag to <code>false</code>, mainly to avoid jar file locking on Windows.
+      connection.setUseCaches(false);
+      try {
+        return readFully(connection.getInputStream(), connection.getContentLength());
+      } catch (final IOException e) {
+        consumeErrorStream(connection);
+        throw e;
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  private Semaphore getPermits(final URL url) {
+    final String key = url.getHost() + ":" + url.getPort();
+    Semaphore permits = hostPermits.get(key);
+    if (permits == null) {
+      final Semaphore newPermits = new Semaphore(maxConnectionsPerHost);
+      permits = hostPermits.putIfAbsent(key, newPermits);
+      if (permits == null) {
+        permits = newPermits;
+      }
+    }
+    return permits;
+  }
+
+  private void acquire(final Semaphore permits, final URL url, final int timeout)
+    throws IOException {
+    try {
+      if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+        throw new IOException("Timeout while waiting for a free connection to: " + url);
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a free connection to: " + url);
+    }
+  }
+
+  /**
+   * Reads the stream until the end and closes it. Reading the body completely is mandatory for the connection to be
+   * reused.
+   */
+  private byte[] readFully(final InputStream is, final int contentLength)
+    throws IOException {
+    try {
+      final ByteArrayOutputStream os = new ByteArrayOutputStream(contentLength > 0 ? contentLength : 4096);
+      IOUtils.copy(is, os);
+      return os.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+  /**
+   * When the server responds with an error status, the error stream must also be consumed in order to allow the
+   * connection to be reused.
+   */
+  private void consumeErrorStream(final URLConnection connection) {
+    if (connection instanceof HttpURLConnection) {
+      final InputStream errorStream = ((HttpURLConnection) connection).getErrorStream();
+      if (errorStream != null) {
+        try {
+          readFully(errorStream, -1);
+        } catch (final IOException e) {
+          LOG.debug("Cannot consume error stream of: {}", connection.getURL());
+        }
+      }
+    }
+  }
+}
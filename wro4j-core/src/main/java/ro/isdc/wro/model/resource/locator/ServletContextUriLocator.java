@@ -31,7 +31,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created Created on Nov 10, 2008
  */
 public class ServletContextUriLocator
-  extends WildcardUriLocatorSupport {
+  extends WildcardUriLocatorSupport implements FileAwareUriLocator {
   /**
    * Logger for this class.
    */
@@ -79,6 +79,17 @@ public class ServletContextUriLocator
     return WroUtil.startsWithIgnoreCase(uri, PROTECTED_PREFIX);
   }
 
+  /**
+   * The resources are located using the request dispatcher first (in order to handle jsp resources), that is why the
+   * content is not read directly from the file system by default. Subclasses running outside of a servlet container may
+   * override this method.
+   *
+   * @return null.
+   */
+  public File getFile(final String uri) {
+    return null;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -10,7 +10,10 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -26,11 +29,20 @@ import ro.isdc.wro.model.resource.locator.wildcard.WildcardUriLocatorSupport;
  * @author Alex Objelean
  * @created Created on Nov 10, 2008
  */
-public class UrlUriLocator extends WildcardUriLocatorSupport {
+public class UrlUriLocator extends WildcardUriLocatorSupport implements FileAwareUriLocator {
   /**
    * Logger for this class.
    */
   private static final Logger LOG = LoggerFactory.getLogger(UrlUriLocator.class);
+  /**
+   * Maximum number of distinct schemes remembered by {@link #SUPPORTED_SCHEMES}.
+   */
+  private static final int MAX_CACHED_SCHEMES = 64;
+  /**
+   * Remembers for each scheme (protocol) if there is a {@link java.net.URLStreamHandler} able to handle it. Allows
+   * rejecting uri's with unknown schemes (ex: classpath:) without creating a {@link MalformedURLException} each time.
+   */
+  private static final Map<String, Boolean> SUPPORTED_SCHEMES = new ConcurrentHashMap<String, Boolean>();
 
 
   /**
@@ -48,6 +60,11 @@ public class UrlUriLocator extends WildcardUriLocatorSupport {
    * @return true if the uri is a URL resource.
    */
   public static boolean isValid(final String uri) {
+    // fast path: a valid url must start with a scheme which is known by the JVM.
+    final String scheme = getScheme(uri);
+    if (scheme == null || !isSupportedScheme(scheme)) {
+      return false;
+    }
     // if creation of URL object doesn't throw an exception, the uri can be
     // accepted.
     try {
@@ -59,6 +76,59 @@ public class UrlUriLocator extends WildcardUriLocatorSupport {
   }
 
 
+  /**
+   * Extracts the scheme of the uri without creating any objects other than the result. The rules are the same as the
+   * ones used by {@link URL}: the leading whitespaces are ignored and the scheme must start with a letter followed by
+   * letters, digits or one of the '+', '-', '.' characters.
+   *
+   * @param uri to extract the scheme from.
+   * @return the lower case scheme of the uri or null if the uri has no scheme.
+   */
+  static String getScheme(final String uri) {
+    if (uri == null) {
+      return null;
+    }
+    final int length = uri.length();
+    int start = 0;
+    while (start < length && uri.charAt(start) <= ' ') {
+      start++;
+    }
+    for (int i = start; i < length; i++) {
+      final char c = uri.charAt(i);
+      if (c == ':') {
+        return i > start ? uri.substring(start, i).toLowerCase() : null;
+      }
+      final boolean valid = Character.isLetter(c)
+        || (i > start && (Character.isDigit(c) || c == '+' || c == '-' || c == '.'));
+      if (!valid) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * @return true if there is a {@link java.net.URLStreamHandler} available for the provided scheme. The result is
+   *         computed once per scheme.
+   */
+  private static boolean isSupportedScheme(final String scheme) {
+    Boolean supported = SUPPORTED_SCHEMES.get(scheme);
+    if (supported == null) {
+      try {
+        new URL(scheme, null, "");
+        supported = Boolean.TRUE;
+      } catch (final MalformedURLException e) {
+        supported = Boolean.FALSE;
+      }
+      if (SUPPORTED_SCHEMES.size() < MAX_CACHED_SCHEMES) {
+        SUPPORTED_SCHEMES.put(scheme, supported);
+      }
+    }
+    return supported.booleanValue();
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -76,4 +146,21 @@ public class UrlUriLocator extends WildcardUriLocatorSupport {
     con.setUseCaches(false);
     return new BufferedInputStream(con.getInputStream());
   }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public File getFile(final String uri) {
+    Validate.notNull(uri, "uri cannot be NULL!");
+    if (!isValid(uri) || getWildcardStreamLocator().hasWildcard(uri)) {
+      return null;
+    }
+    try {
+      // returns null for urls not using the file protocol.
+      return FileUtils.toFile(new URL(uri));
+    } catch (final MalformedURLException e) {
+      return null;
+    }
+  }
 }
@@ -6,19 +6,30 @@ package ro.isdc.wro.model.resource.locator.factory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import ro.isdc.wro.model.resource.locator.UriLocator;
 
 
 /**
  * Holds a list of uri locators. The uriLocator will be created based on the first
- * uriLocator from the supplied list which will accept the url.
+ * uriLocator from the supplied list which will accept the url. The locator resolved for a uri is remembered, so that
+ * subsequent lookups of the same uri do not query the locators again.
  *
  * @author Alex Objelean
  * @created Created on Nov 4, 2008
  */
 public class SimpleUriLocatorFactory extends AbstractUriLocatorFactory {
+  /**
+   * Maximum number of uri's for which the resolved locator is remembered.
+   */
+  private static final int MAX_RESOLVED_URIS = 5000;
   private final List<UriLocator> uriLocators = new ArrayList<UriLocator>();
+  /**
+   * Maps an uri to the locator which accepted it.
+   */
+  private final Map<String, UriLocator> resolvedLocators = new ConcurrentHashMap<String, UriLocator>();
 
   /**
    * @param uri to handle by the locator.
@@ -26,6 +37,26 @@ public class SimpleUriLocatorFactory extends AbstractUriLocatorFactory {
    *         found.
    */
   public UriLocator getInstance(final String uri) {
+    if (uri == null) {
+      return findLocator(uri);
+    }
+    UriLocator uriLocator = resolvedLocators.get(uri);
+    if (uriLocator == null) {
+      uriLocator = findLocator(uri);
+      if (uriLocator != null) {
+        if (resolvedLocators.size() >= MAX_RESOLVED_URIS) {
+          resolvedLocators.clear();
+        }
+        resolvedLocators.put(uri, uriLocator);
+      }
+    }
+    return uriLocator;
+  }
+
+  /**
+   * @return the first locator from the list which accepts the uri or null if no such locator exist.
+   */
+  private UriLocator findLocator(final String uri) {
     for (final UriLocator uriLocator : uriLocators) {
       if (uriLocator.accept(uri)) {
         return uriLocator;
@@ -43,6 +74,8 @@ public class SimpleUriLocatorFactory extends AbstractUriLocatorFactory {
     for (final UriLocator locator : locators) {
       uriLocators.add(locator);
     }
+    // the order of locators has changed, previously resolved locators are not valid anymore.
+    resolvedLocators.clear();
     return this;
   }
 
@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2011.
+ * All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+/**
+ * Mark processors implementing this interface as capable of describing the configuration their output depends on (ex:
+ * the options, the version of the script used). Two processors of the same class having the same fingerprint must
+ * produce the same output for the same input. The processors which don't implement this interface are described only by
+ * their class, as long as they don't hold any state (see {@link ProcessorsUtils#getFingerprint(Object)}).
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface FingerprintAware {
+  /**
+   * @return describes the configuration of the processor, or null if the configuration cannot be described (ex: a
+   *         decorated processor cannot describe its configuration).
+   */
+  String getFingerprint();
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * A {@link ResourcePostProcessor} which can process the resources of a group before they are merged. When it is the
+ * first post processor to apply, it receives the pre processed content of each resource instead of the merged content.
+ * This allows processing all the resources in a single invocation, while still knowing where each of them comes from
+ * (ex: a compiler which optimizes better the whole program and reports the errors using the uri of the resource).
+ * <p/>
+ * When it is not the first post processor to apply, {@link #process(java.io.Reader, Writer)} is invoked with the
+ * merged content, like for any other post processor.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface GroupAwarePostProcessor
+  extends ResourcePostProcessor {
+  /**
+   * Process the resources of a group. The processed content is written to the writer. It is the client responsibility
+   * to close the writer.
+   *
+   * @param resources
+   *          the processed resources, in the order they are merged.
+   * @param contents
+   *          the pre processed content of each resource, in the same order as the resources.
+   * @param writer
+   *          destination stream.
+   */
+  void process(final List<Resource> resources, final List<String> contents, final Writer writer)
+    throws IOException;
+}
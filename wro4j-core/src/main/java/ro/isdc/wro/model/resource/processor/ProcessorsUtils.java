@@ -6,6 +6,8 @@ package ro.isdc.wro.model.resource.processor;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -13,6 +15,7 @@ import java.util.Map;
 
 import org.apache.commons.lang3.Validate;
 
+import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
@@ -70,6 +73,30 @@ public class ProcessorsUtils {
     return supportedType;
   }
 
+  /**
+   * Describes a processor and its configuration. A processor which is not {@link FingerprintAware} is described by its
+   * class only if it has no other fields than the injected ones, since its output could depend on their values.
+   *
+   * @param processor to describe.
+   * @return the fingerprint of the processor or null if its configuration cannot be described.
+   */
+  public static <T> String getFingerprint(final T processor) {
+    Validate.notNull(processor);
+    final String name = processor.getClass().getName();
+    if (processor instanceof FingerprintAware) {
+      final String fingerprint = ((FingerprintAware) processor).getFingerprint();
+      return fingerprint == null ? null : name + "(" + fingerprint + ")";
+    }
+    for (Class<?> type = processor.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (final Field field : type.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(Inject.class)) {
+          return null;
+        }
+      }
+    }
+    return name;
+  }
+
   /**
    * This method is visible for testing only.
    * @param <T> processor type. Can be {@link ResourcePreProcessor}, {@link ResourcePostProcessor} or null (any).
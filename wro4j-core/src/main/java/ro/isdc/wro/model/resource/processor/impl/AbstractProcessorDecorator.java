@@ -8,22 +8,25 @@ import java.io.Reader;
 import java.io.Writer;
 
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.MinimizeAware;
 import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.SupportedResourceTypeAware;
+import ro.isdc.wro.util.Destroyable;
 
 
 /**
- * Hides details common to all processors decorators.
+ * Hides details common to all processors decorators. Destroying the decorator destroys the decorated processor.
  *
  * @author Alex Objelean
  * @created 16 Sep 2011
  * @since 1.4.1
  */
 public abstract class AbstractProcessorDecorator
-  implements ResourcePreProcessor, ResourcePostProcessor, SupportedResourceTypeAware, MinimizeAware {
+  implements ResourcePreProcessor, ResourcePostProcessor, SupportedResourceTypeAware, MinimizeAware, FingerprintAware,
+  Destroyable {
   /**
    * Decorated processor.
    */
@@ -51,6 +54,13 @@ public abstract class AbstractProcessorDecorator
     return ProcessorsUtils.isMinimizeAwareProcessor(decoratedProcessor);
   }
 
+  /**
+   * @return the fingerprint of the decorated processor.
+   */
+  public String getFingerprint() {
+    return ProcessorsUtils.getFingerprint(decoratedProcessor);
+  }
+
   /**
    * @return the decoratedProcessor
    */
@@ -65,4 +75,14 @@ public abstract class AbstractProcessorDecorator
     throws IOException {
     process(null, reader, writer);
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void destroy()
+    throws Exception {
+    if (decoratedProcessor instanceof Destroyable) {
+      ((Destroyable) decoratedProcessor).destroy();
+    }
+  }
 }
@@ -9,6 +9,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -60,6 +61,15 @@ public class ExtensionsAwareProcessorDecorator
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getFingerprint() {
+    final String fingerprint = super.getFingerprint();
+    return fingerprint == null ? null : fingerprint + new TreeSet<String>(extensions);
+  }
+
   public static ExtensionsAwareProcessorDecorator decorate(final ResourcePreProcessor preProcessor) {
     return new ExtensionsAwareProcessorDecorator(preProcessor);
   }
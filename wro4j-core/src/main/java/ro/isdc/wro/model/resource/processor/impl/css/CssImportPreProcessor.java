@@ -24,6 +24,7 @@ import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.util.StringUtils;
 
@@ -37,7 +38,7 @@ import ro.isdc.wro.util.StringUtils;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class CssImportPreProcessor
-  implements ResourcePreProcessor {
+  implements ResourcePreProcessor, FingerprintAware {
   private static final Logger LOG = LoggerFactory.getLogger(CssImportPreProcessor.class);
   public static final String ALIAS = "cssImport";
   /**
@@ -70,6 +71,15 @@ public class CssImportPreProcessor
     }
   }
 
+  /**
+   * The imported resources are part of the fingerprint of the resources (see {@link #findImportedUris(String, String)}).
+   *
+   * @return an empty fingerprint, since there is nothing to configure.
+   */
+  public String getFingerprint() {
+    return "";
+  }
+
   /**
    * Checks if required fields were injected.
    */
@@ -129,9 +139,8 @@ public class CssImportPreProcessor
     final List<Resource> imports = new ArrayList<Resource>();
     final String css = IOUtils.toString(uriLocatorFactory.locate(resource.getUri()),
       Context.get().getConfig().getEncoding());
-    final Matcher m = PATTERN.matcher(css);
-    while (m.find()) {
-      final Resource importedResource = buildImportedResource(resource, m.group(1));
+    for (final String importedUri : findImportedUris(resource.getUri(), css)) {
+      final Resource importedResource = Resource.create(importedUri, ResourceType.CSS);
       // check if already exist
       if (imports.contains(importedResource)) {
         LOG.warn("Duplicate imported resource: " + importedResource);
@@ -144,23 +153,34 @@ public class CssImportPreProcessor
 
 
   /**
-   * Build a {@link Resource} object from a found importedResource inside a given resource.
+   * Finds the resources imported by a css resource, resolved the same way this processor imports them. Useful for the
+   * components which need to know the inputs of a css resource without processing it.
+   *
+   * @param uri the uri of the css resource.
+   * @param css the content of the css resource.
+   * @return the absolute uris of the imported resources, in the order of the import statements.
    */
-  private Resource buildImportedResource(final Resource resource, final String importUrl) {
-    final String absoluteUrl = computeAbsoluteUrl(resource, importUrl);
-    return Resource.create(absoluteUrl, ResourceType.CSS);
+  public static List<String> findImportedUris(final String uri, final String css) {
+    Validate.notNull(uri);
+    Validate.notNull(css);
+    final List<String> uris = new ArrayList<String>();
+    final Matcher m = PATTERN.matcher(css);
+    while (m.find()) {
+      uris.add(computeAbsoluteUrl(uri, m.group(1)));
+    }
+    return uris;
   }
 
 
   /**
    * Computes absolute url of the imported resource.
    *
-   * @param relativeResource {@link Resource} where the import statement is found.
+   * @param relativeUri uri of the resource where the import statement is found.
    * @param importUrl found import url.
    * @return absolute url of the resource to import.
    */
-  private String computeAbsoluteUrl(final Resource relativeResource, final String importUrl) {
-    final String folder = FilenameUtils.getFullPath(relativeResource.getUri());
+  private static String computeAbsoluteUrl(final String relativeUri, final String importUrl) {
+    final String folder = FilenameUtils.getFullPath(relativeUri);
     // remove '../' & normalize the path.
     final String absoluteImportUrl = StringUtils.normalizePath(folder + importUrl);
     return absoluteImportUrl;
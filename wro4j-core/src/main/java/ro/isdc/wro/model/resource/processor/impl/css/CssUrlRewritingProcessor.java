@@ -9,9 +9,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +24,7 @@ import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
 import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
 import ro.isdc.wro.model.resource.locator.UriLocator;
 import ro.isdc.wro.model.resource.locator.UrlUriLocator;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 
 
 /**
@@ -106,7 +110,7 @@ import ro.isdc.wro.model.resource.locator.UrlUriLocator;
  * @author Alex Objelean
  * @created Nov 19, 2008
  */
-public class CssUrlRewritingProcessor extends AbstractCssUrlRewritingProcessor {
+public class CssUrlRewritingProcessor extends AbstractCssUrlRewritingProcessor implements FingerprintAware {
   private static final Logger LOG = LoggerFactory.getLogger(CssUrlRewritingProcessor.class);
   public static final String ALIAS = "cssUrlRewriting";
   /**
@@ -118,6 +122,11 @@ public class CssUrlRewritingProcessor extends AbstractCssUrlRewritingProcessor {
    * The name of resource id parameter.
    */
   public static final String PARAM_RESOURCE_ID = "id";
+  /**
+   * Matches the id of the resources proxied by the rewritten urls.
+   */
+  private static final Pattern PATTERN_PROXIED_URL = Pattern.compile(Pattern.quote(PATH_RESOURCES + "?"
+    + PARAM_RESOURCE_ID + "=") + "([^'\"\\)\\s]+)");
   /**
    * A set of allowed url's.
    */
@@ -263,13 +272,41 @@ public class CssUrlRewritingProcessor extends AbstractCssUrlRewritingProcessor {
   }
 
 
+  /**
+   * Allows the resources proxied by the urls of a css which was already rewritten, like the prebuilt content of a
+   * group, which is served without being processed.
+   *
+   * @param content of a css processed by this processor.
+   */
+  public void allowRewrittenUrls(final String content) {
+    Validate.notNull(content);
+    final Matcher matcher = PATTERN_PROXIED_URL.matcher(content);
+    while (matcher.find()) {
+      LOG.debug("adding allowed url: {}", matcher.group(1));
+      allowedUrls.add(matcher.group(1));
+    }
+  }
+
+
+  /**
+   * The allowed urls are collected while processing (or by {@link #allowRewrittenUrls(String)} when the processed
+   * content is served from a prebuilt cache), the rewritten urls depend only on the aggregated folder path.
+   *
+   * @return an empty fingerprint, since there is nothing to configure.
+   */
+  public String getFingerprint() {
+    return "";
+  }
+
+
   /**
    * This method has protected modifier in order to be accessed by unit test class.
    *
    * @return urlPrefix value.
    */
   protected String getUrlPrefix() {
-    final String requestURI = Context.get().getRequest().getRequestURI();
+    // there is no request when the group is processed by a build tool, the resources are relative to the group
+    final String requestURI = Context.get().getRequest() == null ? "" : Context.get().getRequest().getRequestURI();
     return String.format("%s?%s=", FilenameUtils.getFullPath(requestURI) + PATH_RESOURCES, PARAM_RESOURCE_ID);
   }
 }
@@ -0,0 +1,166 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.model.resource.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
+
+
+/**
+ * Computes a fingerprint of the inputs of a group: the uri and the content of each resource, as located by the
+ * {@link UriLocatorFactory} used for processing (thus the wildcards are expanded), and the content of the css resources
+ * imported with <code>@import</code> statements. Any change of these inputs changes the fingerprint.
+ * <p/>
+ * A resource which cannot be located is part of the fingerprint as missing, thus the group is processed again when the
+ * resource becomes available.
+ * <p/>
+ * Each resource is located only once by an instance, thus the resources shared by several groups are read once. An
+ * instance should be used only while the resources don't change (ex: during a build).
+ * <p/>
+ * Used by the build tools to detect the groups which didn't change and by the {@link ro.isdc.wro.cache.PrebuiltCache} to
+ * validate the content produced at build time.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class InputFingerprinter {
+  private static final Logger LOG = LoggerFactory.getLogger(InputFingerprinter.class);
+  private static final String MISSING = "<missing>";
+  private final HashBuilder hashBuilder = new SHA1HashBuilder();
+  private final UriLocatorFactory uriLocatorFactory;
+  private final String encoding;
+  /**
+   * The inputs already located, by resource type and uri.
+   */
+  private final ConcurrentMap<String, Input> inputs = new ConcurrentHashMap<String, Input>();
+
+  /**
+   * The part of the fingerprint computed from the content of a resource.
+   */
+  private static class Input {
+    /**
+     * The hash of the content or null if the resource cannot be located.
+     */
+    private final String hash;
+    private final List<String> importedUris;
+
+    Input(final String hash, final List<String> importedUris) {
+      this.hash = hash;
+      this.importedUris = importedUris;
+    }
+  }
+
+
+  /**
+   * @param uriLocatorFactory
+   *          used to locate the resources.
+   * @param encoding
+   *          of the resources.
+   */
+  public InputFingerprinter(final UriLocatorFactory uriLocatorFactory, final String encoding) {
+    Validate.notNull(uriLocatorFactory);
+    Validate.notNull(encoding);
+    this.uriLocatorFactory = uriLocatorFactory;
+    this.encoding = encoding;
+  }
+
+
+  /**
+   * @param settings
+   *          describes everything else the output depends on (ex: the processors and their configuration).
+   * @param resources
+   *          the resources of the group.
+   * @return the fingerprint of the settings and of the inputs.
+   */
+  public String fingerprint(final String settings, final Collection<Resource> resources)
+    throws IOException {
+    Validate.notNull(settings);
+    Validate.notNull(resources);
+    final StringBuilder sb = new StringBuilder(settings);
+    final Set<String> visited = new HashSet<String>();
+    for (final Resource resource : resources) {
+      append(sb, resource.getUri(), resource.getType(), visited);
+    }
+    return hash(sb.toString());
+  }
+
+
+  private void append(final StringBuilder sb, final String uri, final ResourceType type, final Set<String> visited)
+    throws IOException {
+    sb.append('\n').append(type).append(':').append(uri).append('=');
+    if (!visited.add(type + ":" + uri)) {
+      // already part of the fingerprint, avoid infinite recursion of css imports
+      return;
+    }
+    final Input input = getInput(uri, type);
+    if (input.hash == null) {
+      sb.append(MISSING);
+      return;
+    }
+    sb.append(input.hash);
+    for (final String importedUri : input.importedUris) {
+      append(sb, importedUri, ResourceType.CSS, visited);
+    }
+  }
+
+
+  private Input getInput(final String uri, final ResourceType type)
+    throws IOException {
+    final String key = type + ":" + uri;
+    Input input = inputs.get(key);
+    if (input == null) {
+      final String content = locate(uri);
+      if (content == null) {
+        input = new Input(null, Collections.<String>emptyList());
+      } else {
+        input = new Input(hash(content), type == ResourceType.CSS ? CssImportPreProcessor.findImportedUris(uri,
+          content) : Collections.<String>emptyList());
+      }
+      inputs.putIfAbsent(key, input);
+    }
+    return input;
+  }
+
+
+  /**
+   * @return the content of the resource or null if it cannot be located.
+   */
+  private String locate(final String uri) {
+    try {
+      final InputStream input = uriLocatorFactory.locate(uri);
+      try {
+        return IOUtils.toString(input, encoding);
+      } finally {
+        IOUtils.closeQuietly(input);
+      }
+    } catch (final IOException e) {
+      LOG.debug("Cannot locate {}: {}", uri, e.getMessage());
+      return null;
+    }
+  }
+
+
+  private String hash(final String value)
+    throws IOException {
+    return hashBuilder.getHash(new ByteArrayInputStream(value.getBytes(encoding)));
+  }
+}
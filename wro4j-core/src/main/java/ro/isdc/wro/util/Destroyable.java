@@ -0,0 +1,21 @@
+/*
+ * Copyright (C) 2011.
+ * All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+/**
+ * Implemented by the objects holding resources which must be released when the object is taken out of service (ex: a
+ * processor using a pool of script engines). The {@link ro.isdc.wro.manager.WroManager} destroys its processors when it
+ * is destroyed.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface Destroyable {
+  /**
+   * Releases the resources held by this object. Can be called more than once.
+   */
+  void destroy()
+    throws Exception;
+}
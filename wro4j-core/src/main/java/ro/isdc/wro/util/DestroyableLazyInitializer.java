@@ -47,7 +47,22 @@ public abstract class DestroyableLazyInitializer<T> {
    * {@link DestroyableLazyInitializer#get()} method is invoked.
    */
   public final void destroy() {
+    final T destroyed = object;
     object = null;
+    if (destroyed != null) {
+      onDestroy(destroyed);
+    }
+  }
+
+
+  /**
+   * Invoked by {@link #destroy()} when the object was initialized, allowing to release the resources it holds. Default
+   * implementation does nothing.
+   *
+   * @param destroyed
+   *          the object which is not managed anymore.
+   */
+  protected void onDestroy(final T destroyed) {
   }
 
 
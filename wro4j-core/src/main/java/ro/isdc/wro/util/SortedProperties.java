@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2011.
+ * All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.TreeSet;
+
+
+/**
+ * {@link Properties} stored sorted by key, thus the content of the stored file doesn't depend on the order in which the
+ * properties were set (ex: by the tasks processing the groups in parallel).
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class SortedProperties
+  extends Properties {
+  private static final long serialVersionUID = 1L;
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized Enumeration<Object> keys() {
+    return Collections.enumeration(new TreeSet<Object>(super.keySet()));
+  }
+}
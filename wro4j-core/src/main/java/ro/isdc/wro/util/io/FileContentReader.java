@@ -0,0 +1,119 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.util.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Reads the content of a file as a String in a single pass, without intermediate buffers. Small files are read with a
+ * single bulk {@link FileChannel} read, while large files are memory mapped. The UTF-8 Byte Order Mark (if present) is
+ * skipped, the same way {@link org.apache.commons.io.input.BOMInputStream} does.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class FileContentReader {
+  /**
+   * Files larger than this value (in bytes) are memory mapped instead of being read into a heap buffer.
+   */
+  static final long MAPPING_THRESHOLD = 1024 * 1024;
+  private static final byte[] UTF8_BOM = new byte[] {
+    (byte) 0xEF, (byte) 0xBB, (byte) 0xBF
+  };
+
+  private FileContentReader() {
+  }
+
+  /**
+   * @param file
+   *          to read.
+   * @param encoding
+   *          the name of the charset used to decode the content.
+   * @return the content of the file as String.
+   * @throws IOException
+   *           if the file cannot be read.
+   */
+  public static String read(final File file, final String encoding)
+    throws IOException {
+    Validate.notNull(file);
+    Validate.notNull(encoding);
+    final FileInputStream fis = new FileInputStream(file);
+    try {
+      final FileChannel channel = fis.getChannel();
+      final ByteBuffer buffer = readBytes(channel);
+      skipBom(buffer);
+      return decode(buffer, Charset.forName(encoding));
+    } finally {
+      fis.close();
+    }
+  }
+
+  private static ByteBuffer readBytes(final FileChannel channel)
+    throws IOException {
+    final long size = channel.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File is too large to be read: " + size + " bytes");
+    }
+    if (size > MAPPING_THRESHOLD) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    int read = 0;
+    while (buffer.hasRemaining() && read >= 0) {
+      read = channel.read(buffer);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Moves the position of the buffer after the UTF-8 BOM if the buffer starts with one.
+   */
+  static void skipBom(final ByteBuffer buffer) {
+    if (buffer.remaining() < UTF8_BOM.length) {
+      return;
+    }
+    final int position = buffer.position();
+    for (int i = 0; i < UTF8_BOM.length; i++) {
+      if (buffer.get(position + i) != UTF8_BOM[i]) {
+        return;
+      }
+    }
+    buffer.position(position + UTF8_BOM.length);
+  }
+
+  /**
+   * Decodes the buffer using a char buffer sized upfront for the worst case, so that no re-allocation is required.
+   * Malformed and unmappable input is replaced, as {@link java.io.InputStreamReader} does.
+   */
+  private static String decode(final ByteBuffer buffer, final Charset charset)
+    throws CharacterCodingException {
+    final CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+      CodingErrorAction.REPLACE);
+    final CharBuffer chars = CharBuffer.allocate((int) Math.ceil(buffer.remaining() * (double) decoder.maxCharsPerByte()));
+    CoderResult result = decoder.decode(buffer, chars, true);
+    if (!result.isUnderflow()) {
+      result.throwException();
+    }
+    result = decoder.flush(chars);
+    if (!result.isUnderflow()) {
+      result.throwException();
+    }
+    chars.flip();
+    return chars.toString();
+  }
+}
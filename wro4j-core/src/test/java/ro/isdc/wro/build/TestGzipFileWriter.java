@@ -0,0 +1,126 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.build;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestGzipFileWriter {
+  private File folder;
+  private File file;
+
+
+  @Before
+  public void setUp()
+    throws IOException {
+    folder = new File(FileUtils.getTempDirectory(), "wroGzip-" + System.currentTimeMillis());
+    file = new File(folder, "all.js");
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sb.append("var a").append(i).append(" = 'value';\n");
+    }
+    FileUtils.writeStringToFile(file, sb.toString());
+  }
+
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(folder);
+  }
+
+
+  private String gunzip(final File gzipFile)
+    throws IOException {
+    final InputStream input = new GZIPInputStream(new FileInputStream(gzipFile));
+    try {
+      return IOUtils.toString(input);
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+
+  @Test
+  public void shouldWriteGzippedSibling()
+    throws Exception {
+    final File gzipFile = new GzipFileWriter(false).write(file);
+    Assert.assertEquals(new File(folder, "all.js.gz"), gzipFile);
+    Assert.assertTrue(gzipFile.length() < file.length());
+    Assert.assertEquals(FileUtils.readFileToString(file), gunzip(gzipFile));
+  }
+
+
+  @Test
+  public void exhaustiveCompressionShouldNotBeLarger()
+    throws Exception {
+    final long size = FileUtils.readFileToByteArray(new GzipFileWriter(false).write(file)).length;
+    FileUtils.deleteQuietly(GzipFileWriter.getGzipFile(file));
+    final File gzipFile = new GzipFileWriter(true).write(file);
+    Assert.assertTrue(gzipFile.length() <= size);
+    Assert.assertEquals(FileUtils.readFileToString(file), gunzip(gzipFile));
+  }
+
+
+  @Test
+  public void shouldNotRewriteSiblingOfUnchangedContent()
+    throws Exception {
+    final File gzipFile = new GzipFileWriter(false).write(file);
+    final long lastModified = file.lastModified() - 10000;
+    gzipFile.setLastModified(lastModified);
+    // the file is written again with the same content
+    FileUtils.writeStringToFile(file, FileUtils.readFileToString(file));
+    new GzipFileWriter(false).write(file);
+    Assert.assertEquals(lastModified, gzipFile.lastModified());
+  }
+
+
+  @Test
+  public void shouldRewriteSiblingOfChangedContentEvenIfNewer()
+    throws Exception {
+    final File gzipFile = new GzipFileWriter(false).write(file);
+    FileUtils.writeStringToFile(file, "var changed = true;");
+    gzipFile.setLastModified(file.lastModified() + 10000);
+    new GzipFileWriter(false).write(file);
+    Assert.assertEquals("var changed = true;", gunzip(gzipFile));
+  }
+
+
+  @Test
+  public void shouldRemoveSiblingOfMissingFile()
+    throws Exception {
+    final File gzipFile = new GzipFileWriter(false).write(file);
+    FileUtils.deleteQuietly(file);
+    Assert.assertNull(new GzipFileWriter(false).write(file));
+    Assert.assertFalse(gzipFile.exists());
+  }
+
+
+  @Test
+  public void manifestShouldDescribeTheWrittenFiles()
+    throws Exception {
+    final OutputManifest manifest = new OutputManifest();
+    final File gzipFile = new GzipFileWriter(false).write(file);
+    manifest.add("all.js", file, gzipFile);
+    final String json = manifest.toJson();
+    Assert.assertTrue(json.contains("\"all.js\": {\"file\": \"all.js\", \"size\": " + file.length()));
+    Assert.assertTrue(json.contains("\"gzipFile\": \"all.js.gz\", \"gzipSize\": " + gzipFile.length()));
+    manifest.remove("all.js");
+    Assert.assertEquals("{\n}\n", manifest.toJson());
+  }
+}
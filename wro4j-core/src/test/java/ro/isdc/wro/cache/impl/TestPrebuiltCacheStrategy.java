@@ -0,0 +1,289 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.cache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.cache.PrebuiltCache;
+import ro.isdc.wro.cache.PrebuiltCacheWriter;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.WroManager;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.manager.factory.NoProcessorsWroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.factory.XmlModelFactory;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.ExtensionsAwareProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestPrebuiltCacheStrategy {
+  private static final String PREBUILT_CONTENT = "/* prebuilt */";
+  private File directory;
+  private WroManager manager;
+
+
+  @Before
+  public void setUp() {
+    directory = new File(FileUtils.getTempDirectory(), "wroPrebuilt-" + System.currentTimeMillis());
+  }
+
+
+  @After
+  public void tearDown() {
+    if (manager != null) {
+      manager.destroy();
+    }
+    Context.unset();
+    FileUtils.deleteQuietly(directory);
+  }
+
+
+  /**
+   * @return a manager which doesn't apply any processor, using the provided prebuilt cache location.
+   */
+  private WroManager createManager(final String prebuiltCacheLocation) {
+    return createManagerFactory(prebuiltCacheLocation).create();
+  }
+
+
+  private BaseWroManagerFactory createManagerFactory(final String prebuiltCacheLocation) {
+    final WroConfiguration config = new WroConfiguration();
+    config.setPrebuiltCacheLocation(prebuiltCacheLocation);
+    Context.set(Context.standaloneContext(), config);
+    final NoProcessorsWroManagerFactory factory = new NoProcessorsWroManagerFactory();
+    factory.setModelFactory(new XmlModelFactory() {
+      @Override
+      protected InputStream getModelResourceAsStream() {
+        return getClass().getResourceAsStream("/ro/isdc/wro/manager/wro.xml");
+      }
+    });
+    return factory;
+  }
+
+
+  private void writePrebuiltCache(final CacheEntry entry)
+    throws Exception {
+    final WroManager buildManager = createManager(null);
+    try {
+      final PrebuiltCacheWriter writer = new PrebuiltCacheWriter(directory);
+      writer.add(entry, PrebuiltCache.fingerprint(buildManager.getModelFactory().create(),
+        buildManager.getUriLocatorFactory(), buildManager.getProcessorsFactory(), entry), PREBUILT_CONTENT);
+      writer.write();
+    } finally {
+      buildManager.destroy();
+    }
+  }
+
+
+  @Test
+  public void shouldServePrebuiltContent()
+    throws Exception {
+    writePrebuiltCache(new CacheEntry("g1", ResourceType.CSS, false));
+    manager = createManager(directory.toURI().toString());
+    Assert.assertTrue(manager.getCacheStrategy() instanceof PrebuiltCacheStrategy);
+    Assert.assertEquals(PREBUILT_CONTENT, manager.processGroup("g1", ResourceType.CSS, false).getRawContent());
+    // the minimized content was not built
+    Assert.assertFalse(PREBUILT_CONTENT.equals(manager.processGroup("g1", ResourceType.CSS, true).getRawContent()));
+  }
+
+
+  /**
+   * @return a manager rewriting the urls of a group containing a classpath image.
+   */
+  private WroManager createUrlRewritingManager(final String prebuiltCacheLocation) {
+    final WroConfiguration config = new WroConfiguration();
+    config.setPrebuiltCacheLocation(prebuiltCacheLocation);
+    Context.set(Context.standaloneContext(), config);
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory();
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(new CssUrlRewritingProcessor()));
+    factory.setModelFactory(new WroModelFactory() {
+      public WroModel create() {
+        return new WroModel().addGroup(new Group("images").addResource(Resource.create(
+          "classpath:ro/isdc/wro/model/resource/processor/dataUri/test/smallImage.css", ResourceType.CSS)));
+      }
+
+
+      public void destroy() {
+      }
+    });
+    return factory.create();
+  }
+
+
+  @Test
+  public void shouldAllowProxiedUrlsOfPrebuiltContent()
+    throws Exception {
+    final CacheEntry entry = new CacheEntry("images", ResourceType.CSS, false);
+    final WroManager buildManager = createUrlRewritingManager(null);
+    try {
+      final String content = buildManager.processGroup("images", ResourceType.CSS, false).getRawContent();
+      final PrebuiltCacheWriter writer = new PrebuiltCacheWriter(directory);
+      writer.add(entry, PrebuiltCache.fingerprint(buildManager.getModelFactory().create(),
+        buildManager.getUriLocatorFactory(), buildManager.getProcessorsFactory(), entry), PREBUILT_CONTENT + content);
+      writer.write();
+    } finally {
+      buildManager.destroy();
+    }
+    manager = createUrlRewritingManager(directory.toURI().toString());
+    final String prebuilt = manager.processGroup("images", ResourceType.CSS, false).getRawContent();
+    Assert.assertTrue(prebuilt, prebuilt.startsWith(PREBUILT_CONTENT));
+
+    final String resourceId = "classpath:ro/isdc/wro/model/resource/processor/dataUri/test/btn_icons.png";
+    Assert.assertTrue(prebuilt, prebuilt.contains(resourceId));
+    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(request.getParameter(CssUrlRewritingProcessor.PARAM_RESOURCE_ID)).thenReturn(resourceId);
+    Mockito.when(request.getRequestURI()).thenReturn(
+      CssUrlRewritingProcessor.PATH_RESOURCES + "?" + CssUrlRewritingProcessor.PARAM_RESOURCE_ID + "=" + resourceId);
+    final WroConfiguration config = Context.get().getConfig();
+    Context.set(Context.webContext(request, Mockito.mock(HttpServletResponse.class, Mockito.RETURNS_DEEP_STUBS),
+      Mockito.mock(FilterConfig.class)), config);
+    // the image proxied by the prebuilt content is served, even though the group was not processed
+    manager.process();
+  }
+
+
+  @Test
+  public void shouldProcessGroupWhenPrebuiltContentIsOutdated()
+    throws Exception {
+    final CacheEntry entry = new CacheEntry("g1", ResourceType.CSS, false);
+    final PrebuiltCacheWriter writer = new PrebuiltCacheWriter(directory);
+    writer.add(entry, "outdated fingerprint", PREBUILT_CONTENT);
+    writer.write();
+    manager = createManager(directory.toURI().toString());
+    Assert.assertFalse(PREBUILT_CONTENT.equals(manager.processGroup("g1", ResourceType.CSS, false).getRawContent()));
+  }
+
+
+  @Test
+  public void shouldProcessGroupWhenPrebuiltCacheIsMissing()
+    throws Exception {
+    manager = createManager(directory.toURI().toString());
+    Assert.assertNotNull(manager.processGroup("g1", ResourceType.CSS, false).getRawContent());
+  }
+
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldNotStorePrebuiltContentWhenCacheIsDisabled()
+    throws Exception {
+    writePrebuiltCache(new CacheEntry("g1", ResourceType.CSS, false));
+    final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy = Mockito.mock(CacheStrategy.class);
+    final BaseWroManagerFactory factory = createManagerFactory(null);
+    factory.setCacheStrategy(new PrebuiltCacheStrategy(cacheStrategy, directory.toURI().toString()));
+    Context.get().getConfig().setDisableCache(true);
+    manager = factory.create();
+    Assert.assertEquals(PREBUILT_CONTENT, manager.processGroup("g1", ResourceType.CSS, false).getRawContent());
+    Mockito.verify(cacheStrategy, Mockito.never()).put(Mockito.any(CacheEntry.class),
+      Mockito.any(ContentHashEntry.class));
+  }
+
+
+  @Test
+  public void shouldFingerprintTheConfigurationOfTheProcessors()
+    throws Exception {
+    manager = createManager(null);
+    final CacheEntry entry = new CacheEntry("g1", ResourceType.CSS, false);
+    final String first = fingerprint(entry, new DescribedProcessor("first"));
+    Assert.assertNotNull(first);
+    Assert.assertEquals(first, fingerprint(entry, new DescribedProcessor("first")));
+    Assert.assertFalse(first.equals(fingerprint(entry, new DescribedProcessor("second"))));
+    // a processor with a configuration it cannot describe is never prebuilt
+    Assert.assertNull(fingerprint(entry, new ConfiguredProcessor("first")));
+    Assert.assertNull(fingerprint(entry, ExtensionsAwareProcessorDecorator.decorate(new ConfiguredProcessor("first"))));
+  }
+
+
+  private String fingerprint(final CacheEntry entry, final ResourcePreProcessor processor)
+    throws Exception {
+    return PrebuiltCache.fingerprint(manager.getModelFactory().create(), manager.getUriLocatorFactory(),
+      new SimpleProcessorsFactory().addPreProcessor(processor), entry);
+  }
+
+
+  private static class ConfiguredProcessor
+    implements ResourcePreProcessor {
+    private final String prefix;
+
+
+    ConfiguredProcessor(final String prefix) {
+      this.prefix = prefix;
+    }
+
+
+    public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+      writer.write(prefix + IOUtils.toString(reader));
+    }
+  }
+
+
+  private static class DescribedProcessor
+    extends ConfiguredProcessor
+    implements FingerprintAware {
+    private final String prefix;
+
+
+    DescribedProcessor(final String prefix) {
+      super(prefix);
+      this.prefix = prefix;
+    }
+
+
+    public String getFingerprint() {
+      return prefix;
+    }
+  }
+
+
+  @Test
+  public void writerShouldRemoveUnreferencedContent()
+    throws Exception {
+    final CacheEntry entry = new CacheEntry("g1", ResourceType.CSS, false);
+    final PrebuiltCacheWriter writer = new PrebuiltCacheWriter(directory);
+    writer.add(entry, "first", "first content");
+    writer.add(new CacheEntry("g1", ResourceType.JS, true), "first", "js content");
+    writer.write();
+    Assert.assertEquals(3, directory.list().length);
+
+    // the entries of the previous build are kept
+    final PrebuiltCacheWriter nextWriter = new PrebuiltCacheWriter(directory);
+    nextWriter.add(entry, "second", "second content");
+    nextWriter.write();
+    Assert.assertEquals(3, directory.list().length);
+    final String index = FileUtils.readFileToString(new File(directory, PrebuiltCache.INDEX_FILE));
+    Assert.assertTrue(index, index.contains("g1.css="));
+    Assert.assertTrue(index, index.contains("g1.js.minimized="));
+  }
+}
@@ -47,6 +47,18 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(true, config.isJmxEnabled());
     Assert.assertEquals(false, config.isCacheGzippedContent());
     Assert.assertEquals(false, config.isParallelPreprocessing());
+    Assert.assertEquals(0, config.getEnginePoolMaxActive());
+    Assert.assertEquals(1, config.getEnginePoolMaxIdle());
+    Assert.assertEquals(0, config.getEnginePoolMinIdle());
+    Assert.assertEquals(5000, config.getEnginePoolMaxWait());
+    Assert.assertEquals(WroConfiguration.ENGINE_POOL_BLOCK, config.getEnginePoolWhenExhausted());
+    Assert.assertEquals(WroConfiguration.DEFAULT_PROCESSOR_CACHE_MAX_SIZE, config.getProcessorCacheMaxSize());
+    Assert.assertNull(config.getProcessorCacheDirectory());
+    Assert.assertEquals(WroConfiguration.DEFAULT_PROCESSOR_CACHE_MAX_DISK_SIZE, config.getProcessorCacheMaxDiskSize());
+    Assert.assertEquals(false, config.isAsyncLinting());
+    Assert.assertEquals(0, config.getScriptTimeout());
+    Assert.assertNull(config.getPrebuiltCacheLocation());
+    Assert.assertNull(config.getScriptEngine());
   }
 
   @Test
@@ -69,6 +81,18 @@ public class TestPropertyWroConfigurationFactory {
     props.setProperty(ConfigConstants.gzipResources.name(), "false");
     props.setProperty(ConfigConstants.cacheGzippedContent.name(), "true");
     props.setProperty(ConfigConstants.parallelPreprocessing.name(), "true");
+    props.setProperty(ConfigConstants.enginePoolMaxActive.name(), "8");
+    props.setProperty(ConfigConstants.enginePoolMaxIdle.name(), "4");
+    props.setProperty(ConfigConstants.enginePoolMinIdle.name(), "2");
+    props.setProperty(ConfigConstants.enginePoolMaxWait.name(), "100");
+    props.setProperty(ConfigConstants.enginePoolWhenExhausted.name(), "grow");
+    props.setProperty(ConfigConstants.processorCacheMaxSize.name(), "0");
+    props.setProperty(ConfigConstants.processorCacheDirectory.name(), "/tmp/wro4j");
+    props.setProperty(ConfigConstants.processorCacheMaxDiskSize.name(), "2048");
+    props.setProperty(ConfigConstants.asyncLinting.name(), "true");
+    props.setProperty(ConfigConstants.scriptTimeout.name(), "30000");
+    props.setProperty(ConfigConstants.prebuiltCacheLocation.name(), "/WEB-INF/wro4j-cache/");
+    props.setProperty(ConfigConstants.scriptEngine.name(), "javascript");
     factory.setProperties(props);
     final WroConfiguration config = factory.create();
     LOG.debug("config: {}", config);
@@ -78,6 +102,18 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(false, config.isGzipEnabled());
     Assert.assertEquals(true, config.isCacheGzippedContent());
     Assert.assertEquals(true, config.isParallelPreprocessing());
+    Assert.assertEquals(8, config.getEnginePoolMaxActive());
+    Assert.assertEquals(4, config.getEnginePoolMaxIdle());
+    Assert.assertEquals(2, config.getEnginePoolMinIdle());
+    Assert.assertEquals(100, config.getEnginePoolMaxWait());
+    Assert.assertEquals(WroConfiguration.ENGINE_POOL_GROW, config.getEnginePoolWhenExhausted());
+    Assert.assertEquals(0, config.getProcessorCacheMaxSize());
+    Assert.assertEquals("/tmp/wro4j", config.getProcessorCacheDirectory());
+    Assert.assertEquals(2048, config.getProcessorCacheMaxDiskSize());
+    Assert.assertEquals(true, config.isAsyncLinting());
+    Assert.assertEquals(30000, config.getScriptTimeout());
+    Assert.assertEquals("/WEB-INF/wro4j-cache/", config.getPrebuiltCacheLocation());
+    Assert.assertEquals("javascript", config.getScriptEngine());
   }
 
 
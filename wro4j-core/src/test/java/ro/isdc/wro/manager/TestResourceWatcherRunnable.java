@@ -0,0 +1,110 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.manager;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+
+
+/**
+ * Test for {@link ResourceWatcherRunnable} class.
+ *
+ * @author Alex Objelean
+ */
+public class TestResourceWatcherRunnable {
+  private File file;
+  private WroManager manager;
+  private ResourceWatcherRunnable runnable;
+
+  @Before
+  public void setUp()
+    throws IOException {
+    Context.set(Context.webContext(Mockito.mock(HttpServletRequest.class), Mockito.mock(HttpServletResponse.class),
+      Mockito.mock(FilterConfig.class)), new WroConfiguration());
+    file = File.createTempFile("wro4j", ".js");
+    FileUtils.writeStringToFile(file, "var a;");
+    final WroModelFactory modelFactory = new WroModelFactory() {
+      public WroModel create() {
+        final Group group = new Group("g1");
+        group.addResource(Resource.create(file.toURI().toString(), ResourceType.JS));
+        return new WroModel().addGroup(group);
+      }
+
+      public void destroy() {
+      }
+    };
+    manager = new BaseWroManagerFactory().setModelFactory(modelFactory).create();
+    runnable = new ResourceWatcherRunnable(manager);
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(file);
+    Context.unset();
+  }
+
+  private void modify(final String content, final long lastModified)
+    throws IOException {
+    FileUtils.writeStringToFile(file, content);
+    file.setLastModified(lastModified);
+  }
+
+  @Test
+  public void shouldNotReportChangeForUnchangedFile() {
+    Assert.assertFalse(runnable.isChanged(file));
+    Assert.assertFalse(runnable.isChanged(file));
+  }
+
+  @Test
+  public void shouldReportChangeOnlyAfterFileIsStable()
+    throws IOException {
+    Assert.assertFalse(runnable.isChanged(file));
+    modify("var b;", file.lastModified() + 2000);
+    // change is pending
+    Assert.assertFalse(runnable.isChanged(file));
+    modify("var c;", file.lastModified() + 2000);
+    // the file was modified again, still pending
+    Assert.assertFalse(runnable.isChanged(file));
+    Assert.assertTrue(runnable.isChanged(file));
+    Assert.assertFalse(runnable.isChanged(file));
+  }
+
+  @Test
+  public void shouldReprocessChangedGroup()
+    throws IOException {
+    final CacheEntry cacheEntry = new CacheEntry("g1", ResourceType.JS, false);
+    runnable.run();
+    Assert.assertNull(manager.getCacheStrategy().get(cacheEntry));
+    modify("var changed;", file.lastModified() + 2000);
+    runnable.run();
+    Assert.assertNull(manager.getCacheStrategy().get(cacheEntry));
+    runnable.run();
+    final ContentHashEntry entry = manager.getCacheStrategy().get(cacheEntry);
+    Assert.assertNotNull(entry);
+    Assert.assertTrue(entry.getRawContent().contains("var changed;"));
+  }
+}
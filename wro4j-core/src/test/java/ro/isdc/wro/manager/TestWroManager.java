@@ -13,6 +13,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.FilterConfig;
 import javax.servlet.http.HttpServletRequest;
@@ -20,6 +21,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.WriterOutputStream;
 import org.junit.After;
 import org.junit.Before;
@@ -32,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.ContentHashEntry;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.http.DelegatingServletOutputStream;
@@ -49,10 +53,15 @@ import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.GroupExtractor;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.ExtensionsAwareProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.util.CRC32HashBuilder;
+import ro.isdc.wro.model.resource.util.HashEncoderNamingStrategy;
 import ro.isdc.wro.model.resource.util.MD5HashBuilder;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.WroTestUtils;
 import ro.isdc.wro.util.io.UnclosableBufferedInputStream;
 
@@ -446,6 +455,162 @@ public class TestWroManager {
     Assert.assertEquals("51e6de8dde498cb0bf082b2cd80323fca19eef5/g3.css?minimize=true", path);
   }
 
+  /**
+   * @return a manager which doesn't apply any processor, used in standalone context.
+   */
+  private WroManager createStandaloneManager() {
+    Context.set(Context.standaloneContext(), newConfigWithUpdatePeriodValue(0));
+    final WroManager manager = new NoProcessorsWroManagerFactory().create();
+    manager.setModelFactory(getValidModelFactory());
+    return manager;
+  }
+
+
+  @Test
+  public void shouldProcessGroupWithoutRequest()
+    throws Exception {
+    manager = createStandaloneManager();
+    final ContentHashEntry entry = manager.processGroup("g1", ResourceType.CSS, false);
+    WroTestUtils.compare(WroTestUtils.getInputStream("classpath:ro/isdc/wro/manager/noProcessorsResult.css"),
+      new ByteArrayInputStream(entry.getRawContent().getBytes()));
+    Assert.assertNotNull(entry.getHash());
+  }
+
+
+  @Test
+  public void shouldWriteGroupToFolderOnlyWhenContentChanges()
+    throws Exception {
+    manager = createStandaloneManager();
+    final File folder = new File(FileUtils.getTempDirectory(), "wroWriteGroup-" + System.currentTimeMillis());
+    try {
+      final ProcessedGroup first = manager.writeGroup("g1", ResourceType.CSS, false, folder);
+      Assert.assertEquals("g1.css", first.getName());
+      Assert.assertTrue(first.isChanged());
+      Assert.assertEquals(first.getSize(), first.getFile().length());
+      Assert.assertEquals(manager.processGroup("g1", ResourceType.CSS, false).getRawContent(),
+        FileUtils.readFileToString(first.getFile()));
+      // the temporary files are removed
+      Assert.assertEquals(1, folder.list().length);
+
+      final ProcessedGroup second = manager.writeGroup("g1", ResourceType.CSS, false, folder);
+      Assert.assertFalse(second.isChanged());
+      Assert.assertEquals(first.getHash(), second.getHash());
+    } finally {
+      FileUtils.deleteQuietly(folder);
+    }
+  }
+
+
+  @Test
+  public void shouldNotWriteGroupWithoutContent()
+    throws Exception {
+    manager = createStandaloneManager();
+    final File folder = new File(FileUtils.getTempDirectory(), "wroWriteGroup-" + System.currentTimeMillis());
+    try {
+      final ProcessedGroup result = manager.writeGroup("g1", ResourceType.JS, false, folder);
+      Assert.assertNull(result.getFile());
+      Assert.assertFalse(new File(folder, "g1.js").exists());
+    } finally {
+      FileUtils.deleteQuietly(folder);
+    }
+  }
+
+
+  @Test
+  public void shouldRenameWrittenGroupUsingNamingStrategy()
+    throws Exception {
+    manager = createStandaloneManager();
+    manager.setNamingStrategy(new HashEncoderNamingStrategy());
+    final File folder = new File(FileUtils.getTempDirectory(), "wroWriteGroup-" + System.currentTimeMillis());
+    try {
+      final ProcessedGroup result = manager.writeGroup("g1", ResourceType.CSS, false, folder);
+      final String content = manager.processGroup("g1", ResourceType.CSS, false).getRawContent();
+      Assert.assertEquals(new HashEncoderNamingStrategy().rename("g1.css", new ByteArrayInputStream(
+        content.getBytes())), result.getName());
+      Assert.assertEquals(content, FileUtils.readFileToString(result.getFile()));
+    } finally {
+      FileUtils.deleteQuietly(folder);
+    }
+  }
+
+
+  @Test
+  public void shouldReportProcessedGroup()
+    throws Exception {
+    manager = createStandaloneManager();
+    Context.get().getConfig().setDisableCache(false);
+    final BuildReport report = new BuildReport();
+    Context.get().setGroupReport(report.newGroupReport("g1.css"));
+    manager.processGroup("g1", ResourceType.CSS, false);
+    Context.get().setGroupReport(report.newGroupReport("g1.css.cached"));
+    manager.processGroup("g1", ResourceType.CSS, false);
+    final String json = report.toJson();
+    Assert.assertTrue(json.contains("{\"name\": \"g1.css\", \"duration\": 0.000, \"cacheHit\": false"));
+    Assert.assertTrue(json.contains("{\"name\": \"g1.css.cached\", \"duration\": 0.000, \"cacheHit\": true"));
+    Assert.assertTrue(json.contains("{\"uri\": \"classpath:1.css\", \"locateDuration\": "));
+    Assert.assertTrue(json.contains("\"preProcessors\": {}"));
+  }
+
+
+  /**
+   * Copies the content, used twice in the same chain.
+   */
+  private static final class CopyProcessor
+    implements ResourcePreProcessor, ResourcePostProcessor {
+    public void process(final Resource resource, final Reader reader, final Writer writer)
+      throws IOException {
+      process(reader, writer);
+    }
+
+    public void process(final Reader reader, final Writer writer)
+      throws IOException {
+      IOUtils.copy(reader, writer);
+    }
+  }
+
+
+  @Test
+  public void shouldReportEachProcessorOfTheChainSeparately()
+    throws Exception {
+    Context.set(Context.standaloneContext());
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(new CopyProcessor()).addPreProcessor(
+      new CopyProcessor()).addPostProcessor(new CopyProcessor()).addPostProcessor(new CopyProcessor()));
+    manager = factory.create();
+    final GroupReport groupReport = new GroupReport("g1.css");
+    Context.get().setGroupReport(groupReport);
+    manager.processGroup("g1", ResourceType.CSS, false);
+    final String json = groupReport.toJson();
+    final String name = CopyProcessor.class.getName();
+    Assert.assertTrue(json, json.contains("\"postProcessors\": {\"1:" + name + "\": "));
+    Assert.assertTrue(json, json.contains(", \"2:" + name + "\": "));
+    Assert.assertTrue(json, json.contains("\"preProcessors\": {\"1:" + name + "\": "));
+  }
+
+
+  @Test
+  public void shouldDestroyProcessors()
+    throws Exception {
+    Context.set(Context.standaloneContext());
+    final AtomicInteger destroyed = new AtomicInteger();
+    class DestroyableProcessor
+      implements ResourcePreProcessor, Destroyable {
+      public void process(final Resource resource, final Reader reader, final Writer writer) {
+      }
+
+      public void destroy() {
+        destroyed.incrementAndGet();
+      }
+    }
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setModelFactory(getValidModelFactory());
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(new DestroyableProcessor())
+      .addPreProcessor(ExtensionsAwareProcessorDecorator.decorate(new DestroyableProcessor()).addExtension("js")));
+    manager = factory.create();
+    manager.destroy();
+    Assert.assertEquals(2, destroyed.get());
+  }
+
+
   @After
   public void tearDown() {
     manager.destroy();
@@ -3,8 +3,27 @@
  */
 package ro.isdc.wro.model.group.processor;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.GroupAwarePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+
 
 /**
  * TestGroupsProcessor.
@@ -13,8 +32,89 @@ import org.junit.Test;
  * @created Created on Jan 5, 2010
  */
 public class TestGroupsProcessor {
+  private static final String RESOURCE_URI = "classpath:ro/isdc/wro/model/resource/locator/1.js";
+  private static final String OTHER_RESOURCE_URI = "classpath:ro/isdc/wro/model/resource/locator/subfolder/3.js";
+  private Group group;
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+    group = new Group("group");
+    group.addResource(Resource.create(RESOURCE_URI, ResourceType.JS));
+    group.addResource(Resource.create(OTHER_RESOURCE_URI, ResourceType.JS));
+  }
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  private GroupsProcessor createGroupsProcessor(final ResourcePostProcessor... postProcessors) {
+    final SimpleProcessorsFactory processorsFactory = new SimpleProcessorsFactory();
+    for (final ResourcePostProcessor postProcessor : postProcessors) {
+      processorsFactory.addPostProcessor(postProcessor);
+    }
+    final BaseWroManagerFactory managerFactory = new BaseWroManagerFactory();
+    managerFactory.setProcessorsFactory(processorsFactory);
+    final GroupsProcessor groupsProcessor = new GroupsProcessor();
+    new Injector(managerFactory.create()).inject(groupsProcessor);
+    return groupsProcessor;
+  }
+
+  /**
+   * Writes the number of the processed resources followed by their merged content.
+   */
+  private GroupAwarePostProcessor createGroupAwarePostProcessor() {
+    return new GroupAwarePostProcessor() {
+      public void process(final List<Resource> resources, final List<String> contents, final Writer writer)
+        throws IOException {
+        Assert.assertEquals(resources.size(), contents.size());
+        writer.write(String.valueOf(resources.size()));
+        for (final String content : contents) {
+          writer.write(content);
+        }
+      }
+
+      public void process(final Reader reader, final Writer writer)
+        throws IOException {
+        writer.write("merged");
+        IOUtils.copy(reader, writer);
+      }
+    };
+  }
+
+  private ResourcePostProcessor createUpperCasePostProcessor() {
+    return new ResourcePostProcessor() {
+      public void process(final Reader reader, final Writer writer)
+        throws IOException {
+        writer.write(IOUtils.toString(reader).toUpperCase());
+      }
+    };
+  }
+
+  private String getMergedContent() {
+    return createGroupsProcessor().process(group, ResourceType.JS, true);
+  }
+
+  @Test
+  public void shouldProcessResourcesBeforeMergeWithGroupAwarePostProcessor() {
+    final String result = createGroupsProcessor(createGroupAwarePostProcessor()).process(group, ResourceType.JS, true);
+    Assert.assertEquals("2" + getMergedContent(), result);
+  }
+
+  @Test
+  public void shouldApplyNextPostProcessorsOnGroupAwarePostProcessorOutput() {
+    final String result = createGroupsProcessor(createGroupAwarePostProcessor(), createUpperCasePostProcessor()).process(
+      group, ResourceType.JS, true);
+    Assert.assertEquals(("2" + getMergedContent()).toUpperCase(), result);
+  }
+
   @Test
-  public void justPass() {}
+  public void shouldProcessMergedContentWhenGroupAwarePostProcessorIsNotFirst() {
+    final String result = createGroupsProcessor(createUpperCasePostProcessor(), createGroupAwarePostProcessor()).process(
+      group, ResourceType.JS, true);
+    Assert.assertEquals("merged" + getMergedContent().toUpperCase(), result);
+  }
 //  private GroupsProcessor groupsProcessor;
 //
 //  @Before
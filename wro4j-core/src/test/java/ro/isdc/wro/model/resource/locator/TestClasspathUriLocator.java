@@ -3,10 +3,15 @@
  */
 package ro.isdc.wro.model.resource.locator;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -89,4 +94,31 @@ public class TestClasspathUriLocator {
   public void resourceUnavailable() throws Exception {
     uriLocator.locate(createUri("123123.css"));
   }
+
+  @Test
+  public void shouldCacheMissingResourceUntilCacheIsCleared()
+      throws Exception {
+    final File folder = new File(FileUtils.getTempDirectory(), "wro4j-classpath-" + System.nanoTime());
+    folder.mkdirs();
+    final ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { folder.toURI().toURL() }, null));
+    try {
+      try {
+        uriLocator.locate(createUri("added.css"));
+        Assert.fail("IOException expected");
+      } catch (final IOException e) {
+      }
+      FileUtils.writeStringToFile(new File(folder, "added.css"), "a{}");
+      try {
+        uriLocator.locate(createUri("added.css"));
+        Assert.fail("Missing resource should be cached");
+      } catch (final IOException e) {
+      }
+      ClasspathUriLocator.clearCache();
+      Assert.assertEquals("a{}", IOUtils.toString(uriLocator.locate(createUri("added.css"))));
+    } finally {
+      Thread.currentThread().setContextClassLoader(originalClassLoader);
+      FileUtils.deleteQuietly(folder);
+    }
+  }
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.model.resource.locator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Test for {@link LoopbackHttpClient} class.
+ *
+ * @author Alex Objelean
+ */
+public class TestLoopbackHttpClient {
+  private static final int TIMEOUT = 2000;
+  private ServerSocket serverSocket;
+  private final AtomicInteger acceptedConnections = new AtomicInteger();
+  private LoopbackHttpClient client;
+
+  @Before
+  public void setUp()
+    throws Exception {
+    client = new LoopbackHttpClient(2);
+    serverSocket = new ServerSocket(0);
+    final Thread acceptor = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            final Socket socket = serverSocket.accept();
+            acceptedConnections.incrementAndGet();
+            serve(socket);
+          }
+        } catch (final IOException e) {
+          // server socket closed
+        }
+      }
+    };
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Serves keep-alive requests on the socket until the client closes it. Responds with 404 for uri's containing
+   * "missing" and with the requested path otherwise.
+   */
+  private void serve(final Socket socket) {
+    final Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+          final OutputStream os = socket.getOutputStream();
+          String requestLine;
+          while ((requestLine = reader.readLine()) != null) {
+            String header = reader.readLine();
+            while (header != null && header.length() > 0) {
+              header = reader.readLine();
+            }
+            final String path = requestLine.split(" ")[1];
+            final boolean missing = path.contains("missing");
+            final String body = missing ? "not found" : path;
+            final String status = missing ? "404 Not Found" : "200 OK";
+            os.write(("HTTP/1.1 " + status + "\r\nContent-Length: " + body.length()
+              + "\r\nContent-Type: text/plain\r\n\r\n" + body).getBytes("UTF-8"));
+            os.flush();
+          }
+        } catch (final IOException e) {
+          // connection closed
+        }
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @After
+  public void tearDown()
+    throws IOException {
+    serverSocket.close();
+  }
+
+  private URL createUrl(final String path)
+    throws Exception {
+    return new URL("http://localhost:" + serverSocket.getLocalPort() + path);
+  }
+
+  @Test
+  public void shouldFetchContent()
+    throws Exception {
+    Assert.assertEquals("/resource.js", new String(client.fetch(createUrl("/resource.js"), TIMEOUT), "UTF-8"));
+  }
+
+  @Test
+  public void shouldReuseConnectionForSubsequentRequests()
+    throws Exception {
+    for (int i = 0; i < 5; i++) {
+      client.fetch(createUrl("/resource" + i + ".js"), TIMEOUT);
+    }
+    Assert.assertEquals(1, acceptedConnections.get());
+  }
+
+  @Test
+  public void shouldReuseConnectionAfterErrorResponse()
+    throws Exception {
+    try {
+      client.fetch(createUrl("/missing.js"), TIMEOUT);
+      Assert.fail("IOException expected");
+    } catch (final IOException e) {
+    }
+    client.fetch(createUrl("/resource.js"), TIMEOUT);
+    Assert.assertEquals(1, acceptedConnections.get());
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotFetchFromUnavailableHost()
+    throws Exception {
+    final int port = serverSocket.getLocalPort();
+    serverSocket.close();
+    client.fetch(new URL("http://localhost:" + port + "/resource.js"), TIMEOUT);
+  }
+}
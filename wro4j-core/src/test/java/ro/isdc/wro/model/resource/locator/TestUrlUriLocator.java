@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import junit.framework.Assert;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -82,4 +84,33 @@ public class TestUrlUriLocator {
   public void testWildcardUsingInvalidResource() throws IOException {
     uriLocator.locate(createUri("http://www.google.com/*.js"));
   }
+
+  @Test
+  public void shouldNotAcceptUriWithoutScheme() {
+    Assert.assertFalse(UrlUriLocator.isValid("/someInvalidUri.html"));
+    Assert.assertFalse(UrlUriLocator.isValid("relative/image.png"));
+    Assert.assertFalse(UrlUriLocator.isValid(":noScheme"));
+    Assert.assertFalse(UrlUriLocator.isValid("1http://www.google.com"));
+  }
+
+  @Test
+  public void shouldNotAcceptUriWithUnknownScheme() {
+    Assert.assertFalse(UrlUriLocator.isValid("classpath:ro/isdc/wro/some.css"));
+    Assert.assertFalse(UrlUriLocator.isValid("classpath:ro/isdc/wro/some.css"));
+  }
+
+  @Test
+  public void shouldAcceptUriWithKnownScheme() {
+    Assert.assertTrue(UrlUriLocator.isValid("http://www.google.com"));
+    Assert.assertTrue(UrlUriLocator.isValid("  HTTPS://www.google.com"));
+    Assert.assertTrue(UrlUriLocator.isValid("file:/tmp/some.css"));
+  }
+
+  @Test
+  public void shouldExtractScheme() {
+    Assert.assertEquals("http", UrlUriLocator.getScheme(" Http://www.google.com"));
+    Assert.assertEquals("svn+ssh", UrlUriLocator.getScheme("svn+ssh://host/path"));
+    Assert.assertNull(UrlUriLocator.getScheme("/path/to/some.css"));
+    Assert.assertNull(UrlUriLocator.getScheme(null));
+  }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.locator.factory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
+import ro.isdc.wro.model.resource.locator.ServletContextUriLocator;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.UrlUriLocator;
+
+
+/**
+ * Test for {@link SimpleUriLocatorFactory} class.
+ *
+ * @author Alex Objelean
+ */
+public class TestSimpleUriLocatorFactory {
+  private SimpleUriLocatorFactory factory;
+  private int acceptCalls;
+
+  @Before
+  public void setUp() {
+    acceptCalls = 0;
+    factory = new SimpleUriLocatorFactory();
+  }
+
+  @Test
+  public void shouldReturnNullWhenNoLocatorAcceptsUri() {
+    factory.addUriLocator(new ClasspathUriLocator());
+    Assert.assertNull(factory.getInstance("/some.css"));
+  }
+
+  @Test
+  public void shouldReturnFirstAcceptingLocator() {
+    factory.addUriLocator(new ServletContextUriLocator(), new ClasspathUriLocator(), new UrlUriLocator());
+    Assert.assertTrue(factory.getInstance("/some.css") instanceof ServletContextUriLocator);
+    Assert.assertTrue(factory.getInstance("classpath:some.css") instanceof ClasspathUriLocator);
+    Assert.assertTrue(factory.getInstance("http://www.site.com/some.css") instanceof UrlUriLocator);
+  }
+
+  @Test
+  public void shouldQueryLocatorsOnlyOncePerUri() {
+    factory.addUriLocator(new CountingUriLocator());
+    Assert.assertNotNull(factory.getInstance("/some.css"));
+    Assert.assertNotNull(factory.getInstance("/some.css"));
+    Assert.assertEquals(1, acceptCalls);
+  }
+
+  @Test
+  public void shouldForgetResolvedLocatorsWhenLocatorIsAdded() {
+    factory.addUriLocator(new CountingUriLocator());
+    factory.getInstance("/some.css");
+    factory.addUriLocator(new ClasspathUriLocator());
+    factory.getInstance("/some.css");
+    Assert.assertEquals(2, acceptCalls);
+  }
+
+  private class CountingUriLocator implements UriLocator {
+    public InputStream locate(final String uri)
+      throws IOException {
+      return null;
+    }
+
+    public boolean accept(final String uri) {
+      acceptCalls++;
+      return true;
+    }
+  }
+}
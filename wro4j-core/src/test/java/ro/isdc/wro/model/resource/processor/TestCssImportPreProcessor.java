@@ -5,6 +5,9 @@ package ro.isdc.wro.model.resource.processor;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Arrays;
+
+import junit.framework.Assert;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -39,4 +42,12 @@ public class TestCssImportPreProcessor {
     final File expectedFolder = new File(url.getFile(), "expected");
     WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
   }
+
+
+  @Test
+  public void shouldFindImportedUrisRelativeToTheFolderOfTheResource() {
+    final String css = "@import url('../common/reset.css');\n@import \"fonts.css\";\n@IMPORT 'print.css';\n.a{}";
+    Assert.assertEquals(Arrays.asList("/static/common/reset.css", "/static/css/fonts.css", "/static/css/print.css"),
+      CssImportPreProcessor.findImportedUris("/static/css/main.css", css));
+  }
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BOMInputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Test for {@link FileContentReader} class.
+ *
+ * @author Alex Objelean
+ */
+public class TestFileContentReader {
+  private static final String ENCODING = "UTF-8";
+  private File file;
+
+  @Before
+  public void setUp()
+    throws IOException {
+    file = File.createTempFile("wro4j", ".css");
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(file);
+  }
+
+  @Test
+  public void shouldReadEmptyFile()
+    throws IOException {
+    Assert.assertEquals("", FileContentReader.read(file, ENCODING));
+  }
+
+  @Test
+  public void shouldReadNonAsciiContent()
+    throws IOException {
+    final String content = "body { content: \"éè中\"; }\n";
+    FileUtils.writeStringToFile(file, content, ENCODING);
+    Assert.assertEquals(content, FileContentReader.read(file, ENCODING));
+  }
+
+  @Test
+  public void shouldSkipUtf8Bom()
+    throws IOException {
+    final byte[] bytes = new byte[] {
+      (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a', '{', '}'
+    };
+    FileUtils.writeByteArrayToFile(file, bytes);
+    Assert.assertEquals("a{}", FileContentReader.read(file, ENCODING));
+  }
+
+  @Test
+  public void shouldReadMappedFileLikeStreamBasedReading()
+    throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    while (sb.length() <= FileContentReader.MAPPING_THRESHOLD) {
+      sb.append("var élèment = 'value';\n");
+    }
+    final byte[] bytes = sb.toString().getBytes(ENCODING);
+    FileUtils.writeByteArrayToFile(file, bytes);
+    final String expected = IOUtils.toString(new BOMInputStream(new ByteArrayInputStream(bytes)), ENCODING);
+    Assert.assertEquals(expected, FileContentReader.read(file, ENCODING));
+  }
+
+  @Test
+  public void shouldReplaceMalformedInput()
+    throws IOException {
+    final byte[] bytes = new byte[] {
+      'a', (byte) 0xC3, 'b'
+    };
+    FileUtils.writeByteArrayToFile(file, bytes);
+    final String expected = IOUtils.toString(new ByteArrayInputStream(bytes), ENCODING);
+    Assert.assertEquals(expected, FileContentReader.read(file, ENCODING));
+  }
+}
@@ -7,6 +7,9 @@ package ro.isdc.wro.extensions.processor.css;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -14,22 +17,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.LintExecutor;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
+import ro.isdc.wro.extensions.processor.support.csslint.CssLintError;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 import ro.isdc.wro.util.WroUtil;
 
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
 
 /**
  * Processor which analyze the css code and warns you found problems. The processing result won't change no matter if
  * the processed script contains errors or not. The underlying implementation uses CSSLint script utility {@link https
  * ://github.com/stubbornella/csslint}.
+ * <p/>
+ * The errors found for a content are cached by {@link ProcessorOutputCache}, thus an unchanged content is not validated
+ * again (the errors are still reported). The validation can be performed in background (see {@link LintExecutor}).
  *
  * @author Alex Objelean
  * @since 1.3.8
@@ -37,23 +50,32 @@ import ro.isdc.wro.util.WroUtil;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class CssLintProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(CssLintProcessor.class);
   public static final String ALIAS = "cssLint";
+  private static final Type ERRORS_TYPE = new TypeToken<List<CssLintError>>() {}.getType();
   /**
    * Options to use to configure jsHint.
    */
   private String[] options;
 
   private ObjectPoolHelper<CssLint> enginePool;
+  private final LintExecutor lintExecutor;
+  /**
+   * The fingerprint of the engines, computed once.
+   */
+  private volatile String fingerprint;
 
   public CssLintProcessor() {
-    enginePool = new ObjectPoolHelper<CssLint>(new ObjectFactory<CssLint>() {
+    enginePool = new ObjectPoolHelper<CssLint>(getClass().getName(), new ObjectFactory<CssLint>() {
       @Override
       public CssLint create() {
-        return newCssLint();
+        final CssLint cssLint = newCssLint();
+        cssLint.initialize();
+        return cssLint;
       }
     });
+    lintExecutor = new LintExecutor(getClass().getName());
   }
 
 
@@ -70,29 +92,88 @@ public class CssLintProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     final String content = IOUtils.toString(reader);
-    final CssLint cssLint = enginePool.getObject();
     try {
-      cssLint.setOptions(options).validate(content);
-    } catch (final CssLintException e) {
-      try {
-        LOG.error("The following resource: " + resource + " has " + e.getErrors().size() + " errors.", e);
-        onCssLintException(e, resource);
-      } catch (final Exception ex) {
-        WroUtil.wrapWithWroRuntimeException(e);
+      // don't change the processed content no matter what happens.
+      writer.write(content);
+    } finally {
+      reader.close();
+      writer.close();
+    }
+    final ProcessorOutputCache cache = ProcessorOutputCache.get();
+    lintExecutor.execute(new Runnable() {
+      public void run() {
+        validate(resource, content, cache);
       }
+    });
+  }
+
+  private void validate(final Resource resource, final String content, final ProcessorOutputCache cache) {
+    final CssLintException cssLintException;
+    try {
+      cssLintException = findErrors(resource, content, cache);
     } catch (final WroRuntimeException e) {
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
       LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
           + " resource, no processing applied...", e);
+      return;
+    }
+    if (cssLintException != null) {
+      try {
+        LOG.error("The following resource: " + resource + " has " + cssLintException.getErrors().size() + " errors.",
+          cssLintException);
+        onCssLintException(cssLintException, resource);
+      } catch (final Exception ex) {
+        WroUtil.wrapWithWroRuntimeException(cssLintException);
+      }
+    }
+  }
+
+  /**
+   * @return the {@link CssLintException} describing the errors found in the content or null if the content is valid.
+   */
+  private CssLintException findErrors(final Resource resource, final String content, final ProcessorOutputCache cache) {
+    final String key = cache.createKey(getClass().getName(), getFingerprint(), Arrays.toString(options), content);
+    final Gson gson = new Gson();
+    final String cachedErrors = cache.get(key);
+    if (cachedErrors != null) {
+      final List<CssLintError> errors = gson.fromJson(cachedErrors, ERRORS_TYPE);
+      lintExecutor.onLinted(true, getUri(resource), errors.size());
+      return errors.isEmpty() ? null : new CssLintException().setErrors(errors);
+    }
+    // the engine is borrowed only when the errors are not cached.
+    final CssLint cssLint = enginePool.getObject();
+    try {
+      cssLint.setOptions(options).validate(content);
+      cache.put(key, gson.toJson(new CssLintError[] {}));
+      lintExecutor.onLinted(false, getUri(resource), 0);
+      return null;
+    } catch (final CssLintException e) {
+      cache.put(key, gson.toJson(e.getErrors(), ERRORS_TYPE));
+      lintExecutor.onLinted(false, getUri(resource), e.getErrors().size());
+      return e;
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(cssLint, e);
+      throw e;
     } finally {
-      // don't change the processed content no matter what happens.
-      writer.write(content);
-      reader.close();
-      writer.close();
       enginePool.returnObject(cssLint);
     }
   }
 
+  /**
+   * @return the fingerprint of the linter scripts, computed once by an engine which is not pooled and does not evaluate
+   *         its script. The options are not part of it.
+   */
+  private String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = newCssLint().getFingerprint();
+    }
+    return fingerprint;
+  }
+
+  private String getUri(final Resource resource) {
+    return resource == null ? null : resource.getUri();
+  }
+
   /**
    * @return {@link CssLint} instance.
    */
@@ -108,9 +189,23 @@ public class CssLintProcessor
     process(null, reader, writer);
   }
 
+
+  /**
+   * Completes the pending validations, then destroys the pool of engines used by this processor.
+   */
+  public void destroy()
+    throws Exception {
+    try {
+      lintExecutor.destroy();
+    } finally {
+      enginePool.destroy();
+    }
+  }
+
   /**
    * Called when {@link CssLintException} is thrown. Allows subclasses to re-throw this exception as a
-   * {@link RuntimeException} or handle it differently.
+   * {@link RuntimeException} or handle it differently. When the validation is performed in background, this method is
+   * invoked by a background thread and the exception re-thrown is only logged.
    *
    * @param e {@link CssLintException} which has occurred.
    * @param resource the processed resource which caused the exception.
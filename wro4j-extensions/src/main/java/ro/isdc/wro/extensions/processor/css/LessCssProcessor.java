@@ -15,12 +15,15 @@ import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.extensions.processor.support.less.LessCss;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -96,6 +99,8 @@ import ro.isdc.wro.util.ObjectFactory;
  * </ul>
  * If processing encounter any issues during processing, no change will be applied to the resource.
  * <p/>
+ * The compiled output is cached by {@link ProcessorOutputCache}, thus an unchanged content is never compiled again.
+ * <p/>
  *
  * @author Alex Objelean
  * @since 1.2.6
@@ -103,19 +108,25 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class LessCssProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, FingerprintAware, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(LessCssProcessor.class);
 
   public static final String ALIAS = "lessCss";
 
   private ObjectPoolHelper<LessCss> enginePool;
+  /**
+   * The fingerprint of the engines, computed once.
+   */
+  private volatile String fingerprint;
 
 
   public LessCssProcessor() {
-    enginePool = new ObjectPoolHelper<LessCss>(new ObjectFactory<LessCss>() {
+    enginePool = new ObjectPoolHelper<LessCss>(getClass().getName(), new ObjectFactory<LessCss>() {
       @Override
       public LessCss create() {
-        return newLessCss();
+        final LessCss lessCss = newLessCss();
+        lessCss.initialize();
+        return lessCss;
       }
     });
   }
@@ -126,9 +137,15 @@ public class LessCssProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     final String content = IOUtils.toString(reader);
-    final LessCss lessCss = getEngine();
     try {
-      writer.write(lessCss.less(content));
+      final ProcessorOutputCache cache = ProcessorOutputCache.get();
+      final String key = cache.createKey(getClass().getName(), getFingerprint(), content);
+      String result = cache.get(key);
+      if (result == null) {
+        result = less(content);
+        cache.put(key, result);
+      }
+      writer.write(result);
     } catch (final WroRuntimeException e) {
       onException(e);
       writer.write(content);
@@ -138,28 +155,40 @@ public class LessCssProcessor
     } finally {
       reader.close();
       writer.close();
-      //return for later reuse
-      try {
-        enginePool.returnObject(lessCss);
-      } catch (final Exception e) {
-        //should never happen
-        LOG.error("Cannot return lessCss engine to the pool", e);
-      }
     }
   }
 
   /**
-   * Invoked when a processing exception occurs.
+   * Compiles the content with an engine borrowed from the pool, only when the output is not cached.
    */
-  protected void onException(final WroRuntimeException e) {
+  private String less(final String content) {
+    final LessCss lessCss = enginePool.getObject();
+    try {
+      return lessCss.less(content);
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(lessCss, e);
+      throw e;
+    } finally {
+      //return for later reuse
+      enginePool.returnObject(lessCss);
+    }
   }
 
+  /**
+   * @return the fingerprint of the engines, identifying the scripts they use. Computed once, by an engine which is not
+   *         pooled and does not evaluate its scripts.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = newLessCss().getFingerprint();
+    }
+    return fingerprint;
+  }
 
   /**
-   * A getter used for lazy loading.
+   * Invoked when a processing exception occurs.
    */
-  private LessCss getEngine() {
-    return enginePool.getObject();
+  protected void onException(final WroRuntimeException e) {
   }
 
 
@@ -180,4 +209,12 @@ public class LessCssProcessor
     process(null, reader, writer);
   }
 
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
+
 }
@@ -14,10 +14,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.extensions.processor.support.sass.SassCss;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 
@@ -30,7 +32,7 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  */
 @SupportedResourceType(ResourceType.CSS)
 public class SassCssProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, FingerprintAware {
   private static final Logger LOG = LoggerFactory.getLogger(SassCssProcessor.class);
   public static final String ALIAS = "sassCss";
   /**
@@ -45,7 +47,15 @@ public class SassCssProcessor
     throws IOException {
     final String content = IOUtils.toString(reader);
     try {
-      writer.write(getEngine().process(content));
+      final SassCss sassCss = getEngine();
+      final ProcessorOutputCache cache = ProcessorOutputCache.get();
+      final String key = cache.createKey(getClass().getName(), sassCss.getFingerprint(), content);
+      String result = cache.get(key);
+      if (result == null) {
+        result = sassCss.process(content);
+        cache.put(key, result);
+      }
+      writer.write(result);
     } catch (final WroRuntimeException e) {
       onException(e);
       writer.write(content);
@@ -58,6 +68,13 @@ public class SassCssProcessor
     }
   }
 
+  /**
+   * @return the fingerprint of the engine, identifying the script it uses.
+   */
+  public String getFingerprint() {
+    return getEngine().getFingerprint();
+  }
+
   /**
    * Invoked when a processing exception occurs.
    */
@@ -1,114 +1,210 @@
-/*
- * Copyright (C) 2011.
- * All rights reserved.
- */
-package ro.isdc.wro.extensions.processor.js;
-
-import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
-
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
-import ro.isdc.wro.extensions.processor.support.linter.AbstractLinter;
-import ro.isdc.wro.extensions.processor.support.linter.LinterException;
-import ro.isdc.wro.model.resource.Resource;
-import ro.isdc.wro.model.resource.ResourceType;
-import ro.isdc.wro.model.resource.SupportedResourceType;
-import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
-import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
-import ro.isdc.wro.util.ObjectFactory;
-
-
-/**
- * Processor which analyze the js code and warns you about any problems. The processing result won't change no matter
- * if the processed script contains errors or not.
- *
- * @author Alex Objelean
- * @since 1.3.5
- * @created 1 Mar 2011
- */
-@SupportedResourceType(ResourceType.JS)
-public abstract class AbstractLinterProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
-  private static final Logger LOG = LoggerFactory.getLogger(AbstractLinterProcessor.class);
-  private ObjectPoolHelper<AbstractLinter> enginePool;
-  /**
-   * Options to use to configure the linter.
-   */
-  private String[] options;
-
-  public AbstractLinterProcessor() {
-    enginePool = new ObjectPoolHelper<AbstractLinter>(new ObjectFactory<AbstractLinter>() {
-      @Override
-      public AbstractLinter create() {
-        return newLinter();
-      }
-    });
-  }
-
-  public AbstractLinterProcessor setOptions(final String... options) {
-    this.options = options;
-    return this;
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  public void process(final Resource resource, final Reader reader, final Writer writer)
-    throws IOException {
-    final String content = IOUtils.toString(reader);
-    final AbstractLinter linter = enginePool.getObject();
-    try {
-      // TODO investigate why linter fails when trying to reuse the same instance twice
-      linter.setOptions(options).validate(content);
-    } catch (final LinterException e) {
-      onLinterException(e, resource);
-    } catch (final WroRuntimeException e) {
-      onException(e);
-      final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
-      LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
-          + " resource, no processing applied...", e);
-    } finally {
-      // don't change the processed content no matter what happens.
-      writer.write(content);
-      reader.close();
-      writer.close();
-      enginePool.returnObject(linter);
-    }
-  }
-
-  /**
-   * Invoked when a processing exception occurs.
-   */
-  protected void onException(final Exception e) {
-  }
-
-  /**
-   * @return the linter to use for js code validation.
-   */
-  protected abstract AbstractLinter newLinter();
-
-  /**
-   * {@inheritDoc}
-   */
-  public void process(final Reader reader, final Writer writer) throws IOException {
-    process(null, reader, writer);
-  }
-
-  /**
-   * Called when {@link LinterException} is thrown. Allows subclasses to re-throw this exception as a
-   * {@link RuntimeException} or handle it differently. The default implementation simply logs the errors.
-   *
-   * @param e {@link LinterException} which has occurred.
-   * @param resource the processed resource which caused the exception.
-   */
-  protected void onLinterException(final LinterException e, final Resource resource) {
-    LOG.error("The following resource: " + resource + " has " + e.getErrors().size() + " errors.", e);
-  }
-}
+/*
+ * Copyright (C) 2011.
+ * All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.js;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.LintExecutor;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
+import ro.isdc.wro.extensions.processor.support.linter.AbstractLinter;
+import ro.isdc.wro.extensions.processor.support.linter.LinterError;
+import ro.isdc.wro.extensions.processor.support.linter.LinterException;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
+import ro.isdc.wro.util.ObjectFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+
+/**
+ * Processor which analyze the js code and warns you about any problems. The processing result won't change no matter
+ * if the processed script contains errors or not.
+ * <p/>
+ * The errors found for a content are cached by {@link ProcessorOutputCache}, thus an unchanged content is not validated
+ * again (the errors are still reported). The validation can be performed in background (see {@link LintExecutor}).
+ *
+ * @author Alex Objelean
+ * @since 1.3.5
+ * @created 1 Mar 2011
+ */
+@SupportedResourceType(ResourceType.JS)
+public abstract class AbstractLinterProcessor
+  implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
+  private static final Logger LOG = LoggerFactory.getLogger(AbstractLinterProcessor.class);
+  private static final Type ERRORS_TYPE = new TypeToken<List<LinterError>>() {}.getType();
+  private ObjectPoolHelper<AbstractLinter> enginePool;
+  private final LintExecutor lintExecutor;
+  /**
+   * The fingerprint of the engines, computed once.
+   */
+  private volatile String fingerprint;
+  /**
+   * Options to use to configure the linter.
+   */
+  private String[] options;
+
+  public AbstractLinterProcessor() {
+    enginePool = new ObjectPoolHelper<AbstractLinter>(getClass().getName(), new ObjectFactory<AbstractLinter>() {
+      @Override
+      public AbstractLinter create() {
+        final AbstractLinter linter = newLinter();
+        linter.initialize();
+        return linter;
+      }
+    });
+    lintExecutor = new LintExecutor(getClass().getName());
+  }
+
+  public AbstractLinterProcessor setOptions(final String... options) {
+    this.options = options;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    final String content = IOUtils.toString(reader);
+    try {
+      // don't change the processed content no matter what happens.
+      writer.write(content);
+    } finally {
+      reader.close();
+      writer.close();
+    }
+    final ProcessorOutputCache cache = ProcessorOutputCache.get();
+    lintExecutor.execute(new Runnable() {
+      public void run() {
+        validate(resource, content, cache);
+      }
+    });
+  }
+
+  private void validate(final Resource resource, final String content, final ProcessorOutputCache cache) {
+    final LinterException linterException;
+    try {
+      linterException = findErrors(resource, content, cache);
+    } catch (final WroRuntimeException e) {
+      onException(e);
+      final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
+      LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
+          + " resource, no processing applied...", e);
+      return;
+    }
+    if (linterException != null) {
+      onLinterException(linterException, resource);
+    }
+  }
+
+  /**
+   * @return the {@link LinterException} describing the errors found in the content or null if the content is valid.
+   */
+  private LinterException findErrors(final Resource resource, final String content, final ProcessorOutputCache cache) {
+    final String key = cache.createKey(getClass().getName(), getFingerprint(), Arrays.toString(options), content);
+    final Gson gson = new Gson();
+    final String cachedErrors = cache.get(key);
+    if (cachedErrors != null) {
+      final List<LinterError> errors = gson.fromJson(cachedErrors, ERRORS_TYPE);
+      lintExecutor.onLinted(true, getUri(resource), errors.size());
+      return errors.isEmpty() ? null : new LinterException().setErrors(errors);
+    }
+    // the engine is borrowed only when the errors are not cached.
+    final AbstractLinter linter = enginePool.getObject();
+    try {
+      // TODO investigate why linter fails when trying to reuse the same instance twice
+      linter.setOptions(options).validate(content);
+      cache.put(key, gson.toJson(new LinterError[] {}));
+      lintExecutor.onLinted(false, getUri(resource), 0);
+      return null;
+    } catch (final LinterException e) {
+      cache.put(key, gson.toJson(e.getErrors(), ERRORS_TYPE));
+      lintExecutor.onLinted(false, getUri(resource), e.getErrors().size());
+      return e;
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(linter, e);
+      throw e;
+    } finally {
+      enginePool.returnObject(linter);
+    }
+  }
+
+  /**
+   * @return the fingerprint of the linter scripts, computed once by an engine which is not pooled and does not evaluate
+   *         its script. The options are not part of it.
+   */
+  private String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = newLinter().getFingerprint();
+    }
+    return fingerprint;
+  }
+
+  private String getUri(final Resource resource) {
+    return resource == null ? null : resource.getUri();
+  }
+
+  /**
+   * Invoked when a processing exception occurs.
+   */
+  protected void onException(final Exception e) {
+  }
+
+  /**
+   * @return the linter to use for js code validation.
+   */
+  protected abstract AbstractLinter newLinter();
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Reader reader, final Writer writer) throws IOException {
+    process(null, reader, writer);
+  }
+
+
+  /**
+   * Completes the pending validations, then destroys the pool of engines used by this processor.
+   */
+  public void destroy()
+    throws Exception {
+    try {
+      lintExecutor.destroy();
+    } finally {
+      enginePool.destroy();
+    }
+  }
+
+  /**
+   * Called when {@link LinterException} is thrown. Allows subclasses to re-throw this exception as a
+   * {@link RuntimeException} or handle it differently. The default implementation simply logs the errors.
+   * <p/>
+   * When the validation is performed in background, this method is invoked by a background thread and the exception
+   * re-thrown is only logged.
+   *
+   * @param e {@link LinterException} which has occurred.
+   * @param resource the processed resource which caused the exception.
+   */
+  protected void onLinterException(final LinterException e, final Resource resource) {
+    LOG.error("The following resource: " + resource + " has " + e.getErrors().size() + " errors.", e);
+  }
+}
@@ -21,6 +21,7 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -33,7 +34,7 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 @SupportedResourceType(ResourceType.JS)
 public class BeautifyJsProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(BeautifyJsProcessor.class);
   public static final String ALIAS_BEAUTIFY = "beautifyJs";
   /**
@@ -46,10 +47,12 @@ public class BeautifyJsProcessor
    * Default constructor. Instantiates uglifyJs engine.
    */
   public BeautifyJsProcessor() {
-    enginePool = new ObjectPoolHelper<UglifyJs>(new ObjectFactory<UglifyJs>() {
+    enginePool = new ObjectPoolHelper<UglifyJs>(getClass().getName(), new ObjectFactory<UglifyJs>() {
       @Override
       public UglifyJs create() {
-        return newEngine();
+        final UglifyJs engine = newEngine();
+        engine.initialize();
+        return engine;
       }
     });
   }
@@ -73,6 +76,7 @@ public class BeautifyJsProcessor
     try {
       writer.write(engine.process(content));
     } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(engine, e);
       onException(e);
       writer.write(content);
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
@@ -99,4 +103,12 @@ public class BeautifyJsProcessor
     throws IOException {
     process(null, reader, writer);
   }
+
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
 }
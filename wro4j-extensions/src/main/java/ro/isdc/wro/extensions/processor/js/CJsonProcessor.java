@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.cjson.CJson;
+import ro.isdc.wro.extensions.processor.support.cjson.NativeCJson;
 import ro.isdc.wro.extensions.processor.support.jsonhpack.JsonHPack;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
@@ -22,11 +23,13 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
 /**
- * A processor using cjson compression algorithm: {@link http://stevehanov.ca/blog/index.php?id=104}.
+ * A processor using cjson compression algorithm: {@link http://stevehanov.ca/blog/index.php?id=104}. By default, the
+ * algorithm is performed by {@link NativeCJson}, which is much faster than evaluating the javascript implementation.
  *
  * @author Alex Objelean
  * @since 1.3.8
@@ -35,7 +38,7 @@ import ro.isdc.wro.util.ObjectFactory;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class CJsonProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(CJsonProcessor.class);
   public static final String ALIAS_PACK = "cjson-pack";
   public static final String ALIAS_UNPACK = "cjson-unpack";
@@ -52,10 +55,12 @@ public class CJsonProcessor
    * Private constructor, prevent instantiation.
    */
   public CJsonProcessor(boolean pack) {
-    enginePool = new ObjectPoolHelper<CJson>(new ObjectFactory<CJson>() {
+    enginePool = new ObjectPoolHelper<CJson>(getClass().getName(), new ObjectFactory<CJson>() {
       @Override
       public CJson create() {
-        return newEngine();
+        final CJson engine = newEngine();
+        engine.initialize();
+        return engine;
       }
     });
     this.pack = pack;
@@ -84,7 +89,7 @@ public class CJsonProcessor
       onException(e);
       writer.write(content);
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
-      LOG.warn("Exception while  applying lessCss processor on the " + resourceUri
+      LOG.warn("Exception while  applying cJson processor on the " + resourceUri
           + " resource, no processing applied...", e);
     } finally {
       reader.close();
@@ -99,6 +104,9 @@ public class CJsonProcessor
         return engine.pack(content);
       }
       return engine.unpack(content);      
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(engine, e);
+      throw e;
     } finally {
       enginePool.returnObject(engine);
     }
@@ -112,11 +120,12 @@ public class CJsonProcessor
 
 
   /**
-   * @return the {@link CJson} engine implementation. Override it to provide a different version of the json.hpack.js
-   *         library. Useful for upgrading the processor outside the wro4j release.
+   * @return the {@link CJson} engine implementation. Override it to use the javascript implementation (by returning a
+   *         {@link CJson} instance) or to provide a different version of the cjson library. Useful for upgrading the
+   *         processor outside the wro4j release.
    */
   protected CJson newEngine() {
-    return new CJson();
+    return new NativeCJson();
   }
 
 
@@ -128,4 +137,12 @@ public class CJsonProcessor
     process(null, reader, writer);
   }
 
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
+
 }
@@ -15,12 +15,15 @@ import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.extensions.processor.support.coffeescript.CoffeeScript;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.FingerprintAware;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -34,17 +37,23 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 @SupportedResourceType(ResourceType.JS)
 public class CoffeeScriptProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, FingerprintAware, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(CoffeeScriptProcessor.class);
   public static final String ALIAS = "coffeeScript";
   private ObjectPoolHelper<CoffeeScript> enginePool;
+  /**
+   * The fingerprint of the engines, computed once.
+   */
+  private volatile String fingerprint;
 
 
   public CoffeeScriptProcessor() {
-    enginePool = new ObjectPoolHelper<CoffeeScript>(new ObjectFactory<CoffeeScript>() {
+    enginePool = new ObjectPoolHelper<CoffeeScript>(getClass().getName(), new ObjectFactory<CoffeeScript>() {
       @Override
       public CoffeeScript create() {
-        return newCoffeeScript();
+        final CoffeeScript coffeeScript = newCoffeeScript();
+        coffeeScript.initialize();
+        return coffeeScript;
       }
     });
   }
@@ -55,9 +64,15 @@ public class CoffeeScriptProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     final String content = IOUtils.toString(reader);
-    final CoffeeScript coffeeScript = enginePool.getObject();
     try {
-      writer.write(coffeeScript.compile(content));
+      final ProcessorOutputCache cache = ProcessorOutputCache.get();
+      final String key = cache.createKey(getClass().getName(), getFingerprint(), content);
+      String result = cache.get(key);
+      if (result == null) {
+        result = compile(content);
+        cache.put(key, result);
+      }
+      writer.write(result);
     } catch (final WroRuntimeException e) {
       onException(e);
       writer.write(content);
@@ -67,10 +82,35 @@ public class CoffeeScriptProcessor
     } finally {
       reader.close();
       writer.close();
+    }
+  }
+
+  /**
+   * Compiles the content with an engine borrowed from the pool, only when the output is not cached.
+   */
+  private String compile(final String content) {
+    final CoffeeScript coffeeScript = enginePool.getObject();
+    try {
+      return coffeeScript.compile(content);
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(coffeeScript, e);
+      throw e;
+    } finally {
       enginePool.returnObject(coffeeScript);
     }
   }
 
+  /**
+   * @return the fingerprint of the engines, identifying the script and the options they use. Computed once, by an
+   *         engine which is not pooled and does not evaluate its script.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = newCoffeeScript().getFingerprint();
+    }
+    return fingerprint;
+  }
+
   /**
    * Invoked when a processing exception occurs.
    */
@@ -93,4 +133,12 @@ public class CoffeeScriptProcessor
     throws IOException {
     process(null, reader, writer);
   }
+
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
 }
@@ -3,23 +3,29 @@
  */
 package ro.isdc.wro.extensions.processor.js;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.config.Context;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
-import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.GroupAwarePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 
 import com.google.javascript.jscomp.CheckLevel;
@@ -34,6 +40,11 @@ import com.google.javascript.jscomp.Result;
 
 /**
  * Uses Google closure compiler for js minimization.
+ * <p/>
+ * When used as the first post processor, all the js resources of a group are compiled in a single invocation (see
+ * {@link GroupAwarePostProcessor}), which is faster and optimizes better than compiling each resource in isolation.
+ * The compiled output is cached using a key computed from everything it depends on (the resources, the compilation
+ * level and the externs), thus an unchanged group is never compiled twice.
  *
  * @see http://blog.bolinfest.com/2009/11/calling-closure-compiler-from-java.html
  * @author Alex Objelean
@@ -41,15 +52,26 @@ import com.google.javascript.jscomp.Result;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class GoogleClosureCompressorProcessor
-  implements ResourcePostProcessor, ResourcePreProcessor {
+  implements GroupAwarePostProcessor, ResourcePreProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(GoogleClosureCompressorProcessor.class);
   public static final String ALIAS_SIMPLE = "googleClosureSimple";
   public static final String ALIAS_ADVANCED = "googleClosureAdvanced";
+  private static final String DEFAULT_FILE_NAME = "wro4j-processed-file.js";
   /**
    * {@link CompilationLevel} to use for compression.
    */
   private CompilationLevel compilationLevel;
   private CompilerOptions compilerOptions;
+  /**
+   * The options used for compilation, having the compilation level applied. Created only once, because applying the
+   * compilation level is not cheap.
+   */
+  private CompilerOptions preparedOptions;
+  /**
+   * The externs used when the resources of a group are compiled together. Created only once, because they do not
+   * depend on the processed resource.
+   */
+  private JSSourceFile[] groupExterns;
 
   /**
    * Uses google closure compiler with default compilation level: {@link CompilationLevel#SIMPLE_OPTIMIZATIONS}
@@ -74,44 +96,140 @@ public class GoogleClosureCompressorProcessor
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
-    final String content = IOUtils.toString(reader);
     try {
+      final String fileName = resource == null ? DEFAULT_FILE_NAME : resource.getUri();
+      final JSSourceFile[] externs = resource == null ? getGroupExterns() : nullToEmpty(getExterns(resource));
+      writer.write(compile(Arrays.asList(fileName), Arrays.asList(IOUtils.toString(reader)), externs));
+    } finally {
+      reader.close();
+      writer.close();
+    }
+  }
+
+
+  /**
+   * Compiles all the resources of the group in a single invocation. The resources are identified by their uri in the
+   * messages reported by the compiler.
+   */
+  public void process(final List<Resource> resources, final List<String> contents, final Writer writer)
+    throws IOException {
+    Validate.notNull(resources);
+    Validate.notNull(contents);
+    final List<String> fileNames = new ArrayList<String>();
+    final Set<String> uniqueNames = new HashSet<String>();
+    for (final Resource resource : resources) {
+      // the compiler doesn't accept two inputs with the same name
+      String fileName = resource.getUri();
+      for (int i = 1; !uniqueNames.add(fileName); i++) {
+        fileName = resource.getUri() + "#" + i;
+      }
+      fileNames.add(fileName);
+    }
+    writer.write(compile(fileNames, contents, getGroupExterns()));
+  }
+
+
+  /**
+   * @return the compiled content or the original content if the compilation is not successful.
+   */
+  private String compile(final List<String> fileNames, final List<String> contents, final JSSourceFile[] externs) {
+    final ProcessorOutputCache cache = ProcessorOutputCache.get();
+    final String key = createCacheKey(cache, fileNames, contents, externs);
+    String result = key == null ? null : cache.get(key);
+    if (result == null) {
+      final JSSourceFile[] input = new JSSourceFile[contents.size()];
+      for (int i = 0; i < input.length; i++) {
+        input[i] = JSSourceFile.fromCode(fileNames.get(i), contents.get(i));
+      }
       Compiler.setLoggingLevel(Level.SEVERE);
       final Compiler compiler = new Compiler();
-      if (compilerOptions == null) {
-        compilerOptions = newCompilerOptions();
+      //make it play nice with GAE, which doesn't allow creating threads
+      if (isGoogleAppEngine()) {
+        compiler.disableThreads();
       }
-      compilationLevel.setOptionsForCompilationLevel(compilerOptions);
-      //make it play nice with GAE
-      compiler.disableThreads();
-      compiler.initOptions(compilerOptions);
-
-      final String fileName = resource == null ? "wro4j-processed-file.js" : resource.getUri();
-      final JSSourceFile[] input = new JSSourceFile[] {
-        JSSourceFile.fromInputStream(fileName,
-        new ByteArrayInputStream(content.getBytes(Context.get().getConfig().getEncoding())))
-      };
-      JSSourceFile[] externs = getExterns(resource);
-      if (externs == null) {
-        //fallback to empty array when null is provided.
-        externs = new JSSourceFile[] {};
+      final CompilerOptions options = getPreparedOptions();
+      compiler.initOptions(options);
+      final Result compilationResult = compiler.compile(externs, input, options);
+      if (!compilationResult.success) {
+        return StringUtils.join(contents, "");
       }
-      final Result result = compiler.compile(externs, input, compilerOptions);
-      if (result.success) {
-        writer.write(compiler.toSource());
-      } else {
-        writer.write(content);
+      result = compiler.toSource();
+      if (key != null) {
+        cache.put(key, result);
       }
-    } finally {
-      reader.close();
-      writer.close();
     }
+    return result;
+  }
+
+
+  /**
+   * @return the key identifying the compiled output or null if the output cannot be cached (ex: when the compiler
+   *         options are provided by the client or the externs cannot be read).
+   */
+  private String createCacheKey(final ProcessorOutputCache cache, final List<String> fileNames,
+    final List<String> contents, final JSSourceFile[] externs) {
+    if (compilerOptions != null) {
+      return null;
+    }
+    final List<String> parts = new ArrayList<String>();
+    parts.add(getClass().getName());
+    parts.add(StringUtils.defaultString(Compiler.class.getPackage().getImplementationVersion()));
+    parts.add(compilationLevel.name());
+    parts.add(getEncoding());
+    try {
+      for (final JSSourceFile extern : externs) {
+        parts.add(extern.getName());
+        parts.add(extern.getCode());
+      }
+    } catch (final IOException e) {
+      LOG.debug("Cannot read the externs, the compiled output won't be cached", e);
+      return null;
+    }
+    for (int i = 0; i < contents.size(); i++) {
+      parts.add(fileNames.get(i));
+      parts.add(contents.get(i));
+    }
+    return cache.createKey(parts.toArray(new String[parts.size()]));
+  }
+
+
+  private String getEncoding() {
+    return Context.get().getConfig().getEncoding();
+  }
+
+
+  private boolean isGoogleAppEngine() {
+    return System.getProperty("com.google.appengine.runtime.environment") != null;
+  }
+
+
+  private synchronized CompilerOptions getPreparedOptions() {
+    if (preparedOptions == null) {
+      final CompilerOptions options = compilerOptions == null ? newCompilerOptions() : compilerOptions;
+      compilationLevel.setOptionsForCompilationLevel(options);
+      preparedOptions = options;
+    }
+    return preparedOptions;
+  }
+
+
+  private synchronized JSSourceFile[] getGroupExterns() {
+    if (groupExterns == null) {
+      groupExterns = nullToEmpty(getExterns(null));
+    }
+    return groupExterns;
+  }
+
+
+  private JSSourceFile[] nullToEmpty(final JSSourceFile[] externs) {
+    //fallback to empty array when null is provided.
+    return externs == null ? new JSSourceFile[] {} : externs;
   }
 
 
   /**
    * @param resource Currently processed resource. The resource can be null, when the closure compiler is used as a post
-   *        processor.
+   *        processor. The externs returned for a null resource are computed only once.
    * @return An Array of externs files for the resource to process.
    */
   protected JSSourceFile[] getExterns(final Resource resource) {
@@ -122,16 +240,18 @@ public class GoogleClosureCompressorProcessor
   /**
    * @param compilerOptions the compilerOptions to set
    */
-  public GoogleClosureCompressorProcessor setCompilerOptions(final CompilerOptions compilerOptions) {
+  public synchronized GoogleClosureCompressorProcessor setCompilerOptions(final CompilerOptions compilerOptions) {
     this.compilerOptions = compilerOptions;
+    this.preparedOptions = null;
     return this;
   }
 
   /**
    * @param compilationLevel the compilationLevel to set
    */
-  public GoogleClosureCompressorProcessor setCompilationLevel(final CompilationLevel compilationLevel) {
+  public synchronized GoogleClosureCompressorProcessor setCompilationLevel(final CompilationLevel compilationLevel) {
     this.compilationLevel = compilationLevel;
+    this.preparedOptions = null;
     return this;
   }
 
@@ -146,7 +266,7 @@ public class GoogleClosureCompressorProcessor
      */
     options.setCodingConvention(new ClosureCodingConvention());
     //use the wro4j encoding by default
-    options.setOutputCharset(Context.get().getConfig().getEncoding());
+    options.setOutputCharset(getEncoding());
     //set it to warning, otherwise compiler will fail
     options.setWarningLevel(DiagnosticGroups.CHECK_VARIABLES,
       CheckLevel.WARNING);
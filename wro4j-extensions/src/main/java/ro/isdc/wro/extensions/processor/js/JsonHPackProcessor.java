@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.jsonhpack.JsonHPack;
+import ro.isdc.wro.extensions.processor.support.jsonhpack.NativeJsonHPack;
 import ro.isdc.wro.extensions.processor.support.less.LessCss;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
@@ -22,11 +23,14 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
 /**
- * A processor using json.hpack compression algorithm: @see https://github.com/WebReflection/json.hpack
+ * A processor using json.hpack compression algorithm: @see https://github.com/WebReflection/json.hpack. By default, the
+ * algorithm is performed by {@link NativeJsonHPack}, which is much faster than evaluating the javascript
+ * implementation.
  *
  * @author Alex Objelean
  * @since 1.3.8
@@ -35,7 +39,7 @@ import ro.isdc.wro.util.ObjectFactory;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class JsonHPackProcessor
-    implements ResourcePreProcessor, ResourcePostProcessor {
+    implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(JsonHPackProcessor.class);
   public static final String ALIAS_PACK = "jsonh-pack";
   public static final String ALIAS_UNPACK = "jsonh-unpack";
@@ -50,10 +54,12 @@ public class JsonHPackProcessor
   
   public JsonHPackProcessor(boolean pack) {
     this.pack = pack;
-    enginePool = new ObjectPoolHelper<JsonHPack>(new ObjectFactory<JsonHPack>() {
+    enginePool = new ObjectPoolHelper<JsonHPack>(getClass().getName(), new ObjectFactory<JsonHPack>() {
       @Override
       public JsonHPack create() {
-        return newEngine();
+        final JsonHPack engine = newEngine();
+        engine.initialize();
+        return engine;
       }
     });
   }
@@ -79,7 +85,7 @@ public class JsonHPackProcessor
       onException(e);
       writer.write(content);
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
-      LOG.warn("Exception while  applying lessCss processor on the " + resourceUri
+      LOG.warn("Exception while  applying jsonHPack processor on the " + resourceUri
           + " resource, no processing applied...", e);
     } finally {
       reader.close();
@@ -95,6 +101,9 @@ public class JsonHPackProcessor
         return engine.pack(content);
       }
       return engine.unpack(content);      
+    } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(engine, e);
+      throw e;
     } finally {
       enginePool.returnObject(engine);
     }
@@ -107,11 +116,12 @@ public class JsonHPackProcessor
   }
 
   /**
-   * @return the {@link JsonHPack} engine implementation. Override it to provide a different version of the
-   *         json.hpack.js library. Useful for upgrading the processor outside the wro4j release.
+   * @return the {@link JsonHPack} engine implementation. Override it to use the javascript implementation (by returning
+   *         a {@link JsonHPack} instance) or to provide a different version of the json.hpack.js library. Useful for
+   *         upgrading the processor outside the wro4j release.
    */
   protected JsonHPack newEngine() {
-    return new JsonHPack();
+    return new NativeJsonHPack();
   }
 
   /**
@@ -122,4 +132,12 @@ public class JsonHPackProcessor
     process(null, reader, writer);
   }
 
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
+
 }
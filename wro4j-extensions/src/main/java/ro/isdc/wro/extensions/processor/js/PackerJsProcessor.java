@@ -22,6 +22,7 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -34,17 +35,19 @@ import ro.isdc.wro.util.ObjectFactory;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class PackerJsProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, Destroyable {
   private static final Logger LOG = LoggerFactory.getLogger(PackerJsProcessor.class);
   public static final String ALIAS = "packerJs";
   private ObjectPoolHelper<PackerJs> enginePool;
 
 
   public PackerJsProcessor() {
-    enginePool = new ObjectPoolHelper<PackerJs>(new ObjectFactory<PackerJs>() {
+    enginePool = new ObjectPoolHelper<PackerJs>(getClass().getName(), new ObjectFactory<PackerJs>() {
       @Override
       public PackerJs create() {
-        return newPackerJs();
+        final PackerJs packerJs = newPackerJs();
+        packerJs.initialize();
+        return packerJs;
       }
     });
   }
@@ -60,6 +63,7 @@ public class PackerJsProcessor
     try {
       writer.write(packerJs.pack(content));
     } catch (final WroRuntimeException e) {
+      enginePool.recordFailure(packerJs, e);
       onException(e);
       writer.write(content);
       final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
@@ -94,4 +98,12 @@ public class PackerJsProcessor
     process(null, reader, writer);
   }
 
+
+  /**
+   * Destroys the pool of engines used by this processor.
+   */
+  public void destroy() {
+    enginePool.destroy();
+  }
+
 }
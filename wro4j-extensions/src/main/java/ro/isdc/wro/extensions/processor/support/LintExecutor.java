@@ -0,0 +1,245 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.util.Destroyable;
+
+
+/**
+ * Runs the validation performed by a lint processor. The lint processors never change the processed content, thus when
+ * {@link WroConfiguration#isAsyncLinting()} is true, the validation is performed in background by a bounded executor,
+ * created when first needed, without delaying the processing. The findings are reported through the callbacks of the
+ * processor and, inside a web application with jmx enabled, through the MBean of this object.
+ * <p/>
+ * Must be destroyed by the owner processor: the pending validations are completed, then the executor is stopped and
+ * the MBean unregistered.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class LintExecutor
+  implements LintExecutorMBean, Destroyable {
+  private static final Logger LOG = LoggerFactory.getLogger(LintExecutor.class);
+  /**
+   * Maximum number of resources waiting to be validated in background. When exceeded, the resources are not validated.
+   */
+  private static final int MAX_PENDING = 500;
+  /**
+   * Maximum number of seconds to wait for the pending validations when destroyed.
+   */
+  private static final long DESTROY_TIMEOUT = 60;
+  private final String name;
+  private volatile boolean registered;
+  private ObjectName objectName;
+  private ThreadPoolExecutor executor;
+  private final AtomicLong lintedCount = new AtomicLong();
+  private final AtomicLong cachedCount = new AtomicLong();
+  private final AtomicLong invalidCount = new AtomicLong();
+  private final AtomicLong pendingCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private volatile String lastFindings;
+
+
+  /**
+   * @param name
+   *          of the lint processor, used as the name of the MBean.
+   */
+  public LintExecutor(final String name) {
+    Validate.notNull(name);
+    this.name = name;
+  }
+
+
+  /**
+   * Runs the validation task in background if {@link WroConfiguration#isAsyncLinting()} is true, otherwise in the
+   * current thread. The task should report the result using {@link #onLinted(boolean, String, int)}.
+   *
+   * @param task
+   *          performing the validation.
+   */
+  public void execute(final Runnable task) {
+    Validate.notNull(task);
+    final Context context = Context.isContextSet() ? Context.get() : null;
+    if (MBeanHelper.isEnabled()) {
+      registerMBean();
+    }
+    if (context != null && context.getConfig().isAsyncLinting()) {
+      try {
+        pendingCount.incrementAndGet();
+        getExecutor().execute(new Runnable() {
+          public void run() {
+            pendingCount.decrementAndGet();
+            try {
+              Context.set(context, context.getConfig());
+              task.run();
+            } catch (final RuntimeException e) {
+              LOG.error("Exception while validating in background with " + name, e);
+            } finally {
+              Context.unset();
+            }
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        pendingCount.decrementAndGet();
+        rejectedCount.incrementAndGet();
+        LOG.warn("Too many resources are waiting to be validated, skipping validation with {}", name);
+      }
+    } else {
+      task.run();
+    }
+  }
+
+
+  /**
+   * Records the result of a validation.
+   *
+   * @param cached
+   *          true if the result was found in the cache.
+   * @param resourceUri
+   *          the uri of the validated resource, can be null.
+   * @param findingsCount
+   *          the number of findings.
+   */
+  public void onLinted(final boolean cached, final String resourceUri, final int findingsCount) {
+    if (cached) {
+      cachedCount.incrementAndGet();
+    } else {
+      lintedCount.incrementAndGet();
+    }
+    if (findingsCount > 0) {
+      invalidCount.incrementAndGet();
+      lastFindings = resourceUri + " has " + findingsCount + " errors.";
+    }
+  }
+
+
+  private synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+      executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(
+        MAX_PENDING), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(final Runnable runnable) {
+          final Thread thread = new Thread(runnable, "wro4j-lint-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          // the validation should not compete with the processing.
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        }
+      });
+    }
+    return executor;
+  }
+
+
+  private void registerMBean() {
+    if (!registered) {
+      synchronized (this) {
+        if (!registered) {
+          registered = true;
+          objectName = MBeanHelper.register(this, LintExecutor.class, name);
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Waits for the pending validations to complete, stops the executor and unregisters the MBean. The executor is
+   * created again if this object is used after being destroyed.
+   */
+  public void destroy()
+    throws InterruptedException {
+    final ThreadPoolExecutor toStop;
+    synchronized (this) {
+      toStop = executor;
+      executor = null;
+      if (objectName != null) {
+        MBeanHelper.unregister(objectName);
+        objectName = null;
+      }
+      registered = false;
+    }
+    if (toStop != null) {
+      toStop.shutdown();
+      if (!toStop.awaitTermination(DESTROY_TIMEOUT, TimeUnit.SECONDS)) {
+        LOG.warn("The pending validations of {} did not complete in {} seconds", name, DESTROY_TIMEOUT);
+        toStop.shutdownNow();
+      }
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getName() {
+    return name;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getLintedCount() {
+    return lintedCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getCachedCount() {
+    return cachedCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getInvalidCount() {
+    return invalidCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getPendingCount() {
+    return pendingCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getLastFindings() {
+    return lastFindings;
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+/**
+ * Exposes the findings and the usage statistics of a lint processor through JMX.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface LintExecutorMBean {
+  /**
+   * @return the name of the lint processor.
+   */
+  String getName();
+
+  /**
+   * @return how many resources were validated by the linter.
+   */
+  long getLintedCount();
+
+  /**
+   * @return how many resources were not validated again, because the result was found in the cache.
+   */
+  long getCachedCount();
+
+  /**
+   * @return how many of the validated resources had findings.
+   */
+  long getInvalidCount();
+
+  /**
+   * @return how many resources are waiting to be validated in background.
+   */
+  long getPendingCount();
+
+  /**
+   * @return how many resources were not validated, because too many resources were waiting to be validated.
+   */
+  long getRejectedCount();
+
+  /**
+   * @return a description of the last resource having findings.
+   */
+  String getLastFindings();
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.config.Context;
+
+
+/**
+ * Registers the MBeans exposing the statistics of the processors. The MBeans are registered only inside a web
+ * application with jmx enabled. Each registered MBean must be unregistered when its owner is destroyed, otherwise the
+ * platform MBean server keeps the owner (and its class loader) alive.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class MBeanHelper {
+  private static final Logger LOG = LoggerFactory.getLogger(MBeanHelper.class);
+
+  private MBeanHelper() {
+  }
+
+
+  /**
+   * @return true if the current {@link Context} belongs to a web application with jmx enabled.
+   */
+  static boolean isEnabled() {
+    return Context.isContextSet() && Context.get().getConfig().isJmxEnabled()
+      && Context.get().getServletContext() != null;
+  }
+
+
+  /**
+   * Registers the MBean, unless an MBean with the same name is already registered.
+   *
+   * @param type
+   *          the class of the MBean owner, used for the domain and the type of the name.
+   * @param name
+   *          identifies the owner.
+   * @return the name of the registered MBean or null if it was not registered.
+   */
+  static ObjectName register(final Object mbean, final Class<?> type, final String name) {
+    try {
+      final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName objectName = new ObjectName(type.getPackage().getName() + ":type=" + type.getSimpleName()
+        + ",name=" + ObjectName.quote(name));
+      if (mbeanServer.isRegistered(objectName)) {
+        LOG.debug("The MBean {} is already registered", objectName);
+        return null;
+      }
+      mbeanServer.registerMBean(mbean, objectName);
+      return objectName;
+    } catch (final Exception e) {
+      LOG.warn("Cannot register the MBean of " + name, e);
+      return null;
+    }
+  }
+
+
+  /**
+   * Unregisters the MBean registered with {@link #register(Object, Class, String)}.
+   */
+  static void unregister(final ObjectName objectName) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (final Exception e) {
+      LOG.debug("Cannot unregister the MBean " + objectName, e);
+    }
+  }
+}
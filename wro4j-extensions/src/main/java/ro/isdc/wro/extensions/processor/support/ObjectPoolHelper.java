@@ -3,62 +3,380 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.extensions.script.ScriptTimeoutException;
+import ro.isdc.wro.util.Destroyable;
 import ro.isdc.wro.util.ObjectFactory;
+import ro.isdc.wro.util.WroUtil;
 
 
 /**
  * A generic aware object pool wrapper. Probably not the best name, but it can be changed later. It helps you to avoid
- * the cast and hides the exception handling by throwing {@link RuntimeException} when borrowing or returning object to
- * the pool fails.
+ * the cast and hides the exception handling by throwing {@link WroRuntimeException} when borrowing or returning object
+ * to the pool fails.
+ * <p/>
+ * The pool is configured using the {@link WroConfiguration} of the {@link Context} available when the pool is created
+ * (or when the first object is borrowed, if no context was available before). Once configured, the pool creates
+ * {@link WroConfiguration#getEnginePoolMinIdle()} objects in background and keeps that many idle objects, thus the
+ * first requests do not pay the creation of the objects. When used inside a web application with jmx enabled, the
+ * usage statistics of the pool are exposed as an MBean (once the first object is borrowed), until the pool is
+ * destroyed.
  *
  * @author Alex Objelean
  * @created 10 Nov 2011
  * @since 1.4.2
  */
-public class ObjectPoolHelper<T> {
-  private static final int MAX_ACTIVE = 4;
-  private static final int MAX_IDLE = 1;
-  private static final byte EXHAUSTED_ACTION = GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
-  private static final long MAX_WAIT = 1000L * 5L;
+public class ObjectPoolHelper<T>
+  implements ObjectPoolHelperMBean, Destroyable {
+  private static final Logger LOG = LoggerFactory.getLogger(ObjectPoolHelper.class);
+  /**
+   * Milliseconds between two checks of the number of idle objects, when a minimum is configured.
+   */
+  private static final long MIN_IDLE_CHECK_PERIOD = 1000L;
+  private final String name;
   // Allows using the objects from the pool in a thread-safe fashion.
-  private GenericObjectPool objectPool;
+  private final GenericObjectPool objectPool;
+  private volatile boolean configured;
+  private volatile boolean maintained;
+  private volatile boolean started;
+  /**
+   * The name of the MBean of this pool, null when not registered.
+   */
+  private ObjectName objectName;
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong borrowedCount = new AtomicLong();
+  private final AtomicLong exhaustedCount = new AtomicLong();
+  private final AtomicLong totalBorrowTime = new AtomicLong();
+  private final AtomicLong maxBorrowTime = new AtomicLong();
+  private final AtomicLong timeoutCount = new AtomicLong();
+  /**
+   * The borrowed objects which must not be reused, destroyed when returned.
+   */
+  private final Set<Object> discarded = Collections.synchronizedSet(Collections.newSetFromMap(
+    new IdentityHashMap<Object, Boolean>()));
 
 
   public ObjectPoolHelper(final ObjectFactory<T> objectFactory) {
+    this(objectFactory == null ? null : objectFactory.getClass().getName(), objectFactory);
+  }
+
+
+  /**
+   * @param name
+   *          identifies the pool (usually the name of the processor using it). Used as the name of the MBean.
+   * @param objectFactory
+   *          creates the pooled objects.
+   */
+  public ObjectPoolHelper(final String name, final ObjectFactory<T> objectFactory) {
     Validate.notNull(objectFactory);
-    int maxActive = Math.max(2, Runtime.getRuntime().availableProcessors());
+    Validate.notNull(name);
+    this.name = name;
     objectPool = new GenericObjectPool(new BasePoolableObjectFactory() {
       @Override
       public Object makeObject()
         throws Exception {
-        return objectFactory.create();
+        final Object object = objectFactory.create();
+        createdCount.incrementAndGet();
+        return object;
       }
-    }, maxActive, EXHAUSTED_ACTION, MAX_WAIT, MAX_IDLE);
+    });
+    configure(new WroConfiguration());
+    if (Context.isContextSet()) {
+      ensureConfigured();
+      ensureMaintained();
+    }
+  }
+
+
+  /**
+   * Applies the pool configuration from the {@link WroConfiguration} of the current {@link Context}, only once.
+   */
+  private void ensureConfigured() {
+    if (!configured && Context.isContextSet()) {
+      synchronized (this) {
+        if (!configured) {
+          configure(Context.get().getConfig());
+          configured = true;
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Starts maintaining the minimum number of idle objects, only once and only after the pool is configured. The
+   * missing idle objects are created right away in a background thread, afterwards the eviction thread of the pool
+   * recreates the ones borrowed.
+   */
+  private void ensureMaintained() {
+    if (!maintained && configured) {
+      synchronized (this) {
+        if (!maintained) {
+          maintained = true;
+          if (objectPool.getMinIdle() > 0) {
+            // the idle objects are never evicted, the eviction thread only creates the missing ones.
+            objectPool.setMinEvictableIdleTimeMillis(-1);
+            objectPool.setTimeBetweenEvictionRunsMillis(MIN_IDLE_CHECK_PERIOD);
+            prewarm(Context.get().getConfig());
+          }
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Creates the missing idle objects in a daemon thread, using the provided configuration.
+   */
+  private void prewarm(final WroConfiguration config) {
+    WroUtil.createDaemonThreadFactory("pool-prewarm").newThread(new Runnable() {
+      public void run() {
+        // the objects are created in a standalone context, not tied to the request which created the pool.
+        Context.set(Context.standaloneContext(), config);
+        try {
+          while (objectPool.getNumIdle() + objectPool.getNumActive() < objectPool.getMinIdle()) {
+            objectPool.addObject();
+          }
+        } catch (final IllegalStateException e) {
+          LOG.debug("The pool {} was closed while prewarming", name);
+        } catch (final Exception e) {
+          LOG.warn("Cannot prewarm the pool " + name, e);
+        } finally {
+          Context.unset();
+        }
+      }
+    }).start();
+  }
+
+
+  /**
+   * Called when the first object is borrowed: starts maintaining the idle objects (if not started yet) and registers
+   * the MBean.
+   */
+  private void ensureStarted() {
+    ensureMaintained();
+    if (!started) {
+      synchronized (this) {
+        if (!started) {
+          started = true;
+          if (MBeanHelper.isEnabled()) {
+            objectName = MBeanHelper.register(this, ObjectPoolHelper.class, name);
+          }
+        }
+      }
+    }
+  }
+
+
+  private void configure(final WroConfiguration config) {
+    final int maxActive = config.getEnginePoolMaxActive() > 0 ? config.getEnginePoolMaxActive() : Math.max(2,
+      Runtime.getRuntime().availableProcessors());
+    objectPool.setMaxActive(maxActive);
+    objectPool.setMaxIdle(Math.max(config.getEnginePoolMaxIdle(), config.getEnginePoolMinIdle()));
+    objectPool.setMinIdle(config.getEnginePoolMinIdle());
+    objectPool.setMaxWait(config.getEnginePoolMaxWait());
+    objectPool.setWhenExhaustedAction(toWhenExhaustedAction(config.getEnginePoolWhenExhausted()));
+  }
+
+
+  private byte toWhenExhaustedAction(final String value) {
+    if (WroConfiguration.ENGINE_POOL_BLOCK.equalsIgnoreCase(value)) {
+      return GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+    }
+    if (WroConfiguration.ENGINE_POOL_GROW.equalsIgnoreCase(value)) {
+      return GenericObjectPool.WHEN_EXHAUSTED_GROW;
+    }
+    if (WroConfiguration.ENGINE_POOL_FAIL.equalsIgnoreCase(value)) {
+      return GenericObjectPool.WHEN_EXHAUSTED_FAIL;
+    }
+    throw new WroRuntimeException("Invalid enginePoolWhenExhausted value: " + value + ". Allowed values are: "
+      + WroConfiguration.ENGINE_POOL_BLOCK + ", " + WroConfiguration.ENGINE_POOL_GROW + ", "
+      + WroConfiguration.ENGINE_POOL_FAIL);
   }
 
 
   @SuppressWarnings("unchecked")
   public T getObject() {
+    ensureConfigured();
+    ensureStarted();
+    final long start = System.currentTimeMillis();
     try {
-      return (T) objectPool.borrowObject();
+      final T object = (T) objectPool.borrowObject();
+      borrowedCount.incrementAndGet();
+      return object;
+    } catch (final NoSuchElementException e) {
+      exhaustedCount.incrementAndGet();
+      throw new WroRuntimeException("No object available in the pool " + name + " (maxActive: "
+        + objectPool.getMaxActive() + ", maxWait: " + objectPool.getMaxWait() + "ms)", e);
+    } catch (final WroRuntimeException e) {
+      throw e;
     } catch (final Exception e) {
-      // should never happen
-      throw new RuntimeException("Cannot get object from the pool", e);
+      throw new WroRuntimeException("Cannot get object from the pool " + name, e);
+    } finally {
+      updateBorrowTime(System.currentTimeMillis() - start);
+    }
+  }
+
+
+  private void updateBorrowTime(final long time) {
+    totalBorrowTime.addAndGet(time);
+    long max = maxBorrowTime.get();
+    while (time > max && !maxBorrowTime.compareAndSet(max, time)) {
+      max = maxBorrowTime.get();
     }
   }
 
 
+  /**
+   * Returns a borrowed object to the pool. An object which failed with a script timeout (see
+   * {@link #recordFailure(Object, Exception)}) is destroyed instead, thus the next borrower gets a new one.
+   */
   public void returnObject(final T engine) {
     Validate.notNull(engine);
     try {
-      objectPool.returnObject(engine);
+      if (discarded.remove(engine)) {
+        objectPool.invalidateObject(engine);
+      } else {
+        objectPool.returnObject(engine);
+      }
     } catch (final Exception e) {
       // should never happen
-      throw new RuntimeException("Cannot get object from the pool", e);
+      throw new WroRuntimeException("Cannot return object to the pool " + name, e);
+    }
+  }
+
+
+  /**
+   * Unregisters the MBean of the pool and destroys the idle objects. The pool cannot be used anymore.
+   */
+  public void destroy() {
+    synchronized (this) {
+      if (objectName != null) {
+        MBeanHelper.unregister(objectName);
+        objectName = null;
+      }
+    }
+    try {
+      objectPool.close();
+    } catch (final Exception e) {
+      LOG.warn("Cannot close the pool " + name, e);
+    }
+  }
+
+
+  /**
+   * Records the failure of an object borrowed from the pool, before returning it. The script timeouts are counted,
+   * because they indicate either a pathological input or a too small {@link WroConfiguration#getScriptTimeout()}. The
+   * aborted script may have left the object in an unknown state, thus the object is destroyed when returned.
+   *
+   * @param object
+   *          the borrowed object which failed.
+   * @param e
+   *          the failure.
+   */
+  public void recordFailure(final T object, final Exception e) {
+    Validate.notNull(object);
+    if (e instanceof ScriptTimeoutException) {
+      timeoutCount.incrementAndGet();
+      discarded.add(object);
+      LOG.warn("Script timeout in pool {}: {}", name, e.getMessage());
     }
   }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getName() {
+    return name;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public int getMaxActive() {
+    return objectPool.getMaxActive();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public int getNumActive() {
+    return objectPool.getNumActive();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public int getNumIdle() {
+    return objectPool.getNumIdle();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getBorrowedCount() {
+    return borrowedCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getExhaustedCount() {
+    return exhaustedCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getAverageBorrowTime() {
+    final long borrowed = borrowedCount.get() + exhaustedCount.get();
+    return borrowed == 0 ? 0 : totalBorrowTime.get() / borrowed;
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getMaxBorrowTime() {
+    return maxBorrowTime.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
 }
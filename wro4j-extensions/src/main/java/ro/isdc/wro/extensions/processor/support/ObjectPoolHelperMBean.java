@@ -0,0 +1,62 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+/**
+ * Exposes the usage statistics of an {@link ObjectPoolHelper} through JMX.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface ObjectPoolHelperMBean {
+  /**
+   * @return the name identifying the pool.
+   */
+  String getName();
+
+  /**
+   * @return the maximum number of objects which can be borrowed at the same time.
+   */
+  int getMaxActive();
+
+  /**
+   * @return the number of objects currently borrowed.
+   */
+  int getNumActive();
+
+  /**
+   * @return the number of objects available in the pool.
+   */
+  int getNumIdle();
+
+  /**
+   * @return how many objects were created by the pool.
+   */
+  long getCreatedCount();
+
+  /**
+   * @return how many times an object was borrowed from the pool.
+   */
+  long getBorrowedCount();
+
+  /**
+   * @return how many times no object was available in the pool (timeout or exhausted pool).
+   */
+  long getExhaustedCount();
+
+  /**
+   * @return the average time (milliseconds) spent waiting for an object.
+   */
+  long getAverageBorrowTime();
+
+  /**
+   * @return the maximum time (milliseconds) spent waiting for an object.
+   */
+  long getMaxBorrowTime();
+
+  /**
+   * @return how many script evaluations performed with the objects of the pool were aborted because of a timeout.
+   */
+  long getTimeoutCount();
+}
@@ -0,0 +1,363 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.GroupReport;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * Caches the output of the expensive processors (ex: less, sass, coffeeScript compilers). The entries are identified
+ * by a key computed with {@link #createKey(String...)} from everything the output depends on: the processed content,
+ * the library used by the engine and its options. Because the key changes when any of these changes, the entries never
+ * have to be invalidated.
+ * <p/>
+ * The entries are kept in memory (the least recently used are evicted when the configured size is exceeded) and
+ * optionally stored on disk, as one file per entry named after the key. The folder can be shared by the filter, the
+ * maven plugin and the command line runner, thus a content compiled by any of them is never compiled again. When the
+ * files exceed the configured disk size, the least recently used (by last modification time, updated when read) are
+ * removed. Each lookup is also reported to the {@link GroupReport} of the group being processed, if any.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class ProcessorOutputCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ProcessorOutputCache.class);
+  private static final String ENCODING = "UTF-8";
+  /**
+   * The extension of the files storing the cached output.
+   */
+  public static final String FILE_EXTENSION = ".cache";
+  /**
+   * Part of each key. Must be changed when the format of the entries changes.
+   */
+  private static final String FORMAT_VERSION = "1";
+  /**
+   * Holds the caches created for each distinct configuration. The processors are created for each model reload, but
+   * the cached output should survive.
+   */
+  private static final ConcurrentMap<String, ProcessorOutputCache> INSTANCES =
+    new ConcurrentHashMap<String, ProcessorOutputCache>();
+  private final HashBuilder hashBuilder = new SHA1HashBuilder();
+  private final long maxSize;
+  private final File directory;
+  private final long maxDiskSize;
+  /**
+   * The size of the files stored in the directory, computed when first needed. Other processes can share the folder,
+   * thus it is only an estimation, computed again before removing the files.
+   */
+  private long diskSize = -1;
+  /**
+   * The entries kept in memory, in access order.
+   */
+  private final Map<String, String> entries = new LinkedHashMap<String, String>(16, 0.75f, true);
+  private long size;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+
+  /**
+   * @param maxSize
+   *          the maximum size (bytes) of the entries kept in memory.
+   * @param directory
+   *          the folder where the entries are stored. If null, the entries are not stored on disk.
+   */
+  public ProcessorOutputCache(final long maxSize, final File directory) {
+    this(maxSize, directory, WroConfiguration.DEFAULT_PROCESSOR_CACHE_MAX_DISK_SIZE);
+  }
+
+
+  /**
+   * @param maxSize
+   *          the maximum size (bytes) of the entries kept in memory.
+   * @param directory
+   *          the folder where the entries are stored. If null, the entries are not stored on disk.
+   * @param maxDiskSize
+   *          the maximum size (bytes) of the entries stored in the directory.
+   */
+  public ProcessorOutputCache(final long maxSize, final File directory, final long maxDiskSize) {
+    this.maxSize = maxSize;
+    this.maxDiskSize = maxDiskSize;
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      LOG.warn("Cannot create the folder {}. The processed output won't be stored on disk.", directory);
+      this.directory = null;
+    } else {
+      this.directory = directory;
+    }
+  }
+
+
+  /**
+   * @return the cache configured by the {@link WroConfiguration} of the current {@link Context}.
+   */
+  public static ProcessorOutputCache get() {
+    final WroConfiguration config = Context.isContextSet() ? Context.get().getConfig() : new WroConfiguration();
+    final String directory = config.getProcessorCacheDirectory();
+    final String id = config.getProcessorCacheMaxSize() + ":" + config.getProcessorCacheMaxDiskSize() + ":"
+      + StringUtils.defaultString(directory);
+    ProcessorOutputCache cache = INSTANCES.get(id);
+    if (cache == null) {
+      final ProcessorOutputCache created = new ProcessorOutputCache(config.getProcessorCacheMaxSize(),
+        directory == null ? null : new File(directory), config.getProcessorCacheMaxDiskSize());
+      cache = INSTANCES.putIfAbsent(id, created);
+      if (cache == null) {
+        cache = created;
+      }
+    }
+    return cache;
+  }
+
+
+  /**
+   * @param parts
+   *          everything the cached output depends on.
+   * @return the key identifying the output.
+   */
+  public String createKey(final String... parts) {
+    Validate.notNull(parts);
+    final StringBuilder sb = new StringBuilder(FORMAT_VERSION);
+    for (final String part : parts) {
+      // prefix with the length to avoid collisions between different sequences of parts
+      sb.append('\n').append(part == null ? -1 : part.length()).append(':').append(part);
+    }
+    try {
+      return hashBuilder.getHash(new ByteArrayInputStream(sb.toString().getBytes(ENCODING)));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot compute the cache key", e);
+    }
+  }
+
+
+  /**
+   * @param key
+   *          created with {@link #createKey(String...)}.
+   * @return the cached output or null if there is no entry for the provided key.
+   */
+  public String get(final String key) {
+    Validate.notNull(key);
+    String value;
+    synchronized (entries) {
+      value = entries.get(key);
+    }
+    if (value == null) {
+      value = read(key);
+      if (value != null) {
+        putInMemory(key, value);
+      }
+    }
+    if (value == null) {
+      missCount.incrementAndGet();
+    } else {
+      hitCount.incrementAndGet();
+    }
+    reportLookup(value != null);
+    return value;
+  }
+
+
+  /**
+   * Reports the lookup to the {@link GroupReport} of the group being processed, if any.
+   */
+  private void reportLookup(final boolean hit) {
+    final GroupReport groupReport = Context.isContextSet() ? Context.get().getGroupReport() : null;
+    if (groupReport != null) {
+      groupReport.addProcessorCacheLookup(hit);
+    }
+  }
+
+
+  /**
+   * Stores the output identified by the key.
+   */
+  public void put(final String key, final String value) {
+    Validate.notNull(key);
+    Validate.notNull(value);
+    putInMemory(key, value);
+    write(key, value);
+  }
+
+
+  private void putInMemory(final String key, final String value) {
+    final long entrySize = sizeOf(key, value);
+    if (entrySize > maxSize) {
+      return;
+    }
+    synchronized (entries) {
+      final String previous = entries.put(key, value);
+      if (previous != null) {
+        size -= sizeOf(key, previous);
+      }
+      size += entrySize;
+      final Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+      while (size > maxSize && iterator.hasNext()) {
+        final Map.Entry<String, String> eldest = iterator.next();
+        size -= sizeOf(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+
+  /**
+   * @return the number of bytes used by a string in memory.
+   */
+  private long sizeOf(final String key, final String value) {
+    return 2L * (key.length() + value.length());
+  }
+
+
+  private File getFile(final String key) {
+    return new File(directory, key + FILE_EXTENSION);
+  }
+
+
+  private String read(final String key) {
+    if (directory != null) {
+      final File file = getFile(key);
+      if (file.isFile()) {
+        try {
+          final String value = FileUtils.readFileToString(file, ENCODING);
+          // the recently used files are the last to be removed
+          file.setLastModified(System.currentTimeMillis());
+          return value;
+        } catch (final IOException e) {
+          LOG.warn("Cannot read the cached output from " + file, e);
+        }
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Writes the entry to a temporary file first, so that the processes sharing the folder never read a partially
+   * written entry.
+   */
+  private void write(final String key, final String value) {
+    if (directory != null) {
+      File tempFile = null;
+      try {
+        tempFile = File.createTempFile(key, ".tmp", directory);
+        FileUtils.writeStringToFile(tempFile, value, ENCODING);
+        final File file = getFile(key);
+        final long length = tempFile.length();
+        if (tempFile.renameTo(file)) {
+          onFileWritten(length);
+        } else if (!file.isFile()) {
+          LOG.warn("Cannot store the cached output to {}", file);
+        }
+      } catch (final UnsupportedEncodingException e) {
+        throw new WroRuntimeException("Unsupported encoding", e);
+      } catch (final IOException e) {
+        LOG.warn("Cannot store the cached output in " + directory, e);
+      } finally {
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+
+
+  private synchronized void onFileWritten(final long length) {
+    if (diskSize < 0) {
+      diskSize = computeDiskSize(listFiles());
+    } else {
+      diskSize += length;
+    }
+    if (diskSize > maxDiskSize) {
+      purge();
+    }
+  }
+
+
+  /**
+   * Removes the least recently used files until the size of the directory is below the maximum disk size.
+   */
+  private void purge() {
+    final File[] files = listFiles();
+    diskSize = computeDiskSize(files);
+    Arrays.sort(files, new Comparator<File>() {
+      public int compare(final File o1, final File o2) {
+        final long lastModified1 = o1.lastModified();
+        final long lastModified2 = o2.lastModified();
+        return lastModified1 < lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+      }
+    });
+    for (int i = 0; i < files.length && diskSize > maxDiskSize; i++) {
+      final long length = files[i].length();
+      if (files[i].delete()) {
+        LOG.debug("Removed the least recently used {}", files[i]);
+        diskSize -= length;
+      }
+    }
+  }
+
+
+  private File[] listFiles() {
+    final File[] files = directory.listFiles(new FilenameFilter() {
+      public boolean accept(final File dir, final String name) {
+        return name.endsWith(FILE_EXTENSION);
+      }
+    });
+    return files == null ? new File[0] : files;
+  }
+
+
+  private long computeDiskSize(final File[] files) {
+    long total = 0;
+    for (final File file : files) {
+      total += file.length();
+    }
+    return total;
+  }
+
+
+  /**
+   * @return the number of entries kept in memory.
+   */
+  public int getEntryCount() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+
+  /**
+   * @return the number of lookups which found the output in the cache.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+
+  /**
+   * @return the number of lookups which didn't find the output in the cache.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+}
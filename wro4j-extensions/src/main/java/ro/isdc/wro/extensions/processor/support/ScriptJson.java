@@ -0,0 +1,341 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import ro.isdc.wro.WroRuntimeException;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+
+/**
+ * Reads and writes json the same way the javascript processors do, thus the java implementations of these processors
+ * produce exactly the same output. The json values are represented as:
+ * <ul>
+ * <li>object - a {@link LinkedHashMap}, which preserves the order of the properties, like javascript objects do;</li>
+ * <li>array - a {@link List};</li>
+ * <li>number - a {@link Double};</li>
+ * <li>string, boolean and null - {@link String}, {@link Boolean} and null.</li>
+ * </ul>
+ * The {@link #UNDEFINED} value is used for a missing property or array element. It is serialized exactly as the
+ * javascript undefined value: omitted from objects and replaced with null in arrays.
+ * <p/>
+ * The json is read with a streaming {@link JsonReader}, in lenient mode, because the javascript processors evaluate
+ * the content.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class ScriptJson {
+  /**
+   * The javascript undefined value.
+   */
+  public static final Object UNDEFINED = new Object() {
+    @Override
+    public String toString() {
+      return "undefined";
+    }
+  };
+
+  private ScriptJson() {
+  }
+
+  /**
+   * @param json
+   *          the content to parse.
+   * @return the parsed value.
+   * @throws WroRuntimeException
+   *           if the content is not a valid json.
+   */
+  public static Object parse(final String json) {
+    final JsonReader reader = new JsonReader(new StringReader(json));
+    reader.setLenient(true);
+    try {
+      final Object value = read(reader);
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new WroRuntimeException("Unexpected content after the json value");
+      }
+      return value;
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Invalid json: " + e.getMessage(), e);
+    } catch (final IllegalStateException e) {
+      throw new WroRuntimeException("Invalid json: " + e.getMessage(), e);
+    }
+  }
+
+  private static Object read(final JsonReader reader)
+    throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_ARRAY:
+        final List<Object> array = new ArrayList<Object>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          array.add(read(reader));
+        }
+        reader.endArray();
+        return array;
+      case BEGIN_OBJECT:
+        final Map<String, Object> object = new LinkedHashMap<String, Object>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          final String name = reader.nextName();
+          object.put(name, read(reader));
+        }
+        reader.endObject();
+        return object;
+      case NUMBER:
+        return Double.valueOf(reader.nextDouble());
+      case BOOLEAN:
+        return Boolean.valueOf(reader.nextBoolean());
+      case NULL:
+        reader.nextNull();
+        return null;
+      case STRING:
+        return reader.nextString();
+      default:
+        throw new WroRuntimeException("Unexpected json token: " + reader.peek());
+    }
+  }
+
+  /**
+   * @return true if the value is a json array.
+   */
+  public static boolean isArray(final Object value) {
+    return value instanceof List<?>;
+  }
+
+  /**
+   * @return true if the value is a json object.
+   */
+  public static boolean isObject(final Object value) {
+    return value instanceof Map<?, ?>;
+  }
+
+  /**
+   * @return the names of the properties of the value, in the order they are enumerated by the javascript for-in loop:
+   *         the keys of an object, the indexes of an array and no name for the other values.
+   */
+  public static List<String> keys(final Object value) {
+    final List<String> keys = new ArrayList<String>();
+    if (value instanceof Map<?, ?>) {
+      for (final Object key : ((Map<?, ?>) value).keySet()) {
+        keys.add((String) key);
+      }
+    } else if (value instanceof List<?>) {
+      for (int i = 0; i < ((List<?>) value).size(); i++) {
+        keys.add(String.valueOf(i));
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * @return the value of the property, the same way javascript evaluates container[key], or {@link #UNDEFINED} if the
+   *         container has no such property.
+   */
+  public static Object getProperty(final Object container, final Object key) {
+    final String name = toPropertyName(key);
+    if (container instanceof Map<?, ?>) {
+      final Map<?, ?> object = (Map<?, ?>) container;
+      return object.containsKey(name) ? object.get(name) : UNDEFINED;
+    }
+    if (container instanceof List<?>) {
+      final List<?> array = (List<?>) container;
+      final int index = toIndex(name);
+      return index >= 0 && index < array.size() ? array.get(index) : UNDEFINED;
+    }
+    return UNDEFINED;
+  }
+
+  /**
+   * @return the name of the property identified by the key (javascript converts the key to a string).
+   */
+  public static String toPropertyName(final Object key) {
+    if (key instanceof String) {
+      return (String) key;
+    }
+    if (key instanceof Double) {
+      return toString(((Double) key).doubleValue());
+    }
+    return String.valueOf(key);
+  }
+
+  /**
+   * @return the array index represented by the name or -1 if the name is not an array index.
+   */
+  private static int toIndex(final String name) {
+    if (name.length() == 0 || name.length() > 9 || (name.length() > 1 && name.charAt(0) == '0')) {
+      return -1;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+        return -1;
+      }
+    }
+    return Integer.parseInt(name);
+  }
+
+  /**
+   * Compares two values using the javascript strict equality (===) operator: the objects and arrays are equal only
+   * when they are the same instance.
+   */
+  public static boolean strictEquals(final Object first, final Object second) {
+    if (first == second) {
+      return true;
+    }
+    if (first instanceof Double && second instanceof Double) {
+      return ((Double) first).doubleValue() == ((Double) second).doubleValue();
+    }
+    if (first instanceof String || first instanceof Boolean) {
+      return first.equals(second);
+    }
+    return false;
+  }
+
+  /**
+   * Serializes the value the same way as JSON.stringify (json2.js) does.
+   *
+   * @return the json representation of the value.
+   */
+  public static String stringify(final Object value) {
+    final StringBuilder sb = new StringBuilder();
+    write(value, sb);
+    return sb.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void write(final Object value, final StringBuilder sb) {
+    if (value == null || value == UNDEFINED) {
+      sb.append("null");
+    } else if (value instanceof String) {
+      quote((String) value, sb);
+    } else if (value instanceof Double) {
+      final double number = ((Double) value).doubleValue();
+      sb.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : toString(number));
+    } else if (value instanceof Boolean) {
+      sb.append(value);
+    } else if (value instanceof List<?>) {
+      sb.append('[');
+      final Iterator<Object> iterator = ((List<Object>) value).iterator();
+      while (iterator.hasNext()) {
+        write(iterator.next(), sb);
+        if (iterator.hasNext()) {
+          sb.append(',');
+        }
+      }
+      sb.append(']');
+    } else if (value instanceof Map<?, ?>) {
+      sb.append('{');
+      boolean first = true;
+      for (final Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+        if (entry.getValue() != UNDEFINED) {
+          if (!first) {
+            sb.append(',');
+          }
+          first = false;
+          quote(entry.getKey(), sb);
+          sb.append(':');
+          write(entry.getValue(), sb);
+        }
+      }
+      sb.append('}');
+    } else {
+      throw new WroRuntimeException("Cannot serialize value of type: " + value.getClass());
+    }
+  }
+
+  /**
+   * Quotes the string escaping the same characters as json2.js.
+   */
+  private static void quote(final String value, final StringBuilder sb) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '\b':
+          sb.append("\\b");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\f':
+          sb.append("\\f");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        default:
+          if (isEscapable(c)) {
+            final String hex = Integer.toHexString(c);
+            sb.append("\\u").append(StringUtils.leftPad(hex, 4, '0'));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    sb.append('"');
+  }
+
+  private static boolean isEscapable(final char c) {
+    return c <= 0x1f || (c >= 0x7f && c <= 0x9f) || c == 0xad || (c >= 0x600 && c <= 0x604) || c == 0x70f
+      || c == 0x17b4 || c == 0x17b5 || (c >= 0x200c && c <= 0x200f) || (c >= 0x2028 && c <= 0x202f)
+      || (c >= 0x2060 && c <= 0x206f) || c == 0xfeff || c >= 0xfff0;
+  }
+
+  /**
+   * Converts a number to string the same way javascript does (ex: 1.0 is converted to "1", 1e21 to "1e+21").
+   */
+  public static String toString(final double number) {
+    if (Double.isNaN(number)) {
+      return "NaN";
+    }
+    if (Double.isInfinite(number)) {
+      return number > 0 ? "Infinity" : "-Infinity";
+    }
+    if (number == 0) {
+      return "0";
+    }
+    final BigDecimal decimal = new BigDecimal(Double.toString(Math.abs(number))).stripTrailingZeros();
+    final String digits = decimal.unscaledValue().toString();
+    final int k = digits.length();
+    // the position of the decimal point relative to the first digit
+    final int n = k - decimal.scale();
+    final StringBuilder sb = new StringBuilder(number < 0 ? "-" : "");
+    if (k <= n && n <= 21) {
+      sb.append(digits).append(StringUtils.repeat('0', n - k));
+    } else if (0 < n && n <= 21) {
+      sb.append(digits, 0, n).append('.').append(digits, n, k);
+    } else if (-6 < n && n <= 0) {
+      sb.append("0.").append(StringUtils.repeat('0', -n)).append(digits);
+    } else {
+      final int exponent = n - 1;
+      sb.append(digits.charAt(0));
+      if (k > 1) {
+        sb.append('.').append(digits, 1, k);
+      }
+      sb.append('e').append(exponent < 0 ? '-' : '+').append(Math.abs(exponent));
+    }
+    return sb.toString();
+  }
+}
@@ -5,16 +5,15 @@ package ro.isdc.wro.extensions.processor.support.cjson;
 
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -25,29 +24,32 @@ import ro.isdc.wro.util.WroUtil;
  */
 public class CJson {
   private static final Logger LOG = LoggerFactory.getLogger(CJson.class);
-  private ScriptableObject scope;
+  private ScriptEngine engine;
 
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newClientSideAwareChain().addJSON().evaluateChain(
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addClientSideEnvironment().addJSON().evaluateLibrary(
           getScriptAsStream(), "script.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
-      return builder;
+      return engine.createScope();
     } catch (final Exception e) {
       LOG.error("Processing error:" + e.getMessage(), e);
       throw new WroRuntimeException("Processing error", e);
     }
   }
 
+  /**
+   * Evaluates the cjson script, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
 
   /**
    * @return stream of the less.js script.
@@ -63,16 +65,15 @@ public class CJson {
   public String pack(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("cjson.pack");
     try {
-      final String execute = "CJSON.stringify(JSON.parse(" + WroUtil.toJSMultiLineString(data) + "));";
-      final Object result = builder.evaluate(execute, "pack");
+      final String execute = "CJSON.stringify(JSON.parse(cjsonInput));";
+      final Object result = scope.addVariable("cjsonInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+        execute, "pack");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
@@ -82,16 +83,15 @@ public class CJson {
   public String unpack(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.unpack");
     try {
-      final String execute = "JSON.stringify(CJSON.parse(" + WroUtil.toJSMultiLineString(data) + "));";
-      final Object result = builder.evaluate(execute, "unpack");
+      final String execute = "JSON.stringify(CJSON.parse(cjsonInput));";
+      final Object result = scope.addVariable("cjsonInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+        execute, "unpack");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
@@ -0,0 +1,187 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support.cjson;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ScriptJson;
+import ro.isdc.wro.extensions.script.RhinoUtils;
+
+
+/**
+ * A java implementation of the cjson algorithm, producing the same output as the javascript implementation used by
+ * {@link CJson}, without using rhino. Unlike {@link CJson}, this class is thread-safe.
+ * <p/>
+ * The keys of the objects are stored in a tree. Each object is packed as the index of its template (the path of its
+ * keys in the tree) followed by its values. When no template is needed, the content is left unchanged.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class NativeCJson
+  extends CJson {
+  private static final String FORMAT = "cjson";
+
+  /**
+   * A node of the tree containing the keys of the packed objects.
+   */
+  private static class Node {
+    private final Node parent;
+    private final String key;
+    private final Map<String, Node> children = new LinkedHashMap<String, Node>();
+    private Integer templateIndex;
+    /**
+     * The values of the objects using this node as template.
+     */
+    private final List<List<Object>> links = new ArrayList<List<Object>>();
+
+    Node(final Node parent, final String key) {
+      this.parent = parent;
+      this.key = key;
+    }
+
+    Node follow(final String childKey) {
+      Node child = children.get(childKey);
+      if (child == null) {
+        child = new Node(this, childKey);
+        children.put(childKey, child);
+      }
+      return child;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String pack(final String data) {
+    final Object value = ScriptJson.parse(RhinoUtils.normalizeNewLines(data));
+    final Node root = new Node(null, "");
+    final Object packedValue = process(root, value);
+    final List<Object> templates = createTemplates(root);
+    if (templates.isEmpty()) {
+      return ScriptJson.stringify(value);
+    }
+    final Map<String, Object> result = new LinkedHashMap<String, Object>();
+    result.put("f", FORMAT);
+    result.put("t", templates);
+    result.put("v", packedValue);
+    return ScriptJson.stringify(result);
+  }
+
+  /**
+   * Replaces each object with the list of its values, linked to the node of the last key.
+   */
+  @SuppressWarnings("unchecked")
+  private Object process(final Node root, final Object value) {
+    if (ScriptJson.isArray(value)) {
+      final List<Object> result = new ArrayList<Object>();
+      for (final Object item : (List<Object>) value) {
+        result.add(process(root, item));
+      }
+      return result;
+    }
+    if (value == null || ScriptJson.isObject(value)) {
+      final List<Object> values = new ArrayList<Object>();
+      Node node = root;
+      for (final String key : ScriptJson.keys(value)) {
+        node = node.follow(key);
+        values.add(process(root, ((Map<String, Object>) value).get(key)));
+      }
+      node.links.add(values);
+      final Map<String, Object> result = new LinkedHashMap<String, Object>();
+      result.put("", values);
+      return result;
+    }
+    return value;
+  }
+
+  /**
+   * Creates a template for each node used by an object or having more than one child, visiting the tree breadth
+   * first. The index of the template is prepended to the values of the linked objects.
+   *
+   * @return the templates, each template being the index of the parent template followed by the keys.
+   */
+  private List<Object> createTemplates(final Node root) {
+    final List<Object> templates = new ArrayList<Object>();
+    root.templateIndex = 0;
+    final LinkedList<Node> queue = new LinkedList<Node>(root.children.values());
+    while (!queue.isEmpty()) {
+      final Node node = queue.removeFirst();
+      queue.addAll(node.children.values());
+      if (node.children.size() > 1 || !node.links.isEmpty()) {
+        final LinkedList<Object> template = new LinkedList<Object>();
+        Node current = node;
+        while (current.templateIndex == null) {
+          template.addFirst(current.key);
+          current = current.parent;
+        }
+        template.addFirst(Double.valueOf(current.templateIndex));
+        templates.add(new ArrayList<Object>(template));
+        node.templateIndex = templates.size();
+        for (final List<Object> values : node.links) {
+          values.add(0, Double.valueOf(node.templateIndex));
+        }
+      }
+    }
+    return templates;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String unpack(final String data) {
+    final Object value = ScriptJson.parse(RhinoUtils.normalizeNewLines(data));
+    if (!ScriptJson.isObject(value) || !ScriptJson.strictEquals(FORMAT, ScriptJson.getProperty(value, "f"))) {
+      return ScriptJson.stringify(value);
+    }
+    return ScriptJson.stringify(expand(ScriptJson.getProperty(value, "t"), ScriptJson.getProperty(value, "v")));
+  }
+
+  /**
+   * Restores the objects from the templates and their values.
+   */
+  @SuppressWarnings("unchecked")
+  private Object expand(final Object templates, final Object value) {
+    if (ScriptJson.isArray(value)) {
+      final List<Object> result = new ArrayList<Object>();
+      for (final Object item : (List<Object>) value) {
+        result.add(expand(templates, item));
+      }
+      return result;
+    }
+    if (value == null || ScriptJson.isObject(value)) {
+      final Object values = ScriptJson.getProperty(value, "");
+      if (!ScriptJson.isArray(values)) {
+        throw new WroRuntimeException("Invalid packed object: " + ScriptJson.stringify(value));
+      }
+      final LinkedList<Object> keys = new LinkedList<Object>();
+      Object templateIndex = ScriptJson.getProperty(values, Double.valueOf(0));
+      // the templates are visited at most once, otherwise they are invalid (cyclic)
+      int remainingTemplates = ScriptJson.isArray(templates) ? ((List<Object>) templates).size() : 0;
+      while (templateIndex instanceof Double && ((Double) templateIndex).doubleValue() > 0) {
+        final Object template = ScriptJson.getProperty(templates, ((Double) templateIndex).doubleValue() - 1);
+        if (!ScriptJson.isArray(template) || remainingTemplates-- == 0) {
+          throw new WroRuntimeException("Invalid template index: " + ScriptJson.stringify(templateIndex));
+        }
+        final List<Object> templateItems = (List<Object>) template;
+        keys.addAll(0, templateItems.subList(Math.min(1, templateItems.size()), templateItems.size()));
+        templateIndex = ScriptJson.getProperty(template, Double.valueOf(0));
+      }
+      final Map<String, Object> result = new LinkedHashMap<String, Object>();
+      for (int i = 0; i < keys.size(); i++) {
+        result.put(ScriptJson.toPropertyName(keys.get(i)),
+          expand(templates, ScriptJson.getProperty(values, Double.valueOf(i + 1))));
+      }
+      return result;
+    }
+    return value;
+  }
+}
@@ -6,17 +6,15 @@ package ro.isdc.wro.extensions.processor.support.coffeescript;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -33,27 +31,32 @@ import ro.isdc.wro.util.WroUtil;
 public class CoffeeScript {
   private static final Logger LOG = LoggerFactory.getLogger(CoffeeScript.class);
   private String[] options;
-  private ScriptableObject scope;
+  private ScriptEngine engine;
+  private String fingerprint;
 
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getCoffeeScriptAsStream(), "coffee-script.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().evaluateLibrary(getCoffeeScriptAsStream(), "coffee-script.js");
       }
-      return builder;
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading init script", ex);
     }
   }
 
+  /**
+   * Evaluates the coffee-script compiler, unless already evaluated. Used by the pools to create engines ready to
+   * process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
 
   /**
    * Override this method to use a different version of CoffeeScript. This method is useful for upgrading coffeeScript
@@ -62,7 +65,19 @@ public class CoffeeScript {
    * @return The stream of the CoffeeScript.
    */
   protected InputStream getCoffeeScriptAsStream() {
-    return getClass().getResourceAsStream("coffee-script-1.1.3-pre.js");
+    return CoffeeScript.class.getResourceAsStream("coffee-script-1.1.3-pre.js");
+  }
+
+
+  /**
+   * @return a hash identifying the scripts and the options used by this engine. Engines having the same fingerprint
+   *         produce the same output for the same input.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = ScriptEngines.getName() + RhinoUtils.hashScripts(getCoffeeScriptAsStream()) + buildOptions();
+    }
+    return fingerprint;
   }
 
 
@@ -73,21 +88,17 @@ public class CoffeeScript {
    * @param data js content to process.
    */
   public String compile(final String data) {
-    try {
-      final StopWatch watch = new StopWatch();
-      watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
-      watch.stop();
-      watch.start("compile");
-      final String compileScript = String.format("CoffeeScript.compile(%s, %s);", WroUtil.toJSMultiLineString(data),
-        buildOptions());
-      final String result = (String)builder.evaluate(compileScript, "CoffeeScript.compile");
-      watch.stop();
-      LOG.debug(watch.prettyPrint());
-      return result;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
-    }
+    final StopWatch watch = new StopWatch();
+    watch.start("init");
+    final ScriptScope scope = initScriptBuilder();
+    watch.stop();
+    watch.start("compile");
+    final String compileScript = String.format("CoffeeScript.compile(coffeeScriptInput, %s);", buildOptions());
+    scope.addVariable("coffeeScriptInput", RhinoUtils.normalizeNewLines(data));
+    final String result = (String) scope.evaluate(compileScript, "CoffeeScript.compile");
+    watch.stop();
+    LOG.debug(watch.prettyPrint());
+    return result;
   }
 
 
@@ -115,6 +126,7 @@ public class CoffeeScript {
   public CoffeeScript setOptions(final String... options) {
     LOG.debug("setOptions: {}", options);
     this.options = options == null ? new String[] {} : options;
+    fingerprint = null;
     return this;
   }
 }
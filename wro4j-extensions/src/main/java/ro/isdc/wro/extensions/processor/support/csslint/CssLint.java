@@ -9,16 +9,14 @@ import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -42,32 +40,47 @@ public class CssLint {
    * Options to apply to js hint processing
    */
   private String[] options;
-  private ScriptableObject scope;
+  private ScriptEngine engine;
+  private String fingerprint;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), DEFAULT_CSSLINT_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addJSON().evaluateLibrary(getScriptAsStream(), DEFAULT_CSSLINT_JS);
       }
-      return builder;
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading init script", ex);
     }
   }
 
+  /**
+   * Evaluates the csslint script, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
 
   /**
    * @return the stream of the csslint script. Override this method to provide a different script version.
    */
   protected InputStream getScriptAsStream() {
-    return getClass().getResourceAsStream(DEFAULT_CSSLINT_JS);
+    return CssLint.class.getResourceAsStream(DEFAULT_CSSLINT_JS);
+  }
+
+
+  /**
+   * @return a hash identifying the script used by this linter. The options are not part of the fingerprint.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = ScriptEngines.getName() + RhinoUtils.hashScripts(getScriptAsStream());
+    }
+    return fingerprint;
   }
 
 
@@ -79,38 +92,34 @@ public class CssLint {
    * @throws CssLintException when parsed css has some kind of problems.
    */
   public void validate(final String data) throws CssLintException {
-    try {
-      final StopWatch watch = new StopWatch();
-      watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
-      watch.stop();
-      watch.start("cssLint");
-      LOG.debug("options: {}", Arrays.toString(this.options));
-      final String script = buildCssLintScript(WroUtil.toJSMultiLineString(data), this.options);
-      LOG.debug("script: {}", script);
-      builder.evaluate(script, "CSSLint.verify").toString();
-      final boolean valid = Boolean.parseBoolean(builder.evaluate("result.length == 0", "checkNoErrors").toString());
-      if (!valid) {
-        final String json = builder.addJSON().evaluate("JSON.stringify(result)", "CssLint messages").toString();
-        LOG.debug("json {}", json);
-        final Type type = new TypeToken<List<CssLintError>>() {}.getType();
-        final List<CssLintError> errors = new Gson().fromJson(json, type);
-        LOG.debug("Errors: {}", errors);
-        throw new CssLintException().setErrors(errors);
-      }
-      LOG.debug("isValid: {}", valid);
-      watch.stop();
-      LOG.debug(watch.prettyPrint());
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    final StopWatch watch = new StopWatch();
+    watch.start("init");
+    final ScriptScope scope = initScriptBuilder();
+    watch.stop();
+    watch.start("cssLint");
+    LOG.debug("options: {}", Arrays.toString(this.options));
+    final String script = buildCssLintScript("cssLintInput", this.options);
+    LOG.debug("script: {}", script);
+    scope.addVariable("cssLintInput", RhinoUtils.normalizeNewLines(data));
+    final boolean valid = Boolean.TRUE.equals(scope.evaluate(script, "CSSLint.verify"));
+    if (!valid) {
+      final String json = scope.evaluate("JSON.stringify(result)", "CssLint messages").toString();
+      LOG.debug("json {}", json);
+      final Type type = new TypeToken<List<CssLintError>>() {}.getType();
+      final List<CssLintError> errors = new Gson().fromJson(json, type);
+      LOG.debug("Errors: {}", errors);
+      throw new CssLintException().setErrors(errors);
     }
+    LOG.debug("isValid: {}", valid);
+    watch.stop();
+    LOG.debug(watch.prettyPrint());
   }
 
 
   /**
-   * @param data script to process.
+   * @param data javascript expression evaluated to the css to process.
    * @param options options to set as true
-   * @return Script used to pack and return the packed result.
+   * @return Script used to validate the css and return true if no errors were found.
    */
   private String buildCssLintScript(final String data, final String... options) {
     //TODO use OptionsBuilder
@@ -130,7 +139,7 @@ public class CssLint {
     final boolean noOptions = options == null || options.length == 0;
     final String optionsAsString = noOptions ? "" : "," + sb.toString();
     //return "var result = CSSLint.verify(" + data + "," + sb.toString() + ").messages;";
-    return "var result = CSSLint.verify(" + data + optionsAsString + ").messages;";
+    return "var result = CSSLint.verify(" + data + optionsAsString + ").messages; result.length == 0;";
   }
 
 
@@ -5,16 +5,15 @@ package ro.isdc.wro.extensions.processor.support.jsonhpack;
 
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -25,28 +24,31 @@ import ro.isdc.wro.util.WroUtil;
  */
 public class JsonHPack {
   private static final Logger LOG = LoggerFactory.getLogger(JsonHPack.class);
-  private ScriptableObject scope;
+  private ScriptEngine engine;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newClientSideAwareChain().addJSON().evaluateChain(
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addClientSideEnvironment().addJSON().evaluateLibrary(
           getScriptAsStream(), "script.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
-      return builder;
+      return engine.createScope();
     } catch (final Exception e) {
       LOG.error("Processing error:" + e.getMessage(), e);
       throw new WroRuntimeException("Processing error", e);
     }
   }
 
+  /**
+   * Evaluates the json.hpack script, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
 
   /**
    * @return stream of the less.js script.
@@ -59,7 +61,7 @@ public class JsonHPack {
   public String unpack(final String rawData) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.hunpack");
@@ -71,8 +73,9 @@ public class JsonHPack {
     }
 
     try {
-      final String execute = "JSON.stringify(JSON.hunpack(eval(" + WroUtil.toJSMultiLineString(data) + ")));";
-      final Object result = builder.evaluate(execute, "unpack");
+      final String execute = "JSON.stringify(JSON.hunpack(eval(hpackInput)));";
+      final Object result = scope.addVariable("hpackInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+        execute, "unpack");
 
       String resultAsString = String.valueOf(result);
       if (!isEnclosedInDoubleArray) {
@@ -80,8 +83,6 @@ public class JsonHPack {
         resultAsString = removeEnclosedArray(resultAsString);
       }
       return resultAsString;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
@@ -96,7 +97,7 @@ public class JsonHPack {
 
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("json.hpack");
@@ -108,16 +109,15 @@ public class JsonHPack {
     }
 
     try {
-      final String execute = "JSON.stringify(JSON.hpack(eval(" + WroUtil.toJSMultiLineString(data) + "), 4));";
-      final Object result = builder.evaluate(execute, "pack");
+      final String execute = "JSON.stringify(JSON.hpack(eval(hpackInput), 4));";
+      final Object result = scope.addVariable("hpackInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+        execute, "pack");
       String resultAsString = String.valueOf(result);
       if (!isEnclosedInArray) {
         //remove [] characters in which the json is enclosed
         resultAsString = removeEnclosedArray(resultAsString);
       }
       return resultAsString;
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
@@ -130,7 +130,7 @@ public class JsonHPack {
    * @param resultAsString
    * @return
    */
-  private String removeEnclosedArray(String resultAsString) {
+  String removeEnclosedArray(String resultAsString) {
     resultAsString = resultAsString.replaceFirst("(?ims)\\[", "").replaceFirst("(?ims)\\](?!.*\\])", "");
     return resultAsString;
   }
@@ -140,7 +140,7 @@ public class JsonHPack {
    * Check if the string is enclosed with [] (array).
    * @param rawData string to test.
    */
-  private boolean isEnclosedInArray(final String rawData) {
+  boolean isEnclosedInArray(final String rawData) {
     return rawData.matches("(?ims)^\\s*\\[.*\\]");
   }
 
@@ -148,7 +148,7 @@ public class JsonHPack {
    * Check if the string is enclosed with [[]] (double array).
    * @param rawData string to test.
    */
-  private boolean isEnclosedInDoubleArray(final String rawData) {
+  boolean isEnclosedInDoubleArray(final String rawData) {
     return rawData.matches("(?ims)^\\s*\\[\\[.*\\]\\]");
   }
 }
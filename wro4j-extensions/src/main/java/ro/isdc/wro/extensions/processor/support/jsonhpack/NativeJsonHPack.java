@@ -0,0 +1,232 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support.jsonhpack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ScriptJson;
+import ro.isdc.wro.extensions.script.RhinoUtils;
+
+
+/**
+ * A java implementation of the json.hpack algorithm, producing the same output as the javascript implementation used
+ * by {@link JsonHPack}, without using rhino. Unlike {@link JsonHPack}, this class is thread-safe.
+ * <p/>
+ * The content is packed with all the compression levels and the smallest output is used, like json.hpack does when
+ * the level 4 is requested.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class NativeJsonHPack
+  extends JsonHPack {
+  private static final int LEVELS = 4;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String pack(final String rawData) {
+    final boolean isEnclosedInArray = isEnclosedInArray(rawData);
+    final String data = isEnclosedInArray ? rawData : "[" + rawData + "]";
+    final List<Object> rows = toArray(ScriptJson.parse(RhinoUtils.normalizeNewLines(data)));
+    String result = null;
+    for (int level = 0; level < LEVELS; level++) {
+      final String packed = ScriptJson.stringify(hpack(rows, level));
+      if (result == null || packed.length() < result.length()) {
+        result = packed;
+      }
+    }
+    return isEnclosedInArray ? result : removeEnclosedArray(result);
+  }
+
+  /**
+   * Packs the rows using the compression level: 0 - the keys are extracted in the header, 1 - the values of the
+   * columns which are not numbers are enumerated in the header, 2 - the enumeration is used only for columns with few
+   * distinct values, 3 - the enumeration is used only when it makes the output shorter.
+   */
+  private List<Object> hpack(final List<Object> rows, final int level) {
+    final List<String> keys = ScriptJson.keys(rows.isEmpty() ? ScriptJson.UNDEFINED : rows.get(0));
+    final int keyCount = keys.size();
+    final List<List<Object>> table = new ArrayList<List<Object>>();
+    for (final Object row : rows) {
+      if (row == null) {
+        throw new WroRuntimeException("Cannot pack null row");
+      }
+      final List<Object> values = new ArrayList<Object>(keyCount);
+      for (final String key : keys) {
+        values.add(ScriptJson.getProperty(row, key));
+      }
+      table.add(values);
+    }
+    // the distinct values of each enumerated column, null for the columns which are not enumerated
+    final List<List<Object>> enumerations = new ArrayList<List<Object>>();
+    for (int column = 0; column < keyCount; column++) {
+      enumerations.add(level > 0 && !(table.get(0).get(column) instanceof Double) ? enumerate(table, column) : null);
+    }
+    if (level == 3) {
+      for (int column = 0; column < keyCount; column++) {
+        if (enumerations.get(column) != null && !shouldKeepEnumeration(table, column, enumerations.get(column))) {
+          restore(table, column, enumerations.get(column));
+          enumerations.set(column, null);
+        }
+      }
+    } else if (level == 2) {
+      final int maxDistinctValues = rows.size() - rows.size() / 2;
+      for (int column = 0; column < keyCount; column++) {
+        if (enumerations.get(column) != null && maxDistinctValues < enumerations.get(column).size()) {
+          restore(table, column, enumerations.get(column));
+          enumerations.set(column, null);
+        }
+      }
+    }
+    final List<Object> header = new ArrayList<Object>();
+    for (int column = 0; column < keyCount; column++) {
+      header.add(keys.get(column));
+      if (enumerations.get(column) != null) {
+        header.add(enumerations.get(column));
+      }
+    }
+    final List<Object> result = new ArrayList<Object>();
+    result.add(header);
+    result.addAll(table);
+    return result;
+  }
+
+  /**
+   * Replaces the values of the column with their index in the list of distinct values.
+   *
+   * @return the distinct values of the column.
+   */
+  private List<Object> enumerate(final List<List<Object>> table, final int column) {
+    final List<Object> distinctValues = new ArrayList<Object>();
+    for (final List<Object> row : table) {
+      final Object value = row.get(column);
+      int index = indexOf(distinctValues, value);
+      if (index < 0) {
+        distinctValues.add(value);
+        index = distinctValues.size() - 1;
+      }
+      row.set(column, Double.valueOf(index));
+    }
+    return distinctValues;
+  }
+
+  private int indexOf(final List<Object> values, final Object value) {
+    for (int i = 0; i < values.size(); i++) {
+      if (ScriptJson.strictEquals(values.get(i), value)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the indexes and the distinct values are not longer than the original values of the column.
+   */
+  private boolean shouldKeepEnumeration(final List<List<Object>> table, final int column,
+    final List<Object> distinctValues) {
+    final List<Object> values = new ArrayList<Object>();
+    final List<Object> indexesAndValues = new ArrayList<Object>();
+    for (final List<Object> row : table) {
+      values.add(distinctValues.get(((Double) row.get(column)).intValue()));
+      indexesAndValues.add(row.get(column));
+    }
+    indexesAndValues.addAll(distinctValues);
+    return ScriptJson.stringify(values).length() >= ScriptJson.stringify(indexesAndValues).length();
+  }
+
+  /**
+   * Replaces the indexes of the column with the original values.
+   */
+  private void restore(final List<List<Object>> table, final int column, final List<Object> distinctValues) {
+    for (final List<Object> row : table) {
+      row.set(column, distinctValues.get(((Double) row.get(column)).intValue()));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String unpack(final String rawData) {
+    final boolean isEnclosedInDoubleArray = isEnclosedInDoubleArray(rawData);
+    final String data = isEnclosedInDoubleArray ? rawData : "[" + rawData + "]";
+    final List<Object> packed = toArray(ScriptJson.parse(RhinoUtils.normalizeNewLines(data)));
+    final String result = ScriptJson.stringify(hunpack(packed));
+    return isEnclosedInDoubleArray ? result : removeEnclosedArray(result);
+  }
+
+  private List<Object> hunpack(final List<Object> packed) {
+    if (packed.isEmpty()) {
+      throw new WroRuntimeException("Cannot unpack an empty array");
+    }
+    final List<Object> header = toHeader(packed.get(0));
+    final List<Object> rows = packed.subList(1, packed.size());
+    final List<String> keys = new ArrayList<String>();
+    for (int i = 0; i < header.size(); i++) {
+      final int column = keys.size();
+      keys.add(toKey(header.get(i)));
+      // the enumerated values follow the key
+      if (i + 1 < header.size() && isObject(header.get(i + 1))) {
+        final Object distinctValues = header.get(++i);
+        if (distinctValues == null) {
+          throw new WroRuntimeException("Invalid enumeration of the key: " + keys.get(column));
+        }
+        for (final Object row : rows) {
+          final List<Object> values = toArray(row);
+          while (values.size() <= column) {
+            values.add(ScriptJson.UNDEFINED);
+          }
+          values.set(column, ScriptJson.getProperty(distinctValues, values.get(column)));
+        }
+      }
+    }
+    final List<Object> result = new ArrayList<Object>();
+    for (final Object row : rows) {
+      final Map<String, Object> object = new LinkedHashMap<String, Object>();
+      for (int column = 0; column < keys.size(); column++) {
+        object.put(keys.get(column), ScriptJson.getProperty(row, Double.valueOf(column)));
+      }
+      result.add(object);
+    }
+    return result;
+  }
+
+  /**
+   * @return true if the javascript typeof operator returns "object" for this value.
+   */
+  private boolean isObject(final Object value) {
+    return value == null || ScriptJson.isArray(value) || ScriptJson.isObject(value);
+  }
+
+  private String toKey(final Object value) {
+    if (!(value instanceof String)) {
+      throw new WroRuntimeException("Invalid key: " + ScriptJson.stringify(value));
+    }
+    return (String) value;
+  }
+
+  /**
+   * Like json.hpack, treats the values without length (ex: an object) as an empty header.
+   */
+  private List<Object> toHeader(final Object value) {
+    if (value != null && !ScriptJson.isArray(value) && !(value instanceof String)) {
+      return new ArrayList<Object>();
+    }
+    return toArray(value);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> toArray(final Object value) {
+    if (!ScriptJson.isArray(value)) {
+      throw new WroRuntimeException("Expected an array, but found: " + ScriptJson.stringify(value));
+    }
+    return (List<Object>) value;
+  }
+}
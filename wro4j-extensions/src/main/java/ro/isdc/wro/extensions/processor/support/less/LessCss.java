@@ -6,16 +6,17 @@ package ro.isdc.wro.extensions.processor.support.less;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptAssets;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -32,27 +33,22 @@ public class LessCss {
    * The name of the sass script to be used by default.
    */
   private static final String DEFAULT_LESS_JS = "less-1.1.5.min.js";
-  private ScriptableObject scope;
+  private static final String SCRIPT_INIT = "init.js";
+  private static final String SCRIPT_RUN = "run.js";
+  private ScriptEngine engine;
+  private String fingerprint;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        final String SCRIPT_INIT = "init.js";
-        final InputStream initStream = getClass().getResourceAsStream(SCRIPT_INIT);
-        final String SCRIPT_RUN = "run.js";
-        final InputStream runStream = getClass().getResourceAsStream(SCRIPT_RUN);
-
-        builder = RhinoScriptBuilder.newClientSideAwareChain().evaluateChain(initStream, SCRIPT_INIT).evaluateChain(
-          getScriptAsStream(), DEFAULT_LESS_JS).evaluateChain(runStream, SCRIPT_RUN);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addClientSideEnvironment().evaluateLibrary(
+          ScriptAssets.get(LessCss.class, SCRIPT_INIT), SCRIPT_INIT).evaluateLibrary(getScriptAsStream(),
+          DEFAULT_LESS_JS).evaluateLibrary(ScriptAssets.get(LessCss.class, SCRIPT_RUN), SCRIPT_RUN);
       }
-      return builder;
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading javascript less.js", ex);
     } catch (final Exception e) {
@@ -61,11 +57,43 @@ public class LessCss {
     }
   }
 
+  /**
+   * Evaluates the less.js scripts, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
   /**
    * @return stream of the less.js script.
    */
   protected InputStream getScriptAsStream() {
-    return getClass().getResourceAsStream(DEFAULT_LESS_JS);
+    return LessCss.class.getResourceAsStream(DEFAULT_LESS_JS);
+  }
+
+
+  /**
+   * @return a hash identifying the scripts used by this engine. Engines having the same fingerprint produce the same
+   *         output for the same input.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = ScriptEngines.getName()
+        + RhinoUtils.hashScripts(getAssetAsStream(SCRIPT_INIT), getScriptAsStream(), getAssetAsStream(SCRIPT_RUN));
+    }
+    return fingerprint;
+  }
+
+
+  /**
+   * @return the stream of a script already read by {@link ScriptAssets}, thus the classpath is not read again.
+   */
+  private InputStream getAssetAsStream(final String name) {
+    try {
+      return IOUtils.toInputStream(ScriptAssets.get(LessCss.class, name), "UTF-8");
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot read the script " + name, e);
+    }
   }
 
 
@@ -76,16 +104,13 @@ public class LessCss {
   public String less(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("lessify");
     try {
-      final String execute = "lessIt(" + WroUtil.toJSMultiLineString(data) + ");";
-      final Object result = builder.evaluate(execute, "lessIt");
+      final Object result = scope.invoke("lessIt", RhinoUtils.normalizeNewLines(data));
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
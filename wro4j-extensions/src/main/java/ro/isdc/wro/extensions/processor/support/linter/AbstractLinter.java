@@ -10,16 +10,16 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -39,29 +39,47 @@ public abstract class AbstractLinter {
    * Options to apply to js hint processing
    */
   private String[] options;
+  private ScriptEngine engine;
+  private String fingerprint;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      // reusing the scope doesn't work here. Get the following error: TypeError: Cannot find function create in object
-      // function Object() { [native code for Object.Object, arity=1] }
-      // TODO investigate why
-      builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), "linter.js");
-      return builder;
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addJSON().evaluateLibrary(getScriptAsStream(), "linter.js");
+      }
+      return engine.createScope();
     } catch (final IOException e) {
       throw new WroRuntimeException("Failed reading init script", e);
     }
   }
 
+  /**
+   * Evaluates the linter script, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
   /**
    * @return the stream of the linter script. Override this method to provide a different script version.
    */
   protected abstract InputStream getScriptAsStream();
 
 
+  /**
+   * @return a hash identifying the script used by this linter. The options are not part of the fingerprint.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = ScriptEngines.getName() + RhinoUtils.hashScripts(getScriptAsStream());
+    }
+    return fingerprint;
+  }
+
+
   /**
    * Validates a js using jsHint and throws {@link LinterException} if the js is invalid. If no exception is thrown, the
    * js is valid.
@@ -69,30 +87,27 @@ public abstract class AbstractLinter {
    * @param data js content to process.
    */
   public void validate(final String data) throws LinterException {
-    try {
-      final StopWatch watch = new StopWatch();
-      watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
-      watch.stop();
-      watch.start("lint");
-      LOG.debug("options: {}", Arrays.toString(this.options));
-      final String packIt = buildLinterScript(WroUtil.toJSMultiLineString(data), this.options);
-      final boolean valid = Boolean.parseBoolean(builder.evaluate(packIt, "check").toString());
-      if (!valid) {
-        final String json = builder.addJSON().evaluate(String.format("JSON.stringify(%s.errors)", getLinterName()),
-            "stringify errors").toString();
-        LOG.debug("json {}", json);
-        final Type type = new TypeToken<List<LinterError>>() {}.getType();
-        final List<LinterError> errors = new Gson().fromJson(json, type);
-        LOG.debug("errors {}", errors);
-        throw new LinterException().setErrors(errors);
-      }
-      LOG.debug("result: {}", valid);
-      watch.stop();
-      LOG.debug(watch.prettyPrint());
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    final StopWatch watch = new StopWatch();
+    watch.start("init");
+    final ScriptScope scope = initScriptBuilder();
+    watch.stop();
+    watch.start("lint");
+    LOG.debug("options: {}", Arrays.toString(this.options));
+    final String packIt = buildLinterScript("linterInput", this.options);
+    scope.addVariable("linterInput", RhinoUtils.normalizeNewLines(data));
+    final boolean valid = Boolean.TRUE.equals(scope.evaluate(packIt, "check"));
+    if (!valid) {
+      final String json = scope.evaluate(String.format("JSON.stringify(%s.errors)", getLinterName()),
+          "stringify errors").toString();
+      LOG.debug("json {}", json);
+      final Type type = new TypeToken<List<LinterError>>() {}.getType();
+      final List<LinterError> errors = new Gson().fromJson(json, type);
+      LOG.debug("errors {}", errors);
+      throw new LinterException().setErrors(errors);
     }
+    LOG.debug("result: {}", valid);
+    watch.stop();
+    LOG.debug(watch.prettyPrint());
   }
 
   /**
@@ -104,7 +119,7 @@ public abstract class AbstractLinter {
    * TODO this method is duplicated in {@link CssLint}. Extract and reuse it.
    *
    * @param data
-   *          script to process.
+   *          javascript expression evaluated to the script to process.
    * @param options
    *          options to set as true
    * @return Script used to pack and return the packed result.
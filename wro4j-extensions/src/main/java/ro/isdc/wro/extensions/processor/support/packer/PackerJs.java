@@ -6,15 +6,14 @@ package ro.isdc.wro.extensions.processor.support.packer;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -25,19 +24,30 @@ import ro.isdc.wro.util.WroUtil;
  */
 public class PackerJs {
   private static final Logger LOG = LoggerFactory.getLogger(PackerJs.class);
+  private ScriptEngine engine;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      return RhinoScriptBuilder.newChain().evaluateChain(getStreamForBase2(), "base2.min.js").evaluateChain(
-        getStreamForPacker(), "packer.min.js");
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().evaluateLibrary(getStreamForBase2(), "base2.min.js").evaluateLibrary(
+          getStreamForPacker(), "packer.min.js");
+      }
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading init script", ex);
     }
   }
 
+  /**
+   * Evaluates the packer script, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
   /**
    * Override this method if you have a newer version of base2.js file.
    *
@@ -62,25 +72,22 @@ public class PackerJs {
    */
   public String pack(final String data)
     throws IOException {
-    try {
-      final StopWatch watch = new StopWatch();
-      watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
-      watch.stop();
-      watch.start("pack");
+    final StopWatch watch = new StopWatch();
+    watch.start("init");
+    final ScriptScope scope = initScriptBuilder();
+    watch.stop();
+    watch.start("pack");
 
-      final String packIt = buildPackScript(WroUtil.toJSMultiLineString(data));
-      final Object result = builder.evaluate(packIt, "packerIt");
-      watch.stop();
-      LOG.debug(watch.prettyPrint());
-      return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
-    }
+    final String packIt = buildPackScript("packerInput");
+    final Object result = scope.addVariable("packerInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+      packIt, "packerIt");
+    watch.stop();
+    LOG.debug(watch.prettyPrint());
+    return String.valueOf(result);
   }
 
   /**
-   * @param data script to pack.
+   * @param data javascript expression evaluated to the script to pack.
    * @return Script used to pack and return the packed result.
    */
   protected String buildPackScript(final String data) {
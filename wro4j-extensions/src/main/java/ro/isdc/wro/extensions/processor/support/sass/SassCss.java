@@ -6,16 +6,15 @@ package ro.isdc.wro.extensions.processor.support.sass;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -30,23 +29,20 @@ public class SassCss {
    * The name of the sass script to be used by default.
    */
   private static final String DEFAULT_SASS_JS = "sass-0.5.0.min.js";
-  private ScriptableObject scope;
+  private ScriptEngine engine;
+  private String fingerprint;
 
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
+  private ScriptScope initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
+      if (engine == null) {
         final String scriptInit = "var exports = {};";
-        builder = RhinoScriptBuilder.newChain().evaluateChain(scriptInit, "initSass").evaluateChain(
+        engine = ScriptEngines.newEngine().evaluateLibrary(scriptInit, "initSass").evaluateLibrary(
           getScriptAsStream(), DEFAULT_SASS_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
       }
-      return builder;
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new WroRuntimeException("Failed reading javascript sass.js", ex);
     }
@@ -56,9 +52,21 @@ public class SassCss {
    * @return the stream of the uglify script. Override this method to provide a different script version.
    */
   protected InputStream getScriptAsStream() {
-    return getClass().getResourceAsStream(DEFAULT_SASS_JS);
+    return SassCss.class.getResourceAsStream(DEFAULT_SASS_JS);
   }
 
+  /**
+   * @return a hash identifying the scripts used by this engine. Engines having the same fingerprint produce the same
+   *         output for the same input.
+   */
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      fingerprint = ScriptEngines.getName() + RhinoUtils.hashScripts(getScriptAsStream());
+    }
+    return fingerprint;
+  }
+
+
   /**
    * @param data css content to process.
    * @return processed css content.
@@ -66,16 +74,15 @@ public class SassCss {
   public String process(final String data) {
     final StopWatch stopWatch = new StopWatch();
     stopWatch.start("initContext");
-    final RhinoScriptBuilder builder = initScriptBuilder();
+    final ScriptScope scope = initScriptBuilder();
     stopWatch.stop();
 
     stopWatch.start("sass rendering");
     try {
-      final String execute = "exports.render(" + WroUtil.toJSMultiLineString(data) + ");";
-      final Object result = builder.evaluate(execute, "sassRender");
+      final String execute = "exports.render(sassInput);";
+      final Object result = scope.addVariable("sassInput", RhinoUtils.normalizeNewLines(data)).evaluate(
+        execute, "sassRender");
       return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     } finally {
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
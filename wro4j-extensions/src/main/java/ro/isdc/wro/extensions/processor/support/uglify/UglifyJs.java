@@ -6,17 +6,15 @@ package ro.isdc.wro.extensions.processor.support.uglify;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.apache.commons.io.IOUtils;
-import org.mozilla.javascript.RhinoException;
-import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptAssets;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptScope;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -41,7 +39,7 @@ public class UglifyJs {
    * If true, the script is uglified, otherwise it is beautified.
    */
   private final boolean uglify;
-  private ScriptableObject scope;
+  private ScriptEngine engine;
 
 
   /**
@@ -71,23 +69,26 @@ public class UglifyJs {
   /**
    * Initialize script builder for evaluation.
    */
-  private RhinoScriptBuilder initScriptBuilder() {
-    //TODO: Find a way to encapsulate this code
-    RhinoScriptBuilder builder = null;
+  private ScriptScope initScriptBuilder() {
     try {
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().addJSON().evaluateChain(getClass().getResourceAsStream("init.js"),
-          "initScript").evaluateChain(getScriptAsStream(), DEFAULT_UGLIFY_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
+      if (engine == null) {
+        engine = ScriptEngines.newEngine().addJSON().evaluateLibrary(ScriptAssets.get(UglifyJs.class, "init.js"),
+          "initScript").evaluateLibrary(getScriptAsStream(), DEFAULT_UGLIFY_JS).evaluateLibrary(
+          ScriptAssets.get(UglifyJs.class, "invoke.js"), "invoke.js");
       }
-      return builder;
+      return engine.createScope();
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed initializing js", ex);
     }
   }
 
+  /**
+   * Evaluates the uglify scripts, unless already evaluated. Used by the pools to create engines ready to process.
+   */
+  public void initialize() {
+    initScriptBuilder();
+  }
+
 
   /**
    * @return the stream of the uglify script. Override this method to provide a different script version.
@@ -103,23 +104,15 @@ public class UglifyJs {
    */
   public String process(final String code)
     throws IOException {
-    try {
-      final StopWatch watch = new StopWatch();
-      watch.start("init");
-      final RhinoScriptBuilder builder = initScriptBuilder();
-      watch.stop();
-      watch.start(uglify ? "uglify" : "beautify");
-
-      final String originalCode = WroUtil.toJSMultiLineString(code);
-      final String invokeScript = String.format(IOUtils.toString(getClass().getResourceAsStream("invoke.js")),
-        originalCode, !uglify);
-      final Object result = builder.evaluate(invokeScript.toString(), "uglifyIt");
-
-      watch.stop();
-      LOG.debug(watch.prettyPrint());
-      return String.valueOf(result);
-    } catch (final RhinoException e) {
-      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
-    }
+    final StopWatch watch = new StopWatch();
+    watch.start("init");
+    final ScriptScope scope = initScriptBuilder();
+    watch.stop();
+    watch.start(uglify ? "uglify" : "beautify");
+    final Object result = scope.invoke("uglifyIt", RhinoUtils.normalizeNewLines(code), !uglify);
+
+    watch.stop();
+    LOG.debug(watch.prettyPrint());
+    return String.valueOf(result);
   }
 }
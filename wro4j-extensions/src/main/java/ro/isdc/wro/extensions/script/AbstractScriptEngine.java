@@ -0,0 +1,40 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+
+/**
+ * Evaluates the libraries bundled with wro4j the same way for all the backends.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+abstract class AbstractScriptEngine
+  implements ScriptEngine {
+  /**
+   * The prefix of the messages describing the errors raised by the scripts.
+   */
+  static final String ERROR_MESSAGE = "Could not execute the script because: ";
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine addJSON() {
+    return evaluateBundledLibrary("json2.min.js");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine addClientSideEnvironment() {
+    return evaluateBundledLibrary("env.rhino.min.js");
+  }
+
+  /**
+   * Evaluates a library found in the package of this class.
+   */
+  final ScriptEngine evaluateBundledLibrary(final String name) {
+    return evaluateLibrary(ScriptAssets.get(AbstractScriptEngine.class, name), name);
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.script.Bindings;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * A {@link ScriptEngine} backed by a JSR-223 script engine (ex: "javascript", which is the engine bundled with the
+ * JDK). Useful for trying a faster or a newer engine, without changing the processors.
+ * <p/>
+ * Unlike {@link RhinoScriptEngine}, the scopes of the invocations share the global object of the engine: the variables
+ * bound with {@link ScriptScope#addVariable(String, Object)} are removed when the next scope is created, but the global
+ * variables declared by the invoked scripts are still visible to the next invocations. The script timeout is not
+ * supported by this backend.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class Jsr223ScriptEngine
+  extends AbstractScriptEngine {
+  private static final String ENCODING = "UTF-8";
+  private final String name;
+  private javax.script.ScriptEngine engine;
+  /**
+   * The names of the variables bound by the last created scope.
+   */
+  private final List<String> boundVariables = new ArrayList<String>();
+
+  /**
+   * @param name
+   *          of the JSR-223 script engine, as known by the {@link ScriptEngineManager}.
+   */
+  public Jsr223ScriptEngine(final String name) {
+    Validate.notNull(name);
+    this.name = name;
+    initEngine();
+  }
+
+  private void initEngine() {
+    engine = new ScriptEngineManager().getEngineByName(name);
+    if (engine == null) {
+      throw new WroRuntimeException("No JSR-223 script engine named " + name + " is available");
+    }
+    evaluateBundledLibrary("commons.js");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine evaluateLibrary(final InputStream stream, final String sourceName)
+    throws IOException {
+    Validate.notNull(stream);
+    try {
+      return evaluateLibrary(IOUtils.toString(new InputStreamReader(stream, ENCODING)), sourceName);
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine evaluateLibrary(final String script, final String sourceName) {
+    eval(script, sourceName);
+    return this;
+  }
+
+  private Object eval(final String script, final String sourceName) {
+    Validate.notNull(script);
+    try {
+      engine.put(javax.script.ScriptEngine.FILENAME, sourceName);
+      return engine.eval(script);
+    } catch (final ScriptException e) {
+      throw new WroRuntimeException(ERROR_MESSAGE + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptScope createScope() {
+    final Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+    for (final String variable : boundVariables) {
+      bindings.remove(variable);
+    }
+    boundVariables.clear();
+    return new Jsr223ScriptScope();
+  }
+
+  /**
+   * A {@link ScriptScope} evaluating the scripts in the global object of the engine.
+   */
+  private class Jsr223ScriptScope
+    implements ScriptScope {
+    public ScriptScope addVariable(final String variable, final Object value) {
+      Validate.notNull(variable);
+      engine.put(variable, value);
+      boundVariables.add(variable);
+      return this;
+    }
+
+    public Object evaluate(final String script, final String sourceName) {
+      return eval(script, sourceName);
+    }
+
+    public Object invoke(final String functionName, final Object... arguments) {
+      Validate.notNull(functionName);
+      if (!(engine instanceof Invocable)) {
+        throw new WroRuntimeException("The script engine " + name + " cannot invoke functions");
+      }
+      try {
+        return ((Invocable) engine).invokeFunction(functionName, arguments);
+      } catch (final ScriptException e) {
+        throw new WroRuntimeException(ERROR_MESSAGE + e.getMessage(), e);
+      } catch (final NoSuchMethodException e) {
+        throw new WroRuntimeException("No function named " + functionName + " is defined", e);
+      }
+    }
+  }
+}
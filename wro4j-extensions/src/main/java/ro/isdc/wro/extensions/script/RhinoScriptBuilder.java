@@ -5,22 +5,34 @@ package ro.isdc.wro.extensions.script;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
 import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.ScriptableObject;
-import org.mozilla.javascript.tools.ToolErrorReporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.extensions.script.ScriptContextFactory.BudgetExceededError;
+
 
 /**
  * Used to evaluate javascript on the serverside using rhino javascript engine. Encapsulate and hides all implementation
  * details used by rhino to evaluate javascript on the serverside.
+ * <p/>
+ * The library scripts evaluated with {@link #evaluateChain(InputStream, String)} are compiled only once (see
+ * {@link ScriptCompiler}). A scope containing the evaluated libraries can be {@link #seal()}ed and shared: each
+ * {@link RhinoScriptBuilder} created with {@link #newChain(ScriptableObject)} evaluates the scripts in a new child
+ * scope, which inherits everything from the shared scope without having to initialize it again.
+ * <p/>
+ * The evaluations performed with {@link #evaluate(String, String)} and {@link #invoke(String, Object...)} are aborted
+ * with {@link ScriptTimeoutException} when they take longer than the configured
+ * {@link WroConfiguration#getScriptTimeout()}.
  *
  * @author Alex Objelean
  */
@@ -35,8 +47,8 @@ public class RhinoScriptBuilder {
   }
 
 
-  private RhinoScriptBuilder(final ScriptableObject scope) {
-    this.scope = createContext(scope);
+  private RhinoScriptBuilder(final ScriptableObject sharedScope) {
+    this.scope = sharedScope == null ? createContext() : createChildScope(sharedScope);
   }
 
 
@@ -51,25 +63,27 @@ public class RhinoScriptBuilder {
   /**
    * Initialize the context.
    */
-  private ScriptableObject createContext(final ScriptableObject initialScope) {
+  private ScriptableObject createContext() {
     initContext();
-    context.setOptimizationLevel(-1);
-    // TODO redirect errors from System.err to LOG.error()
-    context.setErrorReporter(new ToolErrorReporter(false));
-    context.setLanguageVersion(Context.VERSION_1_7);
-    InputStream script = null;
-    final ScriptableObject scope = (ScriptableObject) context.initStandardObjects(initialScope);
-    try {
-      script = getClass().getResourceAsStream("commons.js");
-      context.evaluateReader(scope, new InputStreamReader(script), "common.js", 1, null);
-    } catch (final IOException e) {
-      throw new RuntimeException("Problem while evaluationg commons script.", e);
-    } finally {
-      IOUtils.closeQuietly(script);
-    }
+    final ScriptableObject scope = context.initStandardObjects();
+    ScriptCompiler.compile(context, ScriptAssets.get(RhinoScriptBuilder.class, "commons.js"), "commons.js").exec(
+      context, scope);
     return scope;
   }
 
+
+  /**
+   * Creates a scope inheriting all the properties of the shared scope. The variables declared by the scripts evaluated
+   * in this scope are not visible in the shared scope.
+   */
+  private ScriptableObject createChildScope(final ScriptableObject sharedScope) {
+    initContext();
+    final ScriptableObject childScope = (ScriptableObject) context.newObject(sharedScope);
+    childScope.setPrototype(sharedScope);
+    childScope.setParentScope(null);
+    return childScope;
+  }
+
   /**
    * Add a clinet side environment to the script context (client-side aware).
    *
@@ -77,31 +91,20 @@ public class RhinoScriptBuilder {
    * @throws IOException
    */
   public RhinoScriptBuilder addClientSideEnvironment() {
-    try {
-      final String SCRIPT_ENV = "env.rhino.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
-      return this;
-    } catch (final IOException e) {
-      throw new RuntimeException("Couldn't initialize env.rhino script", e);
-    }
+    final String SCRIPT_ENV = "env.rhino.min.js";
+    return evaluateLibrary(ScriptAssets.get(RhinoScriptBuilder.class, SCRIPT_ENV), SCRIPT_ENV);
   }
 
 
   public RhinoScriptBuilder addJSON() {
-    try {
-      final String SCRIPT_ENV = "json2.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
-      return this;
-    } catch (final IOException e) {
-      throw new RuntimeException("Couldn't initialize json2.min.js script", e);
-    }
+    final String SCRIPT_ENV = "json2.min.js";
+    return evaluateLibrary(ScriptAssets.get(RhinoScriptBuilder.class, SCRIPT_ENV), SCRIPT_ENV);
   }
 
 
   /**
-   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation.
+   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation. The script is compiled
+   * only once, thus this method should be used for evaluating libraries.
    *
    * @param stream {@link InputStream} of the script to evaluate.
    * @param sourceName the name of the evaluated script.
@@ -111,22 +114,67 @@ public class RhinoScriptBuilder {
   public RhinoScriptBuilder evaluateChain(final InputStream stream, final String sourceName)
     throws IOException {
     Validate.notNull(stream);
+    try {
+      return evaluateLibrary(IOUtils.toString(stream), sourceName);
+    } finally {
+      stream.close();
+    }
+  }
+
+
+  /**
+   * Evaluates a library script and return {@link RhinoScriptBuilder} for a chained script evaluation. The script is
+   * compiled only once per JVM (see {@link ScriptCompiler}).
+   *
+   * @param source of the library to evaluate.
+   * @param sourceName the name of the evaluated script.
+   * @return {@link RhinoScriptBuilder} chain with required script evaluated.
+   */
+  public RhinoScriptBuilder evaluateLibrary(final String source, final String sourceName) {
+    Validate.notNull(source);
     initContext();
     try {
-      context.evaluateReader(scope, new InputStreamReader(stream), sourceName, 1, null);
+      ScriptCompiler.compile(context, source, sourceName).exec(context, scope);
       return this;
     } catch (final RuntimeException e) {
       LOG.error("Exception caught", e);
       throw e;
-    } finally {
-      stream.close();
     }
   }
 
 
+  /**
+   * Seals the scope of this builder, so that no properties can be added or removed. The sealed scope can be shared by
+   * builders created with {@link #newChain(ScriptableObject)}.
+   *
+   * @return {@link RhinoScriptBuilder} chain with sealed scope.
+   */
+  public RhinoScriptBuilder seal() {
+    scope.sealObject();
+    return this;
+  }
+
+
+  /**
+   * Binds a java object to a variable of the scope. Unlike embedding the value in the source of the evaluated script,
+   * the value doesn't have to be escaped and parsed again by rhino. Java strings are treated as javascript strings.
+   *
+   * @param name of the variable.
+   * @param value of the variable.
+   * @return {@link RhinoScriptBuilder} chain with the variable available to all evaluated scripts.
+   */
+  public RhinoScriptBuilder addVariable(final String name, final Object value) {
+    Validate.notNull(name);
+    initContext();
+    ScriptableObject.putProperty(scope, name, Context.javaToJS(value, scope));
+    return this;
+  }
+
+
   public void initContext() {
-    if (Context.getCurrentContext() == null) {
-      context = Context.enter();
+    context = Context.getCurrentContext();
+    if (context == null) {
+      context = ScriptContextFactory.get().enterContext();
     }
   }
 
@@ -178,12 +226,18 @@ public class RhinoScriptBuilder {
     Validate.notNull(script);
     // make sure we have a context associated with current thread
     initContext();
+    final long timeout = getTimeout();
+    ScriptContextFactory.startBudget(context, timeout);
     try {
       return context.evaluateString(scope, script, sourceName, 1, null);
     } catch (final JavaScriptException e) {
       LOG.error("JavaScriptException occured: " + e.getMessage());
       throw e;
+    } catch (final BudgetExceededError e) {
+      throw new ScriptTimeoutException("The evaluation of " + sourceName + " was aborted, because it took more than "
+        + timeout + "ms");
     } finally {
+      ScriptContextFactory.stopBudget(context);
       // Rhino throws an exception when trying to exit twice. Make sure we don't get any exception
       if (Context.getCurrentContext() != null) {
         Context.exit();
@@ -191,6 +245,51 @@ public class RhinoScriptBuilder {
     }
   }
 
+  /**
+   * Invokes a function defined in the scope of this builder. The arguments are converted with
+   * {@link Context#javaToJS(Object, org.mozilla.javascript.Scriptable)}, thus they don't have to be escaped and parsed.
+   *
+   * @param functionName the name of the function to invoke.
+   * @param arguments passed to the function.
+   * @return the value returned by the function.
+   */
+  public Object invoke(final String functionName, final Object... arguments) {
+    Validate.notNull(functionName);
+    initContext();
+    final long timeout = getTimeout();
+    ScriptContextFactory.startBudget(context, timeout);
+    try {
+      final Object function = ScriptableObject.getProperty(scope, functionName);
+      if (!(function instanceof Function)) {
+        throw new WroRuntimeException("No function named " + functionName + " is defined");
+      }
+      final Object[] args = new Object[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        args[i] = Context.javaToJS(arguments[i], scope);
+      }
+      return ((Function) function).call(context, scope, scope, args);
+    } catch (final JavaScriptException e) {
+      LOG.error("JavaScriptException occured: " + e.getMessage());
+      throw e;
+    } catch (final BudgetExceededError e) {
+      throw new ScriptTimeoutException("The invocation of " + functionName + " was aborted, because it took more than "
+        + timeout + "ms");
+    } finally {
+      ScriptContextFactory.stopBudget(context);
+      if (Context.getCurrentContext() != null) {
+        Context.exit();
+      }
+    }
+  }
+
+  /**
+   * @return the maximum time (ms) allowed for an evaluation, configured for the current wro4j context.
+   */
+  private long getTimeout() {
+    return ro.isdc.wro.config.Context.isContextSet() ? ro.isdc.wro.config.Context.get().getConfig().getScriptTimeout()
+      : 0;
+  }
+
   /**
    * @return default {@link RhinoScriptBuilder} for script evaluation chaining.
    */
@@ -199,8 +298,14 @@ public class RhinoScriptBuilder {
   }
 
 
-  public static RhinoScriptBuilder newChain(final ScriptableObject scope) {
-    return new RhinoScriptBuilder(scope);
+  /**
+   * @param sharedScope
+   *          the scope (usually {@link #seal()}ed) containing the evaluated libraries.
+   * @return {@link RhinoScriptBuilder} evaluating the scripts in a child scope of the shared scope.
+   */
+  public static RhinoScriptBuilder newChain(final ScriptableObject sharedScope) {
+    Validate.notNull(sharedScope);
+    return new RhinoScriptBuilder(sharedScope);
   }
 
 
@@ -0,0 +1,126 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.Wrapper;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * The default {@link ScriptEngine}, backed by the bundled rhino through {@link RhinoScriptBuilder}. The libraries are
+ * compiled once and evaluated in a scope which is sealed when the first {@link ScriptScope} is created. Each scope is a
+ * child of the sealed scope, thus it doesn't have to evaluate the libraries again. The invocations are aborted when they
+ * exceed the configured script timeout.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class RhinoScriptEngine
+  extends AbstractScriptEngine {
+  private RhinoScriptBuilder libraryBuilder;
+  private ScriptableObject sharedScope;
+
+  /**
+   * {@inheritDoc}
+   */
+  public String getName() {
+    return ScriptEngines.RHINO;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine evaluateLibrary(final InputStream stream, final String sourceName)
+    throws IOException {
+    try {
+      getLibraryBuilder().evaluateChain(stream, sourceName);
+      return this;
+    } catch (final RhinoException e) {
+      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptEngine evaluateLibrary(final String script, final String sourceName) {
+    try {
+      getLibraryBuilder().evaluateLibrary(script, sourceName);
+      return this;
+    } catch (final RhinoException e) {
+      throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+    }
+  }
+
+  private RhinoScriptBuilder getLibraryBuilder() {
+    if (sharedScope != null) {
+      throw new IllegalStateException("Cannot evaluate a library after a scope was created");
+    }
+    if (libraryBuilder == null) {
+      libraryBuilder = RhinoScriptBuilder.newChain();
+    }
+    return libraryBuilder;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public ScriptScope createScope() {
+    if (sharedScope == null) {
+      sharedScope = getLibraryBuilder().seal().getScope();
+      libraryBuilder = null;
+    }
+    return new RhinoScriptScope(RhinoScriptBuilder.newChain(sharedScope));
+  }
+
+  /**
+   * @return the value returned by rhino, converted to java.
+   */
+  static Object toJava(final Object value) {
+    if (value instanceof Wrapper) {
+      return ((Wrapper) value).unwrap();
+    }
+    return value instanceof Undefined ? null : value;
+  }
+
+  /**
+   * A {@link ScriptScope} backed by a {@link RhinoScriptBuilder} created for a single invocation.
+   */
+  private static class RhinoScriptScope
+    implements ScriptScope {
+    private final RhinoScriptBuilder builder;
+
+    RhinoScriptScope(final RhinoScriptBuilder builder) {
+      this.builder = builder;
+    }
+
+    public ScriptScope addVariable(final String name, final Object value) {
+      builder.addVariable(name, value);
+      return this;
+    }
+
+    public Object evaluate(final String script, final String sourceName) {
+      try {
+        return toJava(builder.evaluate(script, sourceName));
+      } catch (final RhinoException e) {
+        throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+      }
+    }
+
+    public Object invoke(final String functionName, final Object... arguments) {
+      try {
+        return toJava(builder.invoke(functionName, arguments));
+      } catch (final RhinoException e) {
+        throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
+      }
+    }
+  }
+}
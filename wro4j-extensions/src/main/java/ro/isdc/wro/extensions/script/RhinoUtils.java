@@ -3,7 +3,13 @@
  */
 package ro.isdc.wro.extensions.script;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -11,11 +17,16 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.RhinoException;
 import org.mozilla.javascript.ScriptableObject;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
 
 
 /**
@@ -31,6 +42,48 @@ import org.mozilla.javascript.ScriptableObject;
  */
 public class RhinoUtils {
 
+  /**
+   * Normalizes the new lines of the content passed to a script, the same way
+   * {@link ro.isdc.wro.util.WroUtil#toJSMultiLineString(String)} does: carriage returns and trailing new lines are
+   * removed, while a single line content always ends with a new line (otherwise some scripts, like cssLint, fail).
+   *
+   * @param data the content to normalize.
+   * @return the normalized content, ready to be passed to the script as a variable.
+   */
+  public static String normalizeNewLines(final String data) {
+    final String content = StringUtils.remove(data, '\r');
+    int end = content.length();
+    while (end > 0 && content.charAt(end - 1) == '\n') {
+      end--;
+    }
+    if (end == 0) {
+      return content.length() == 0 ? "\n" : "";
+    }
+    final String trimmed = content.substring(0, end);
+    return trimmed.indexOf('\n') < 0 ? trimmed + "\n" : trimmed;
+  }
+
+  /**
+   * Computes a hash of the scripts used by an engine. The hash changes when any of the scripts changes, thus it can
+   * be used to identify the version of the libraries used by the engine.
+   *
+   * @param streams of the scripts. All streams are closed after being read.
+   * @return the hash of the scripts content.
+   */
+  public static String hashScripts(final InputStream... streams) {
+    final InputStream stream = new BufferedInputStream(new SequenceInputStream(
+      Collections.enumeration(Arrays.asList(streams))));
+    try {
+      return new SHA1HashBuilder().getHash(stream);
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot read the scripts", e);
+    } finally {
+      for (final InputStream script : streams) {
+        IOUtils.closeQuietly(script);
+      }
+    }
+  }
+
   /**
    * Creates a more detailed message based on {@link RhinoException} thrown by rhino execution. The message will contain
    * a detailed description of the problem by inspecting the JSON value provided by exception.
@@ -0,0 +1,71 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * Holds the helper scripts bundled with wro4j (ex: json2.js, env.rhino.js, the scripts initializing or invoking an
+ * engine). Each script is read from the classpath only once per JVM, instead of once per engine or per invocation.
+ * Evaluated with {@link ScriptEngine#evaluateLibrary(String, String)}, the scripts are also compiled only once by the
+ * rhino backend (see {@link ScriptCompiler}).
+ * <p/>
+ * Only the scripts which cannot be overridden should be loaded this way. The libraries which can be replaced by
+ * overriding a method of the engine (ex: less.js) are still read from the provided stream.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class ScriptAssets {
+  private static final String ENCODING = "UTF-8";
+  private static final ConcurrentMap<String, String> ASSETS = new ConcurrentHashMap<String, String>();
+
+  private ScriptAssets() {
+  }
+
+  /**
+   * @param owner
+   *          the class in whose package the script is located.
+   * @param name
+   *          of the script, relative to the package of the owner.
+   * @return the content of the script.
+   */
+  public static String get(final Class<?> owner, final String name) {
+    Validate.notNull(owner);
+    Validate.notNull(name);
+    final String key = owner.getName() + "/" + name;
+    String asset = ASSETS.get(key);
+    if (asset == null) {
+      asset = read(owner, name);
+      final String previous = ASSETS.putIfAbsent(key, asset);
+      if (previous != null) {
+        asset = previous;
+      }
+    }
+    return asset;
+  }
+
+  private static String read(final Class<?> owner, final String name) {
+    final InputStream stream = owner.getResourceAsStream(name);
+    if (stream == null) {
+      throw new WroRuntimeException("Cannot find the script " + name + " in the package of " + owner.getName());
+    }
+    try {
+      return IOUtils.toString(stream, ENCODING);
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot read the script " + name, e);
+    } finally {
+      IOUtils.closeQuietly(stream);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Script;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * Compiles the library scripts used by script based processors. Each distinct script is compiled only once and the
+ * resulted {@link Script} is executed in every scope requiring it, without being parsed again.
+ * <p/>
+ * The scripts are compiled to java bytecode. Scripts which cannot be compiled this way (ex: when a function exceeds the
+ * 64K JVM method size limit) are compiled for the interpreter instead. The compiled scripts report the number of
+ * executed instructions, which allows {@link ScriptContextFactory} to abort the evaluations exceeding their budget.
+ * <p/>
+ * At most {@link #MAX_SIZE} scripts are kept, the least recently used one being discarded first.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class ScriptCompiler {
+  private static final Logger LOG = LoggerFactory.getLogger(ScriptCompiler.class);
+  /**
+   * Optimization level used to compile the library scripts.
+   */
+  static final int OPTIMIZATION_LEVEL = 9;
+  /**
+   * Optimization level which forces the usage of the interpreter.
+   */
+  static final int INTERPRETED = -1;
+  /**
+   * The maximum number of compiled scripts kept. Enough for the libraries of all the script based processors.
+   */
+  static final int MAX_SIZE = 32;
+  /**
+   * Maps the hash of the source of a script to its compiled form. The source is used to identify the script, because
+   * the engines allow overriding the library script, thus the name of the script is not enough to identify it.
+   */
+  private static final Map<String, Script> COMPILED_SCRIPTS = new LinkedHashMap<String, Script>(MAX_SIZE, 0.75f,
+    true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Script> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  private ScriptCompiler() {
+  }
+
+  /**
+   * @param context
+   *          the {@link Context} associated with the current thread.
+   * @param source
+   *          of the script to compile.
+   * @param sourceName
+   *          the name of the script, used for error reporting.
+   * @return the compiled {@link Script}, reused by all subsequent calls with the same source.
+   */
+  static Script compile(final Context context, final String source, final String sourceName) {
+    Validate.notNull(context);
+    Validate.notNull(source);
+    final String key = getHash(source);
+    synchronized (COMPILED_SCRIPTS) {
+      final Script script = COMPILED_SCRIPTS.get(key);
+      if (script != null) {
+        return script;
+      }
+    }
+    // compiled outside of the lock, the script compiled first by concurrent calls is kept.
+    final Script compiled = doCompile(context, source, sourceName);
+    synchronized (COMPILED_SCRIPTS) {
+      final Script script = COMPILED_SCRIPTS.get(key);
+      if (script != null) {
+        return script;
+      }
+      COMPILED_SCRIPTS.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  private static String getHash(final String source) {
+    try {
+      return new SHA1HashBuilder().getHash(new ByteArrayInputStream(source.getBytes("UTF-8")));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot compute the hash of the script", e);
+    }
+  }
+
+  private static Script doCompile(final Context context, final String source, final String sourceName) {
+    final int optimizationLevel = context.getOptimizationLevel();
+    final boolean generateObserverCount = context.generateObserverCount;
+    try {
+      context.setGenerateObserverCount(true);
+      context.setOptimizationLevel(OPTIMIZATION_LEVEL);
+      try {
+        return context.compileString(source, sourceName, 1, null);
+      } catch (final EvaluatorException e) {
+        // a genuine syntax error will be thrown again by the interpreter.
+        LOG.debug("Cannot compile {} to bytecode, using the interpreter. Reason: {}", sourceName, e.getMessage());
+        context.setOptimizationLevel(INTERPRETED);
+        return context.compileString(source, sourceName, 1, null);
+      }
+    } finally {
+      context.setGenerateObserverCount(generateObserverCount);
+      context.setOptimizationLevel(optimizationLevel);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.tools.ToolErrorReporter;
+
+
+/**
+ * Creates the {@link Context}s used by {@link RhinoScriptBuilder}. Unlike the global {@link ContextFactory}, it enables
+ * the dynamic scope feature: the functions defined by a library evaluated in a shared scope resolve the global variables
+ * in the scope of the invocation (the child scope), rather than in the scope they were defined in. This allows the
+ * shared scope to be sealed, even for libraries which update global variables when invoked.
+ * <p/>
+ * The factory also observes the instructions executed by the scripts, which allows aborting the evaluations exceeding
+ * their time budget (see {@link #startBudget(Context, long)}).
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+class ScriptContextFactory
+  extends ContextFactory {
+  private static final ScriptContextFactory INSTANCE = new ScriptContextFactory();
+  /**
+   * The number of executed instructions after which the time budget is checked.
+   */
+  static final int INSTRUCTION_THRESHOLD = 10000;
+  /**
+   * The key of the {@link Context} thread local holding the time (ms) when the evaluation must be aborted.
+   */
+  private static final Object DEADLINE = new Object();
+
+  /**
+   * @return the {@link ScriptContextFactory} used by all builders.
+   */
+  static ScriptContextFactory get() {
+    return INSTANCE;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Context makeContext() {
+    final Context context = super.makeContext();
+    // the scripts evaluated for each invocation are small and used only once, it is faster to interpret them.
+    context.setOptimizationLevel(ScriptCompiler.INTERPRETED);
+    // TODO redirect errors from System.err to LOG.error()
+    context.setErrorReporter(new ToolErrorReporter(false));
+    context.setLanguageVersion(Context.VERSION_1_7);
+    context.setInstructionObserverThreshold(INSTRUCTION_THRESHOLD);
+    return context;
+  }
+
+  /**
+   * Limits the time allowed for the evaluations performed with the context, until {@link #stopBudget(Context)} is
+   * called.
+   *
+   * @param timeout
+   *          the maximum time (ms) allowed. If not greater than 0, the time is not limited.
+   */
+  static void startBudget(final Context context, final long timeout) {
+    if (timeout > 0) {
+      context.putThreadLocal(DEADLINE, Long.valueOf(System.currentTimeMillis() + timeout));
+    }
+  }
+
+  /**
+   * Removes the limit set by {@link #startBudget(Context, long)}.
+   */
+  static void stopBudget(final Context context) {
+    context.removeThreadLocal(DEADLINE);
+  }
+
+  /**
+   * Aborts the evaluation when its deadline is exceeded. An {@link Error} is thrown, because unlike exceptions, it
+   * cannot be caught by the evaluated script.
+   */
+  @Override
+  protected void observeInstructionCount(final Context context, final int instructionCount) {
+    final Long deadline = (Long) context.getThreadLocal(DEADLINE);
+    if (deadline != null && System.currentTimeMillis() > deadline.longValue()) {
+      throw new BudgetExceededError();
+    }
+  }
+
+  /**
+   * Thrown when an evaluation exceeds its time budget.
+   */
+  static class BudgetExceededError
+    extends Error {
+    private static final long serialVersionUID = 1L;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean hasFeature(final Context context, final int featureIndex) {
+    if (featureIndex == Context.FEATURE_DYNAMIC_SCOPE) {
+      return true;
+    }
+    return super.hasFeature(context, featureIndex);
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * The backend evaluating the scripts of the script based processors (less, sass, coffeeScript, uglify, the linters,
+ * ...). The processors are written against this interface, thus the bundled rhino can be replaced with a different
+ * engine without changing them (see {@link ScriptEngines}).
+ * <p/>
+ * The libraries are evaluated once, right after the engine is created. Each invocation is performed in a new
+ * {@link ScriptScope}, which sees everything defined by the libraries. An engine is not thread-safe: it is used by a
+ * single thread at a time (the processors create a pool of engines).
+ * <p/>
+ * The errors raised by the scripts are reported as {@link ro.isdc.wro.WroRuntimeException}, regardless of the backend.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface ScriptEngine {
+  /**
+   * @return the name of the backend. Part of the fingerprint of the processors, because different backends may produce
+   *         different output for the same script.
+   */
+  String getName();
+
+  /**
+   * Evaluates a library script. The stream is closed after being evaluated.
+   *
+   * @param stream
+   *          {@link InputStream} of the library.
+   * @param sourceName
+   *          the name of the library, used for error reporting.
+   * @return this engine, for chaining.
+   * @throws IOException
+   *           if the library couldn't be read.
+   */
+  ScriptEngine evaluateLibrary(InputStream stream, String sourceName)
+    throws IOException;
+
+  /**
+   * Evaluates a library script.
+   *
+   * @param script
+   *          the source of the library.
+   * @param sourceName
+   *          the name of the library, used for error reporting.
+   * @return this engine, for chaining.
+   */
+  ScriptEngine evaluateLibrary(String script, String sourceName);
+
+  /**
+   * Evaluates the json2.js library, which provides the JSON object.
+   *
+   * @return this engine, for chaining.
+   */
+  ScriptEngine addJSON();
+
+  /**
+   * Evaluates the env.js library, which provides a browser like environment (window, document, ...).
+   *
+   * @return this engine, for chaining.
+   */
+  ScriptEngine addClientSideEnvironment();
+
+  /**
+   * Creates the scope of an invocation. No library can be evaluated after the first scope is created.
+   *
+   * @return a new {@link ScriptScope} inheriting the libraries evaluated by this engine.
+   */
+  ScriptScope createScope();
+}
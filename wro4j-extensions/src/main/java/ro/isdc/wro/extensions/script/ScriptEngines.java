@@ -0,0 +1,60 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import org.apache.commons.lang3.StringUtils;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+
+
+/**
+ * Creates the {@link ScriptEngine} used by the script based processors, as configured by
+ * {@link WroConfiguration#getScriptEngine()}.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class ScriptEngines {
+  /**
+   * The name of the default backend: the bundled rhino.
+   */
+  public static final String RHINO = "rhino";
+
+  private ScriptEngines() {
+  }
+
+  /**
+   * @return a new {@link ScriptEngine} using the backend configured for the current wro4j context (rhino when no
+   *         context is set).
+   */
+  public static ScriptEngine newEngine() {
+    return newEngine(getConfiguredName());
+  }
+
+  /**
+   * @return the name of the backend used by the engines created by {@link #newEngine()}, without creating one. Useful
+   *         for identifying the engine producing a result (see {@link ScriptEngine#getName()}).
+   */
+  public static String getName() {
+    final String name = getConfiguredName();
+    return StringUtils.isBlank(name) || RHINO.equalsIgnoreCase(name.trim()) ? RHINO : name.trim();
+  }
+
+  private static String getConfiguredName() {
+    return Context.isContextSet() ? Context.get().getConfig().getScriptEngine() : null;
+  }
+
+  /**
+   * @param name
+   *          of the backend: "rhino" or the name of a JSR-223 script engine. When blank, rhino is used.
+   * @return a new {@link ScriptEngine} using the backend with the provided name.
+   */
+  public static ScriptEngine newEngine(final String name) {
+    if (StringUtils.isBlank(name) || RHINO.equalsIgnoreCase(name.trim())) {
+      return new RhinoScriptEngine();
+    }
+    return new Jsr223ScriptEngine(name.trim());
+  }
+}
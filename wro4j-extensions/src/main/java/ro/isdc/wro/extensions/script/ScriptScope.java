@@ -0,0 +1,51 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+
+/**
+ * The scope of a script invocation, created by {@link ScriptEngine#createScope()}. The variables bound to a scope are
+ * not visible to the scopes created afterwards.
+ * <p/>
+ * The values returned by the scripts are converted to java: strings, numbers, booleans or null (for both null and
+ * undefined). Other values (ex: objects or arrays) are returned in the form provided by the backend, thus the
+ * processors should convert them to JSON (ex: with JSON.stringify) before returning them.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public interface ScriptScope {
+  /**
+   * Binds a java object to a variable of the scope. Unlike embedding the value in the source of the evaluated script,
+   * the value doesn't have to be escaped and parsed again. Java strings are treated as javascript strings.
+   *
+   * @param name
+   *          of the variable.
+   * @param value
+   *          of the variable.
+   * @return this scope, for chaining.
+   */
+  ScriptScope addVariable(String name, Object value);
+
+  /**
+   * @param script
+   *          the source of the script to evaluate.
+   * @param sourceName
+   *          the name of the script, used for error reporting.
+   * @return the value of the script.
+   */
+  Object evaluate(String script, String sourceName);
+
+  /**
+   * Invokes a function defined by the libraries. The arguments are passed directly, without being converted to script
+   * source.
+   *
+   * @param functionName
+   *          the name of a global function.
+   * @param arguments
+   *          passed to the function.
+   * @return the value returned by the function.
+   */
+  Object invoke(String functionName, Object... arguments);
+}
@@ -0,0 +1,25 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+
+
+/**
+ * Thrown when a script evaluation takes longer than the configured {@link WroConfiguration#getScriptTimeout()}. The
+ * evaluation is aborted. The pools of engines destroy the engine which evaluated the script, since the aborted script
+ * may have left it in an unknown state.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class ScriptTimeoutException
+  extends WroRuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public ScriptTimeoutException(final String message) {
+    super(message);
+  }
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.Arrays;
 
 import junit.framework.Assert;
 
@@ -17,7 +18,9 @@ import org.junit.Test;
 
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.extensions.processor.js.GoogleClosureCompressorProcessor;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
@@ -117,4 +120,31 @@ public class TestGoogleClosureCompressorProcessor {
     //will leave result unchanged, because the processing is not successful.
     Assert.assertEquals("alert(1);", sw.toString());
   }
+
+  @Test
+  public void shouldCompileAllResourcesOfGroupTogether()
+      throws IOException {
+    processor.setCompilationLevel(CompilationLevel.ADVANCED_OPTIMIZATIONS);
+    final StringWriter sw = new StringWriter();
+    // the function is removed when the first resource is compiled alone
+    processor.process(Arrays.asList(Resource.create("/sum.js", ResourceType.JS),
+      Resource.create("/sum.js", ResourceType.JS)),
+      Arrays.asList("function sum(a, b) { return a + b; }", "alert(sum(1, 2));"), sw);
+    Assert.assertEquals("alert(3);", sw.toString());
+  }
+
+  @Test
+  public void shouldNotCompileSameGroupTwice()
+      throws IOException {
+    final ProcessorOutputCache cache = ProcessorOutputCache.get();
+    final Resource resource = Resource.create("/cached.js", ResourceType.JS);
+    final String content = "var cached = " + System.currentTimeMillis() + ";";
+    final StringWriter first = new StringWriter();
+    processor.process(Arrays.asList(resource), Arrays.asList(content), first);
+    final long hitCount = cache.getHitCount();
+    final StringWriter second = new StringWriter();
+    processor.process(Arrays.asList(resource), Arrays.asList(content), second);
+    Assert.assertEquals(hitCount + 1, cache.getHitCount());
+    Assert.assertEquals(first.toString(), second.toString());
+  }
 }
@@ -6,6 +6,7 @@ package ro.isdc.wro.extensions.processor;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -13,6 +14,8 @@ import org.junit.Test;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.js.JsHintProcessor;
+import ro.isdc.wro.extensions.processor.support.linter.AbstractLinter;
+import ro.isdc.wro.extensions.processor.support.linter.JsHint;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
@@ -55,6 +58,38 @@ public class TestJsHintProcessor extends AbstractTestLinterProcessor {
   }
 
 
+  @Test
+  public void shouldReportCachedErrorsWithoutValidatingSameContentTwice()
+      throws Exception {
+    final AtomicInteger validateCount = new AtomicInteger();
+    final AtomicInteger errorsCount = new AtomicInteger();
+    final JsHintProcessor processor = new JsHintProcessor() {
+      @Override
+      protected AbstractLinter newLinter() {
+        return new JsHint() {
+          @Override
+          public void validate(final String data)
+              throws LinterException {
+            validateCount.incrementAndGet();
+            super.validate(data);
+          }
+        };
+      }
+
+      @Override
+      protected void onLinterException(final LinterException e, final Resource resource) {
+        errorsCount.addAndGet(e.getErrors().size());
+      };
+    };
+    processor.process(new StringReader("alert(;cached"), new StringWriter());
+    final int errorsOfFirstValidation = errorsCount.get();
+    processor.process(new StringReader("alert(;cached"), new StringWriter());
+    Assert.assertEquals(1, validateCount.get());
+    Assert.assertTrue(errorsOfFirstValidation > 0);
+    Assert.assertEquals(2 * errorsOfFirstValidation, errorsCount.get());
+  }
+
+
   /**
    * This test was created initially to prove that {@link JsHintProcessor} is thread-safe, but it doesn't work well when
    * trying to reuse the scope. TODO: This needs to be investigated.
@@ -10,14 +10,21 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
 
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.extensions.processor.css.LessCssProcessor;
 import ro.isdc.wro.extensions.processor.support.less.LessCss;
+import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.ScriptEngines;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.util.WroTestUtils;
 
@@ -51,6 +58,16 @@ public class TestLessCssProcessor {
     }
   }
 
+  @Test
+  public void shouldFingerprintAllTheScriptsOfTheEngine() {
+    final String expected = ScriptEngines.getName()
+      + RhinoUtils.hashScripts(LessCss.class.getResourceAsStream("init.js"),
+        LessCss.class.getResourceAsStream("less-1.1.5.min.js"), LessCss.class.getResourceAsStream("run.js"));
+    final LessCss lessCss = new LessCss();
+    Assert.assertEquals(expected, lessCss.getFingerprint());
+    Assert.assertEquals(expected, lessCss.getFingerprint());
+  }
+
   @Test
   public void shouldBeThreadSafe() throws Exception {
     final LessCssProcessor lessCss = new LessCssProcessor() {
@@ -73,6 +90,99 @@ public class TestLessCssProcessor {
   }
 
 
+  @Test
+  public void shouldNotCompileSameContentTwice()
+      throws Exception {
+    final AtomicInteger compileCount = new AtomicInteger();
+    final LessCssProcessor processor = new LessCssProcessor() {
+      @Override
+      protected LessCss newLessCss() {
+        return new LessCss() {
+          @Override
+          public String less(final String data) {
+            compileCount.incrementAndGet();
+            return super.less(data);
+          }
+        };
+      }
+    };
+    final String content = "#cached {.class {color: blue;}}";
+    final StringWriter first = new StringWriter();
+    processor.process(new StringReader(content), first);
+    final StringWriter second = new StringWriter();
+    processor.process(new StringReader(content), second);
+    Assert.assertEquals(1, compileCount.get());
+    Assert.assertEquals(first.toString(), second.toString());
+  }
+
+
+  @Test
+  public void shouldNotUsePooledEnginesForFingerprintNorCachedOutput()
+      throws Exception {
+    final AtomicInteger initializedCount = new AtomicInteger();
+    final AtomicInteger fingerprintCount = new AtomicInteger();
+    final LessCssProcessor processor = new LessCssProcessor() {
+      @Override
+      protected LessCss newLessCss() {
+        return new LessCss() {
+          @Override
+          public void initialize() {
+            super.initialize();
+            initializedCount.incrementAndGet();
+          }
+
+          @Override
+          public String getFingerprint() {
+            fingerprintCount.incrementAndGet();
+            return super.getFingerprint();
+          }
+        };
+      }
+    };
+    final String fingerprint = processor.getFingerprint();
+    Assert.assertEquals(0, initializedCount.get());
+    final String content = "#fingerprint {.class {color: green;}}";
+    for (int i = 0; i < 3; i++) {
+      processor.process(new StringReader(content), new StringWriter());
+    }
+    Assert.assertEquals(fingerprint, processor.getFingerprint());
+    Assert.assertEquals(1, fingerprintCount.get());
+    Assert.assertEquals(1, initializedCount.get());
+  }
+
+
+  @Test
+  public void shouldPrewarmEnginesWhenCreated()
+      throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setJmxEnabled(false);
+    config.setEnginePoolMinIdle(1);
+    Context.set(Context.standaloneContext(), config);
+    final AtomicInteger initializedCount = new AtomicInteger();
+    final LessCssProcessor processor = new LessCssProcessor() {
+      @Override
+      protected LessCss newLessCss() {
+        return new LessCss() {
+          @Override
+          public void initialize() {
+            super.initialize();
+            initializedCount.incrementAndGet();
+          }
+        };
+      }
+    };
+    try {
+      for (int i = 0; i < 100 && initializedCount.get() == 0; i++) {
+        Thread.sleep(50);
+      }
+      Assert.assertEquals(1, initializedCount.get());
+    } finally {
+      processor.destroy();
+      Context.unset();
+    }
+  }
+
+
   @Test(expected=WroRuntimeException.class)
   public void testInvalidLessCss()
       throws Exception {
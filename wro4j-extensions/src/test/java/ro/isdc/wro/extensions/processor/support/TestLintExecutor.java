@@ -0,0 +1,119 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestLintExecutor {
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotAcceptNullName() {
+    new LintExecutor(null);
+  }
+
+  @Test
+  public void shouldValidateInCurrentThreadByDefault() {
+    final Thread[] validatingThread = new Thread[1];
+    new LintExecutor("sync").execute(new Runnable() {
+      public void run() {
+        validatingThread[0] = Thread.currentThread();
+      }
+    });
+    Assert.assertSame(Thread.currentThread(), validatingThread[0]);
+  }
+
+  @Test
+  public void shouldValidateInBackgroundWhenAsyncLintingIsEnabled()
+    throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setJmxEnabled(false);
+    config.setAsyncLinting(true);
+    Context.set(Context.standaloneContext(), config);
+    final CountDownLatch canValidate = new CountDownLatch(1);
+    final CountDownLatch validated = new CountDownLatch(1);
+    final LintExecutor executor = new LintExecutor("async");
+    executor.execute(new Runnable() {
+      public void run() {
+        try {
+          canValidate.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        validated.countDown();
+      }
+    });
+    // the validation doesn't block the caller
+    Assert.assertEquals(1, validated.getCount());
+    canValidate.countDown();
+    Assert.assertTrue(validated.await(5, TimeUnit.SECONDS));
+    executor.destroy();
+  }
+
+  @Test
+  public void shouldValidateInBackgroundWithTheContextOfTheCaller()
+    throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setAsyncLinting(true);
+    final Context context = Context.standaloneContext();
+    Context.set(context, config);
+    final Context[] validatingContext = new Context[1];
+    final LintExecutor executor = new LintExecutor("context");
+    executor.execute(new Runnable() {
+      public void run() {
+        validatingContext[0] = Context.get();
+      }
+    });
+    executor.destroy();
+    Assert.assertSame(context, validatingContext[0]);
+  }
+
+  @Test
+  public void shouldCompletePendingValidationsWhenDestroyed()
+    throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setAsyncLinting(true);
+    Context.set(Context.standaloneContext(), config);
+    final AtomicInteger validatedCount = new AtomicInteger();
+    final LintExecutor executor = new LintExecutor("destroy");
+    for (int i = 0; i < 10; i++) {
+      executor.execute(new Runnable() {
+        public void run() {
+          validatedCount.incrementAndGet();
+        }
+      });
+    }
+    executor.destroy();
+    Assert.assertEquals(10, validatedCount.get());
+  }
+
+  @Test
+  public void shouldCountValidationResults() {
+    final LintExecutor executor = new LintExecutor("statistics");
+    executor.onLinted(false, "/valid.js", 0);
+    executor.onLinted(false, "/invalid.js", 2);
+    executor.onLinted(true, "/invalid.js", 2);
+    Assert.assertEquals(2, executor.getLintedCount());
+    Assert.assertEquals(1, executor.getCachedCount());
+    Assert.assertEquals(2, executor.getInvalidCount());
+    Assert.assertEquals("/invalid.js has 2 errors.", executor.getLastFindings());
+  }
+}
@@ -3,16 +3,49 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import junit.framework.Assert;
 
+import org.junit.After;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.extensions.script.ScriptEngine;
+import ro.isdc.wro.extensions.script.ScriptEngines;
+import ro.isdc.wro.extensions.script.ScriptTimeoutException;
 import ro.isdc.wro.util.ObjectFactory;
 
 /**
  * @author Alex Objelean
  */
 public class TestObjectPoolHelper {
+  private static final ObjectFactory<Integer> FACTORY = new ObjectFactory<Integer>() {
+    public Integer create() {
+      return 3;
+    }
+  };
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  private WroConfiguration createConfig() {
+    final WroConfiguration config = new WroConfiguration();
+    config.setJmxEnabled(false);
+    return config;
+  }
+
   @Test(expected=NullPointerException.class)
   public void cannotAcceptNullArgument() throws Exception {
     new ObjectPoolHelper<Void>(null);
@@ -41,4 +74,175 @@ public class TestObjectPoolHelper {
     Assert.assertEquals(Integer.valueOf(3), object);
     pool.returnObject(object);
   }
+
+  private void waitForIdleObjects(final ObjectPoolHelper<?> pool, final int count) throws Exception {
+    for (int i = 0; i < 100 && pool.getNumIdle() < count; i++) {
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  public void shouldNotCreateObjectsWhenNoMinIdleIsConfigured() throws Exception {
+    Context.set(Context.standaloneContext(), createConfig());
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("lazy", FACTORY);
+    Thread.sleep(100);
+    Assert.assertEquals(0, pool.getCreatedCount());
+  }
+
+  @Test
+  public void shouldPrewarmObjectsWhenCreated() throws Exception {
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolMinIdle(2);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("prewarm", FACTORY);
+    waitForIdleObjects(pool, 2);
+    Assert.assertEquals(2, pool.getNumIdle());
+    Assert.assertEquals(2, pool.getCreatedCount());
+    Assert.assertEquals(0, pool.getBorrowedCount());
+    pool.destroy();
+  }
+
+  @Test
+  public void shouldKeepMinIdleObjectsInBackground() throws Exception {
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolMinIdle(2);
+    config.setEnginePoolMaxActive(4);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("minIdle", FACTORY);
+    waitForIdleObjects(pool, 2);
+    pool.getObject();
+    Assert.assertEquals(2, pool.getCreatedCount());
+    waitForIdleObjects(pool, 2);
+    Assert.assertEquals(2, pool.getNumIdle());
+    Assert.assertEquals(3, pool.getCreatedCount());
+    pool.destroy();
+  }
+
+  @Test
+  public void shouldFailWhenPoolIsExhausted() {
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolMaxActive(1);
+    config.setEnginePoolWhenExhausted(WroConfiguration.ENGINE_POOL_FAIL);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("exhausted", FACTORY);
+    pool.getObject();
+    try {
+      pool.getObject();
+      Assert.fail("Should have failed");
+    } catch (final WroRuntimeException e) {
+      Assert.assertEquals(1, pool.getExhaustedCount());
+      Assert.assertEquals(1, pool.getNumActive());
+    }
+  }
+
+  @Test
+  public void shouldCreateObjectsWhenPoolIsExhaustedAndConfiguredToGrow() {
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolMaxActive(1);
+    config.setEnginePoolWhenExhausted(WroConfiguration.ENGINE_POOL_GROW);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("grow", FACTORY);
+    pool.getObject();
+    pool.getObject();
+    Assert.assertEquals(2, pool.getNumActive());
+    Assert.assertEquals(2, pool.getBorrowedCount());
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotAcceptInvalidWhenExhaustedAction() {
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolWhenExhausted("INVALID");
+    Context.set(Context.standaloneContext(), config);
+    new ObjectPoolHelper<Integer>("invalid", FACTORY);
+  }
+
+  @Test
+  public void shouldUseConfigurationOfContextSetAfterCreation() {
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("configured", FACTORY);
+    final WroConfiguration config = createConfig();
+    config.setEnginePoolMaxActive(7);
+    Context.set(Context.standaloneContext(), config);
+    pool.getObject();
+    Assert.assertEquals(7, pool.getMaxActive());
+  }
+
+  @Test
+  public void shouldCountScriptTimeouts() {
+    final ObjectPoolHelper<Object> pool = new ObjectPoolHelper<Object>("timeout", new ObjectFactory<Object>() {
+      public Object create() {
+        return new Object();
+      }
+    });
+    final Object object = pool.getObject();
+    pool.recordFailure(object, new WroRuntimeException("other failure"));
+    pool.recordFailure(object, new ScriptTimeoutException("timeout"));
+    Assert.assertEquals(1, pool.getTimeoutCount());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotRecordFailureOfNullObject() {
+    new ObjectPoolHelper<Integer>("nullFailure", FACTORY).recordFailure(null, new WroRuntimeException("failure"));
+  }
+
+  @Test
+  public void shouldDiscardEngineAbortedByTimeout() {
+    final WroConfiguration config = createConfig();
+    config.setScriptTimeout(100);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<ScriptEngine> pool = new ObjectPoolHelper<ScriptEngine>("abortedEngine",
+      new ObjectFactory<ScriptEngine>() {
+        public ScriptEngine create() {
+          return ScriptEngines.newEngine(ScriptEngines.RHINO).evaluateLibrary(
+            "var counter = 0; function increment() { return ++counter; } function endless() { while (true) {} }",
+            "library.js");
+        }
+      });
+    final ScriptEngine aborted = pool.getObject();
+    try {
+      aborted.createScope().invoke("endless");
+      Assert.fail("Should have timed out");
+    } catch (final ScriptTimeoutException e) {
+      pool.recordFailure(aborted, e);
+    } finally {
+      pool.returnObject(aborted);
+    }
+    final ScriptEngine engine = pool.getObject();
+    Assert.assertNotSame(aborted, engine);
+    Assert.assertEquals(1, ((Number) engine.createScope().invoke("increment")).intValue());
+    pool.returnObject(engine);
+    Assert.assertEquals(2, pool.getCreatedCount());
+    Assert.assertEquals(1, pool.getTimeoutCount());
+  }
+
+  private ObjectName getObjectName(final String poolName) throws Exception {
+    return new ObjectName(ObjectPoolHelper.class.getPackage().getName() + ":type=ObjectPoolHelper,name=\"" + poolName
+      + "\"");
+  }
+
+  @Test
+  public void shouldExposeStatisticsThroughJmxUntilDestroyed() throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setJmxEnabled(true);
+    final FilterConfig filterConfig = Mockito.mock(FilterConfig.class);
+    Mockito.when(filterConfig.getServletContext()).thenReturn(Mockito.mock(ServletContext.class));
+    Context.set(Context.webContext(Mockito.mock(HttpServletRequest.class), Mockito.mock(HttpServletResponse.class),
+      filterConfig), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("jmx", FACTORY);
+    pool.returnObject(pool.getObject());
+    final ObjectName name = getObjectName("jmx");
+    Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "BorrowedCount"));
+    Assert.assertEquals(1, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "NumIdle"));
+    pool.destroy();
+    Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  @Test
+  public void shouldNotRegisterMBeanOutsideOfWebApplication() throws Exception {
+    final WroConfiguration config = new WroConfiguration();
+    config.setJmxEnabled(true);
+    Context.set(Context.standaloneContext(), config);
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>("standalone", FACTORY);
+    pool.returnObject(pool.getObject());
+    Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(getObjectName("standalone")));
+  }
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.GroupReport;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestProcessorOutputCache {
+  private File directory;
+
+  @Before
+  public void setUp() {
+    directory = new File(FileUtils.getTempDirectory(), "wro4j-processorCache-" + System.nanoTime());
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(directory);
+  }
+
+  @Test
+  public void shouldCreateDifferentKeysForDifferentParts() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(1024, null);
+    Assert.assertEquals(cache.createKey("a", "bc"), cache.createKey("a", "bc"));
+    Assert.assertFalse(cache.createKey("a", "bc").equals(cache.createKey("ab", "c")));
+    Assert.assertFalse(cache.createKey("a", null).equals(cache.createKey("a", "null")));
+  }
+
+  @Test
+  public void shouldCountHitsAndMisses() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(1024, null);
+    final String key = cache.createKey("content");
+    Assert.assertNull(cache.get(key));
+    cache.put(key, "output");
+    Assert.assertEquals("output", cache.get(key));
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void shouldReportLookupsToTheGroupReport() {
+    final GroupReport groupReport = new GroupReport("g1.css");
+    Context.set(Context.standaloneContext());
+    Context.get().setGroupReport(groupReport);
+    try {
+      final ProcessorOutputCache cache = new ProcessorOutputCache(1024, null);
+      final String key = cache.createKey("content");
+      cache.get(key);
+      cache.put(key, "output");
+      cache.get(key);
+      cache.get(key);
+      Assert.assertTrue(groupReport.toJson().contains("\"processorCacheHits\": 2, \"processorCacheMisses\": 1"));
+    } finally {
+      Context.unset();
+    }
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntriesWhenMaxSizeIsExceeded() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(200, null);
+    final String first = cache.createKey("first");
+    final String second = cache.createKey("second");
+    final String third = cache.createKey("third");
+    cache.put(first, "1");
+    cache.put(second, "2");
+    // use the first entry, so that the second becomes the least recently used
+    cache.get(first);
+    cache.put(third, "3");
+    Assert.assertEquals(2, cache.getEntryCount());
+    Assert.assertEquals("1", cache.get(first));
+    Assert.assertNull(cache.get(second));
+    Assert.assertEquals("3", cache.get(third));
+  }
+
+  @Test
+  public void shouldNotKeepInMemoryEntriesBiggerThanMaxSize() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(10, null);
+    final String key = cache.createKey("content");
+    cache.put(key, "output");
+    Assert.assertEquals(0, cache.getEntryCount());
+  }
+
+  @Test
+  public void shouldReuseEntriesStoredOnDiskByAnotherCache() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(1024, directory);
+    final String key = cache.createKey("content");
+    cache.put(key, "output é");
+    Assert.assertTrue(new File(directory, key + ProcessorOutputCache.FILE_EXTENSION).isFile());
+
+    final ProcessorOutputCache otherCache = new ProcessorOutputCache(0, directory);
+    Assert.assertEquals("output é", otherCache.get(key));
+  }
+
+  @Test
+  public void shouldRemoveLeastRecentlyUsedFilesWhenMaxDiskSizeIsExceeded() {
+    final ProcessorOutputCache cache = new ProcessorOutputCache(0, directory, 25);
+    final String first = cache.createKey("first");
+    final String second = cache.createKey("second");
+    final String third = cache.createKey("third");
+    cache.put(first, "1111111111");
+    cache.put(second, "2222222222");
+    final long now = System.currentTimeMillis();
+    getFile(first).setLastModified(now - 20000);
+    getFile(second).setLastModified(now - 10000);
+    // read from disk, so that the second becomes the least recently used
+    Assert.assertEquals("1111111111", cache.get(first));
+    cache.put(third, "3333333333");
+    Assert.assertTrue(getFile(first).isFile());
+    Assert.assertFalse(getFile(second).isFile());
+    Assert.assertTrue(getFile(third).isFile());
+  }
+
+  private File getFile(final String key) {
+    return new File(directory, key + ProcessorOutputCache.FILE_EXTENSION);
+  }
+}
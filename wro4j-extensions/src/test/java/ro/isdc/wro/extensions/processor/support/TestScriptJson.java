@@ -0,0 +1,66 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestScriptJson {
+  @Test
+  public void shouldConvertNumbersLikeJavascript() {
+    Assert.assertEquals("1", ScriptJson.toString(1.0));
+    Assert.assertEquals("-1.5", ScriptJson.toString(-1.5));
+    Assert.assertEquals("0", ScriptJson.toString(-0.0));
+    Assert.assertEquals("0.000001", ScriptJson.toString(1e-6));
+    Assert.assertEquals("1e-7", ScriptJson.toString(1e-7));
+    Assert.assertEquals("100000000000000000000", ScriptJson.toString(1e20));
+    Assert.assertEquals("1e+21", ScriptJson.toString(1e21));
+    Assert.assertEquals("1.5e+21", ScriptJson.toString(1.5e21));
+  }
+
+  @Test
+  public void shouldEscapeLikeJson2() {
+    Assert.assertEquals("\"a\\\"b\\\\c\\n\\u0001\\u007f\\u2028\"", ScriptJson.stringify("a\"b\\c\n\u0001\u007f\u2028"));
+  }
+
+  @Test
+  public void shouldOmitUndefinedPropertiesAndReplaceUndefinedElements() {
+    final Map<String, Object> object = new LinkedHashMap<String, Object>();
+    object.put("a", ScriptJson.UNDEFINED);
+    object.put("b", Arrays.asList(ScriptJson.UNDEFINED, null, Boolean.TRUE, Double.valueOf(2)));
+    Assert.assertEquals("{\"b\":[null,null,true,2]}", ScriptJson.stringify(object));
+  }
+
+  @Test
+  public void shouldPreserveOrderOfProperties() {
+    final String json = "{\"z\":1,\"a\":{\"y\":\"x\"},\"z\":2}";
+    Assert.assertEquals("{\"z\":2,\"a\":{\"y\":\"x\"}}", ScriptJson.stringify(ScriptJson.parse(json)));
+  }
+
+  @Test
+  public void shouldGetPropertiesLikeJavascript() {
+    final Object array = ScriptJson.parse("[\"a\",\"b\"]");
+    Assert.assertEquals("b", ScriptJson.getProperty(array, Double.valueOf(1)));
+    Assert.assertEquals("b", ScriptJson.getProperty(array, "1"));
+    Assert.assertSame(ScriptJson.UNDEFINED, ScriptJson.getProperty(array, "01"));
+    Assert.assertSame(ScriptJson.UNDEFINED, ScriptJson.getProperty(array, Double.valueOf(2)));
+    Assert.assertEquals("v", ScriptJson.getProperty(ScriptJson.parse("{\"1\":\"v\"}"), Double.valueOf(1)));
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotParseContentAfterValue() {
+    ScriptJson.parse("[1] [2]");
+  }
+}
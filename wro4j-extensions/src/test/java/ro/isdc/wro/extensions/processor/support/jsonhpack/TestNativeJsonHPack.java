@@ -0,0 +1,69 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.processor.support.jsonhpack;
+
+import java.io.File;
+import java.net.URL;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+
+/**
+ * Checks that {@link NativeJsonHPack} produces the same output as the javascript implementation used by
+ * {@link JsonHPack}.
+ *
+ * @author Alex Objelean
+ */
+public class TestNativeJsonHPack {
+  private static final String[] INPUTS = {
+    "{\"a\":1}",
+    "[{\"a\":1,\"b\":\"x\"},{\"a\":2,\"b\":\"x\"},{\"a\":3,\"b\":\"y\"}]",
+    "[{\"a\":\"x\",\"b\":1.5},{\"a\":\"y\",\"b\":1e21},{\"a\":\"z\",\"b\":-0.000001},{\"a\":\"w\",\"b\":null}]",
+    "[{\"a\":\"same\",\"b\":true},{\"a\":\"same\",\"b\":false},{\"a\":\"same\",\"b\":true},{\"a\":\"same\"}]",
+    "[{\"a\":null,\"n\":{\"x\":[1,2]}},{\"b\":1,\"a\":null,\"n\":{\"x\":[1,2]}}]",
+    "[{\"k\\\"ey\":\"quote \\\" and \\u2028\"},{\"k\\\"ey\":\"tab\\t\"}]",
+    "[{\"a\":\"1\"},{\"a\":\"2\"},{\"a\":\"1\"},{\"a\":\"3\"},{\"a\":\"4\"}]"
+  };
+  private final JsonHPack scriptEngine = new JsonHPack();
+  private final JsonHPack nativeEngine = new NativeJsonHPack();
+
+  private String readFixture(final String name)
+    throws Exception {
+    final URL url = getClass().getResource("/ro/isdc/wro/extensions/processor/jsonhpack/test/" + name);
+    return FileUtils.readFileToString(new File(url.getFile()));
+  }
+
+  @Test
+  public void shouldPackLikeScriptImplementation()
+    throws Exception {
+    for (final String input : INPUTS) {
+      Assert.assertEquals(scriptEngine.pack(input), nativeEngine.pack(input));
+    }
+    for (final String fixture : new String[] { "plainJson.js", "jsonArray.js" }) {
+      Assert.assertEquals(scriptEngine.pack(readFixture(fixture)), nativeEngine.pack(readFixture(fixture)));
+    }
+  }
+
+  @Test
+  public void shouldUnpackLikeScriptImplementation()
+    throws Exception {
+    for (final String input : INPUTS) {
+      final String packed = scriptEngine.pack(input);
+      Assert.assertEquals(scriptEngine.unpack(packed), nativeEngine.unpack(packed));
+    }
+  }
+
+  @Test
+  public void shouldKeepPackedContentUnchangedAfterRoundTrips()
+    throws Exception {
+    final String content = readFixture("jsonArray.js");
+    final String packed = nativeEngine.pack(content);
+    for (int i = 0; i < 20; i++) {
+      Assert.assertEquals(packed, nativeEngine.pack(nativeEngine.unpack(nativeEngine.pack(content))));
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.ScriptableObject;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestRhinoScriptBuilder {
+  private static final String LIBRARY = "var counter = 0; function increment() { counter++; return counter; }";
+  private static final String ENDLESS_LIBRARY = "function endless() { while (true) {} }";
+
+  @After
+  public void tearDown() {
+    ro.isdc.wro.config.Context.unset();
+  }
+
+  private void setScriptTimeout(final long timeout) {
+    ro.isdc.wro.config.Context.set(ro.isdc.wro.config.Context.standaloneContext());
+    ro.isdc.wro.config.Context.get().getConfig().setScriptTimeout(timeout);
+  }
+
+  @Test
+  public void shouldCompileLibraryOnlyOnce() {
+    final Context context = Context.enter();
+    try {
+      Assert.assertSame(ScriptCompiler.compile(context, LIBRARY, "library.js"),
+        ScriptCompiler.compile(context, LIBRARY, "library.js"));
+    } finally {
+      Context.exit();
+    }
+  }
+
+  @Test
+  public void shouldDiscardLeastRecentlyUsedScripts() {
+    final Context context = Context.enter();
+    try {
+      final Script script = ScriptCompiler.compile(context, "var first;", "first.js");
+      for (int i = 0; i < ScriptCompiler.MAX_SIZE; i++) {
+        ScriptCompiler.compile(context, "var other" + i + ";", "other.js");
+      }
+      Assert.assertNotSame(script, ScriptCompiler.compile(context, "var first;", "first.js"));
+    } finally {
+      Context.exit();
+    }
+  }
+
+  @Test
+  public void shouldCompileScriptExceedingMethodSizeLimit() {
+    final StringBuilder source = new StringBuilder("function big() { var a = 0;");
+    for (int i = 0; i < 10000; i++) {
+      source.append("a = a + ").append(i).append(";");
+    }
+    source.append("return a; }");
+    final Context context = Context.enter();
+    try {
+      Assert.assertNotNull(ScriptCompiler.compile(context, source.toString(), "big.js"));
+    } finally {
+      Context.exit();
+    }
+  }
+
+  @Test
+  public void shouldNotChangeSharedScopeWhenInvokingLibrary()
+    throws Exception {
+    final ScriptableObject sharedScope = RhinoScriptBuilder.newChain().evaluateChain(
+      new ByteArrayInputStream(LIBRARY.getBytes()), "library.js").seal().getScope();
+    final Object firstResult = RhinoScriptBuilder.newChain(sharedScope).evaluate("increment();", "first");
+    Assert.assertEquals(1, ((Number) firstResult).intValue());
+    final Object secondResult = RhinoScriptBuilder.newChain(sharedScope).evaluate("increment();", "second");
+    Assert.assertEquals(1, ((Number) secondResult).intValue());
+  }
+
+  @Test
+  public void shouldNotShareVariablesBetweenChildScopes() {
+    final ScriptableObject sharedScope = RhinoScriptBuilder.newChain().seal().getScope();
+    RhinoScriptBuilder.newChain(sharedScope).evaluate("var local = 1;", "declare");
+    Assert.assertEquals("undefined", RhinoScriptBuilder.newChain(sharedScope).evaluate("typeof local", "check"));
+  }
+
+  @Test(expected = ScriptTimeoutException.class)
+  public void shouldAbortEvaluationExceedingTimeout() {
+    setScriptTimeout(100);
+    RhinoScriptBuilder.newChain().evaluate("while (true) {}", "endless");
+  }
+
+  @Test(expected = ScriptTimeoutException.class)
+  public void shouldAbortEvaluationEvenWhenScriptCatchesExceptions() {
+    setScriptTimeout(100);
+    RhinoScriptBuilder.newChain().evaluate("while (true) { try { while (true) {} } catch (e) {} }", "endless");
+  }
+
+  @Test
+  public void shouldAbortCompiledLibraryAndReuseSharedScope()
+    throws Exception {
+    setScriptTimeout(100);
+    final ScriptableObject sharedScope = RhinoScriptBuilder.newChain().evaluateChain(
+      new ByteArrayInputStream((LIBRARY + ENDLESS_LIBRARY).getBytes()), "library.js").seal().getScope();
+    try {
+      RhinoScriptBuilder.newChain(sharedScope).evaluate("endless();", "endless");
+      Assert.fail("Should have been aborted");
+    } catch (final ScriptTimeoutException e) {
+    }
+    final Object result = RhinoScriptBuilder.newChain(sharedScope).evaluate("increment();", "afterTimeout");
+    Assert.assertEquals(1, ((Number) result).intValue());
+  }
+
+  @Test
+  public void shouldPassVariableAsString() {
+    final String content = "line1 \"quoted\"\nline2 \\ backslash";
+    final Object result = RhinoScriptBuilder.newChain().addVariable("input", content).evaluate("input", "check");
+    Assert.assertEquals(content, result);
+  }
+}
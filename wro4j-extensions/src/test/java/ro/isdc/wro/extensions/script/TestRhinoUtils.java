@@ -0,0 +1,27 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import ro.isdc.wro.util.WroUtil;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestRhinoUtils {
+  @Test
+  public void shouldNormalizeNewLinesLikeJSMultiLineString() {
+    final String[] contents = new String[] {
+      "", "alert1", "\nalert1\nalert2", "alert1\r\nalert2\r\n", "alert1\n\n", "\n\n", "\r"
+    };
+    for (final String content : contents) {
+      final Object expected = RhinoScriptBuilder.newChain().evaluate(WroUtil.toJSMultiLineString(content), "expected");
+      Assert.assertEquals(expected, RhinoUtils.normalizeNewLines(content));
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestScriptAssets {
+  @Test
+  public void shouldReadAssetOnlyOnce() {
+    final String asset = ScriptAssets.get(RhinoScriptBuilder.class, "json2.min.js");
+    Assert.assertTrue(asset.length() > 0);
+    Assert.assertSame(asset, ScriptAssets.get(RhinoScriptBuilder.class, "json2.min.js"));
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotGetMissingAsset() {
+    ScriptAssets.get(RhinoScriptBuilder.class, "missing.js");
+  }
+}
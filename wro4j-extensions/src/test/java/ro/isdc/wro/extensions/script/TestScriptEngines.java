@@ -0,0 +1,282 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.script.ScriptEngineManager;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.extensions.processor.support.cjson.CJson;
+import ro.isdc.wro.extensions.processor.support.coffeescript.CoffeeScript;
+import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
+import ro.isdc.wro.extensions.processor.support.jsonhpack.JsonHPack;
+import ro.isdc.wro.extensions.processor.support.less.LessCss;
+import ro.isdc.wro.extensions.processor.support.linter.JsHint;
+import ro.isdc.wro.extensions.processor.support.packer.PackerJs;
+import ro.isdc.wro.extensions.processor.support.sass.SassCss;
+import ro.isdc.wro.extensions.processor.support.uglify.UglifyJs;
+
+
+/**
+ * @author Alex Objelean
+ */
+public class TestScriptEngines {
+  private static final Logger LOG = LoggerFactory.getLogger(TestScriptEngines.class);
+  /**
+   * The JSR-223 engine bundled with the JDK.
+   */
+  private static final String JSR223_ENGINE = "javascript";
+  private static final int ITERATIONS = 5;
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  /**
+   * @return the names of the backends available in the current environment.
+   */
+  private List<String> getBackends() {
+    final List<String> backends = new ArrayList<String>();
+    backends.add(ScriptEngines.RHINO);
+    if (new ScriptEngineManager().getEngineByName(JSR223_ENGINE) != null) {
+      backends.add(JSR223_ENGINE);
+    } else {
+      LOG.info("No JSR-223 {} engine available, only rhino is tested", JSR223_ENGINE);
+    }
+    return backends;
+  }
+
+  private void setBackend(final String backend) {
+    Context.set(Context.standaloneContext());
+    Context.get().getConfig().setScriptEngine(backend);
+  }
+
+  @Test
+  public void shouldUseRhinoByDefault() {
+    Assert.assertTrue(ScriptEngines.newEngine() instanceof RhinoScriptEngine);
+    setBackend(null);
+    Assert.assertTrue(ScriptEngines.newEngine() instanceof RhinoScriptEngine);
+    Assert.assertEquals(ScriptEngines.RHINO, ScriptEngines.newEngine("RHINO").getName());
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotCreateUnknownEngine() {
+    ScriptEngines.newEngine("unknownScriptEngine");
+  }
+
+  @Test
+  public void shouldInvokeFunctionWithHostBoundArguments() {
+    final String content = "line1 \"quoted\"\nline2 \\ backslash";
+    for (final String backend : getBackends()) {
+      final ScriptEngine engine = ScriptEngines.newEngine(backend).evaluateLibrary(
+        "function concat(a, b) { return a + b; }", "library.js");
+      Assert.assertEquals(content + "!", engine.createScope().invoke("concat", content, "!"));
+    }
+  }
+
+  @Test
+  public void shouldNotShareVariablesBetweenScopes() {
+    for (final String backend : getBackends()) {
+      final ScriptEngine engine = ScriptEngines.newEngine(backend).evaluateLibrary("var counter = 0;", "library.js");
+      Assert.assertEquals("value", engine.createScope().addVariable("input", "value").evaluate("input", "first"));
+      Assert.assertEquals("undefined", engine.createScope().evaluate("typeof input", "second"));
+    }
+  }
+
+  @Test
+  public void shouldConvertResultsToJava() {
+    for (final String backend : getBackends()) {
+      final ScriptScope scope = ScriptEngines.newEngine(backend).createScope();
+      Assert.assertNull(scope.evaluate("undefined", "undefined"));
+      Assert.assertNull(scope.evaluate("null", "null"));
+      Assert.assertEquals(Boolean.TRUE, scope.evaluate("1 < 2", "boolean"));
+      Assert.assertEquals("ab", scope.evaluate("'a' + 'b'", "string"));
+      Assert.assertEquals(3, ((Number) scope.evaluate("1 + 2", "number")).intValue());
+    }
+  }
+
+  @Test
+  public void shouldReportScriptErrorsAsWroRuntimeException() {
+    for (final String backend : getBackends()) {
+      try {
+        ScriptEngines.newEngine(backend).createScope().evaluate("throw new Error('invalid');", "error");
+        Assert.fail("Should have failed with " + backend);
+      } catch (final WroRuntimeException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("invalid"));
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void cannotEvaluateLibraryAfterScopeIsCreated() {
+    final ScriptEngine engine = ScriptEngines.newEngine(ScriptEngines.RHINO);
+    engine.createScope();
+    engine.evaluateLibrary("var a = 1;", "library.js");
+  }
+
+  /**
+   * Runs an engine based processor.
+   */
+  private static abstract class ProcessorRun {
+    /**
+     * Creates the engine and evaluates its libraries.
+     */
+    abstract void init();
+
+    /**
+     * @return the processed content.
+     */
+    abstract String run()
+      throws Exception;
+  }
+
+  private Map<String, ProcessorRun> createProcessorRuns() {
+    final Map<String, ProcessorRun> runs = new LinkedHashMap<String, ProcessorRun>();
+    runs.put("less", new ProcessorRun() {
+      private LessCss engine;
+      void init() {
+        engine = new LessCss();
+      }
+      String run() {
+        return engine.less("@color: red; .a { color: @color; }");
+      }
+    });
+    runs.put("sass", new ProcessorRun() {
+      private SassCss engine;
+      void init() {
+        engine = new SassCss();
+      }
+      String run() {
+        return engine.process("!color = red\n.a\n  color = !color");
+      }
+    });
+    runs.put("coffeeScript", new ProcessorRun() {
+      private CoffeeScript engine;
+      void init() {
+        engine = new CoffeeScript();
+      }
+      String run() {
+        return engine.compile("square = (x) -> x * x");
+      }
+    });
+    runs.put("uglifyJs", new ProcessorRun() {
+      private UglifyJs engine;
+      void init() {
+        engine = UglifyJs.uglifyJs();
+      }
+      String run()
+        throws Exception {
+        return engine.process("function sum(first, second) { return first + second; }");
+      }
+    });
+    runs.put("packer", new ProcessorRun() {
+      private PackerJs engine;
+      void init() {
+        engine = new PackerJs();
+      }
+      String run()
+        throws Exception {
+        return engine.pack("function sum(first, second) { return first + second; }");
+      }
+    });
+    runs.put("jsHint", new ProcessorRun() {
+      private JsHint engine;
+      void init() {
+        engine = new JsHint();
+      }
+      String run()
+        throws Exception {
+        engine.validate("var a = 1;");
+        return "valid";
+      }
+    });
+    runs.put("cssLint", new ProcessorRun() {
+      private CssLint engine;
+      void init() {
+        engine = new CssLint();
+      }
+      String run()
+        throws Exception {
+        engine.validate(".a { color: red; }");
+        return "valid";
+      }
+    });
+    runs.put("jsonHPack", new ProcessorRun() {
+      private JsonHPack engine;
+      void init() {
+        engine = new JsonHPack();
+      }
+      String run() {
+        return engine.pack("[{\"a\":\"x\",\"b\":1},{\"a\":\"x\",\"b\":2}]");
+      }
+    });
+    runs.put("cJson", new ProcessorRun() {
+      private CJson engine;
+      void init() {
+        engine = new CJson();
+      }
+      String run() {
+        return engine.pack("[{\"a\":{\"b\":1}},{\"a\":{\"b\":2}}]");
+      }
+    });
+    return runs;
+  }
+
+  /**
+   * Runs every engine based processor on each available backend, logging the time spent to initialize the engine and
+   * to process the content. Only the default backend is required to support all the processors.
+   */
+  @Test
+  public void shouldRunEngineBasedProcessorsOnEachBackend()
+    throws Exception {
+    final Map<String, String> expected = new LinkedHashMap<String, String>();
+    for (final String backend : getBackends()) {
+      setBackend(backend);
+      for (final Map.Entry<String, ProcessorRun> entry : createProcessorRuns().entrySet()) {
+        final String processor = entry.getKey();
+        final ProcessorRun run = entry.getValue();
+        try {
+          final long start = System.currentTimeMillis();
+          run.init();
+          final long initialized = System.currentTimeMillis();
+          String result = null;
+          for (int i = 0; i < ITERATIONS; i++) {
+            result = run.run();
+          }
+          final long end = System.currentTimeMillis();
+          LOG.info("{} on {}: init {}ms, {} runs {}ms", new Object[] {
+            processor, backend, initialized - start, ITERATIONS, end - initialized
+          });
+          if (ScriptEngines.RHINO.equals(backend)) {
+            expected.put(processor, result);
+          } else if (!expected.get(processor).equals(result)) {
+            LOG.info("{} on {} produced a different output: {}", new Object[] {
+              processor, backend, result
+            });
+          }
+        } catch (final Exception e) {
+          if (ScriptEngines.RHINO.equals(backend)) {
+            throw e;
+          }
+          LOG.info("{} is not supported by {}: {}", new Object[] {
+            processor, backend, e.getMessage()
+          });
+        }
+      }
+    }
+  }
+}
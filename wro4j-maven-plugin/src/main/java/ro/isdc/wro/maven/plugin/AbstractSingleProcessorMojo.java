@@ -3,20 +3,39 @@
  */
 package ro.isdc.wro.maven.plugin;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import javax.servlet.FilterConfig;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-import org.mockito.Mockito;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BOMInputStream;
+import org.apache.maven.plugin.MojoExecutionException;
 
+import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
-import ro.isdc.wro.http.DelegatingServletOutputStream;
+import ro.isdc.wro.extensions.processor.support.ProcessorOutputCache;
 import ro.isdc.wro.manager.factory.standalone.StandaloneContextAwareManagerFactory;
-import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
@@ -24,6 +43,13 @@ import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
 
 /**
  * Maven plugin which use a singe processor.
+ * <p/>
+ * The resources of all the target groups are validated only once, even if they belong to several groups. The resources
+ * are validated concurrently (see the parallelism parameter), each thread using its own engine from the pool of the
+ * processor. The results are cached by the processor, keyed by the content of the resource and the options, thus an
+ * unchanged resource is not validated again. The cache is stored in the lintCacheDirectory (unless a
+ * processorCacheDirectory is configured), thus it is reused by the next builds. A report of all the resources with
+ * errors is logged at the end.
  *
  * @author Alex Objelean
  */
@@ -42,6 +68,29 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
    * @optional
    */
   private boolean failNever;
+  /**
+   * The number of resources validated concurrently. When 0, the number of available processors is used.
+   *
+   * @parameter default-value="0" expression="${parallelism}"
+   * @optional
+   */
+  private int parallelism;
+  /**
+   * The folder where the validation results are cached between builds. Not used when the processorCacheDirectory is
+   * set. If none is set, the results are cached only during the build.
+   *
+   * @parameter default-value="${project.build.directory}/wro4j-lint-cache" expression="${lintCacheDirectory}"
+   * @optional
+   */
+  private File lintCacheDirectory;
+  /**
+   * The number of errors found in each resource, mapped by the uri of the resource.
+   */
+  private final Map<String, Integer> errorCounts = new ConcurrentHashMap<String, Integer>();
+  /**
+   * The processor used during an execution, created once by {@link #getProcessor()}.
+   */
+  private ResourcePreProcessor processor;
 
   /**
    * {@inheritDoc}
@@ -51,57 +100,192 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
     throws Exception {
     getLog().info("options: " + options);
     getLog().info("failNever: " + failNever);
+    getLog().info("parallelism: " + parallelism);
 
-    final Collection<String> groupsAsList = getTargetGroupsAsList();
-    for (final String group : groupsAsList) {
-      for (final ResourceType resourceType : ResourceType.values()) {
-        final String groupWithExtension = group + "." + resourceType.name().toLowerCase();
-        processGroup(groupWithExtension);
+    final WroConfiguration config = Context.get().getConfig();
+    if (config.getProcessorCacheDirectory() == null && lintCacheDirectory != null) {
+      getLog().info("lintCacheDirectory: " + lintCacheDirectory);
+      config.setProcessorCacheDirectory(lintCacheDirectory.getAbsolutePath());
+    }
+    errorCounts.clear();
+    final Map<String, Throwable> failures;
+    final List<Resource> resources;
+    final ProcessorOutputCache cache = ProcessorOutputCache.get();
+    final long hitCount = cache.getHitCount();
+    final long start = System.currentTimeMillis();
+    try {
+      resources = collectResources();
+      failures = validate(resources, getProcessor(), config);
+    } finally {
+      // destroying the processor waits for the validations still running in background (asyncLinting)
+      destroyManagerFactory();
+      processor = null;
+    }
+    if (!failNever) {
+      // the errors found in background cannot fail the validation of the resource
+      for (final Resource resource : resources) {
+        final String uri = resource.getUri();
+        if (errorCounts.containsKey(uri) && !failures.containsKey(uri)) {
+          failures.put(uri, new WroRuntimeException("Errors found when validating resource: " + uri));
+        }
       }
     }
+    logReport(resources, cache.getHitCount() - hitCount, System.currentTimeMillis() - start);
+    if (!failures.isEmpty()) {
+      throw new MojoExecutionException(failures.size() + " of " + resources.size() + " resources failed: "
+        + failures.keySet(), failures.values().iterator().next());
+    }
   }
 
+
   /**
-   * @param group the name of the group to process.
+   * @return the resources of all the target groups, each resource being present only once.
    */
-  private void processGroup(final String group) throws Exception {
-    getLog().info("processing group: " + group);
+  private List<Resource> collectResources()
+    throws Exception {
+    final WroModel model = getManagerFactory().create().getModelFactory().create();
+    final Set<Resource> resources = new LinkedHashSet<Resource>();
+    for (final String group : getTargetGroupsAsList()) {
+      resources.addAll(model.getGroupByName(group).getResources());
+    }
+    return new ArrayList<Resource>(resources);
+  }
 
-    //mock request
-    final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
-    Mockito.when(request.getRequestURI()).thenReturn(group);
-    //mock response
-    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
-    Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(new ByteArrayOutputStream()));
 
-    //init context
-    final WroConfiguration config = Context.get().getConfig();
-    Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
-    //perform processing
-    getLog().info("ManagerFactory: " + getManagerFactory().create());
-    getManagerFactory().create().process();
+  /**
+   * Validates the resources on a bounded pool. Waits for all the resources to be validated, even if some of them fail.
+   *
+   * @return the failures mapped by the uri of the resource, in the order of the resources.
+   */
+  private Map<String, Throwable> validate(final List<Resource> resources, final ResourcePreProcessor processor,
+    final WroConfiguration config)
+    throws Exception {
+    final UriLocatorFactory uriLocatorFactory = getManagerFactory().create().getUriLocatorFactory();
+    final int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, resources.size())));
+    final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final Resource resource : resources) {
+        futures.add(executor.submit(new Callable<Void>() {
+          public Void call()
+            throws Exception {
+            Context.set(Context.standaloneContext(), config);
+            try {
+              validate(resource, processor, uriLocatorFactory, config);
+              return null;
+            } finally {
+              Context.unset();
+            }
+          }
+        }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (final ExecutionException e) {
+          final Throwable cause = e.getCause() == null ? e : e.getCause();
+          getLog().error("Failed to validate resource: " + resources.get(i).getUri(), cause);
+          failures.put(resources.get(i).getUri(), cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return failures;
+  }
+
+
+  private void validate(final Resource resource, final ResourcePreProcessor processor,
+    final UriLocatorFactory uriLocatorFactory, final WroConfiguration config)
+    throws IOException {
+    final String content;
+    try {
+      final InputStream input = new BOMInputStream(uriLocatorFactory.locate(resource.getUri()));
+      try {
+        content = IOUtils.toString(input, config.getEncoding());
+      } finally {
+        IOUtils.closeQuietly(input);
+      }
+    } catch (final IOException e) {
+      if (isIgnoreMissingResources()) {
+        getLog().warn("Ignoring the missing resource: " + resource.getUri());
+        return;
+      }
+      throw e;
+    }
+    // the missing resources are reported even if the processor doesn't support their type
+    final boolean supported = !ProcessorsUtils.filterProcessorsToApply(isMinimize(), resource.getType(),
+      Collections.singleton(processor)).isEmpty();
+    if (supported) {
+      processor.process(resource, new StringReader(content), new StringWriter());
+    }
+  }
+
+
+  /**
+   * Logs the resources with errors, in the order of the resources.
+   */
+  private void logReport(final List<Resource> resources, final long cachedCount, final long totalDuration) {
+    getLog().info("Validation report:");
+    for (final Resource resource : resources) {
+      final Integer errorCount = errorCounts.get(resource.getUri());
+      if (errorCount != null) {
+        getLog().info("  " + resource.getUri() + ": " + errorCount + " errors");
+      }
+    }
+    getLog().info("Validated " + resources.size() + " resources (" + errorCounts.size() + " with errors, "
+      + cachedCount + " results found in cache) in " + totalDuration + "ms");
+  }
 
-    getLog().info("Success processing group: " + group);
+
+  /**
+   * Invoked by the processor when errors are found in a resource. The errors are part of the final report. Unless
+   * failNever is true, the validation of the resource fails.
+   *
+   * @param resource
+   *          the validated resource.
+   * @param errors
+   *          the errors found.
+   */
+  protected final void onErrorsFound(final Resource resource, final Collection<?> errors) {
+    final String uri = resource == null ? null : resource.getUri();
+    getLog().error(errors.size() + " errors found while processing resource: " + uri + " Errors are: " + errors);
+    if (uri != null) {
+      errorCounts.put(uri, errors.size());
+    }
+    if (!failNever) {
+      throw new WroRuntimeException("Errors found when validating resource: " + resource);
+    }
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  protected StandaloneContextAwareManagerFactory getManagerFactory()
-    throws Exception {
-    final StandaloneContextAwareManagerFactory factory = super.getManagerFactory();
+  protected StandaloneContextAwareManagerFactory newWroManagerFactory()
+    throws MojoExecutionException {
+    final StandaloneContextAwareManagerFactory factory = super.newWroManagerFactory();
     factory.setProcessorsFactory(createSingleProcessorsFactory());
     return factory;
   }
 
   private ProcessorsFactory createSingleProcessorsFactory() {
     final SimpleProcessorsFactory factory = new SimpleProcessorsFactory();
-    final ResourcePreProcessor processor = createResourceProcessor();
-    factory.addPreProcessor(processor);
+    factory.addPreProcessor(getProcessor());
     return factory;
   }
 
+  /**
+   * @return the processor used during the current execution, which is destroyed with the manager factory.
+   */
+  private ResourcePreProcessor getProcessor() {
+    if (processor == null) {
+      processor = createResourceProcessor();
+    }
+    return processor;
+  }
+
   protected abstract ResourcePreProcessor createResourceProcessor();
 
   /**
@@ -126,6 +310,20 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
     this.failNever = failNever;
   }
 
+  /**
+   * @param parallelism the parallelism to set
+   */
+  public void setParallelism(final int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @param lintCacheDirectory the lintCacheDirectory to set
+   */
+  public void setLintCacheDirectory(final File lintCacheDirectory) {
+    this.lintCacheDirectory = lintCacheDirectory;
+  }
+
   /**
    * @return the failNever
    */
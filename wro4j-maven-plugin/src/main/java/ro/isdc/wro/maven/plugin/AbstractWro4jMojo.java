@@ -82,6 +82,14 @@ public abstract class AbstractWro4jMojo extends AbstractMojo {
    * @optional
    */
   private File extraConfigFile;
+  /**
+   * The folder where the output of the transpiling processors (less, sass, coffeeScript) is cached between builds. The
+   * same folder can be used by the filter and the command line runner.
+   *
+   * @parameter expression="${processorCacheDirectory}"
+   * @optional
+   */
+  private File processorCacheDirectory;
 
 
   /**
@@ -98,14 +106,20 @@ public abstract class AbstractWro4jMojo extends AbstractMojo {
     getLog().info("ignoreMissingResources: " + isIgnoreMissingResources());
     getLog().info("wroManagerFactory: " + this.wroManagerFactory);
     getLog().info("extraConfig: " + extraConfigFile);
+    getLog().info("processorCacheDirectory: " + processorCacheDirectory);
 
 
     extendPluginClasspath();
     Context.set(Context.standaloneContext());
+    if (processorCacheDirectory != null) {
+      Context.get().getConfig().setProcessorCacheDirectory(processorCacheDirectory.getAbsolutePath());
+    }
     try {
       doExecute();
     } catch (final Exception e) {
       throw new MojoExecutionException("Exception occured while processing: " + e.getMessage(), e);
+    } finally {
+      destroyManagerFactory();
     }
   }
 
@@ -147,6 +161,23 @@ public abstract class AbstractWro4jMojo extends AbstractMojo {
   }
 
 
+  /**
+   * Destroys the manager factory (thus the processors it created), if any. The next call of {@link #getManagerFactory()}
+   * creates a new one.
+   */
+  protected final void destroyManagerFactory() {
+    if (managerFactory != null) {
+      try {
+        managerFactory.destroy();
+      } catch (final Exception e) {
+        getLog().warn("Cannot destroy the manager factory", e);
+      } finally {
+        managerFactory = null;
+      }
+    }
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -358,4 +389,20 @@ public abstract class AbstractWro4jMojo extends AbstractMojo {
     this.extraConfigFile = extraConfigFile;
   }
 
+
+  /**
+   * @return the file containing the extra configurations or null if not set.
+   */
+  protected File getExtraConfigFile() {
+    return extraConfigFile;
+  }
+
+
+  /**
+   * @param processorCacheDirectory the processorCacheDirectory to set
+   */
+  public void setProcessorCacheDirectory(final File processorCacheDirectory) {
+    this.processorCacheDirectory = processorCacheDirectory;
+  }
+
 }
@@ -7,8 +7,6 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
-import org.apache.maven.plugin.MojoExecutionException;
-
 import ro.isdc.wro.extensions.processor.css.CssLintProcessor;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
 import ro.isdc.wro.model.resource.Resource;
@@ -43,12 +41,7 @@ public class CssLintMojo extends AbstractSingleProcessorMojo {
 
       @Override
       protected void onCssLintException(final CssLintException e, final Resource resource) throws Exception {
-        getLog().error(
-            e.getErrors().size() + " errors found while processing resource: " + resource.getUri() + " Errors are: "
-              + e.getErrors());
-          if (!isFailNever()) {
-            throw new MojoExecutionException("Errors found when validating resource: " + resource);
-          }
+        onErrorsFound(resource, e.getErrors());
       };
     }.setOptions(getOptions());
     return processor;
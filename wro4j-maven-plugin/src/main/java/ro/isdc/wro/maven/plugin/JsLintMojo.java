@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
-import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.js.JsLintProcessor;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
 import ro.isdc.wro.model.resource.Resource;
@@ -49,13 +48,7 @@ public class JsLintMojo
 
       @Override
       protected void onLinterException(final LinterException e, final Resource resource) {
-        getLog().error(
-            e.getErrors().size() + " errors found while processing resource: " + resource.getUri() + " Errors are: "
-                + e.getErrors());
-        if (!isFailNever()) {
-          //throw new MojoExecutionException("Errors found when validating resource: " + resource);
-          throw new WroRuntimeException("Errors found when validating resource: " + resource);
-        }
+        onErrorsFound(resource, e.getErrors());
       };
     }.setOptions(getOptions());
     return processor;
@@ -7,33 +7,62 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-
-import javax.servlet.FilterConfig;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.maven.plugin.MojoExecutionException;
-import org.mockito.Mockito;
 
+import ro.isdc.wro.build.GzipFileWriter;
+import ro.isdc.wro.build.OutputManifest;
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.PrebuiltCache;
+import ro.isdc.wro.cache.PrebuiltCacheWriter;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
-import ro.isdc.wro.http.DelegatingServletOutputStream;
+import ro.isdc.wro.manager.BuildReport;
+import ro.isdc.wro.manager.GroupReport;
+import ro.isdc.wro.manager.ProcessedGroup;
+import ro.isdc.wro.manager.WroManager;
+import ro.isdc.wro.maven.plugin.support.BuildState;
+import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
-import ro.isdc.wro.util.io.UnclosableBufferedInputStream;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.util.InputFingerprinter;
+import ro.isdc.wro.util.SortedProperties;
 
 
 /**
  * A build-time solution for organizing and minimizing static resources. By default uses the same configuration as the
  * run-time solution. Additionally, allows you to change the processors used by changing the wroManagerFactory
  * implementation used by the plugin.
+ * <p/>
+ * Each (group, resource type) pair is processed as a separate unit. When the parallelism is greater than 1, the units
+ * are processed concurrently, each with its own context. The produced files and the group name mapping do not depend
+ * on the order in which the units complete.
+ * <p/>
+ * When the build is incremental, the fingerprint of the inputs of each unit (the content of the resources, after
+ * expanding the wildcards and the css imports, and the processing configuration) is stored in the build state file. The
+ * units whose fingerprint didn't change since the previous build are not processed again and the output files are
+ * rewritten only when their content changes. When a processor cannot describe its configuration (see
+ * {@link ProcessorsUtils#getFingerprint(Object)}), all the units are always processed.
+ * <p/>
+ * When the prebuiltCacheDirectory is configured, the content of each group is also stored in the format of the
+ * {@link PrebuiltCache}, thus the runtime (configured with the prebuiltCacheLocation) serves it without processing.
  *
  * @goal run
  * @phase compile
@@ -79,10 +108,95 @@ public class Wro4jMojo extends AbstractWro4jMojo {
    * @optional
    */
   private String groupNameMappingFile;
+  /**
+   * The number of (group, resource type) units processed concurrently. When 1, the units are processed sequentially
+   * and the first failure stops the processing. Otherwise, all units are processed and all the failures are reported.
+   *
+   * @parameter default-value="1" expression="${parallelism}"
+   * @optional
+   */
+  private int parallelism = 1;
+  /**
+   * When true, the units whose inputs didn't change since the previous build are not processed again. Used only when
+   * the buildStateFile is set.
+   *
+   * @parameter default-value="true" expression="${incrementalBuild}"
+   * @optional
+   */
+  private boolean incrementalBuild = true;
+  /**
+   * The file where the state of the previous build is stored (ex: ${project.build.directory}/wro4j-build-state.properties).
+   * If not set, the build is not incremental. The state describes the processors by their fingerprint, thus the units
+   * are always processed when a processor cannot describe its configuration.
+   *
+   * @parameter expression="${buildStateFile}"
+   * @optional
+   */
+  private File buildStateFile;
+  /**
+   * When true, a gzipped sibling (same name with the .gz extension) of each written file is created, using the highest
+   * compression level, thus the web server can serve the precompressed content.
+   *
+   * @parameter default-value="false" expression="${gzip}"
+   * @optional
+   */
+  private boolean gzip;
+  /**
+   * When true, the content is compressed with the filtered strategy too (besides the default one) and the smaller
+   * gzipped content is kept. Used only when gzip is true.
+   *
+   * @parameter default-value="false" expression="${exhaustiveGzip}"
+   * @optional
+   */
+  private boolean exhaustiveGzip;
+  /**
+   * The file where the manifest of the written files (the name, size and hash of the file and the size of the gzipped
+   * sibling, for each group) is stored as JSON. If not set, no manifest is written.
+   *
+   * @parameter expression="${manifestFile}"
+   * @optional
+   */
+  private File manifestFile;
+  /**
+   * The file where the performance report of the build (for each group, the time spent by each processor, the time
+   * spent to locate each resource, the sizes of the content and whether it was found in the cache) is stored as JSON.
+   * If not set, no report is written.
+   *
+   * @parameter expression="${reportFile}"
+   * @optional
+   */
+  private File reportFile;
+  /**
+   * The folder where the content of the groups is stored in a format loaded by the runtime (ex:
+   * ${project.build.directory}/${project.build.finalName}/WEB-INF/wro4j-cache). The runtime configured with the
+   * prebuiltCacheLocation serves this content, without processing, as long as the resources and the processors of the
+   * group don't change. If not set, the content is not stored.
+   *
+   * @parameter expression="${prebuiltCacheDirectory}"
+   * @optional
+   */
+  private File prebuiltCacheDirectory;
   /**
    * Holds a mapping between original group name file & renamed one.
    */
   private final Properties groupNames = new Properties();
+  /**
+   * Describes the files written by the current execution. Null if no manifest file is configured.
+   */
+  private OutputManifest manifest;
+  /**
+   * Collects the timings of the current execution. Null if no report file is configured.
+   */
+  private BuildReport report;
+  /**
+   * Stores the content of the groups for the runtime. Null if no prebuilt cache directory is configured.
+   */
+  private PrebuiltCacheWriter prebuiltCache;
+  /**
+   * Computes the fingerprints of the current execution, thus each resource is read once by the build state and by the
+   * prebuilt cache. Null if none of them is configured.
+   */
+  private InputFingerprinter inputFingerprinter;
 
 
   /**
@@ -109,49 +223,332 @@ public class Wro4jMojo extends AbstractWro4jMojo {
     getLog().info("jsDestinationFolder: " + jsDestinationFolder);
     getLog().info("cssDestinationFolder: " + cssDestinationFolder);
     getLog().info("groupNameMappingFile: " + groupNameMappingFile);
-
+    getLog().info("parallelism: " + parallelism);
+    getLog().info("incrementalBuild: " + incrementalBuild);
+    getLog().info("buildStateFile: " + buildStateFile);
+    getLog().info("gzip: " + gzip);
+    getLog().info("manifestFile: " + manifestFile);
+    getLog().info("reportFile: " + reportFile);
+    getLog().info("prebuiltCacheDirectory: " + prebuiltCacheDirectory);
+
+    final WroConfiguration config = Context.get().getConfig();
+    final String aggregatedFolderPath = computeAggregatedFolderPath();
+    final BuildState buildState = incrementalBuild && buildStateFile != null ? new BuildState(buildStateFile) : null;
+    final String settings = buildState == null ? null : computeSettings(aggregatedFolderPath);
+    manifest = manifestFile == null ? null : new OutputManifest();
+    report = reportFile == null ? null : new BuildReport();
+    prebuiltCache = prebuiltCacheDirectory == null ? null : new PrebuiltCacheWriter(prebuiltCacheDirectory);
+    inputFingerprinter = buildState == null && prebuiltCache == null ? null : new InputFingerprinter(
+      getManagerFactory().create().getUriLocatorFactory(), config.getEncoding());
+    final List<GroupTask> tasks = new ArrayList<GroupTask>();
     final Collection<String> groupsAsList = getTargetGroupsAsList();
     for (final String group : groupsAsList) {
       for (final ResourceType resourceType : ResourceType.values()) {
         final File destinationFolder = computeDestinationFolder(resourceType);
-        final String groupWithExtension = group + "." + resourceType.name().toLowerCase();
-        processGroup(groupWithExtension, destinationFolder);
+        tasks.add(new GroupTask(group, resourceType, destinationFolder, config, aggregatedFolderPath, buildState,
+          settings));
       }
     }
+    final long start = System.nanoTime();
+    try {
+      if (parallelism > 1 && tasks.size() > 1) {
+        processInParallel(tasks);
+      } else {
+        for (final GroupTask task : tasks) {
+          task.call();
+        }
+      }
+    } finally {
+      if (buildState != null) {
+        buildState.save();
+      }
+    }
+    final long totalDuration = System.nanoTime() - start;
+    logReport(tasks, TimeUnit.NANOSECONDS.toMillis(totalDuration));
 
     writeGroupNameMap();
+    if (manifest != null) {
+      manifest.write(manifestFile);
+      getLog().info("Manifest written to: " + manifestFile);
+    }
+    if (prebuiltCache != null) {
+      prebuiltCache.write();
+      getLog().info("Prebuilt cache written to: " + prebuiltCacheDirectory);
+    }
+    if (report != null) {
+      report.setDuration(totalDuration);
+      report.write(reportFile);
+      getLog().info("Report written to: " + reportFile);
+    }
+  }
+
+
+  /**
+   * Processes the tasks on a bounded pool. Waits for all the tasks to complete, even if some of them fail.
+   *
+   * @throws MojoExecutionException
+   *           describing all the failed groups.
+   */
+  private void processInParallel(final List<GroupTask> tasks)
+    throws Exception {
+    // make sure the manager and the model are created only once, before being used concurrently
+    getManagerFactory().create().getModelFactory().create();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+    final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final GroupTask task : tasks) {
+        futures.add(executor.submit(new Callable<Void>() {
+          public Void call()
+            throws Exception {
+            try {
+              return task.call();
+            } finally {
+              Context.unset();
+            }
+          }
+        }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (final ExecutionException e) {
+          final Throwable cause = e.getCause() == null ? e : e.getCause();
+          getLog().error("Failed to process group: " + tasks.get(i).group, cause);
+          failures.put(tasks.get(i).group, cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    if (!failures.isEmpty()) {
+      throw new MojoExecutionException(failures.size() + " of " + tasks.size() + " groups failed: "
+        + failures.keySet(), failures.values().iterator().next());
+    }
+  }
+
+
+  /**
+   * Describes everything the output of all the units depends on, except the resources: the plugin configuration and
+   * the processors used.
+   *
+   * @return the settings or null if a processor cannot describe its configuration, in which case all the units are
+   *         processed.
+   */
+  private String computeSettings(final String aggregatedFolderPath)
+    throws Exception {
+    final WroManager manager = getManagerFactory().create();
+    final StringBuilder sb = new StringBuilder();
+    sb.append("version=").append(WroManager.class.getPackage().getImplementationVersion());
+    sb.append("\nmanagerFactory=").append(getManagerFactory().getClass().getName());
+    sb.append("\nminimize=").append(isMinimize());
+    sb.append("\nignoreMissingResources=").append(isIgnoreMissingResources());
+    sb.append("\naggregatedFolderPath=").append(aggregatedFolderPath);
+    for (final ResourcePreProcessor processor : manager.getProcessorsFactory().getPreProcessors()) {
+      if (!appendFingerprint(sb.append("\npreProcessor="), processor)) {
+        return null;
+      }
+    }
+    for (final ResourcePostProcessor processor : manager.getProcessorsFactory().getPostProcessors()) {
+      if (!appendFingerprint(sb.append("\npostProcessor="), processor)) {
+        return null;
+      }
+    }
+    final File extraConfigFile = getExtraConfigFile();
+    if (extraConfigFile != null && extraConfigFile.isFile()) {
+      sb.append("\nextraConfig=").append(FileUtils.readFileToString(extraConfigFile));
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * @return false if the processor cannot describe its configuration.
+   */
+  private boolean appendFingerprint(final StringBuilder sb, final Object processor) {
+    final String fingerprint = ProcessorsUtils.getFingerprint(processor);
+    if (fingerprint == null) {
+      getLog().info("The " + processor.getClass().getName()
+        + " processor cannot describe its configuration, all the groups are processed");
+      return false;
+    }
+    sb.append(fingerprint);
+    return true;
+  }
+
+
+  /**
+   * @return the fingerprint of the inputs of the unit or null if it cannot be computed, in which case the unit is
+   *         processed.
+   */
+  private String computeFingerprint(final GroupTask task) {
+    if (task.settings == null) {
+      return null;
+    }
+    try {
+      Context.set(Context.standaloneContext(), task.config);
+      final WroManager manager = getManagerFactory().create();
+      final List<Resource> resources = manager.getModelFactory().create().getGroupByName(
+        task.groupName).collectResourcesOfType(task.resourceType).getResources();
+      return inputFingerprinter.fingerprint(task.settings, resources);
+    } catch (final Exception e) {
+      getLog().debug("Cannot compute the fingerprint of " + task.group + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+
+  /**
+   * Logs the duration of each processed group, in the order of the groups.
+   */
+  private void logReport(final List<GroupTask> tasks, final long totalDuration) {
+    getLog().info("Processing report:");
+    int upToDate = 0;
+    for (final GroupTask task : tasks) {
+      if (task.upToDate) {
+        upToDate++;
+        getLog().info("  " + task.group + ": up to date");
+      } else {
+        getLog().info("  " + task.group + ": " + task.duration + "ms");
+      }
+    }
+    getLog().info("Processed " + (tasks.size() - upToDate) + " groups (" + upToDate + " up to date) in "
+      + totalDuration + "ms (parallelism: " + parallelism + ")");
   }
 
+
   private void writeGroupNameMap()
       throws Exception {
     if (groupNameMappingFile != null) {
       try {
         final FileOutputStream outputStream = new FileOutputStream(groupNameMappingFile);
-        groupNames.store(outputStream, "Mapping of defined group name to renamed group name");
+        try {
+          final Properties sortedGroupNames = new SortedProperties();
+          sortedGroupNames.putAll(groupNames);
+          sortedGroupNames.store(outputStream, "Mapping of defined group name to renamed group name");
+        } finally {
+          outputStream.close();
+        }
       } catch (final FileNotFoundException ex) {
         throw new MojoExecutionException("Unable to save group name mapping file", ex);
       }
     }
   }
 
+
   /**
-   * Encodes a version using some logic.
-   *
-   * @param group the name of the resource to encode.
-   * @param input the stream of the result content.
-   * @return the name of the resource with the version encoded.
+   * Processes a group of a single resource type, unless it is up to date, and records the time it took.
    */
-  private String rename(final String group, final InputStream input)
-    throws Exception {
-    try {
-      final String newName = getManagerFactory().create().getNamingStrategy().rename(group, input);
-      groupNames.setProperty(group, newName);
-      return newName;
-    } catch (final IOException e) {
-      throw new MojoExecutionException("Error occured during renaming", e);
+  private class GroupTask
+    implements Callable<Void> {
+    /**
+     * The name of the group with the extension of the resource type.
+     */
+    private final String group;
+    private final String groupName;
+    private final ResourceType resourceType;
+    private final File parentFolder;
+    private final WroConfiguration config;
+    private final String aggregatedFolderPath;
+    private final BuildState buildState;
+    private final String settings;
+    /**
+     * Collects the timings of the unit. Null if no report is written.
+     */
+    private final GroupReport groupReport;
+    private long duration;
+    private boolean upToDate;
+
+    GroupTask(final String groupName, final ResourceType resourceType, final File parentFolder,
+      final WroConfiguration config, final String aggregatedFolderPath, final BuildState buildState,
+      final String settings) {
+      this.group = groupName + "." + resourceType.name().toLowerCase();
+      this.groupName = groupName;
+      this.resourceType = resourceType;
+      this.parentFolder = parentFolder;
+      this.config = config;
+      this.aggregatedFolderPath = aggregatedFolderPath;
+      this.buildState = buildState;
+      this.settings = settings;
+      this.groupReport = report == null ? null : report.newGroupReport(group);
+    }
+
+    public Void call()
+      throws Exception {
+      final long start = System.nanoTime();
+      try {
+        final String fingerprint = buildState == null ? null : computeFingerprint(this);
+        if (buildState != null && buildState.isUpToDate(group, fingerprint, parentFolder)) {
+          getLog().info("group is up to date: " + group);
+          groupNames.setProperty(group, buildState.getOutputName(group));
+          upToDate = true;
+          if (groupReport != null) {
+            groupReport.setUpToDate(true);
+          }
+        } else {
+          if (buildState != null) {
+            buildState.remove(group);
+          }
+          final ProcessedGroup result = processGroup(this);
+          if (fingerprint != null) {
+            buildState.update(group, fingerprint, result.getName(), result.getFile() == null);
+          }
+        }
+        final File file = new File(parentFolder, groupNames.getProperty(group));
+        completeOutput(group, file, groupReport);
+        addToPrebuiltCache(this, file);
+      } finally {
+        final long nanos = System.nanoTime() - start;
+        duration = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (groupReport != null) {
+          groupReport.setDuration(nanos);
+        }
+      }
+      return null;
     }
   }
 
+  /**
+   * Writes the gzipped sibling of the file produced for a unit and describes it in the manifest and in the report, as
+   * configured. Applied also to the up to date units, thus the gzipped sibling is created if missing.
+   */
+  private void completeOutput(final String group, final File file, final GroupReport groupReport)
+    throws IOException {
+    final File gzipFile = gzip ? new GzipFileWriter(exhaustiveGzip).write(file) : null;
+    if (manifest != null && file.isFile()) {
+      manifest.add(group, file, gzipFile);
+    }
+    if (groupReport != null) {
+      groupReport.setOutput(file, gzipFile);
+    }
+  }
+
+  /**
+   * Stores the content of the file produced for a unit in the prebuilt cache, if configured. The fingerprint is computed
+   * in the same context used to process the unit, thus it matches the one computed by the runtime.
+   */
+  private void addToPrebuiltCache(final GroupTask task, final File file)
+    throws Exception {
+    if (prebuiltCache == null) {
+      return;
+    }
+    final CacheEntry entry = new CacheEntry(task.groupName, task.resourceType, isMinimize());
+    if (!file.isFile()) {
+      prebuiltCache.remove(entry);
+      return;
+    }
+    Context.set(Context.standaloneContext(), task.config);
+    Context.get().setAggregatedFolderPath(task.aggregatedFolderPath);
+    final WroManager manager = getManagerFactory().create();
+    final String fingerprint = PrebuiltCache.fingerprint(manager.getModelFactory().create(), inputFingerprinter,
+      manager.getProcessorsFactory(), entry);
+    if (fingerprint == null) {
+      getLog().debug("The processors of " + entry + " cannot be described, its content cannot be prebuilt");
+      prebuiltCache.remove(entry);
+      return;
+    }
+    prebuiltCache.add(entry, fingerprint, FileUtils.readFileToString(file, task.config.getEncoding()));
+  }
 
   /**
    * Computes the destination folder based on resource type.
@@ -187,59 +584,30 @@ public class Wro4jMojo extends AbstractWro4jMojo {
 
 
   /**
-   * Process a single group.
+   * Process a single group. The destination file is written only if its content changes.
+   *
+   * @return describes the destination file.
    */
-  private void processGroup(final String group, final File parentFoder)
+  private ProcessedGroup processGroup(final GroupTask task)
     throws Exception {
-    ByteArrayOutputStream resultOutputStream = null;
-    InputStream resultInputStream = null;
-    try {
-      getLog().info("processing group: " + group);
-
-      // mock request
-      final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
-      Mockito.when(request.getRequestURI()).thenReturn(group);
-      // mock response
-      final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
-      resultOutputStream = new ByteArrayOutputStream();
-      Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(resultOutputStream));
-
-      // init context
-      final WroConfiguration config = Context.get().getConfig();
-      Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
-
-      Context.get().setAggregatedFolderPath(computeAggregatedFolderPath());
-      // perform processing
-      getManagerFactory().create().process();
-      // encode version & write result to file
-      resultInputStream = new UnclosableBufferedInputStream(resultOutputStream.toByteArray());
-      final File destinationFile = new File(parentFoder, rename(group, resultInputStream));
-      destinationFile.createNewFile();
-      // allow the same stream to be read again
-      resultInputStream.reset();
-      getLog().debug("Created file: " + destinationFile.getName());
-
-      final OutputStream fos = new FileOutputStream(destinationFile);
-      // use reader to detect encoding
-      IOUtils.copy(resultInputStream, fos);
-      fos.close();
-      getLog().info("file size: " + destinationFile.getName() + " -> " + destinationFile.length() + " bytes");
-      // delete empty files
-      if (destinationFile.length() == 0) {
-        getLog().info("No content found for group: " + group);
-        destinationFile.delete();
-      } else {
-        getLog().info(
-          destinationFile.getAbsolutePath() + " (" + destinationFile.length() + " bytes" + ")");
-      }
-    } finally {
-      if (resultOutputStream != null) {
-        resultOutputStream.close();
-      }
-      if (resultInputStream != null) {
-        resultInputStream.close();
-      }
+    getLog().info("processing group: " + task.group);
+    // init context
+    Context.set(Context.standaloneContext(), task.config);
+    Context.get().setAggregatedFolderPath(task.aggregatedFolderPath);
+    Context.get().setGroupReport(task.groupReport);
+    // perform processing & write result to file
+    final ProcessedGroup result = getManagerFactory().create().writeGroup(task.groupName, task.resourceType,
+      isMinimize(), task.parentFolder);
+    groupNames.setProperty(task.group, result.getName());
+    getLog().info("file size: " + result.getName() + " -> " + result.getSize() + " bytes");
+    if (result.getFile() == null) {
+      getLog().info("No content found for group: " + task.group);
+    } else if (result.isChanged()) {
+      getLog().info(result.getFile().getAbsolutePath() + " (" + result.getSize() + " bytes" + ")");
+    } else {
+      getLog().info("Unchanged file: " + result.getFile().getAbsolutePath());
     }
+    return result;
   }
 
 
@@ -286,6 +654,46 @@ public class Wro4jMojo extends AbstractWro4jMojo {
   }
 
 
+  /**
+   * @param gzip the gzip to set
+   */
+  public void setGzip(final boolean gzip) {
+    this.gzip = gzip;
+  }
+
+
+  /**
+   * @param exhaustiveGzip the exhaustiveGzip to set
+   */
+  public void setExhaustiveGzip(final boolean exhaustiveGzip) {
+    this.exhaustiveGzip = exhaustiveGzip;
+  }
+
+
+  /**
+   * @param manifestFile the manifestFile to set
+   */
+  public void setManifestFile(final File manifestFile) {
+    this.manifestFile = manifestFile;
+  }
+
+
+  /**
+   * @param reportFile the reportFile to set
+   */
+  public void setReportFile(final File reportFile) {
+    this.reportFile = reportFile;
+  }
+
+
+  /**
+   * @param prebuiltCacheDirectory the prebuiltCacheDirectory to set
+   */
+  public void setPrebuiltCacheDirectory(final File prebuiltCacheDirectory) {
+    this.prebuiltCacheDirectory = prebuiltCacheDirectory;
+  }
+
+
   /**
    * @param cssDestinationFolder the cssDestinationFolder to set
    */
@@ -324,4 +732,28 @@ public class Wro4jMojo extends AbstractWro4jMojo {
   public void setGroupNameMappingFile(final String groupNameMappingFile) {
     this.groupNameMappingFile = groupNameMappingFile;
   }
+
+
+  /**
+   * @param parallelism the number of groups processed concurrently.
+   */
+  public void setParallelism(final int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+
+  /**
+   * @param incrementalBuild true if the groups whose inputs didn't change should not be processed again.
+   */
+  public void setIncrementalBuild(final boolean incrementalBuild) {
+    this.incrementalBuild = incrementalBuild;
+  }
+
+
+  /**
+   * @param buildStateFile the file where the state of the previous build is stored.
+   */
+  public void setBuildStateFile(final File buildStateFile) {
+    this.buildStateFile = buildStateFile;
+  }
 }
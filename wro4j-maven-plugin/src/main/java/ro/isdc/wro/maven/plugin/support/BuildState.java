@@ -0,0 +1,165 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.maven.plugin.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.util.SortedProperties;
+
+
+/**
+ * Holds the state of the previous build performed by the run mojo: for each processed unit (a group with the extension
+ * of the resource type), the fingerprint of everything the output depends on and the name of the produced file. It
+ * allows the mojo to skip the units whose inputs didn't change since the previous build.
+ * <p/>
+ * The state is stored as a properties file sorted by key. A missing, unreadable or outdated file is equivalent to an
+ * empty state, which means that all the units are processed.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public class BuildState {
+  private static final Logger LOG = LoggerFactory.getLogger(BuildState.class);
+  /**
+   * Must be changed when the format of the file or the way the fingerprints are computed changes.
+   */
+  private static final String FORMAT_VERSION = "1";
+  private static final String VERSION_KEY = "formatVersion";
+  private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+  private static final String OUTPUT_SUFFIX = ".output";
+  private static final String EMPTY_SUFFIX = ".empty";
+  private final File file;
+  private final Properties properties = new Properties();
+
+
+  /**
+   * @param file
+   *          where the state is stored. If the file exists, the state of the previous build is loaded from it.
+   */
+  public BuildState(final File file) {
+    Validate.notNull(file);
+    this.file = file;
+    load();
+  }
+
+
+  private void load() {
+    if (file.isFile()) {
+      try {
+        final InputStream input = new FileInputStream(file);
+        try {
+          properties.load(input);
+        } finally {
+          input.close();
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot read the build state from " + file + ". All groups will be processed.", e);
+        properties.clear();
+      }
+      if (!FORMAT_VERSION.equals(properties.getProperty(VERSION_KEY))) {
+        LOG.debug("Ignoring the build state with a different format: {}", file);
+        properties.clear();
+      }
+    }
+  }
+
+
+  /**
+   * @param unit
+   *          the name of the group with the extension of the resource type.
+   * @param fingerprint
+   *          of the current inputs of the unit.
+   * @param folder
+   *          where the output of the unit is written.
+   * @return true if the unit was processed by the previous build with the same fingerprint and its output is still
+   *         available.
+   */
+  public synchronized boolean isUpToDate(final String unit, final String fingerprint, final File folder) {
+    Validate.notNull(unit);
+    if (fingerprint == null || !fingerprint.equals(properties.getProperty(unit + FINGERPRINT_SUFFIX))) {
+      return false;
+    }
+    final String output = getOutputName(unit);
+    return output != null && (isEmpty(unit) || new File(folder, output).isFile());
+  }
+
+
+  /**
+   * @return the name of the file produced for the unit by the previous build.
+   */
+  public synchronized String getOutputName(final String unit) {
+    return properties.getProperty(unit + OUTPUT_SUFFIX);
+  }
+
+
+  /**
+   * @return true if the unit had no content, thus no file was produced for it.
+   */
+  private boolean isEmpty(final String unit) {
+    return Boolean.parseBoolean(properties.getProperty(unit + EMPTY_SUFFIX));
+  }
+
+
+  /**
+   * Records the result of processing a unit.
+   *
+   * @param fingerprint
+   *          of the processed inputs.
+   * @param outputName
+   *          the name of the produced file.
+   * @param empty
+   *          true if the unit had no content, thus no file was produced.
+   */
+  public synchronized void update(final String unit, final String fingerprint, final String outputName,
+    final boolean empty) {
+    Validate.notNull(unit);
+    Validate.notNull(fingerprint);
+    Validate.notNull(outputName);
+    properties.setProperty(unit + FINGERPRINT_SUFFIX, fingerprint);
+    properties.setProperty(unit + OUTPUT_SUFFIX, outputName);
+    properties.setProperty(unit + EMPTY_SUFFIX, String.valueOf(empty));
+  }
+
+
+  /**
+   * Forgets the unit, thus it will be processed by the next build.
+   */
+  public synchronized void remove(final String unit) {
+    properties.remove(unit + FINGERPRINT_SUFFIX);
+    properties.remove(unit + OUTPUT_SUFFIX);
+    properties.remove(unit + EMPTY_SUFFIX);
+  }
+
+
+  /**
+   * Stores the state in the file it was loaded from.
+   */
+  public synchronized void save()
+    throws IOException {
+    final Properties sorted = new SortedProperties();
+    sorted.putAll(properties);
+    sorted.setProperty(VERSION_KEY, FORMAT_VERSION);
+    final File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.isDirectory()) {
+      parent.mkdirs();
+    }
+    final OutputStream output = new FileOutputStream(file);
+    try {
+      sorted.store(output, "The state of the last wro4j build. Delete this file to force processing all the groups.");
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+  }
+}
@@ -7,6 +7,9 @@ import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.junit.Before;
@@ -95,6 +98,24 @@ public abstract class AbstractTestLinterMojo {
     mojo.execute();
   }
 
+  @Test
+  public void shouldStoreValidationResultsInLintCacheDirectory()
+    throws Exception {
+    final File cacheDirectory = new File(FileUtils.getTempDirectory(), "wroLintCache-" + System.currentTimeMillis());
+    try {
+      mojo.setLintCacheDirectory(cacheDirectory);
+      mojo.setFailNever(true);
+      mojo.setParallelism(4);
+      mojo.setTargetGroups("g1,g2,undef");
+      mojo.execute();
+      Assert.assertFalse(FileUtils.listFiles(cacheDirectory, new String[] {
+        "cache"
+      }, true).isEmpty());
+    } finally {
+      FileUtils.deleteQuietly(cacheDirectory);
+    }
+  }
+
   @Test
   public void shouldOverrideCustomProcessorsFactory()
     throws Exception {
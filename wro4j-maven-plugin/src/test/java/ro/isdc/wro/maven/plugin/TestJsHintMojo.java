@@ -5,7 +5,13 @@ package ro.isdc.wro.maven.plugin;
 
 import junit.framework.Assert;
 
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 import org.junit.Test;
+import org.mockito.Mockito;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 
 
 
@@ -59,6 +65,25 @@ public class TestJsHintMojo extends AbstractTestLinterMojo {
   }
 
 
+  @Test(expected = MojoExecutionException.class)
+  public void shouldFailWhenErrorsAreFoundInBackground()
+    throws Exception {
+    final AbstractSingleProcessorMojo mojo = new JsHintMojo() {
+      @Override
+      protected ResourcePreProcessor createResourceProcessor() {
+        Context.get().getConfig().setAsyncLinting(true);
+        return super.createResourceProcessor();
+      }
+    };
+    mojo.setWroFile(getMojo().getWroFile());
+    mojo.setContextFolder(getMojo().getContextFolder());
+    mojo.setIgnoreMissingResources(false);
+    mojo.setMavenProject(Mockito.mock(MavenProject.class));
+    mojo.setOptions("undef, browser");
+    mojo.setTargetGroups("undef");
+    mojo.execute();
+  }
+
   @Test
   public void testEmptyOptions()
     throws Exception {
@@ -12,11 +12,14 @@ import java.io.Writer;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import junit.framework.Assert;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.junit.After;
@@ -26,6 +29,7 @@ import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.cache.PrebuiltCache;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.manager.factory.standalone.DefaultStandaloneContextAwareManagerFactory;
 import ro.isdc.wro.maven.plugin.manager.factory.ConfigurableWroManagerFactory;
@@ -49,6 +53,7 @@ public class TestWro4jMojo {
   private File jsDestinationFolder;
   private File destinationFolder;
   private File extraConfigFile;
+  private File buildStateFile;
 
 
   @Before
@@ -67,6 +72,7 @@ public class TestWro4jMojo {
     destinationFolder.mkdir();
     extraConfigFile = new File(FileUtils.getTempDirectory(), "extraConfig-" + new Date().getTime());
     extraConfigFile.createNewFile();
+    buildStateFile = new File(FileUtils.getTempDirectory(), "wroBuildState-" + new Date().getTime());
     mojo.setBuildDirectory(destinationFolder);
     mojo.setExtraConfigFile(extraConfigFile);
     mojo.setDestinationFolder(destinationFolder);
@@ -314,9 +320,236 @@ public class TestWro4jMojo {
     FileUtils.deleteQuietly(groupNameMappingFile);
   }
 
+  /**
+   * @return the content of each file created in the destination folder, mapped by file name.
+   */
+  private Map<String, String> readDestinationFolder()
+    throws IOException {
+    final Map<String, String> files = new HashMap<String, String>();
+    for (final File file : destinationFolder.listFiles()) {
+      files.put(file.getName(), FileUtils.readFileToString(file));
+    }
+    return files;
+  }
+
+
+  @Test
+  public void shouldProduceSameOutputWhenProcessingInParallel()
+    throws Exception {
+    setWroWithValidResources();
+    mojo.setIgnoreMissingResources(true);
+    mojo.execute();
+    final Map<String, String> sequentialOutput = readDestinationFolder();
+    FileUtils.cleanDirectory(destinationFolder);
+
+    mojo.setParallelism(4);
+    mojo.execute();
+    Assert.assertFalse(sequentialOutput.isEmpty());
+    Assert.assertEquals(sequentialOutput, readDestinationFolder());
+  }
+
+
+  @Test
+  public void shouldReportAllFailedGroupsWhenProcessingInParallel()
+    throws Exception {
+    setWroWithInvalidResources();
+    mojo.setIgnoreMissingResources(false);
+    mojo.setParallelism(4);
+    try {
+      mojo.execute();
+      Assert.fail("Should have failed");
+    } catch (final MojoExecutionException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("g1.js"));
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("g2.js"));
+    }
+    // the valid group is still processed
+    Assert.assertTrue(new File(destinationFolder, "g3.js").exists());
+  }
+
+
+  @Test
+  public void shouldNotProcessUpToDateGroupsAgain()
+    throws Exception {
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.execute();
+    Assert.assertTrue(buildStateFile.exists());
+    final File output = new File(destinationFolder, "g1.js");
+    FileUtils.write(output, "notProcessedAgain");
+
+    mojo.execute();
+    Assert.assertEquals("notProcessedAgain", FileUtils.readFileToString(output));
+  }
+
+
+  @Test
+  public void shouldProcessAllGroupsWhenIncrementalBuildIsDisabled()
+    throws Exception {
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.execute();
+    final File output = new File(destinationFolder, "g1.js");
+    FileUtils.write(output, "processedAgain");
+
+    mojo.setIncrementalBuild(false);
+    mojo.execute();
+    Assert.assertFalse("processedAgain".equals(FileUtils.readFileToString(output)));
+  }
+
+
+  @Test
+  public void shouldProcessGroupAgainWhenOutputIsMissing()
+    throws Exception {
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.execute();
+    final File output = new File(destinationFolder, "g1.js");
+    final String content = FileUtils.readFileToString(output);
+    output.delete();
+
+    mojo.execute();
+    Assert.assertEquals(content, FileUtils.readFileToString(output));
+  }
+
+
+  /**
+   * Creates a new mojo for each build (as maven does), thus the content processed by a previous build is not cached.
+   */
+  private Wro4jMojo createIncrementalMojo(final File contextFolder) {
+    final Wro4jMojo mojo = new Wro4jMojo();
+    mojo.setMinimize(true);
+    mojo.setWroFile(new File(contextFolder, "wro.xml"));
+    mojo.setContextFolder(contextFolder);
+    mojo.setBuildDirectory(destinationFolder);
+    mojo.setExtraConfigFile(extraConfigFile);
+    mojo.setDestinationFolder(destinationFolder);
+    mojo.setMavenProject(Mockito.mock(MavenProject.class));
+    mojo.setBuildStateFile(buildStateFile);
+    return mojo;
+  }
+
+
+  @Test
+  public void shouldProcessGroupAgainWhenResourceChanges()
+    throws Exception {
+    final File contextFolder = new File(FileUtils.getTempDirectory(), "wroContext-" + new Date().getTime());
+    try {
+      FileUtils.write(new File(contextFolder, "wro.xml"), "<groups xmlns=\"http://www.isdc.ro/wro\"><group name=\"g\"><js>/a.js</js>"
+        + "<css>/a.css</css></group></groups>");
+      FileUtils.write(new File(contextFolder, "a.js"), "var first = 1;");
+      FileUtils.write(new File(contextFolder, "a.css"), "@import url(b.css);");
+      FileUtils.write(new File(contextFolder, "b.css"), ".first {color: red}");
+      createIncrementalMojo(contextFolder).execute();
+      Assert.assertTrue(FileUtils.readFileToString(new File(destinationFolder, "g.js")).contains("first"));
+      Assert.assertTrue(FileUtils.readFileToString(new File(destinationFolder, "g.css")).contains("first"));
+
+      FileUtils.write(new File(contextFolder, "a.js"), "var second = 2;");
+      FileUtils.write(new File(contextFolder, "b.css"), ".second {color: red}");
+      createIncrementalMojo(contextFolder).execute();
+      Assert.assertTrue(FileUtils.readFileToString(new File(destinationFolder, "g.js")).contains("second"));
+      Assert.assertTrue(FileUtils.readFileToString(new File(destinationFolder, "g.css")).contains("second"));
+    } finally {
+      FileUtils.deleteQuietly(contextFolder);
+    }
+  }
+
+
+  @Test
+  public void shouldAlwaysProcessGroupsWhenProcessorCannotDescribeItsConfiguration()
+    throws Exception {
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.setWroManagerFactory(ConfiguredProcessorWroManagerFactory.class.getName());
+    mojo.execute();
+    final File output = new File(destinationFolder, "g1.js");
+    Assert.assertTrue(FileUtils.readFileToString(output).endsWith(ConfiguredProcessor.SUFFIX));
+    FileUtils.write(output, "processedAgain");
+
+    mojo.execute();
+    Assert.assertTrue(FileUtils.readFileToString(output).endsWith(ConfiguredProcessor.SUFFIX));
+  }
+
+
+  @Test
+  public void shouldWriteGzippedSiblingsAndManifest()
+    throws Exception {
+    final File manifestFile = new File(destinationFolder, "manifest.json");
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.setGzip(true);
+    mojo.setManifestFile(manifestFile);
+    mojo.execute();
+    final File output = new File(destinationFolder, "g1.js");
+    final File gzipOutput = new File(destinationFolder, "g1.js.gz");
+    Assert.assertTrue(gzipOutput.isFile());
+    final String manifest = FileUtils.readFileToString(manifestFile);
+    Assert.assertTrue(manifest, manifest.contains("\"g1.js\": {\"file\": \"g1.js\", \"size\": " + output.length()));
+    Assert.assertTrue(manifest, manifest.contains("\"gzipFile\": \"g1.js.gz\", \"gzipSize\": " + gzipOutput.length()));
+
+    // the gzipped sibling of an up to date group is created if missing
+    gzipOutput.delete();
+    manifestFile.delete();
+    mojo.execute();
+    Assert.assertTrue(gzipOutput.isFile());
+    Assert.assertEquals(manifest, FileUtils.readFileToString(manifestFile));
+  }
+
+
+  @Test
+  public void shouldWritePerformanceReport()
+    throws Exception {
+    final File reportFile = new File(destinationFolder, "report.json");
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.setReportFile(reportFile);
+    mojo.execute();
+    final File output = new File(destinationFolder, "g1.css");
+    String report = FileUtils.readFileToString(reportFile);
+    Assert.assertTrue(report, report.startsWith("{\n  \"totalDuration\": "));
+    Assert.assertTrue(report, report.contains("{\"name\": \"g1.css\", \"duration\": "));
+    Assert.assertTrue(report, report.contains("\"upToDate\": false, \"size\": " + output.length() + ", \"gzipSize\": "));
+    Assert.assertTrue(report, report.contains("{\"uri\": \"classpath:ro/isdc/wro/maven/plugin/css/"));
+
+    mojo.execute();
+    report = FileUtils.readFileToString(reportFile);
+    Assert.assertTrue(report, report.contains("\"upToDate\": true, \"size\": " + output.length()));
+    Assert.assertFalse(report, report.contains("\"uri\": "));
+  }
+
+
+  @Test
+  public void shouldStoreProcessedGroupsInPrebuiltCache()
+    throws Exception {
+    final File prebuiltCacheDirectory = new File(destinationFolder, "wro4j-cache");
+    mojo.setIgnoreMissingResources(true);
+    mojo.setBuildStateFile(buildStateFile);
+    mojo.setPrebuiltCacheDirectory(prebuiltCacheDirectory);
+    mojo.execute();
+    final Properties index = new Properties();
+    final InputStream input = new FileInputStream(new File(prebuiltCacheDirectory, PrebuiltCache.INDEX_FILE));
+    try {
+      index.load(input);
+    } finally {
+      input.close();
+    }
+    final String key = index.getProperty("g1.js.minimized");
+    Assert.assertNotNull(index.toString(), key);
+    final File cacheFile = new File(prebuiltCacheDirectory, key + PrebuiltCache.FILE_EXTENSION);
+    Assert.assertEquals(FileUtils.readFileToString(new File(destinationFolder, "g1.js")),
+      FileUtils.readFileToString(cacheFile, "UTF-8"));
+
+    // the up to date groups are kept in the cache
+    mojo.execute();
+    Assert.assertTrue(cacheFile.isFile());
+    // a content file for each entry (the index holds also the format version) and the index itself
+    Assert.assertEquals(index.size(), prebuiltCacheDirectory.list().length);
+  }
+
+
   @After
   public void tearDown()
     throws Exception {
+    FileUtils.deleteQuietly(buildStateFile);
     FileUtils.deleteDirectory(destinationFolder);
     FileUtils.deleteDirectory(cssDestinationFolder);
     FileUtils.deleteDirectory(jsDestinationFolder);
@@ -345,6 +578,32 @@ public class TestWro4jMojo {
   }
 
 
+  /**
+   * A processor whose output depends on a field, thus it cannot describe its configuration.
+   */
+  private static final class ConfiguredProcessor
+    implements ResourcePostProcessor {
+    private static final String SUFFIX = "//configured";
+    private final String suffix = SUFFIX;
+
+    public void process(final Reader reader, final Writer writer)
+      throws IOException {
+      writer.write(IOUtils.toString(reader) + suffix);
+      writer.close();
+    }
+  }
+
+
+  public static final class ConfiguredProcessorWroManagerFactory extends DefaultStandaloneContextAwareManagerFactory {
+    @Override
+    protected ProcessorsFactory newProcessorsFactory() {
+      final SimpleProcessorsFactory factory = new SimpleProcessorsFactory();
+      factory.addPostProcessor(new ConfiguredProcessor());
+      return factory;
+    }
+  }
+
+
   public static final class CustomNamingStrategyWroManagerFactory
       extends DefaultStandaloneContextAwareManagerFactory {
     public static final String PREFIX = "renamed";
@@ -0,0 +1,92 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.runner;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * The state (last modification time and size) of the files found under a set of folders, used to detect the changed
+ * files by comparing two snapshots taken at different moments.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class FolderSnapshot {
+  /**
+   * Maps each file to its state.
+   */
+  private final Map<File, String> states = new HashMap<File, String>();
+  private final File excludedFolder;
+
+
+  /**
+   * @param roots
+   *          the folders or files to include in the snapshot.
+   * @param excludedFolder
+   *          a folder whose files are not included in the snapshot (ex: the destination folder). Can be null.
+   */
+  FolderSnapshot(final File[] roots, final File excludedFolder) {
+    Validate.notNull(roots);
+    this.excludedFolder = excludedFolder == null ? null : normalize(excludedFolder);
+    for (final File root : roots) {
+      add(normalize(root));
+    }
+  }
+
+
+  private void add(final File file) {
+    if (file.equals(excludedFolder)) {
+      return;
+    }
+    if (file.isDirectory()) {
+      final File[] children = file.listFiles();
+      if (children != null) {
+        for (final File child : children) {
+          add(child);
+        }
+      }
+    } else if (file.isFile()) {
+      states.put(file, file.lastModified() + ":" + file.length());
+    }
+  }
+
+
+  /**
+   * @return the absolute and normalized form of the file, used to compare files.
+   */
+  static File normalize(final File file) {
+    final String path = FilenameUtils.normalize(file.getAbsolutePath());
+    return path == null ? file.getAbsoluteFile() : new File(path);
+  }
+
+
+  /**
+   * @param previous
+   *          an older snapshot of the same folders.
+   * @return the files which were created, modified or deleted since the previous snapshot.
+   */
+  Set<File> getChangedFiles(final FolderSnapshot previous) {
+    Validate.notNull(previous);
+    final Set<File> changed = new HashSet<File>();
+    for (final Map.Entry<File, String> entry : states.entrySet()) {
+      if (!entry.getValue().equals(previous.states.get(entry.getKey()))) {
+        changed.add(entry.getKey());
+      }
+    }
+    for (final File file : previous.states.keySet()) {
+      if (!states.containsKey(file)) {
+        changed.add(file);
+      }
+    }
+    return changed;
+  }
+}
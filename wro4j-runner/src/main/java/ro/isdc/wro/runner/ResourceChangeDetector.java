@@ -0,0 +1,146 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
+
+
+/**
+ * Decides if a set of changed files affects the resources of a group. Only the context relative resources are
+ * considered. A resource is affected when its file changed, when a file matching its wildcard was created, modified or
+ * deleted, or (for css resources) when a file it imports, directly or indirectly, is affected.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class ResourceChangeDetector {
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceChangeDetector.class);
+  private static final String RECURSIVE_WILDCARD = "**";
+  private final File contextFolder;
+  private final String encoding;
+
+
+  /**
+   * @param contextFolder
+   *          the folder of the context relative resources.
+   * @param encoding
+   *          of the css resources.
+   */
+  ResourceChangeDetector(final File contextFolder, final String encoding) {
+    Validate.notNull(contextFolder);
+    Validate.notNull(encoding);
+    this.contextFolder = FolderSnapshot.normalize(contextFolder);
+    this.encoding = encoding;
+  }
+
+
+  /**
+   * @param resources
+   *          the resources of a group.
+   * @param changedFiles
+   *          normalized (see {@link FolderSnapshot#normalize(File)}) files which changed.
+   * @return true if any of the resources is affected by the changed files.
+   */
+  boolean isAffected(final Collection<Resource> resources, final Set<File> changedFiles) {
+    final Set<File> visited = new HashSet<File>();
+    for (final Resource resource : resources) {
+      if (isAffected(resource.getUri(), resource.getType(), changedFiles, visited)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  private boolean isAffected(final String uri, final ResourceType type, final Set<File> changedFiles,
+    final Set<File> visited) {
+    if (!uri.startsWith("/")) {
+      // only the context relative resources are watched
+      return false;
+    }
+    if (uri.contains("*") || uri.contains("?")) {
+      final File folder = toFile(FilenameUtils.getFullPath(uri));
+      final String pattern = FilenameUtils.getName(uri).replace(RECURSIVE_WILDCARD, "*");
+      final boolean recursive = uri.contains(RECURSIVE_WILDCARD);
+      for (final File file : changedFiles) {
+        if (isMember(file, folder, pattern, recursive)) {
+          return true;
+        }
+      }
+      if (type == ResourceType.CSS && folder.isDirectory()) {
+        for (final File member : FileUtils.listFiles(folder, null, recursive)) {
+          if (isMember(FolderSnapshot.normalize(member), folder, pattern, recursive)
+            && isAffected(FolderSnapshot.normalize(member), type, changedFiles, visited)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+    return isAffected(toFile(uri), type, changedFiles, visited);
+  }
+
+
+  private boolean isMember(final File file, final File folder, final String pattern, final boolean recursive) {
+    final File parent = file.getParentFile();
+    final boolean inFolder = recursive ? file.getPath().startsWith(folder.getPath() + File.separator)
+      : folder.equals(parent);
+    return inFolder && FilenameUtils.wildcardMatch(file.getName(), pattern);
+  }
+
+
+  private boolean isAffected(final File file, final ResourceType type, final Set<File> changedFiles,
+    final Set<File> visited) {
+    if (!visited.add(file)) {
+      return false;
+    }
+    if (changedFiles.contains(file)) {
+      return true;
+    }
+    final String uri = toUri(file);
+    if (type == ResourceType.CSS && uri != null && file.isFile()) {
+      try {
+        // the imports are resolved exactly like the processor does
+        for (final String importedUri : CssImportPreProcessor.findImportedUris(uri,
+          FileUtils.readFileToString(file, encoding))) {
+          if (isAffected(toFile(importedUri), type, changedFiles, visited)) {
+            return true;
+          }
+        }
+      } catch (final IOException e) {
+        LOG.debug("Cannot read the imports of {}: {}", file, e.getMessage());
+      }
+    }
+    return false;
+  }
+
+
+  private File toFile(final String uri) {
+    return FolderSnapshot.normalize(new File(contextFolder, uri));
+  }
+
+
+  /**
+   * @return the context relative uri of the file or null if the file is not inside the context folder.
+   */
+  private String toUri(final File file) {
+    final String prefix = contextFolder.getPath() + File.separator;
+    final String path = file.getPath();
+    return path.startsWith(prefix) ? "/" + FilenameUtils.separatorsToUnix(path.substring(prefix.length())) : null;
+  }
+}
@@ -5,33 +5,40 @@ package ro.isdc.wro.runner;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-
-import javax.servlet.FilterConfig;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
-import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.build.GzipFileWriter;
+import ro.isdc.wro.build.OutputManifest;
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.PrebuiltCache;
+import ro.isdc.wro.cache.PrebuiltCacheWriter;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.extensions.manager.ExtensionsConfigurableWroManagerFactory;
@@ -40,7 +47,10 @@ import ro.isdc.wro.extensions.processor.css.CssLintProcessor;
 import ro.isdc.wro.extensions.processor.js.JsHintProcessor;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
-import ro.isdc.wro.http.DelegatingServletOutputStream;
+import ro.isdc.wro.manager.BuildReport;
+import ro.isdc.wro.manager.GroupReport;
+import ro.isdc.wro.manager.ProcessedGroup;
+import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.manager.factory.WroManagerFactory;
 import ro.isdc.wro.manager.factory.standalone.DefaultStandaloneContextAwareManagerFactory;
 import ro.isdc.wro.manager.factory.standalone.StandaloneContext;
@@ -54,18 +64,30 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.factory.ConfigurableProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.io.UnclosableBufferedInputStream;
 
 
 /**
  * Default command line runner. Interprets arguments and perform a processing.
+ * <p/>
+ * A single manager (thus a single model, set of processors and script engines) is used for all the processed groups.
+ * When the parallel option is greater than 1, the groups are processed concurrently.
+ * <p/>
+ * In watch mode, the runner keeps running after the first processing and polls the context folder and the wro file for
+ * changes. Only the groups affected by the changed files are processed again (see {@link ResourceChangeDetector}), while
+ * a change of the model causes all the groups to be processed again.
+ * <p/>
+ * In daemon mode, the runner processes the build requests sent by {@link Wro4jDaemonClient} (see {@link Wro4jDaemon}).
  *
  * @author Alex Objelean
  * @since 1.3.4
  */
 public class Wro4jCommandLineRunner {
   private static final Logger LOG = LoggerFactory.getLogger(Wro4jCommandLineRunner.class);
-  private final File defaultWroFile = newDefaultWroFile();
+  /**
+   * The folder used to resolve the default and the relative paths.
+   */
+  private final File workingFolder;
+  private final File defaultWroFile;
 
   @Option(name = "-m", aliases = { "--minimize" }, usage = "Turns on the minimization by applying compressor")
   private boolean minimize;
@@ -74,13 +96,70 @@ public class Wro4jCommandLineRunner {
   @Option(name = "-i", aliases = { "--ignoreMissingResources" }, usage = "Ignores missing resources")
   private boolean ignoreMissingResources;
   @Option(name = "--wroFile", metaVar = "PATH_TO_WRO_XML", usage = "The path to the wro model file. By default the model is searched inse the user current folder.")
-  private final File wroFile = defaultWroFile;
+  private File wroFile;
   @Option(name = "--contextFolder", metaVar = "PATH", usage = "Folder used as a root of the context relative resources. By default this is the user current folder.")
-  private final File contextFolder = new File(System.getProperty("user.dir"));
+  private File contextFolder;
   @Option(name = "--destinationFolder", metaVar = "PATH", usage = "Where to store the processed result. By default uses the folder named [wro].")
-  private final File destinationFolder = new File(System.getProperty("user.dir"), "wro");
+  private File destinationFolder;
   @Option(name = "-c", aliases = { "--compressor", "--preProcessors" }, metaVar = "COMPRESSOR", usage = "Comma separated list of processors")
   private String processorsList;
+  @Option(name = "--processorCacheDirectory", metaVar = "PATH", usage = "Folder where the output of less, sass and coffeeScript processors is cached between runs.")
+  private File processorCacheDirectory;
+  @Option(name = "--parallel", metaVar = "N", usage = "The number of groups processed concurrently. By default the groups are processed sequentially.")
+  private int parallel = 1;
+  @Option(name = "--gzip", usage = "Creates a gzipped sibling (with the .gz extension) of each written file, using the highest compression level.")
+  private boolean gzip;
+  @Option(name = "--exhaustiveGzip", usage = "Compresses with the filtered strategy too (besides the default one) and keeps the smaller gzipped content. Used only with the gzip option.")
+  private boolean exhaustiveGzip;
+  @Option(name = "--manifestFile", metaVar = "PATH", usage = "The file where the JSON manifest of the written files (name, size, hash and gzipped size of each group) is stored.")
+  private File manifestFile;
+  @Option(name = "--reportFile", metaVar = "PATH", usage = "The file where the JSON performance report of the build (time spent by each processor, locate time, sizes and cache hits of each group and resource) is stored.")
+  private File reportFile;
+  @Option(name = "--prebuiltCacheDirectory", metaVar = "PATH", usage = "The folder where the content of the groups is stored for the runtime configured with the prebuiltCacheLocation, which serves it without processing.")
+  private File prebuiltCacheDirectory;
+  @Option(name = "--watch", usage = "Keeps running and processes again the groups affected by the changes of the context folder or of the wro file.")
+  private boolean watch;
+  @Option(name = "--watchInterval", metaVar = "MILLIS", usage = "How often (ms) the changes are checked in watch mode. By default 500.")
+  private long watchInterval = 500;
+  @Option(name = "--daemon", usage = "Keeps running and processes the build requests sent by the daemon client, reusing the warmed up manager of the previous builds with the same options.")
+  private boolean daemon;
+  @Option(name = "--daemonPort", metaVar = "PORT", usage = "The local port where the daemon accepts build requests. By default 7777.")
+  private int daemonPort = Wro4jDaemonClient.DEFAULT_PORT;
+  /**
+   * Created once and reused for all the processed groups.
+   */
+  private StandaloneContextAwareManagerFactory managerFactory;
+  /**
+   * The configuration shared by all the processed groups.
+   */
+  private WroConfiguration config;
+  /**
+   * Describes the files written since the runner started. Null if no manifest file is configured.
+   */
+  private OutputManifest manifest;
+  /**
+   * Stores the content of the groups processed since the runner started. Null if no prebuilt cache directory is
+   * configured.
+   */
+  private PrebuiltCacheWriter prebuiltCache;
+
+
+  public Wro4jCommandLineRunner() {
+    this(new File(System.getProperty("user.dir")));
+  }
+
+
+  /**
+   * @param workingFolder
+   *          the folder used to resolve the default and the relative paths.
+   */
+  Wro4jCommandLineRunner(final File workingFolder) {
+    this.workingFolder = workingFolder;
+    defaultWroFile = newDefaultWroFile();
+    wroFile = defaultWroFile;
+    contextFolder = workingFolder;
+    destinationFolder = new File(workingFolder, "wro");
+  }
 
 
   public static void main(final String[] args)
@@ -92,7 +171,7 @@ public class Wro4jCommandLineRunner {
    * @return the location where wro file is located by default. Default implementation uses current directory where user is located.
    */
   protected File newDefaultWroFile() {
-    return new File(System.getProperty("user.dir"), "wro.xml");
+    return new File(workingFolder, "wro.xml");
   }
 
   /**
@@ -118,7 +197,16 @@ public class Wro4jCommandLineRunner {
     try {
       parser.parseArgument(args);
       LOG.debug("Options: {}", this);
-      process();
+      if (daemon) {
+        new Wro4jDaemon(daemonPort).run();
+      } else {
+        // taken before processing, thus the changes made meanwhile are not missed
+        final FolderSnapshot snapshot = this.watch ? takeSnapshot() : null;
+        process();
+        if (this.watch) {
+          watchForChanges(snapshot);
+        }
+      }
     } catch (final Exception e) {
       System.err.println(e.getMessage() + "\n\n");
       System.err.println("=======================================");
@@ -145,21 +233,402 @@ public class Wro4jCommandLineRunner {
 
   private void process() {
     try {
-      Context.set(Context.standaloneContext());
-      // create destinationFolder if needed
-      if (!destinationFolder.exists()) {
-        destinationFolder.mkdirs();
+      processGroups();
+    } catch (final IOException e) {
+      System.err.println(e.getMessage());
+    }
+  }
+
+
+  /**
+   * Processes all the target groups.
+   *
+   * @return the lines of the processing report.
+   */
+  List<String> processGroups()
+    throws IOException {
+    config = createConfiguration();
+    Context.set(Context.standaloneContext(), config);
+    // create destinationFolder if needed
+    if (!destinationFolder.exists()) {
+      destinationFolder.mkdirs();
+    }
+    final String aggregatedFolderPath = computeAggregatedFolderPath();
+    final List<GroupTask> tasks = new ArrayList<GroupTask>();
+    for (final String group : getTargetGroupsAsList()) {
+      for (final ResourceType resourceType : ResourceType.values()) {
+        tasks.add(new GroupTask(group, resourceType, aggregatedFolderPath));
       }
-      final Collection<String> groupsAsList = getTargetGroupsAsList();
-      for (final String group : groupsAsList) {
-        for (final ResourceType resourceType : ResourceType.values()) {
-          final String groupWithExtension = group + "." + resourceType.name().toLowerCase();
-          processGroup(groupWithExtension, destinationFolder);
+    }
+    return processTasks(tasks);
+  }
+
+
+  /**
+   * Parses the arguments of a build request and resolves the relative paths against the working folder.
+   */
+  void parseArguments(final String[] args)
+    throws CmdLineException {
+    new CmdLineParser(this).parseArgument(args);
+    wroFile = resolve(wroFile);
+    contextFolder = resolve(contextFolder);
+    destinationFolder = resolve(destinationFolder);
+    if (processorCacheDirectory != null) {
+      processorCacheDirectory = resolve(processorCacheDirectory);
+    }
+    if (manifestFile != null) {
+      manifestFile = resolve(manifestFile);
+    }
+    if (reportFile != null) {
+      reportFile = resolve(reportFile);
+    }
+    if (prebuiltCacheDirectory != null) {
+      prebuiltCacheDirectory = resolve(prebuiltCacheDirectory);
+    }
+  }
+
+
+  private File resolve(final File file) {
+    return file.isAbsolute() ? file : new File(workingFolder, file.getPath());
+  }
+
+
+  /**
+   * @return a key identifying the options the manager depends on. Two runners with the same key can use the same
+   *         manager.
+   */
+  String getManagerKey() {
+    return Arrays.asList(wroFile.getAbsolutePath(), isAutoDetectWroFile(), contextFolder.getAbsolutePath(),
+      processorsList, minimize, ignoreMissingResources).toString();
+  }
+
+
+  /**
+   * Uses the manager of a previous build instead of creating a new one. The cached content and the model are dropped,
+   * because the resources could have changed since the previous build.
+   */
+  void reuseManagerFactory(final StandaloneContextAwareManagerFactory managerFactory) {
+    Validate.notNull(managerFactory);
+    final WroManager manager = managerFactory.create();
+    manager.getCacheStrategy().clear();
+    manager.getModelFactory().destroy();
+    this.managerFactory = managerFactory;
+  }
+
+
+  /**
+   * @return the lines of the processing report.
+   */
+  private List<String> processTasks(final List<GroupTask> tasks)
+    throws IOException {
+    final BuildReport buildReport = reportFile == null ? null : new BuildReport();
+    if (buildReport != null) {
+      for (final GroupTask task : tasks) {
+        task.groupReport = buildReport.newGroupReport(task.getName());
+      }
+    }
+    final long start = System.nanoTime();
+    if (parallel > 1 && tasks.size() > 1) {
+      processInParallel(tasks);
+    } else {
+      for (final GroupTask task : tasks) {
+        task.call();
+      }
+    }
+    final long totalDuration = System.nanoTime() - start;
+    if (manifestFile != null) {
+      getManifest().write(manifestFile);
+    }
+    if (prebuiltCacheDirectory != null) {
+      getPrebuiltCache().write();
+    }
+    if (buildReport != null) {
+      buildReport.setDuration(totalDuration);
+      buildReport.write(reportFile);
+    }
+    final List<String> report = createReport(tasks, TimeUnit.NANOSECONDS.toMillis(totalDuration));
+    for (final String line : report) {
+      LOG.info(line);
+    }
+    return report;
+  }
+
+
+  /**
+   * Polls the context folder and the wro file until the thread is interrupted and processes again the groups affected
+   * by the changes.
+   *
+   * @param initialSnapshot
+   *          the state of the files used by the first processing.
+   */
+  private void watchForChanges(final FolderSnapshot initialSnapshot) {
+    LOG.info("Watching {} and {} for changes...", contextFolder, wroFile);
+    FolderSnapshot snapshot = initialSnapshot;
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(watchInterval);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      final FolderSnapshot current = takeSnapshot();
+      final Set<File> changedFiles = current.getChangedFiles(snapshot);
+      snapshot = current;
+      if (!changedFiles.isEmpty()) {
+        LOG.info("Changed files: {}", changedFiles);
+        try {
+          onChange(changedFiles);
+        } catch (final Exception e) {
+          // keep watching, the next change may fix the problem
+          LOG.error("Failed to process the changes", e);
         }
       }
-    } catch (final IOException e) {
-      System.err.println(e.getMessage());
     }
+    LOG.info("Stopped watching for changes");
+  }
+
+
+  private FolderSnapshot takeSnapshot() {
+    return new FolderSnapshot(new File[] {
+      contextFolder, wroFile
+    }, destinationFolder);
+  }
+
+
+  /**
+   * Processes the groups affected by the changed files.
+   */
+  private void onChange(final Set<File> changedFiles)
+    throws IOException {
+    Context.set(Context.standaloneContext(), config);
+    final WroManager manager = getManagerFactory().create();
+    final boolean modelChanged = isModelChanged(changedFiles);
+    if (modelChanged) {
+      LOG.info("The model changed, all the groups will be processed");
+      manager.getModelFactory().destroy();
+    }
+    // the processed content of the affected groups must not be served from the cache
+    manager.getCacheStrategy().clear();
+    final WroModel model = manager.getModelFactory().create();
+    final ResourceChangeDetector detector = new ResourceChangeDetector(contextFolder, config.getEncoding());
+    final String aggregatedFolderPath = computeAggregatedFolderPath();
+    final List<GroupTask> tasks = new ArrayList<GroupTask>();
+    for (final String group : getTargetGroupsAsList()) {
+      for (final ResourceType resourceType : ResourceType.values()) {
+        if (modelChanged
+          || detector.isAffected(model.getGroupByName(group).collectResourcesOfType(resourceType).getResources(),
+            changedFiles)) {
+          tasks.add(new GroupTask(group, resourceType, aggregatedFolderPath));
+        }
+      }
+    }
+    if (tasks.isEmpty()) {
+      LOG.info("No group is affected by the changes");
+    } else {
+      processTasks(tasks);
+    }
+  }
+
+
+  /**
+   * @return true if the changed files contain the wro file or an alternative model file (ex: wro.groovy) from the same
+   *         folder.
+   */
+  private boolean isModelChanged(final Set<File> changedFiles) {
+    final File modelFile = FolderSnapshot.normalize(wroFile);
+    for (final File file : changedFiles) {
+      if (file.getParentFile().equals(modelFile.getParentFile())
+        && FilenameUtils.getBaseName(file.getName()).equals(FilenameUtils.getBaseName(modelFile.getName()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  private WroConfiguration createConfiguration() {
+    final WroConfiguration config = new WroConfiguration();
+    config.setParallelPreprocessing(true);
+    if (processorCacheDirectory != null) {
+      config.setProcessorCacheDirectory(processorCacheDirectory.getAbsolutePath());
+    }
+    return config;
+  }
+
+
+  /**
+   * Processes the tasks on a bounded pool. Waits for all the tasks to complete, even if some of them fail.
+   *
+   * @throws WroRuntimeException
+   *           describing all the failed groups.
+   */
+  private void processInParallel(final List<GroupTask> tasks) {
+    // make sure the manager and the model are created only once, before being used concurrently
+    getManagerFactory().create().getModelFactory().create();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallel, tasks.size()));
+    final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final GroupTask task : tasks) {
+        futures.add(executor.submit(new Callable<Void>() {
+          public Void call()
+            throws Exception {
+            try {
+              return task.call();
+            } finally {
+              Context.unset();
+            }
+          }
+        }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (final ExecutionException e) {
+          final Throwable cause = e.getCause() == null ? e : e.getCause();
+          LOG.error("Failed to process group: " + tasks.get(i).getName(), cause);
+          failures.put(tasks.get(i).getName(), cause);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new WroRuntimeException("Interrupted while processing the groups", e);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    if (!failures.isEmpty()) {
+      throw new WroRuntimeException(failures.size() + " of " + tasks.size() + " groups failed: " + failures.keySet(),
+        failures.values().iterator().next());
+    }
+  }
+
+
+  /**
+   * Describes the duration and the output of each processed group, in the order of the groups.
+   */
+  private List<String> createReport(final List<GroupTask> tasks, final long totalDuration) {
+    final List<String> report = new ArrayList<String>();
+    report.add("Processing report:");
+    for (final GroupTask task : tasks) {
+      String line = "  " + task.getName() + ": " + task.duration + "ms";
+      if (task.result != null && task.result.getFile() != null) {
+        line += " -> " + task.result.getFile().getAbsolutePath() + " (" + task.result.getSize() + "bytes)";
+      }
+      report.add(line);
+    }
+    report.add("Processed " + tasks.size() + " groups in " + totalDuration + "ms (parallel: " + parallel + ")");
+    return report;
+  }
+
+
+  /**
+   * Processes a group of a single resource type and records the time it took.
+   */
+  private class GroupTask
+    implements Callable<Void> {
+    private final String group;
+    private final ResourceType resourceType;
+    private final String aggregatedFolderPath;
+    private long duration;
+    private ProcessedGroup result;
+    /**
+     * Collects the timings of the group. Null if no report is written.
+     */
+    private GroupReport groupReport;
+
+    GroupTask(final String group, final ResourceType resourceType, final String aggregatedFolderPath) {
+      this.group = group;
+      this.resourceType = resourceType;
+      this.aggregatedFolderPath = aggregatedFolderPath;
+    }
+
+    /**
+     * @return the name of the group with the extension of the resource type.
+     */
+    String getName() {
+      return group + "." + resourceType.name().toLowerCase();
+    }
+
+    public Void call()
+      throws IOException {
+      final long start = System.nanoTime();
+      try {
+        result = processGroup(group, resourceType, aggregatedFolderPath, destinationFolder, groupReport);
+        final File file = new File(destinationFolder, result.getName());
+        completeOutput(getName(), file, groupReport);
+        addToPrebuiltCache(group, resourceType, file);
+      } finally {
+        final long nanos = System.nanoTime() - start;
+        duration = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (groupReport != null) {
+          groupReport.setDuration(nanos);
+        }
+      }
+      return null;
+    }
+  }
+
+
+  /**
+   * Writes the gzipped sibling of the file produced for a group and describes it in the manifest and in the report, as
+   * configured.
+   */
+  private void completeOutput(final String group, final File file, final GroupReport groupReport)
+    throws IOException {
+    final File gzipFile = gzip ? new GzipFileWriter(exhaustiveGzip).write(file) : null;
+    if (manifestFile != null) {
+      if (file.isFile()) {
+        getManifest().add(group, file, gzipFile);
+      } else {
+        getManifest().remove(group);
+      }
+    }
+    if (groupReport != null) {
+      groupReport.setOutput(file, gzipFile);
+    }
+  }
+
+
+  private synchronized OutputManifest getManifest() {
+    if (manifest == null) {
+      manifest = new OutputManifest();
+    }
+    return manifest;
+  }
+
+
+  /**
+   * Stores the content of the file produced for a group in the prebuilt cache, if configured. Must be invoked in the
+   * context used to process the group, thus the fingerprint matches the one computed by the runtime.
+   */
+  private void addToPrebuiltCache(final String group, final ResourceType resourceType, final File file)
+    throws IOException {
+    if (prebuiltCacheDirectory == null) {
+      return;
+    }
+    final CacheEntry entry = new CacheEntry(group, resourceType, minimize);
+    final String fingerprint;
+    if (file.isFile()) {
+      final WroManager manager = getManagerFactory().create();
+      fingerprint = PrebuiltCache.fingerprint(manager.getModelFactory().create(), manager.getUriLocatorFactory(),
+        manager.getProcessorsFactory(), entry);
+    } else {
+      fingerprint = null;
+    }
+    if (fingerprint != null) {
+      getPrebuiltCache().add(entry, fingerprint, FileUtils.readFileToString(file, config.getEncoding()));
+    } else {
+      // no content or the processors cannot be described
+      getPrebuiltCache().remove(entry);
+    }
+  }
+
+
+  private synchronized PrebuiltCacheWriter getPrebuiltCache() {
+    if (prebuiltCache == null) {
+      prebuiltCache = new PrebuiltCacheWriter(prebuiltCacheDirectory);
+    }
+    return prebuiltCache;
   }
 
 
@@ -178,59 +647,29 @@ public class Wro4jCommandLineRunner {
   /**
    * Process a single group.
    *
+   * @param groupReport collects the timings of the group, can be null.
+   * @return the written group.
    * @throws IOException if any IO related exception occurs.
    */
-  private void processGroup(final String group, final File parentFoder)
+  private ProcessedGroup processGroup(final String group, final ResourceType resourceType, final String aggregatedFolderPath,
+    final File parentFoder, final GroupReport groupReport)
     throws IOException {
-    ByteArrayOutputStream resultOutputStream = null;
-    InputStream resultInputStream = null;
-    try {
-      LOG.info("processing group: " + group);
-
-      // mock request
-      final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
-      Mockito.when(request.getRequestURI()).thenReturn(group);
-      // mock response
-      final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
-      resultOutputStream = new ByteArrayOutputStream();
-      Mockito.when(response.getOutputStream()).thenReturn(new DelegatingServletOutputStream(resultOutputStream));
-
-      // init context
-      final WroConfiguration config = new WroConfiguration();
-      config.setParallelPreprocessing(true);
-      Context.set(Context.webContext(request, response, Mockito.mock(FilterConfig.class)), config);
-
-      Context.get().setAggregatedFolderPath(computeAggregatedFolderPath());
-      // perform processing
-      getManagerFactory().create().process();
-      // encode version & write result to file
-      resultInputStream = new UnclosableBufferedInputStream(resultOutputStream.toByteArray());
-      final File destinationFile = new File(parentFoder, rename(group, resultInputStream));
-      destinationFile.createNewFile();
-      // allow the same stream to be read again
-      resultInputStream.reset();
-      LOG.debug("Created file: {}", destinationFile.getName());
-
-      final OutputStream fos = new FileOutputStream(destinationFile);
-      // use reader to detect encoding
-      IOUtils.copy(resultInputStream, fos);
-      fos.close();
-      LOG.info("file size: {} -> {}bytes", destinationFile.getName(), destinationFile.length());
-      // delete empty files
-      if (destinationFile.length() == 0) {
-        LOG.info("No content found for group: {}", group);
-        destinationFile.delete();
-      } else {
-        LOG.info("{} ({}bytes) has been created!", destinationFile.getAbsolutePath(), destinationFile.length());
-      }
-    } finally {
-      if (resultOutputStream != null) {
-        resultOutputStream.close();
-      }
-      if (resultInputStream != null) {
-        resultInputStream.close();
-      }
+    final String groupWithExtension = group + "." + resourceType.name().toLowerCase();
+    LOG.info("processing group: " + groupWithExtension);
+
+    // init context
+    Context.set(Context.standaloneContext(), config);
+    Context.get().setAggregatedFolderPath(aggregatedFolderPath);
+    Context.get().setGroupReport(groupReport);
+    // perform processing & write result to file
+    final ProcessedGroup result = getManagerFactory().create().writeGroup(group, resourceType, minimize, parentFoder);
+    LOG.info("file size: {} -> {}bytes", result.getName(), result.getSize());
+    if (result.getFile() == null) {
+      LOG.info("No content found for group: {}", groupWithExtension);
+    } else {
+      LOG.info("{} ({}bytes) has been created!", result.getFile().getAbsolutePath(), result.getSize());
     }
+    return result;
   }
 
   /**
@@ -255,25 +694,20 @@ public class Wro4jCommandLineRunner {
 
 
   /**
-   * Encodes a version using some logic.
+   * This method will ensure that you have a right and initialized instance of
+   * {@link StandaloneContextAwareManagerFactory}. The instance is created only once.
    *
-   * @param group the name of the resource to encode.
-   * @param input the stream of the result content.
-   * @return the name of the resource with the version encoded.
+   * @return {@link WroManagerFactory} implementation.
    */
-  private String rename(final String group, final InputStream input)
-    throws IOException {
-    return getManagerFactory().create().getNamingStrategy().rename(group, input);
+  synchronized StandaloneContextAwareManagerFactory getManagerFactory() {
+    if (managerFactory == null) {
+      managerFactory = newManagerFactory();
+    }
+    return managerFactory;
   }
 
 
-  /**
-   * This method will ensure that you have a right and initialized instance of
-   * {@link StandaloneContextAwareManagerFactory}.
-   *
-   * @return {@link WroManagerFactory} implementation.
-   */
-  private StandaloneContextAwareManagerFactory getManagerFactory() {
+  private StandaloneContextAwareManagerFactory newManagerFactory() {
     final StandaloneContextAwareManagerFactory managerFactory = new DefaultStandaloneContextAwareManagerFactory() {
       @Override
       protected ProcessorsFactory newProcessorsFactory() {
@@ -287,9 +721,7 @@ public class Wro4jCommandLineRunner {
 
       @Override
       protected WroModelFactory newModelFactory() {
-        //autodetect if user didn't specify explicitly the wro file path (aka default is used).
-        final boolean autoDetectWroFile = defaultWroFile.getPath().equals(wroFile.getPath());
-        return new SmartWroModelFactory().setWroFile(wroFile).setAutoDetectWroFile(autoDetectWroFile);
+        return new SmartWroModelFactory().setWroFile(wroFile).setAutoDetectWroFile(isAutoDetectWroFile());
       }
     };
     // initialize before process.
@@ -298,6 +730,14 @@ public class Wro4jCommandLineRunner {
   }
 
 
+  /**
+   * @return true if the user didn't specify explicitly the wro file path (aka default is used).
+   */
+  private boolean isAutoDetectWroFile() {
+    return defaultWroFile.getPath().equals(wroFile.getPath());
+  }
+
+
   /**
    * Creates a {@link StandaloneContext} by setting properties passed after mojo is initialized.
    */
@@ -0,0 +1,251 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.manager.factory.standalone.StandaloneContextAwareManagerFactory;
+
+
+/**
+ * Keeps the managers (thus the models, the processors and their script engines) of the processed builds resident and
+ * processes the build requests sent by {@link Wro4jDaemonClient} on a local port. A request using the same options as a
+ * previous one reuses its warmed up manager, thus the repeated builds don't pay the startup cost of the processors.
+ * <p/>
+ * The requests are processed one at a time. Only the local connections are accepted and each request must start with
+ * the token the daemon writes, when started, to a file readable only by its owner (see
+ * {@link Wro4jDaemonClient#getTokenFile(int)}), thus only the user running the daemon can send requests. The protocol
+ * is line based (UTF-8):
+ * <ul>
+ * <li>request: the token, the working folder of the client, followed by one line for each argument of the runner and
+ * an empty line.</li>
+ * <li>response: the lines of the processing report, followed by {@link #OK} or {@link #FAILED}.</li>
+ * </ul>
+ * At most {@link #MAX_MANAGERS} managers are kept, the least recently used is destroyed when exceeded.
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+final class Wro4jDaemon {
+  private static final Logger LOG = LoggerFactory.getLogger(Wro4jDaemon.class);
+  static final String ENCODING = "UTF-8";
+  static final String OK = "OK";
+  static final String FAILED = "FAILED";
+  /**
+   * How often (ms) the daemon checks if it was interrupted while waiting for requests.
+   */
+  private static final int ACCEPT_TIMEOUT = 500;
+  /**
+   * How long (ms) the daemon waits for the lines of a request.
+   */
+  private static final int READ_TIMEOUT = 30000;
+  /**
+   * The maximum number of managers kept resident.
+   */
+  static final int MAX_MANAGERS = 5;
+  private final int port;
+  private String token;
+  /**
+   * The managers of the previous builds, mapped by the options they depend on, in access order.
+   */
+  private final Map<String, StandaloneContextAwareManagerFactory> managerFactories = new LinkedHashMap<String, StandaloneContextAwareManagerFactory>(
+    16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, StandaloneContextAwareManagerFactory> eldest) {
+      if (size() > MAX_MANAGERS) {
+        LOG.debug("Destroying the least recently used manager");
+        destroy(eldest.getValue());
+        return true;
+      }
+      return false;
+    }
+  };
+
+
+  /**
+   * @param port
+   *          the local port where the build requests are accepted.
+   */
+  Wro4jDaemon(final int port) {
+    this.port = port;
+  }
+
+
+  /**
+   * Processes the build requests until the thread is interrupted.
+   */
+  void run()
+    throws IOException {
+    // written before accepting connections, thus a connected client finds the token
+    final File tokenFile = writeToken();
+    // accept only local connections
+    final ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getByName(null));
+    try {
+      serverSocket.setSoTimeout(ACCEPT_TIMEOUT);
+      LOG.info("Waiting for build requests on port {}", port);
+      while (!Thread.currentThread().isInterrupted()) {
+        final Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch (final SocketTimeoutException e) {
+          continue;
+        }
+        try {
+          socket.setSoTimeout(READ_TIMEOUT);
+          handle(socket);
+        } catch (final Throwable e) {
+          // the daemon must survive any failed request
+          LOG.error("Failed to handle the build request", e);
+        } finally {
+          IOUtils.closeQuietly(socket);
+        }
+      }
+    } finally {
+      serverSocket.close();
+      FileUtils.deleteQuietly(tokenFile);
+      for (final StandaloneContextAwareManagerFactory managerFactory : managerFactories.values()) {
+        destroy(managerFactory);
+      }
+      managerFactories.clear();
+    }
+    LOG.info("Daemon stopped");
+  }
+
+
+  /**
+   * Generates a new token and writes it to a file readable only by the owner.
+   *
+   * @return the file holding the token.
+   */
+  private File writeToken()
+    throws IOException {
+    final byte[] bytes = new byte[20];
+    new SecureRandom().nextBytes(bytes);
+    token = new BigInteger(1, bytes).toString(16);
+    final File tokenFile = Wro4jDaemonClient.getTokenFile(port);
+    final File folder = tokenFile.getParentFile();
+    if (!folder.isDirectory()) {
+      FileUtils.forceMkdir(folder);
+      restrictToOwner(folder);
+      folder.setExecutable(true, true);
+    }
+    // the permissions are changed before writing the token
+    FileUtils.deleteQuietly(tokenFile);
+    if (!tokenFile.createNewFile()) {
+      throw new IOException("Cannot create the token file: " + tokenFile);
+    }
+    if (!restrictToOwner(tokenFile)) {
+      LOG.warn("Cannot restrict the access to the token file {} to its owner", tokenFile);
+    }
+    FileUtils.writeStringToFile(tokenFile, token, ENCODING);
+    return tokenFile;
+  }
+
+
+  /**
+   * @return true if the file can be read and written only by its owner.
+   */
+  private boolean restrictToOwner(final File file) {
+    return file.setReadable(false, false) && file.setWritable(false, false) && file.setExecutable(false, false)
+      && file.setReadable(true, true) && file.setWritable(true, true);
+  }
+
+
+  private void destroy(final StandaloneContextAwareManagerFactory managerFactory) {
+    try {
+      managerFactory.destroy();
+    } catch (final RuntimeException e) {
+      LOG.warn("Cannot destroy the manager", e);
+    }
+  }
+
+
+  private void handle(final Socket socket)
+    throws IOException {
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), ENCODING));
+    final PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), ENCODING));
+    final String requestToken = reader.readLine();
+    if (requestToken == null
+      || !MessageDigest.isEqual(token.getBytes(ENCODING), requestToken.getBytes(ENCODING))) {
+      LOG.warn("Rejected a build request with an invalid token");
+      writer.println("Invalid token, see " + Wro4jDaemonClient.getTokenFile(port));
+      writer.println(FAILED);
+      writer.flush();
+      return;
+    }
+    final String workingFolder = reader.readLine();
+    final List<String> args = new ArrayList<String>();
+    String line = null;
+    while ((line = reader.readLine()) != null && line.length() > 0) {
+      args.add(line);
+    }
+    if (workingFolder == null) {
+      return;
+    }
+    LOG.info("Build request: {}", args);
+    try {
+      for (final String reportLine : build(new File(workingFolder), args.toArray(new String[args.size()]))) {
+        writer.println(reportLine);
+      }
+      writer.println(OK);
+    } catch (final Throwable e) {
+      LOG.error("Build failed", e);
+      writer.println("Build failed: " + e.getMessage());
+      writer.println(FAILED);
+    }
+    writer.flush();
+  }
+
+
+  /**
+   * Processes a build request, using the manager of a previous build with the same options, if any.
+   *
+   * @return the lines of the processing report.
+   */
+  private List<String> build(final File workingFolder, final String[] args)
+    throws Exception {
+    final Wro4jCommandLineRunner runner = new Wro4jCommandLineRunner(workingFolder) {
+      @Override
+      protected void onException(final Exception e) {
+        // the daemon must survive a failed build
+        throw e instanceof RuntimeException ? (RuntimeException) e : new WroRuntimeException(e.getMessage(), e);
+      }
+    };
+    runner.parseArguments(args);
+    final String key = runner.getManagerKey();
+    final StandaloneContextAwareManagerFactory managerFactory = managerFactories.get(key);
+    if (managerFactory != null) {
+      LOG.debug("Reusing the manager of a previous build");
+      runner.reuseManagerFactory(managerFactory);
+    } else {
+      // kept even if the build fails, thus it is destroyed when evicted
+      managerFactories.put(key, runner.getManagerFactory());
+    }
+    return runner.processGroups();
+  }
+}
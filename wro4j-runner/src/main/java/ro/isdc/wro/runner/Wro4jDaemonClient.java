@@ -0,0 +1,122 @@
+/**
+ * Copyright wro4j@2011
+ */
+package ro.isdc.wro.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+
+/**
+ * A thin client sending a build request to a runner started with the <code>--daemon</code> option. It accepts the same
+ * arguments as {@link Wro4jCommandLineRunner} (the relative paths are resolved against the current folder of the
+ * client), optionally preceded by <code>--daemonPort PORT</code>, prints the processing report and exits with a
+ * non-zero code if the build failed. The client must be run by the user running the daemon, since it sends the token
+ * found in the file written by the daemon (see {@link #getTokenFile(int)}).
+ *
+ * @author Alex Objelean
+ * @since 1.4.2
+ */
+public final class Wro4jDaemonClient {
+  /**
+   * The port used by default by the daemon and the client.
+   */
+  public static final int DEFAULT_PORT = 7777;
+  private static final String PORT_OPTION = "--daemonPort";
+
+
+  private Wro4jDaemonClient() {
+  }
+
+
+  /**
+   * @return the file holding the token of the daemon using the port, located in the home folder of the user.
+   */
+  static File getTokenFile(final int port) {
+    return new File(new File(System.getProperty("user.home"), ".wro4j"), "daemon-" + port + ".token");
+  }
+
+
+  public static void main(final String[] args)
+    throws Exception {
+    int port = DEFAULT_PORT;
+    String[] runnerArgs = args;
+    if (args.length >= 2 && PORT_OPTION.equals(args[0])) {
+      port = Integer.parseInt(args[1]);
+      runnerArgs = Arrays.copyOfRange(args, 2, args.length);
+    }
+    final boolean success = send(port, System.getProperty("user.dir"), runnerArgs, System.out);
+    System.exit(success ? 0 : 1);
+  }
+
+
+  /**
+   * Sends a build request to the daemon and prints the response.
+   *
+   * @param port
+   *          the local port of the daemon.
+   * @param workingFolder
+   *          used to resolve the relative paths of the arguments.
+   * @param args
+   *          the arguments of the runner.
+   * @param out
+   *          where the processing report is printed.
+   * @return true if the build succeeded.
+   */
+  static boolean send(final int port, final String workingFolder, final String[] args, final PrintStream out)
+    throws IOException {
+    return send(port, null, workingFolder, args, out);
+  }
+
+
+  /**
+   * Sends a build request to the daemon, authenticated with the provided token.
+   *
+   * @param token
+   *          sent to the daemon. If null, the token is read from the {@link #getTokenFile(int)}.
+   * @return true if the build succeeded.
+   */
+  static boolean send(final int port, final String token, final String workingFolder, final String[] args,
+    final PrintStream out)
+    throws IOException {
+    final Socket socket = new Socket(InetAddress.getByName(null), port);
+    try {
+      final PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), Wro4jDaemon.ENCODING));
+      // read once connected, thus the token of the running daemon is used
+      writer.println(token != null ? token : FileUtils.readFileToString(getTokenFile(port), Wro4jDaemon.ENCODING));
+      writer.println(workingFolder);
+      for (final String arg : args) {
+        writer.println(arg);
+      }
+      writer.println();
+      writer.flush();
+      final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+        Wro4jDaemon.ENCODING));
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        if (Wro4jDaemon.OK.equals(line)) {
+          return true;
+        }
+        if (Wro4jDaemon.FAILED.equals(line)) {
+          return false;
+        }
+        out.println(line);
+      }
+      out.println("The daemon closed the connection");
+      return false;
+    } finally {
+      IOUtils.closeQuietly(socket);
+    }
+  }
+}
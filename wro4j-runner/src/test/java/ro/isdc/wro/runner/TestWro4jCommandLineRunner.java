@@ -3,8 +3,15 @@
  */
 package ro.isdc.wro.runner;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import junit.framework.Assert;
 
@@ -16,6 +23,7 @@ import org.kohsuke.args4j.CmdLineException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.cache.PrebuiltCache;
 import ro.isdc.wro.extensions.processor.css.CssLintProcessor;
 import ro.isdc.wro.extensions.processor.js.JsHintProcessor;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
@@ -168,6 +176,224 @@ public class TestWro4jCommandLineRunner {
     invokeRunner(args);
   }
 
+  /**
+   * @return the content of each file created in the folder, mapped by file name.
+   */
+  private Map<String, String> readFolder(final File folder)
+    throws IOException {
+    final Map<String, String> files = new HashMap<String, String>();
+    for (final File file : folder.listFiles()) {
+      files.put(file.getName(), FileUtils.readFileToString(file));
+    }
+    return files;
+  }
+
+  @Test
+  public void shouldProduceSameOutputWhenProcessingInParallel()
+      throws Exception {
+    final String contextFolder = new File(getClass().getResource("").getFile()).getAbsolutePath();
+    final String wroFile = contextFolder + File.separator + "wro.xml";
+    final File parallelDestinationFolder = new File(FileUtils.getTempDirectory(), "wroTemp-parallel-"
+      + new Date().getTime());
+    try {
+      invokeRunner(String.format("-m --wroFile %s --contextFolder %s --destinationFolder %s", new Object[] {
+        wroFile, contextFolder, destinationFolder.getAbsolutePath()
+      }).split(" "));
+      invokeRunner(String.format("-m --wroFile %s --contextFolder %s --destinationFolder %s --parallel 4",
+        new Object[] {
+          wroFile, contextFolder, parallelDestinationFolder.getAbsolutePath()
+        }).split(" "));
+      final Map<String, String> sequentialOutput = readFolder(destinationFolder);
+      Assert.assertFalse(sequentialOutput.isEmpty());
+      Assert.assertEquals(sequentialOutput, readFolder(parallelDestinationFolder));
+    } finally {
+      FileUtils.deleteQuietly(parallelDestinationFolder);
+    }
+  }
+
+  @Test
+  public void shouldWriteGzippedSiblingsAndManifest()
+      throws Exception {
+    final String contextFolder = new File(getClass().getResource("").getFile()).getAbsolutePath();
+    final File manifestFile = new File(destinationFolder, "manifest.json");
+    invokeRunner(String.format("--wroFile %s --contextFolder %s --destinationFolder %s --gzip --exhaustiveGzip "
+      + "--manifestFile %s", new Object[] {
+        contextFolder + File.separator + "wro.xml", contextFolder, destinationFolder.getAbsolutePath(),
+        manifestFile.getAbsolutePath()
+      }).split(" "));
+    final File gzipFile = new File(destinationFolder, "all.js.gz");
+    Assert.assertTrue(gzipFile.isFile());
+    Assert.assertFalse(new File(destinationFolder, "oocss.js.gz").exists());
+    final String manifest = FileUtils.readFileToString(manifestFile);
+    Assert.assertTrue(manifest, manifest.contains("\"gzipFile\": \"all.js.gz\", \"gzipSize\": " + gzipFile.length()));
+    Assert.assertFalse(manifest, manifest.contains("oocss.js"));
+  }
+
+
+  @Test
+  public void shouldWritePerformanceReport()
+      throws Exception {
+    final String contextFolder = new File(getClass().getResource("").getFile()).getAbsolutePath();
+    final File reportFile = new File(destinationFolder, "report.json");
+    invokeRunner(String.format("--wroFile %s --contextFolder %s --destinationFolder %s -m -c %s --reportFile %s",
+      new Object[] {
+        contextFolder + File.separator + "wro.xml", contextFolder, destinationFolder.getAbsolutePath(),
+        JSMinProcessor.ALIAS, reportFile.getAbsolutePath()
+      }).split(" "));
+    final File output = new File(destinationFolder, "all.js");
+    final String report = FileUtils.readFileToString(reportFile);
+    Assert.assertTrue(report, report.contains("{\"name\": \"all.js\", \"duration\": "));
+    Assert.assertTrue(report, report.contains("\"size\": " + output.length() + ", \"gzipSize\": "));
+    Assert.assertTrue(report, report.contains("{\"uri\": \"/js/"));
+    Assert.assertTrue(report, report.contains("\"preProcessors\": {\"1:" + JSMinProcessor.class.getName() + "\": "));
+  }
+
+
+  @Test
+  public void shouldStoreProcessedGroupsInPrebuiltCache()
+      throws Exception {
+    final String contextFolder = new File(getClass().getResource("").getFile()).getAbsolutePath();
+    final File prebuiltCacheDirectory = new File(destinationFolder, "wro4j-cache");
+    invokeRunner(String.format("--wroFile %s --contextFolder %s --destinationFolder %s -m --prebuiltCacheDirectory %s",
+      new Object[] {
+        contextFolder + File.separator + "wro.xml", contextFolder, destinationFolder.getAbsolutePath(),
+        prebuiltCacheDirectory.getAbsolutePath()
+      }).split(" "));
+    final String index = FileUtils.readFileToString(new File(prebuiltCacheDirectory, PrebuiltCache.INDEX_FILE));
+    Assert.assertTrue(index, index.contains("all.js.minimized="));
+    Assert.assertTrue(index, index.contains("all.css.minimized="));
+    Assert.assertFalse(index, index.contains("oocss.js"));
+  }
+
+  @Test
+  public void shouldProcessOnlyAffectedGroupsInWatchMode()
+      throws Exception {
+    final File contextFolder = new File(FileUtils.getTempDirectory(), "wroTemp-watch-" + new Date().getTime());
+    FileUtils.copyDirectory(new File(getClass().getResource("").getFile()), contextFolder);
+    final File jsFile = new File(contextFolder, "js/file.js");
+    final File allJs = new File(destinationFolder, "all.js");
+    final File oocssCss = new File(destinationFolder, "oocss.css");
+    final String[] args = String.format(
+      "--wroFile %s --contextFolder %s --destinationFolder %s --watch --watchInterval 100", new Object[] {
+        new File(contextFolder, "wro.xml").getAbsolutePath(), contextFolder.getAbsolutePath(),
+        destinationFolder.getAbsolutePath()
+      }).split(" ");
+    final Thread watcher = new Thread() {
+      @Override
+      public void run() {
+        new Wro4jCommandLineRunner().doMain(args);
+      }
+    };
+    watcher.start();
+    try {
+      waitFor(allJs, null);
+      waitFor(oocssCss, null);
+      FileUtils.writeStringToFile(oocssCss, "tampered");
+      FileUtils.writeStringToFile(jsFile, FileUtils.readFileToString(jsFile) + "\nvar watchedChange = 1;");
+      jsFile.setLastModified(jsFile.lastModified() + 2000);
+      waitFor(allJs, "watchedChange");
+      // the oocss group does not contain the changed file, thus it is not processed again
+      Assert.assertEquals("tampered", FileUtils.readFileToString(oocssCss));
+    } finally {
+      watcher.interrupt();
+      watcher.join(5000);
+      FileUtils.deleteQuietly(contextFolder);
+    }
+  }
+
+  @Test
+  public void shouldProcessBuildRequestsInDaemonMode()
+      throws Exception {
+    final File contextFolder = new File(FileUtils.getTempDirectory(), "wroTemp-daemon-" + new Date().getTime());
+    FileUtils.copyDirectory(new File(getClass().getResource("").getFile()), contextFolder);
+    final File jsFile = new File(contextFolder, "js/file.js");
+    final int port = findFreePort();
+    final Thread daemon = new Thread() {
+      @Override
+      public void run() {
+        new Wro4jCommandLineRunner().doMain(new String[] {
+          "--daemon", "--daemonPort", String.valueOf(port)
+        });
+      }
+    };
+    daemon.start();
+    try {
+      // relative paths are resolved against the working folder of the client
+      final String[] args = String.format("--wroFile wro.xml --contextFolder . --destinationFolder %s",
+        new Object[] {
+          destinationFolder.getAbsolutePath()
+        }).split(" ");
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Assert.assertTrue(sendWhenAvailable(port, contextFolder, args, new PrintStream(out)));
+      Assert.assertTrue(out.toString().contains("all.js"));
+      Assert.assertTrue(new File(destinationFolder, "all.js").isFile());
+
+      // the next build uses the same manager, but processes the changed resources
+      FileUtils.writeStringToFile(jsFile, FileUtils.readFileToString(jsFile) + "\nvar daemonChange = 1;");
+      Assert.assertTrue(Wro4jDaemonClient.send(port, contextFolder.getAbsolutePath(), args, new PrintStream(
+        new ByteArrayOutputStream())));
+      Assert.assertTrue(FileUtils.readFileToString(new File(destinationFolder, "all.js")).contains("daemonChange"));
+
+      // a failed build is reported, the daemon keeps running
+      Assert.assertFalse(Wro4jDaemonClient.send(port, contextFolder.getAbsolutePath(), new String[] {
+        "--unknownOption"
+      }, new PrintStream(new ByteArrayOutputStream())));
+      Assert.assertTrue(daemon.isAlive());
+
+      // a request without the token of the daemon is rejected
+      final ByteArrayOutputStream rejected = new ByteArrayOutputStream();
+      Assert.assertFalse(Wro4jDaemonClient.send(port, "invalid", contextFolder.getAbsolutePath(), args,
+        new PrintStream(rejected)));
+      Assert.assertTrue(rejected.toString().contains("Invalid token"));
+      Assert.assertTrue(daemon.isAlive());
+    } finally {
+      daemon.interrupt();
+      daemon.join(5000);
+      FileUtils.deleteQuietly(contextFolder);
+    }
+    // the token is removed when the daemon stops
+    Assert.assertFalse(Wro4jDaemonClient.getTokenFile(port).exists());
+  }
+
+  private int findFreePort()
+      throws IOException {
+    final ServerSocket socket = new ServerSocket(0);
+    try {
+      return socket.getLocalPort();
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Sends the build request, retrying until the daemon accepts connections.
+   */
+  private boolean sendWhenAvailable(final int port, final File workingFolder, final String[] args,
+      final PrintStream out)
+      throws Exception {
+    final long timeout = System.currentTimeMillis() + 30000;
+    while (true) {
+      try {
+        return Wro4jDaemonClient.send(port, workingFolder.getAbsolutePath(), args, out);
+      } catch (final ConnectException e) {
+        Assert.assertTrue("Timeout waiting for the daemon", System.currentTimeMillis() < timeout);
+        Thread.sleep(50);
+      }
+    }
+  }
+
+  /**
+   * Waits until the file exists and contains the expected text (if not null).
+   */
+  private void waitFor(final File file, final String expectedText)
+      throws Exception {
+    final long timeout = System.currentTimeMillis() + 30000;
+    while (!file.isFile() || (expectedText != null && !FileUtils.readFileToString(file).contains(expectedText))) {
+      Assert.assertTrue("Timeout waiting for " + file, System.currentTimeMillis() < timeout);
+      Thread.sleep(50);
+    }
+  }
+
   @Test
   public void shouldAcceptGroovyDSLUsingSmartModelFactory() {
     final File contextFolderFile = new File(getClass().getResource("").getFile(), "dsl");